@@ -17,14 +17,15 @@ package org.jfrog.build.api;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
-import org.apache.commons.lang.StringUtils;
 import org.jfrog.build.api.dependency.BuildDependency;
 import org.jfrog.build.api.release.PromotionStatus;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import static org.jfrog.build.api.BuildBean.ROOT;
@@ -555,7 +556,11 @@ public class Build extends BaseBuildBean {
             if (this.getModules() == null) {
                 this.setModules(modules);
             } else {
-                modules.forEach(this::addModule);
+                // Index the modules by their IDs for this merge only, since the modules list may be modified through
+                // getModules() between merges.
+                Map<String, Module> modulesById = new HashMap<>(this.modules.size() * 2);
+                this.modules.forEach(module -> modulesById.putIfAbsent(module.getId(), module));
+                modules.forEach(module -> addModule(modulesById, module));
             }
         }
     }
@@ -571,16 +576,13 @@ public class Build extends BaseBuildBean {
         }
     }
 
-    private void addModule(Module other) {
-        List<Module> modules = getModules();
-        Module currentModule = modules.stream()
-                // Check if there's already a module with the same name.
-                .filter(module -> StringUtils.equals(module.getId(), other.getId()))
-                .findAny()
-                .orElse(null);
+    private void addModule(Map<String, Module> modulesById, Module other) {
+        // Check if there's already a module with the same name.
+        Module currentModule = modulesById.get(other.getId());
         if (currentModule == null) {
             // Append new module.
             modules.add(other);
+            modulesById.put(other.getId(), other);
         } else {
             // Append the other module into the existing module with the same name.
             currentModule.append(other);
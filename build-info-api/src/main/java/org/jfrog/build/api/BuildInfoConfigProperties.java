@@ -28,6 +28,11 @@ public interface BuildInfoConfigProperties {
     String PROP_PROPS_FILE = BUILD_INFO_CONFIG_PREFIX + PROPERTIES_FILE;
     String EXPORT_FILE = "exportFile";
     String PROP_EXPORT_FILE_PATH = BUILD_INFO_CONFIG_PREFIX + EXPORT_FILE;
+    /**
+     * Path of a JSON file to write the metrics collected during the build to. Metrics are not collected if not set.
+     */
+    String METRICS_FILE = "metricsFile";
+    String PROP_METRICS_FILE = BUILD_INFO_CONFIG_PREFIX + METRICS_FILE;
 
     String ACTIVATE_RECORDER = "org.jfrog.build.extractor.maven.recorder.activate";
 
@@ -0,0 +1,96 @@
+package org.jfrog.build.api.metrics;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Holds the metrics used by the build-info client operations.
+ * By default, the metrics are {@link NoOpMetrics}, unless a {@link Metrics} implementation is registered as a service in
+ * 'META-INF/services/org.jfrog.build.api.metrics.Metrics'. The metrics can be replaced at any time using {@link #set(Metrics)}.
+ * <p>
+ * Additional metrics, such as the registry of a {@link JsonMetricsReporter}, can be registered for the duration of a build
+ * using {@link #register(Metrics)}. The client operations have no notion of the build they run for, so the metrics are
+ * global to the JVM: each registered metrics records the operations of all the builds running in the JVM at the same time.
+ */
+public final class BuildMetrics {
+
+    private static final List<Metrics> registered = new ArrayList<>();
+    private static Metrics configured = loadMetrics();
+    private static volatile Metrics metrics = configured;
+
+    private BuildMetrics() {
+    }
+
+    private static Metrics loadMetrics() {
+        try {
+            Iterator<Metrics> providers = ServiceLoader.load(Metrics.class, BuildMetrics.class.getClassLoader()).iterator();
+            if (providers.hasNext()) {
+                return providers.next();
+            }
+        } catch (Throwable e) {
+            // Metrics must never fail the build
+        }
+        return NoOpMetrics.INSTANCE;
+    }
+
+    public static Metrics get() {
+        return metrics;
+    }
+
+    /**
+     * Replace the configured metrics. Registered metrics are not affected.
+     *
+     * @param newMetrics - The new metrics, or null to disable the configured metrics
+     * @return the previous configured metrics
+     */
+    public static synchronized Metrics set(Metrics newMetrics) {
+        Metrics previous = configured;
+        configured = newMetrics == null ? NoOpMetrics.INSTANCE : newMetrics;
+        update();
+        return previous;
+    }
+
+    /**
+     * Record all values in the given metrics too, until it is unregistered.
+     * Metrics may be registered and unregistered in any order.
+     *
+     * @param newMetrics - The metrics to register
+     */
+    public static synchronized void register(Metrics newMetrics) {
+        registered.add(newMetrics);
+        update();
+    }
+
+    /**
+     * Stop recording values in the given metrics.
+     *
+     * @param oldMetrics - The registered metrics
+     */
+    public static synchronized void unregister(Metrics oldMetrics) {
+        registered.remove(oldMetrics);
+        update();
+    }
+
+    /**
+     * @return true if the metrics are collected. Can be used to avoid calculating values which are expensive to get.
+     */
+    public static boolean isEnabled() {
+        return metrics != NoOpMetrics.INSTANCE;
+    }
+
+    private static void update() {
+        List<Metrics> active = new ArrayList<>(registered);
+        if (configured != NoOpMetrics.INSTANCE) {
+            active.add(0, configured);
+        }
+        if (active.isEmpty()) {
+            metrics = NoOpMetrics.INSTANCE;
+        } else if (active.size() == 1) {
+            metrics = active.get(0);
+        } else {
+            metrics = new CompositeMetrics(active);
+        }
+    }
+}
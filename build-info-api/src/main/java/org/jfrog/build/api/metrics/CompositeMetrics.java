@@ -0,0 +1,64 @@
+package org.jfrog.build.api.metrics;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every value in all the given metrics.
+ */
+class CompositeMetrics implements Metrics {
+
+    private final Metrics[] metrics;
+
+    CompositeMetrics(List<Metrics> metrics) {
+        this.metrics = metrics.toArray(new Metrics[0]);
+    }
+
+    @Override
+    public Counter counter(String name) {
+        Counter[] counters = new Counter[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            counters[i] = metrics[i].counter(name);
+        }
+        return amount -> {
+            for (Counter counter : counters) {
+                counter.increment(amount);
+            }
+        };
+    }
+
+    @Override
+    public Timer timer(String name) {
+        Timer[] timers = new Timer[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            timers[i] = metrics[i].timer(name);
+        }
+        return new Timer() {
+            @Override
+            public void update(long duration, TimeUnit unit) {
+                for (Timer timer : timers) {
+                    timer.update(duration, unit);
+                }
+            }
+
+            @Override
+            public Context time() {
+                long start = System.nanoTime();
+                return () -> update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    @Override
+    public Histogram histogram(String name) {
+        Histogram[] histograms = new Histogram[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            histograms[i] = metrics[i].histogram(name);
+        }
+        return value -> {
+            for (Histogram histogram : histograms) {
+                histogram.update(value);
+            }
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package org.jfrog.build.api.metrics;
+
+/**
+ * A monotonically increasing count, for example the number of HTTP requests or the number of bytes uploaded.
+ */
+public interface Counter {
+
+    void increment(long amount);
+
+    default void increment() {
+        increment(1);
+    }
+}
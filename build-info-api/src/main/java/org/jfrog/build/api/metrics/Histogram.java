@@ -0,0 +1,9 @@
+package org.jfrog.build.api.metrics;
+
+/**
+ * The distribution of a value, for example the depth of a queue at the time an item is added.
+ */
+public interface Histogram {
+
+    void update(long value);
+}
@@ -0,0 +1,172 @@
+package org.jfrog.build.api.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.jfrog.build.api.util.Log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Collects the metrics of a build and writes their summary to a JSON file at the end of the build.
+ * While the reporter is open, its registry is registered in {@link BuildMetrics}. Closing the reporter unregisters it and
+ * writes the summary.
+ * <p>
+ * The metrics aren't isolated by build: a reporter records the client operations of all the builds running in the JVM
+ * while it is open, for example the parallel builds of a Gradle daemon. In that case, the summary is marked as
+ * {@link Report#isShared() shared}.
+ * Usage:
+ * <pre>
+ * try (JsonMetricsReporter ignored = new JsonMetricsReporter(summaryFile)) {
+ *     // Run the build
+ * }
+ * </pre>
+ */
+public class JsonMetricsReporter implements Closeable {
+
+    // The reporters which are currently open in the JVM
+    private static final Set<JsonMetricsReporter> openReporters = new HashSet<>();
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final File summaryFile;
+    private final long startTime;
+    private boolean shared;
+    private boolean closed;
+
+    /**
+     * @param summaryFile - The JSON file to write the metrics summary to
+     */
+    public JsonMetricsReporter(File summaryFile) {
+        this.summaryFile = summaryFile;
+        this.startTime = System.currentTimeMillis();
+        synchronized (openReporters) {
+            if (!openReporters.isEmpty()) {
+                shared = true;
+                openReporters.forEach(reporter -> reporter.shared = true);
+            }
+            openReporters.add(this);
+        }
+        BuildMetrics.register(registry);
+    }
+
+    /**
+     * Start collecting the metrics if a summary file is configured.
+     *
+     * @param summaryFilePath - The configured path of the JSON summary file, may be empty
+     * @return the reporter, or null if no summary file is configured
+     */
+    public static JsonMetricsReporter startIfConfigured(String summaryFilePath) {
+        if (summaryFilePath == null || summaryFilePath.trim().isEmpty()) {
+            return null;
+        }
+        return new JsonMetricsReporter(new File(summaryFilePath));
+    }
+
+    /**
+     * Close the reporter, logging a failure to write the summary file instead of failing the build.
+     *
+     * @param reporter - The reporter to close, may be null
+     * @param log      - The logger
+     */
+    public static void closeQuietly(JsonMetricsReporter reporter, Log log) {
+        if (reporter == null) {
+            return;
+        }
+        try {
+            reporter.close();
+            log.debug("Metrics summary was written to " + reporter.summaryFile.getAbsolutePath());
+        } catch (IOException e) {
+            log.warn("Failed writing the metrics summary to " + reporter.summaryFile.getAbsolutePath() + ": " + e.getMessage());
+        }
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * @return true if other reporters were open in the JVM at the same time as this reporter
+     */
+    public boolean isShared() {
+        synchronized (openReporters) {
+            return shared;
+        }
+    }
+
+    /**
+     * Unregister the registry and write the summary file.
+     *
+     * @throws IOException in case of an error writing the summary file
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        BuildMetrics.unregister(registry);
+        synchronized (openReporters) {
+            openReporters.remove(this);
+        }
+        MetricsSummary summary = registry.getSummary();
+        Report report = new Report(startTime, System.currentTimeMillis() - startTime, isShared(), summary);
+        File parent = summaryFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Couldn't create the directory of the metrics summary file " + summaryFile);
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(summaryFile, report);
+    }
+
+    /**
+     * The content of the summary file.
+     */
+    public static class Report extends MetricsSummary {
+
+        private static final long serialVersionUID = 1L;
+
+        private long startTime;
+        private long durationMillis;
+        private boolean shared;
+
+        public Report() {
+        }
+
+        Report(long startTime, long durationMillis, boolean shared, MetricsSummary summary) {
+            super(summary.getCounters(), summary.getTimers(), summary.getHistograms());
+            this.startTime = startTime;
+            this.durationMillis = durationMillis;
+            this.shared = shared;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public void setStartTime(long startTime) {
+            this.startTime = startTime;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public void setDurationMillis(long durationMillis) {
+            this.durationMillis = durationMillis;
+        }
+
+        /**
+         * @return true if other builds reported metrics in the same JVM at the same time, so that the metrics include
+         * their client operations too
+         */
+        public boolean isShared() {
+            return shared;
+        }
+
+        public void setShared(boolean shared) {
+            this.shared = shared;
+        }
+    }
+}
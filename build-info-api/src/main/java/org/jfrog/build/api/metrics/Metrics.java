@@ -0,0 +1,28 @@
+package org.jfrog.build.api.metrics;
+
+/**
+ * Service provider interface for collecting metrics of the build-info client operations, such as HTTP requests, uploads,
+ * downloads and checksum calculations.
+ * Implementations must be thread safe. Metrics are identified by their names, and the same metric is returned for the same
+ * name. The metrics used by the client operations are accessed by {@link BuildMetrics#get()}.
+ */
+public interface Metrics {
+
+    /**
+     * @param name - The metric name, for example 'http.requests'
+     * @return the counter with the given name
+     */
+    Counter counter(String name);
+
+    /**
+     * @param name - The metric name, for example 'http.request.time'
+     * @return the timer with the given name
+     */
+    Timer timer(String name);
+
+    /**
+     * @param name - The metric name, for example 'producerConsumer.queue.depth'
+     * @return the histogram with the given name
+     */
+    Histogram histogram(String name);
+}
@@ -0,0 +1,141 @@
+package org.jfrog.build.api.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory metrics. Values are recorded without locks, and the percentiles of histograms and timers are estimated from
+ * log-linear buckets, with a relative error of up to 12.5%.
+ */
+public class MetricsRegistry implements Metrics {
+
+    private final ConcurrentMap<String, DefaultCounter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DefaultTimer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DefaultHistogram> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new DefaultCounter());
+    }
+
+    @Override
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, key -> new DefaultTimer());
+    }
+
+    @Override
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new DefaultHistogram());
+    }
+
+    /**
+     * @return a snapshot of all metrics recorded so far. Timers durations are in milliseconds.
+     */
+    public MetricsSummary getSummary() {
+        Map<String, Long> countersSummary = new TreeMap<>();
+        counters.forEach((name, counter) -> countersSummary.put(name, counter.count.sum()));
+        Map<String, MetricsSummary.Statistics> timersSummary = new TreeMap<>();
+        timers.forEach((name, timer) -> timersSummary.put(name, timer.nanos.getStatistics(1.0 / TimeUnit.MILLISECONDS.toNanos(1))));
+        Map<String, MetricsSummary.Statistics> histogramsSummary = new TreeMap<>();
+        histograms.forEach((name, histogram) -> histogramsSummary.put(name, histogram.getStatistics(1)));
+        return new MetricsSummary(countersSummary, timersSummary, histogramsSummary);
+    }
+
+    private static class DefaultCounter implements Counter {
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void increment(long amount) {
+            count.add(amount);
+        }
+    }
+
+    private static class DefaultTimer implements Timer {
+        private final DefaultHistogram nanos = new DefaultHistogram();
+
+        @Override
+        public void update(long duration, TimeUnit unit) {
+            nanos.update(unit.toNanos(duration));
+        }
+
+        @Override
+        public Context time() {
+            long start = System.nanoTime();
+            return () -> nanos.update(System.nanoTime() - start);
+        }
+    }
+
+    static class DefaultHistogram implements Histogram {
+        // Each power of 2 is divided to 8 linear sub buckets. Values below 8 have a bucket per value.
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        @Override
+        public void update(long value) {
+            value = Math.max(value, 0);
+            count.increment();
+            sum.add(value);
+            min.accumulate(value);
+            max.accumulate(value);
+            buckets.incrementAndGet(getBucketIndex(value));
+        }
+
+        static int getBucketIndex(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        static long getBucketUpperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            long subBucketSize = 1L << (exponent - SUB_BUCKET_BITS);
+            return (1L << exponent) + (index % SUB_BUCKETS) * subBucketSize + subBucketSize - 1;
+        }
+
+        /**
+         * @param scale - Factor to multiply the values by
+         * @return the statistics of the recorded values
+         */
+        MetricsSummary.Statistics getStatistics(double scale) {
+            long count = this.count.sum();
+            if (count == 0) {
+                return new MetricsSummary.Statistics(0, 0, 0, 0, 0, 0, 0, 0);
+            }
+            long max = this.max.get();
+            return new MetricsSummary.Statistics(count, sum.sum() * scale, min.get() * scale, max * scale,
+                    sum.sum() * scale / count, getPercentile(0.5, count, max) * scale, getPercentile(0.9, count, max) * scale,
+                    getPercentile(0.99, count, max) * scale);
+        }
+
+        private long getPercentile(double percentile, long count, long max) {
+            long rank = (long) Math.ceil(percentile * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(getBucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.jfrog.build.api.metrics;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * A snapshot of the metrics recorded by {@link MetricsRegistry}, as written by {@link JsonMetricsReporter}.
+ */
+public class MetricsSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Map<String, Long> counters;
+    private Map<String, Statistics> timers;
+    private Map<String, Statistics> histograms;
+
+    public MetricsSummary() {
+    }
+
+    public MetricsSummary(Map<String, Long> counters, Map<String, Statistics> timers, Map<String, Statistics> histograms) {
+        this.counters = counters;
+        this.timers = timers;
+        this.histograms = histograms;
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public void setCounters(Map<String, Long> counters) {
+        this.counters = counters;
+    }
+
+    /**
+     * @return the timers statistics, in milliseconds
+     */
+    public Map<String, Statistics> getTimers() {
+        return timers;
+    }
+
+    public void setTimers(Map<String, Statistics> timers) {
+        this.timers = timers;
+    }
+
+    public Map<String, Statistics> getHistograms() {
+        return histograms;
+    }
+
+    public void setHistograms(Map<String, Statistics> histograms) {
+        this.histograms = histograms;
+    }
+
+    /**
+     * Statistics of the values recorded by a timer or a histogram.
+     */
+    public static class Statistics implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long count;
+        private double sum;
+        private double min;
+        private double max;
+        private double mean;
+        private double p50;
+        private double p90;
+        private double p99;
+
+        public Statistics() {
+        }
+
+        public Statistics(long count, double sum, double min, double max, double mean, double p50, double p90, double p99) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        public void setSum(double sum) {
+            this.sum = sum;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public void setMin(double min) {
+            this.min = min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public void setMax(double max) {
+            this.max = max;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public void setMean(double mean) {
+            this.mean = mean;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public void setP50(double p50) {
+            this.p50 = p50;
+        }
+
+        public double getP90() {
+            return p90;
+        }
+
+        public void setP90(double p90) {
+            this.p90 = p90;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        public void setP99(double p99) {
+            this.p99 = p99;
+        }
+    }
+}
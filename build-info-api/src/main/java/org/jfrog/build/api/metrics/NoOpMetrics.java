@@ -0,0 +1,45 @@
+package org.jfrog.build.api.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The default metrics, which ignores all values. No objects are created while recording.
+ */
+public final class NoOpMetrics implements Metrics {
+    public static final NoOpMetrics INSTANCE = new NoOpMetrics();
+
+    private static final Timer.Context NO_OP_CONTEXT = () -> {
+    };
+    private static final Counter NO_OP_COUNTER = amount -> {
+    };
+    private static final Histogram NO_OP_HISTOGRAM = value -> {
+    };
+    private static final Timer NO_OP_TIMER = new Timer() {
+        @Override
+        public void update(long duration, TimeUnit unit) {
+        }
+
+        @Override
+        public Context time() {
+            return NO_OP_CONTEXT;
+        }
+    };
+
+    private NoOpMetrics() {
+    }
+
+    @Override
+    public Counter counter(String name) {
+        return NO_OP_COUNTER;
+    }
+
+    @Override
+    public Timer timer(String name) {
+        return NO_OP_TIMER;
+    }
+
+    @Override
+    public Histogram histogram(String name) {
+        return NO_OP_HISTOGRAM;
+    }
+}
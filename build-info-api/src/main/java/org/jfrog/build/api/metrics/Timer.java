@@ -0,0 +1,32 @@
+package org.jfrog.build.api.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The distribution of durations of an operation, for example the latency of HTTP requests.
+ * Usage:
+ * <pre>
+ * try (Timer.Context ignored = BuildMetrics.get().timer("deploy.time").time()) {
+ *     ...
+ * }
+ * </pre>
+ */
+public interface Timer {
+
+    void update(long duration, TimeUnit unit);
+
+    /**
+     * Start timing an operation. The duration is recorded when the returned context is closed.
+     *
+     * @return the timing context
+     */
+    Context time();
+
+    /**
+     * A running operation of a timer.
+     */
+    interface Context extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
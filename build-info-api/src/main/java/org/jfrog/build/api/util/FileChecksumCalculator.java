@@ -16,9 +16,14 @@
 
 package org.jfrog.build.api.util;
 
+import org.jfrog.build.api.metrics.BuildMetrics;
+import org.jfrog.build.api.metrics.Metrics;
+import org.jfrog.build.api.metrics.Timer;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
@@ -32,6 +37,8 @@ import java.util.Map;
 public abstract class FileChecksumCalculator {
 
     private static final int BUFFER_SIZE = 32768;
+    private static final String CHECKSUM_TIME_METRIC = "checksum.time";
+    private static final String CHECKSUM_BYTES_METRIC = "checksum.bytes";
 
     /**
      * Calculates the given file's checksums
@@ -71,6 +78,30 @@ public abstract class FileChecksumCalculator {
         return calculate(fileToCalculate, algorithms);
     }
 
+    /**
+     * Calculates the checksums of the given stream content. The stream is read until its end, but not closed.
+     *
+     * @param inputStream Stream to calculate
+     * @param algorithms  Algorithms to use for calculation
+     * @return Map with algorithm keys and checksum values
+     * @throws NoSuchAlgorithmException Thrown if any of the given algorithms aren't supported
+     * @throws IOException              Thrown if any error occurs while reading the stream
+     * @throws IllegalArgumentException Thrown if the given stream or the algorithms var args is null
+     */
+    public static Map<String, String> calculateStreamChecksums(InputStream inputStream, String... algorithms)
+            throws NoSuchAlgorithmException, IOException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Cannot read checksums of null stream.");
+        }
+        if (algorithms == null) {
+            throw new IllegalArgumentException("Checksum algorithms cannot be null.");
+        }
+        if (algorithms.length == 0) {
+            return new HashMap<>();
+        }
+        return calculate(inputStream, algorithms);
+    }
+
     /**
      * Calculates the given file's checksums
      *
@@ -84,6 +115,13 @@ public abstract class FileChecksumCalculator {
      */
     private static Map<String, String> calculate(File fileToCalculate, String... algorithms)
             throws NoSuchAlgorithmException, IOException {
+        try (FileInputStream inputStream = new FileInputStream(fileToCalculate)) {
+            return calculate(inputStream, algorithms);
+        }
+    }
+
+    private static Map<String, String> calculate(InputStream inputStream, String... algorithms)
+            throws NoSuchAlgorithmException, IOException {
         Map<String, MessageDigest> digestMap = new HashMap<>();
         Map<String, String> checksumMap = new HashMap<>();
 
@@ -91,22 +129,20 @@ public abstract class FileChecksumCalculator {
             digestMap.put(algorithm, MessageDigest.getInstance(algorithm));
         }
 
-        FileInputStream inputStream = new FileInputStream(fileToCalculate);
-
-        byte[] buffer = new byte[BUFFER_SIZE];
-        try {
+        Metrics metrics = BuildMetrics.get();
+        long totalSize = 0;
+        try (Timer.Context ignored = metrics.timer(CHECKSUM_TIME_METRIC).time()) {
+            byte[] buffer = new byte[BUFFER_SIZE];
             int size = inputStream.read(buffer, 0, BUFFER_SIZE);
-
             while (size >= 0) {
                 for (String algorithm : algorithms) {
                     digestMap.get(algorithm).update(buffer, 0, size);
                 }
+                totalSize += size;
                 size = inputStream.read(buffer, 0, BUFFER_SIZE);
             }
         } finally {
-            if (inputStream != null) {
-                inputStream.close();
-            }
+            metrics.counter(CHECKSUM_BYTES_METRIC).increment(totalSize);
         }
 
         for (String algorithm : algorithms) {
@@ -16,6 +16,8 @@
 
 package org.jfrog.build.api;
 
+import org.jfrog.build.api.builder.ArtifactBuilder;
+import org.jfrog.build.api.builder.ModuleBuilder;
 import org.jfrog.build.api.builder.PromotionStatusBuilder;
 import org.jfrog.build.api.builder.dependency.BuildDependencyBuilder;
 import org.jfrog.build.api.dependency.BuildDependency;
@@ -178,4 +180,58 @@ public class BuildTest {
         assertEquals(build.getBuildDependencies().size(), 2, "Second BuildDependency object should have been added.");
         assertEquals(CommonUtils.getLast(build.getBuildDependencies()), otherBuildDependency, "Unexpected build dependency object.");
     }
-}
\ No newline at end of file
+
+    public void testAppendModules() {
+        Build build = new Build();
+        for (int i = 0; i < 10; i++) {
+            Build partialBuild = new Build();
+            List<Module> modules = new ArrayList<>();
+            for (int j = 0; j < 100; j++) {
+                modules.add(new ModuleBuilder().id("module-" + j)
+                        .addArtifact(new ArtifactBuilder("artifact-" + i).build())
+                        .build());
+            }
+            partialBuild.setModules(modules);
+            build.append(partialBuild);
+        }
+
+        assertEquals(build.getModules().size(), 100, "Modules with the same ID should have been merged.");
+        for (int j = 0; j < 100; j++) {
+            Module module = build.getModule("module-" + j);
+            assertSame(module, build.getModules().get(j), "Unexpected module order.");
+            assertEquals(module.getArtifacts().size(), 10, "Unexpected number of merged artifacts.");
+        }
+        assertNull(build.getModule("module-100"));
+        assertNull(build.getModule(null));
+    }
+
+    public void testGetModuleAfterModulesModified() {
+        Build build = new Build();
+        build.setModules(new ArrayList<>(Collections.singletonList(new ModuleBuilder().id("a").build())));
+        assertNotNull(build.getModule("a"));
+
+        // Modify the modules list directly
+        build.getModules().add(new ModuleBuilder().id("b").build());
+        assertNotNull(build.getModule("b"), "Module added to the modules list should be found.");
+
+        // Modify a module ID
+        build.getModule("b").setId("c");
+        assertNull(build.getModule("b"));
+        assertNotNull(build.getModule("c"), "Module with a modified ID should be found.");
+
+        // Replace the modules list
+        build.setModules(new ArrayList<>(Collections.singletonList(new ModuleBuilder().id("d").build())));
+        assertNull(build.getModule("a"));
+        assertNotNull(build.getModule("d"), "Module from the new modules list should be found.");
+
+        // Replace a module without changing the size of the modules list
+        Module replacement = new ModuleBuilder().id("d").build();
+        build.getModules().set(0, replacement);
+        assertSame(build.getModule("d"), replacement, "The replacing module should be found.");
+        Build other = new Build();
+        other.setModules(Collections.singletonList(new ModuleBuilder().id("d").addArtifact(new ArtifactBuilder("a").build()).build()));
+        build.append(other);
+        assertEquals(build.getModules().size(), 1);
+        assertEquals(replacement.getArtifacts().size(), 1, "The appended module should have been merged into the replacing module.");
+    }
+}
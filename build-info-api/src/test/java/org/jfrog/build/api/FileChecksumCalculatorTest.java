@@ -98,6 +98,21 @@ public class FileChecksumCalculatorTest {
         assertEquals(checksumsMap.get("sha1"), sha1, "Unexpected test file SHA1 checksum value.");
     }
 
+    /**
+     * Tests that calculating the checksums of a stream gives the same result as calculating the checksums of a file
+     */
+    public void testValidStream() throws IOException, NoSuchAlgorithmException {
+        File tempFile = File.createTempFile("moo", "test");
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(tempFile))) {
+            out.write("This is a test stream");
+        }
+        Map<String, String> checksumsMap;
+        try (InputStream inputStream = new FileInputStream(tempFile)) {
+            checksumsMap = FileChecksumCalculator.calculateStreamChecksums(inputStream, "md5", "sha1");
+        }
+        assertEquals(checksumsMap, FileChecksumCalculator.calculateChecksums(tempFile, "md5", "sha1"));
+    }
+
     /**
      * Returns the checksum of the given file
      *
@@ -16,9 +16,13 @@
 
 package org.jfrog.build.api;
 
+import org.jfrog.build.api.builder.ArtifactBuilder;
+import org.jfrog.build.api.builder.DependencyBuilder;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.testng.Assert.*;
@@ -77,4 +81,65 @@ public class ModuleTest {
         assertEquals(module.getDependencies(), dependencies, "Unexpected module dependencies.");
         assertTrue(module.getDependencies().isEmpty(), "Module dependencies list should not have been populated.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Validates that appending modules keeps the distinct artifacts and dependencies in their original order
+     */
+    public void testAppend() {
+        Artifact a = new ArtifactBuilder("a").build();
+        Artifact b = new ArtifactBuilder("b").build();
+        Artifact c = new ArtifactBuilder("c").build();
+        Dependency d = new DependencyBuilder().id("d").build();
+        List<Artifact> originalArtifacts = new ArrayList<>(Arrays.asList(a, b, a));
+
+        Module module = new Module();
+        module.setArtifacts(originalArtifacts);
+        Module other = new Module();
+        other.setArtifacts(Arrays.asList(c, b));
+        other.setDependencies(Collections.singletonList(d));
+        other.setType("maven");
+        module.append(other);
+
+        assertEquals(module.getArtifacts(), Arrays.asList(a, b, c), "Unexpected merged artifacts.");
+        assertEquals(module.getDependencies(), Collections.singletonList(d), "Unexpected merged dependencies.");
+        assertNull(module.getExcludedArtifacts(), "Excluded artifacts should have not been initialized.");
+        assertEquals(module.getType(), "maven", "Unexpected module type.");
+        assertEquals(originalArtifacts, Arrays.asList(a, b, a), "The original artifacts list should not be modified.");
+
+        // Append again, after modifying the merged list
+        module.getArtifacts().remove(c);
+        other.setArtifacts(Arrays.asList(c, new ArtifactBuilder("e").build()));
+        module.append(other);
+        assertEquals(module.getArtifacts().size(), 4, "Unexpected number of merged artifacts.");
+        assertEquals(module.getArtifacts().subList(0, 3), Arrays.asList(a, b, c), "Unexpected merged artifacts.");
+        assertEquals(module.getDependencies(), Collections.singletonList(d), "Unexpected merged dependencies.");
+    }
+
+    /**
+     * Validates that appending takes into account modifications of the merged lists which don't change their size
+     */
+    public void testAppendAfterSameSizeModification() {
+        Artifact a = new ArtifactBuilder("a").build();
+        Artifact b = new ArtifactBuilder("b").build();
+        Artifact c = new ArtifactBuilder("c").build();
+        Artifact e = new ArtifactBuilder("e").build();
+        Module module = new Module();
+        module.setArtifacts(Arrays.asList(a, b));
+        Module other = new Module();
+        other.setArtifacts(Collections.singletonList(c));
+        module.append(other);
+        assertEquals(module.getArtifacts(), Arrays.asList(a, b, c), "Unexpected merged artifacts.");
+
+        // Remove c and add e, and then append c again
+        module.getArtifacts().remove(c);
+        module.getArtifacts().add(e);
+        module.append(other);
+        assertEquals(module.getArtifacts(), Arrays.asList(a, b, e, c), "Unexpected merged artifacts.");
+
+        // Modify a merged artifact, and append an artifact equal to it
+        e.setName("f");
+        other.setArtifacts(Collections.singletonList(new ArtifactBuilder("f").build()));
+        module.append(other);
+        assertEquals(module.getArtifacts(), Arrays.asList(a, b, e, c), "Unexpected merged artifacts.");
+    }
+}
@@ -0,0 +1,203 @@
+package org.jfrog.build.api.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.*;
+
+@Test
+public class MetricsRegistryTest {
+
+    public void testBuckets() {
+        // Every value falls in the bucket which its upper bound is the smallest one which isn't less than the value
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 17, 100, 1000, 123456789, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = MetricsRegistry.DefaultHistogram.getBucketIndex(value);
+            assertTrue(MetricsRegistry.DefaultHistogram.getBucketUpperBound(index) >= value, "value " + value);
+            if (index > 0) {
+                assertTrue(MetricsRegistry.DefaultHistogram.getBucketUpperBound(index - 1) < value, "value " + value);
+            }
+        }
+        assertEquals(MetricsRegistry.DefaultHistogram.getBucketUpperBound(MetricsRegistry.DefaultHistogram.getBucketIndex(Long.MAX_VALUE)), Long.MAX_VALUE);
+    }
+
+    public void testHistogramStatistics() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Histogram histogram = registry.histogram("histogram");
+        for (int i = 1; i <= 1000; i++) {
+            histogram.update(i);
+        }
+        MetricsSummary.Statistics statistics = registry.getSummary().getHistograms().get("histogram");
+        assertEquals(statistics.getCount(), 1000);
+        assertEquals(statistics.getSum(), 500500.0);
+        assertEquals(statistics.getMin(), 1.0);
+        assertEquals(statistics.getMax(), 1000.0);
+        assertEquals(statistics.getMean(), 500.5);
+        // Percentiles are accurate up to the bucket resolution of 1/8 of a power of 2
+        assertPercentile(statistics.getP50(), 500);
+        assertPercentile(statistics.getP90(), 900);
+        assertPercentile(statistics.getP99(), 990);
+    }
+
+    public void testTimersAndCounters() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.timer("timer").update(2, TimeUnit.SECONDS);
+        registry.timer("timer").update(500, TimeUnit.MILLISECONDS);
+        try (Timer.Context ignored = registry.timer("timed").time()) {
+            registry.counter("counter").increment();
+        }
+        registry.counter("counter").increment(9);
+
+        MetricsSummary summary = registry.getSummary();
+        assertEquals(summary.getCounters().get("counter").longValue(), 10);
+        MetricsSummary.Statistics timer = summary.getTimers().get("timer");
+        assertEquals(timer.getCount(), 2);
+        assertEquals(timer.getSum(), 2500.0);
+        assertEquals(timer.getMax(), 2000.0);
+        assertEquals(summary.getTimers().get("timed").getCount(), 1);
+        assertTrue(summary.getHistograms().isEmpty());
+    }
+
+    public void testConcurrentUpdates() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        int threads = 8;
+        int updates = 10000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<?> future : IntStream.range(0, threads)
+                    .mapToObj(thread -> executor.submit(() -> {
+                        for (int i = 0; i < updates; i++) {
+                            registry.counter("counter").increment();
+                            registry.histogram("histogram").update(i);
+                        }
+                    }))
+                    .collect(Collectors.toList())) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        MetricsSummary summary = registry.getSummary();
+        assertEquals(summary.getCounters().get("counter").longValue(), threads * updates);
+        assertEquals(summary.getHistograms().get("histogram").getCount(), threads * updates);
+        assertEquals(summary.getHistograms().get("histogram").getMax(), updates - 1.0);
+    }
+
+    public void testEmptyStatistics() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.histogram("histogram");
+        MetricsSummary.Statistics statistics = registry.getSummary().getHistograms().get("histogram");
+        assertEquals(statistics.getCount(), 0);
+        assertEquals(statistics.getMax(), 0.0);
+    }
+
+    public void testBuildMetricsSetAndRestore() {
+        assertFalse(BuildMetrics.isEnabled());
+        MetricsRegistry registry = new MetricsRegistry();
+        Metrics previous = BuildMetrics.set(registry);
+        try {
+            assertSame(previous, NoOpMetrics.INSTANCE);
+            assertTrue(BuildMetrics.isEnabled());
+            BuildMetrics.get().counter("counter").increment();
+            assertEquals(registry.getSummary().getCounters().get("counter").longValue(), 1);
+        } finally {
+            BuildMetrics.set(null);
+        }
+        assertFalse(BuildMetrics.isEnabled());
+        assertSame(BuildMetrics.get(), NoOpMetrics.INSTANCE);
+    }
+
+    public void testJsonReporter() throws IOException {
+        File tempDir = Files.createTempDirectory("metrics").toFile();
+        try {
+            File summaryFile = new File(tempDir, "reports/metrics.json");
+            assertNull(JsonMetricsReporter.startIfConfigured(" "));
+            JsonMetricsReporter reporter = JsonMetricsReporter.startIfConfigured(summaryFile.getPath());
+            assertNotNull(reporter);
+            try {
+                assertSame(BuildMetrics.get(), reporter.getRegistry());
+                BuildMetrics.get().counter("http.requests").increment(3);
+                BuildMetrics.get().timer("http.request.time").update(10, TimeUnit.MILLISECONDS);
+                BuildMetrics.get().histogram("queue.depth").update(5);
+            } finally {
+                reporter.close();
+            }
+            assertFalse(BuildMetrics.isEnabled());
+            // Closing again doesn't rewrite the file
+            FileUtils.deleteQuietly(summaryFile);
+            reporter.close();
+            assertFalse(summaryFile.exists());
+        } finally {
+            FileUtils.deleteDirectory(tempDir);
+        }
+    }
+
+    public void testJsonReport() throws IOException {
+        File tempDir = Files.createTempDirectory("metrics").toFile();
+        try {
+            File summaryFile = new File(tempDir, "metrics.json");
+            try (JsonMetricsReporter ignored = new JsonMetricsReporter(summaryFile)) {
+                BuildMetrics.get().counter("http.requests").increment(3);
+                BuildMetrics.get().timer("http.request.time").update(10, TimeUnit.MILLISECONDS);
+            }
+            JsonMetricsReporter.Report report = new ObjectMapper().readValue(summaryFile, JsonMetricsReporter.Report.class);
+            assertTrue(report.getStartTime() > 0);
+            assertTrue(report.getDurationMillis() >= 0);
+            assertEquals(report.getCounters().get("http.requests").longValue(), 3);
+            assertEquals(report.getTimers().get("http.request.time").getSum(), 10.0);
+        } finally {
+            FileUtils.deleteDirectory(tempDir);
+        }
+    }
+
+    public void testOverlappingReporters() throws IOException {
+        File tempDir = Files.createTempDirectory("metrics").toFile();
+        try {
+            JsonMetricsReporter first = new JsonMetricsReporter(new File(tempDir, "first.json"));
+            BuildMetrics.get().counter("http.requests").increment();
+            JsonMetricsReporter second = new JsonMetricsReporter(new File(tempDir, "second.json"));
+            try (Timer.Context ignored = BuildMetrics.get().timer("http.request.time").time()) {
+                BuildMetrics.get().counter("http.requests").increment();
+            }
+            // Close the reporters in the order they were opened
+            first.close();
+            assertTrue(BuildMetrics.isEnabled());
+            assertSame(BuildMetrics.get(), second.getRegistry());
+            BuildMetrics.get().counter("http.requests").increment();
+            second.close();
+            assertFalse(BuildMetrics.isEnabled());
+            assertSame(BuildMetrics.get(), NoOpMetrics.INSTANCE);
+
+            // Both reporters recorded the operations made while they were open together
+            JsonMetricsReporter.Report firstReport = new ObjectMapper().readValue(new File(tempDir, "first.json"), JsonMetricsReporter.Report.class);
+            JsonMetricsReporter.Report secondReport = new ObjectMapper().readValue(new File(tempDir, "second.json"), JsonMetricsReporter.Report.class);
+            assertEquals(firstReport.getCounters().get("http.requests").longValue(), 2);
+            assertEquals(secondReport.getCounters().get("http.requests").longValue(), 2);
+            assertEquals(firstReport.getTimers().get("http.request.time").getCount(), 1);
+            assertEquals(secondReport.getTimers().get("http.request.time").getCount(), 1);
+            assertTrue(firstReport.isShared());
+            assertTrue(secondReport.isShared());
+
+            try (JsonMetricsReporter alone = new JsonMetricsReporter(new File(tempDir, "alone.json"))) {
+                assertFalse(alone.isShared());
+            }
+        } finally {
+            FileUtils.deleteDirectory(tempDir);
+        }
+    }
+
+    private static void assertPercentile(double actual, long expected) {
+        assertTrue(actual >= expected && actual <= expected * 1.125, "Expected percentile close to " + expected + " but was " + actual);
+    }
+}
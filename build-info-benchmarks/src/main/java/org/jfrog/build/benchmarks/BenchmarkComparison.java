@@ -0,0 +1,177 @@
+package org.jfrog.build.benchmarks;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compares the JMH JSON results of a baseline run with the results of a current run, and writes a Markdown report.
+ * A benchmark is reported as a regression or an improvement only if its score changed by more than the threshold
+ * percentage, and by more than the sum of the score errors of both runs.
+ * <p>
+ * Usage: BenchmarkComparison &lt;baseline.json&gt; &lt;current.json&gt; [report.md] [threshold percentage]
+ * <br>
+ * The exit code is 2 if at least one regression was found.
+ */
+public class BenchmarkComparison {
+    public static final double DEFAULT_THRESHOLD = 10;
+    private static final String BENCHMARKS_PACKAGE_PREFIX = "org.jfrog.build.";
+
+    public enum Status {
+        IMPROVED, REGRESSED, UNCHANGED, ADDED, REMOVED
+    }
+
+    private final List<Row> rows = new ArrayList<>();
+
+    public BenchmarkComparison(List<BenchmarkResult> baseline, List<BenchmarkResult> current, double threshold) {
+        Map<String, BenchmarkResult> baselineByKey = new LinkedHashMap<>();
+        baseline.forEach(result -> baselineByKey.put(result.getKey(), result));
+        for (BenchmarkResult result : current) {
+            rows.add(new Row(baselineByKey.remove(result.getKey()), result, threshold));
+        }
+        baselineByKey.values().forEach(result -> rows.add(new Row(result, null, threshold)));
+        rows.sort(Comparator.comparing(Row::getBenchmark).thenComparing(row -> row.getParams().toString()));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [report.md] [threshold percentage]");
+            System.exit(1);
+        }
+        double threshold = args.length > 3 ? Double.parseDouble(args[3]) : DEFAULT_THRESHOLD;
+        BenchmarkComparison comparison = new BenchmarkComparison(BenchmarkResult.read(new File(args[0])),
+                BenchmarkResult.read(new File(args[1])), threshold);
+        StringBuilder report = new StringBuilder();
+        comparison.writeMarkdown(report);
+        System.out.print(report);
+        if (args.length > 2 && StringUtils.isNotBlank(args[2])) {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(args[2]), StandardCharsets.UTF_8)) {
+                writer.write(report.toString());
+            }
+        }
+        if (comparison.hasRegressions()) {
+            System.exit(2);
+        }
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public boolean hasRegressions() {
+        return rows.stream().anyMatch(row -> row.getStatus() == Status.REGRESSED);
+    }
+
+    /**
+     * Write the comparison as a Markdown table, followed by a summary line.
+     *
+     * @param out - The report output
+     */
+    public void writeMarkdown(Appendable out) throws IOException {
+        out.append("| Benchmark | Params | Mode | Baseline | Current | Change | Allocated (B/op) | Status |\n");
+        out.append("|---|---|---|---:|---:|---:|---:|---|\n");
+        Map<Status, Integer> summary = new EnumMap<>(Status.class);
+        for (Row row : rows) {
+            BenchmarkResult any = row.current != null ? row.current : row.baseline;
+            out.append("| ").append(row.getBenchmark())
+                    .append(" | ").append(formatParams(any.getParams()))
+                    .append(" | ").append(any.getMode())
+                    .append(" | ").append(formatScore(row.baseline))
+                    .append(" | ").append(formatScore(row.current))
+                    .append(" | ").append(row.baseline != null && row.current != null ? String.format(Locale.ROOT, "%+.1f%%", row.getChange()) : "")
+                    .append(" | ").append(formatAllocation(row))
+                    .append(" | ").append(row.getStatus().name())
+                    .append(" |\n");
+            summary.merge(row.getStatus(), 1, Integer::sum);
+        }
+        out.append('\n').append(summary.isEmpty() ? "No benchmarks to compare." : summary.toString()).append('\n');
+    }
+
+    private static String formatParams(Map<String, String> params) {
+        StringJoiner joiner = new StringJoiner(", ");
+        params.forEach((key, value) -> joiner.add(key + "=" + value.replace("|", "\\|")));
+        return joiner.toString();
+    }
+
+    private static String formatScore(BenchmarkResult result) {
+        if (result == null) {
+            return "";
+        }
+        return String.format(Locale.ROOT, "%.3f +- %.3f %s", result.getScore(), result.getScoreError(), result.getScoreUnit());
+    }
+
+    private static String formatAllocation(Row row) {
+        Double baseline = row.baseline == null ? null : row.baseline.getAllocatedBytes();
+        Double current = row.current == null ? null : row.current.getAllocatedBytes();
+        if (baseline == null && current == null) {
+            return "";
+        }
+        return (baseline == null ? "-" : String.format(Locale.ROOT, "%.0f", baseline)) + " -> " +
+                (current == null ? "-" : String.format(Locale.ROOT, "%.0f", current));
+    }
+
+    /**
+     * The comparison of a single benchmark with the same parameters in both runs.
+     */
+    public static class Row {
+        private final BenchmarkResult baseline;
+        private final BenchmarkResult current;
+        private final Status status;
+
+        Row(BenchmarkResult baseline, BenchmarkResult current, double threshold) {
+            this.baseline = baseline;
+            this.current = current;
+            this.status = calculateStatus(threshold);
+        }
+
+        private Status calculateStatus(double threshold) {
+            if (baseline == null) {
+                return Status.ADDED;
+            }
+            if (current == null) {
+                return Status.REMOVED;
+            }
+            double difference = current.getScore() - baseline.getScore();
+            if (Math.abs(getChange()) <= threshold || Math.abs(difference) <= baseline.getScoreError() + current.getScoreError()) {
+                return Status.UNCHANGED;
+            }
+            return (difference > 0) == current.isHigherBetter() ? Status.IMPROVED : Status.REGRESSED;
+        }
+
+        /**
+         * @return the benchmark name without the common package prefix.
+         */
+        public String getBenchmark() {
+            String benchmark = (current != null ? current : baseline).getBenchmark();
+            return StringUtils.removeStart(benchmark, BENCHMARKS_PACKAGE_PREFIX);
+        }
+
+        public Map<String, String> getParams() {
+            return (current != null ? current : baseline).getParams();
+        }
+
+        /**
+         * @return the score change in percentage of the baseline score.
+         */
+        public double getChange() {
+            if (baseline == null || current == null || baseline.getScore() == 0) {
+                return 0;
+            }
+            return (current.getScore() - baseline.getScore()) * 100 / baseline.getScore();
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public BenchmarkResult getBaseline() {
+            return baseline;
+        }
+
+        public BenchmarkResult getCurrent() {
+            return current;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.jfrog.build.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * A single result of a JMH JSON results file, created by running the benchmarks with '-rf json'.
+ */
+public class BenchmarkResult {
+    static final String ALLOCATION_METRIC = "\u00b7gc.alloc.rate.norm";
+
+    private final String benchmark;
+    private final String mode;
+    private final Map<String, String> params;
+    private final double score;
+    private final double scoreError;
+    private final String scoreUnit;
+    private final Double allocatedBytes;
+
+    public BenchmarkResult(String benchmark, String mode, Map<String, String> params, double score, double scoreError, String scoreUnit,
+                           Double allocatedBytes) {
+        this.benchmark = benchmark;
+        this.mode = mode;
+        this.params = Collections.unmodifiableMap(new TreeMap<>(params));
+        this.score = score;
+        this.scoreError = scoreError;
+        this.scoreUnit = scoreUnit;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public static List<BenchmarkResult> read(File resultsFile) throws IOException {
+        return read(new ObjectMapper().readTree(resultsFile), resultsFile.getPath());
+    }
+
+    public static List<BenchmarkResult> read(InputStream results) throws IOException {
+        return read(new ObjectMapper().readTree(results), "stream");
+    }
+
+    private static List<BenchmarkResult> read(JsonNode root, String source) throws IOException {
+        if (root == null || !root.isArray()) {
+            throw new IOException("Expected an array of JMH results in " + source);
+        }
+        List<BenchmarkResult> results = new ArrayList<>(root.size());
+        for (JsonNode result : root) {
+            Map<String, String> params = new TreeMap<>();
+            result.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            JsonNode primaryMetric = result.path("primaryMetric");
+            JsonNode allocation = result.path("secondaryMetrics").path(ALLOCATION_METRIC);
+            results.add(new BenchmarkResult(result.path("benchmark").asText(), result.path("mode").asText(), params,
+                    primaryMetric.path("score").asDouble(), getScoreError(primaryMetric), primaryMetric.path("scoreUnit").asText(),
+                    allocation.isMissingNode() ? null : allocation.path("score").asDouble()));
+        }
+        return results;
+    }
+
+    /**
+     * The score error is "NaN" in case of a single measurement iteration.
+     */
+    private static double getScoreError(JsonNode metric) {
+        double scoreError = metric.path("scoreError").asDouble();
+        return Double.isNaN(scoreError) ? 0 : scoreError;
+    }
+
+    /**
+     * @return the key identifying the same benchmark in different results files.
+     */
+    public String getKey() {
+        return benchmark + " " + mode + " " + params;
+    }
+
+    public String getBenchmark() {
+        return benchmark;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public double getScoreError() {
+        return scoreError;
+    }
+
+    public String getScoreUnit() {
+        return scoreUnit;
+    }
+
+    /**
+     * @return the normalized allocation rate in bytes per operation, or null if the benchmarks ran without '-prof gc'.
+     */
+    public Double getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return true if a higher score is better, which is the case for the throughput mode only.
+     */
+    public boolean isHigherBetter() {
+        return "thrpt".equals(mode);
+    }
+}
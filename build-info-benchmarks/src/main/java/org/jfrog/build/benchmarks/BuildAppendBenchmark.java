@@ -0,0 +1,43 @@
+package org.jfrog.build.benchmarks;
+
+import org.jfrog.build.api.Build;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges the build info of one build into another, like when aggregating the build info of several build steps.
+ * Half of the appended modules already exist in the target build and are merged into the existing modules.
+ * Build.append modifies the target build, so both builds are created again before each invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BuildAppendBenchmark {
+
+    @Param({"10", "1000"})
+    public int modules;
+
+    @Param({"20"})
+    public int dependenciesPerModule;
+
+    private Build build;
+    private Build other;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        build = SyntheticData.createBuild("benchmark-build", "1", modules, 5, dependenciesPerModule, SyntheticData.DEFAULT_SEED);
+        // Modules are identified by their index, so the second half of the target build modules is appended again
+        other = SyntheticData.createBuild("benchmark-build", "1", modules + modules / 2, 5, dependenciesPerModule, SyntheticData.DEFAULT_SEED + 1);
+        other.getModules().subList(0, modules / 2).clear();
+    }
+
+    @Benchmark
+    public Build append() {
+        build.append(other);
+        return build;
+    }
+}
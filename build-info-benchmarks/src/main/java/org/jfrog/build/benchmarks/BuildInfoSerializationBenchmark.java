@@ -0,0 +1,49 @@
+package org.jfrog.build.benchmarks;
+
+import org.jfrog.build.api.Build;
+import org.jfrog.build.extractor.BuildInfoExtractorUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes a build info to JSON before it is published, and reads it back like the build info file is read by the CI
+ * integrations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BuildInfoSerializationBenchmark {
+
+    @Param({"10", "200"})
+    public int modules;
+
+    @Param({"10"})
+    public int artifactsPerModule;
+
+    @Param({"100"})
+    public int dependenciesPerModule;
+
+    private Build build;
+    private String buildJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        build = SyntheticData.createBuild("benchmark-build", "1", modules, artifactsPerModule, dependenciesPerModule, SyntheticData.DEFAULT_SEED);
+        buildJson = BuildInfoExtractorUtils.buildInfoToJsonString(build);
+    }
+
+    @Benchmark
+    public String buildInfoToJsonString() throws IOException {
+        return BuildInfoExtractorUtils.buildInfoToJsonString(build);
+    }
+
+    @Benchmark
+    public Build jsonStringToBuildInfo() throws IOException {
+        return BuildInfoExtractorUtils.jsonStringToBuildInfo(buildJson);
+    }
+}
@@ -0,0 +1,89 @@
+package org.jfrog.build.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.jfrog.build.api.util.FileChecksumCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculates the checksums of many dependency files, serially and by a fixed thread pool, like the Ivy extractor does
+ * when collecting the resolved dependencies of a module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConcurrentChecksumsBenchmark {
+
+    @Param({"500"})
+    public int files;
+
+    @Param({"65536"})
+    public int fileSize;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private File tempDir;
+    private List<File> dependencyFiles;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("checksums-benchmark").toFile();
+        dependencyFiles = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            File file = new File(tempDir, "dependency-" + i + ".jar");
+            SyntheticData.createFile(file, fileSize, SyntheticData.DEFAULT_SEED + i);
+            dependencyFiles.add(file);
+        }
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public List<Map<String, String>> calculateChecksums() throws IOException, NoSuchAlgorithmException {
+        List<Map<String, String>> checksums = new ArrayList<>(dependencyFiles.size());
+        if (threads == 1) {
+            for (File file : dependencyFiles) {
+                checksums.add(FileChecksumCalculator.calculateChecksums(file, "MD5", "SHA1"));
+            }
+            return checksums;
+        }
+        List<CompletableFuture<Map<String, String>>> futures = new ArrayList<>(dependencyFiles.size());
+        for (File file : dependencyFiles) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return FileChecksumCalculator.calculateChecksums(file, "MD5", "SHA1");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (NoSuchAlgorithmException e) {
+                    throw new RuntimeException(e);
+                }
+            }, executor));
+        }
+        for (CompletableFuture<Map<String, String>> future : futures) {
+            checksums.add(future.join());
+        }
+        return checksums;
+    }
+}
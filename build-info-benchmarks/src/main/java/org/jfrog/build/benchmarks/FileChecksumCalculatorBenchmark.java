@@ -0,0 +1,52 @@
+package org.jfrog.build.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.jfrog.build.api.util.FileChecksumCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculates the checksums of a single file, as done for every deployed artifact and resolved dependency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FileChecksumCalculatorBenchmark {
+
+    @Param({"4096", "1048576", "33554432"})
+    public int fileSize;
+
+    @Param({"SHA1", "MD5,SHA1", "MD5,SHA1,SHA-256"})
+    public String algorithms;
+
+    private File tempDir;
+    private File file;
+    private String[] algorithmsArray;
+
+    @Setup
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("checksum-benchmark").toFile();
+        file = new File(tempDir, "artifact.bin");
+        SyntheticData.createFile(file, fileSize, SyntheticData.DEFAULT_SEED);
+        algorithmsArray = algorithms.split(",");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public Map<String, String> calculateChecksums() throws IOException, NoSuchAlgorithmException {
+        return FileChecksumCalculator.calculateChecksums(file, algorithmsArray);
+    }
+}
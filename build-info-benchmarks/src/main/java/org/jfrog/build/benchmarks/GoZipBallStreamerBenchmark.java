@@ -0,0 +1,60 @@
+package org.jfrog.build.benchmarks;
+
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.FileUtils;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.go.extractor.GoZipBallStreamer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repacks the sources zip of a Go module into the deployable zip, compressing the entries sequentially or by a thread
+ * pool, as done by the Go publisher.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GoZipBallStreamerBenchmark {
+    private static final String MODULE_NAME = "github.com/jfrog/benchmark";
+
+    @Param({"100", "2000"})
+    public int files;
+
+    @Param({"16384"})
+    public int fileSize;
+
+    @Param({"1", "4"})
+    public int compressionThreads;
+
+    private File tempDir;
+    private File sourceZip;
+    private File deployableZip;
+
+    @Setup
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("go-zip-benchmark").toFile();
+        sourceZip = new File(tempDir, "source.zip");
+        deployableZip = new File(tempDir, "v1.0.0.zip");
+        SyntheticData.createGoModuleZip(sourceZip, MODULE_NAME, files, fileSize, SyntheticData.DEFAULT_SEED);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public long writeDeployableZip() throws IOException {
+        try (GoZipBallStreamer streamer = new GoZipBallStreamer(new ZipFile(sourceZip), MODULE_NAME, "v1.0.0", new NullLog())) {
+            streamer.writeDeployableZip(deployableZip, compressionThreads);
+        }
+        return deployableZip.length();
+    }
+}
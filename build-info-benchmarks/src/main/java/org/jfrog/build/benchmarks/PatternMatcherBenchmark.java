@@ -0,0 +1,50 @@
+package org.jfrog.build.benchmarks;
+
+import org.jfrog.build.extractor.clientConfiguration.IncludeExcludePatterns;
+import org.jfrog.build.extractor.clientConfiguration.PatternMatcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches artifact paths against the include-exclude patterns, as done for every artifact before deployment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PatternMatcherBenchmark {
+    private static final int PATHS = 10000;
+
+    @Param({"org/jfrog/test/module-1*/**", "**/*-sources.jar", "**/module-?/**/*.pom"})
+    public String pattern;
+
+    private List<String> paths;
+    private IncludeExcludePatterns patterns;
+
+    @Setup
+    public void setUp() {
+        paths = SyntheticData.createArtifactPaths(PATHS, SyntheticData.DEFAULT_SEED);
+        patterns = new IncludeExcludePatterns("**/*.jar, **/*.pom", "**/*-SNAPSHOT/**, " + pattern);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATHS)
+    public void match(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(PatternMatcher.match(pattern, path, true));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATHS)
+    public void pathConflicts(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(PatternMatcher.pathConflicts(path, patterns));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.jfrog.build.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes a build info to a local server which reads the request body at a limited bandwidth, to compare publishing
+ * compressed and uncompressed build info over a slow link.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PublishBuildInfoBenchmark {
+
+    @Param({"200", "2000"})
+    public int modules;
+
+    @Param({"false", "true"})
+    public boolean compressRequests;
+
+    @Param({"100"})
+    public int bandwidthMbps;
+
+    private HttpServer server;
+    private ArtifactoryManager artifactoryManager;
+    private Build build;
+
+    @Setup
+    public void setUp() throws IOException {
+        build = SyntheticData.createBuild("benchmark-build", "1", modules, 10, 100, SyntheticData.DEFAULT_SEED);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handleRequest);
+        server.start();
+        artifactoryManager = new ArtifactoryManager("http://127.0.0.1:" + server.getAddress().getPort(), "user", "password", new NullLog());
+        artifactoryManager.setCompressRequests(compressRequests);
+    }
+
+    @TearDown
+    public void tearDown() {
+        artifactoryManager.close();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public void publishBuildInfo() throws IOException {
+        artifactoryManager.publishBuildInfo(build, null);
+    }
+
+    /**
+     * Read the request body, sleeping for the time the bytes would take to cross a link of the configured bandwidth.
+     */
+    private void handleRequest(HttpExchange exchange) throws IOException {
+        long bytesPerSecond = bandwidthMbps * 1_000_000L / 8;
+        long bytes = 0;
+        long start = System.nanoTime();
+        byte[] buffer = new byte[8192];
+        try (InputStream inputStream = exchange.getRequestBody()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                bytes += read;
+                long dueNanos = TimeUnit.SECONDS.toNanos(bytes) / bytesPerSecond;
+                long aheadNanos = dueNanos - (System.nanoTime() - start);
+                if (aheadNanos > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(aheadNanos);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException(e);
+                    }
+                }
+            }
+        }
+        exchange.sendResponseHeaders(204, -1);
+        exchange.close();
+    }
+}
@@ -0,0 +1,320 @@
+package org.jfrog.build.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jfrog.build.api.Artifact;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.Dependency;
+import org.jfrog.build.api.Module;
+import org.jfrog.build.api.builder.ArtifactBuilder;
+import org.jfrog.build.api.builder.BuildInfoBuilder;
+import org.jfrog.build.api.builder.DependencyBuilder;
+import org.jfrog.build.api.builder.ModuleBuilder;
+import org.jfrog.build.api.builder.ModuleType;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Deterministic synthetic data for the benchmarks.
+ * All data is derived from a seeded {@link Random}, so the same arguments always produce the same data, on every machine.
+ */
+public final class SyntheticData {
+    public static final long DEFAULT_SEED = 42L;
+
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+    private static final String[] EXTENSIONS = {"jar", "pom", "zip", "txt", "tgz"};
+    private static final String[] SCOPES = {"compile", "runtime", "test", "provided"};
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Create a build info with the given number of modules. The dependencies of the modules are taken from a shared pool,
+     * so different modules depend on the same dependencies, like in a real multi-module build.
+     *
+     * @param name                  - The build name
+     * @param number                - The build number
+     * @param modules               - Number of modules
+     * @param artifactsPerModule    - Number of artifacts in each module
+     * @param dependenciesPerModule - Number of dependencies in each module
+     * @param seed                  - The random seed
+     * @return the build info
+     */
+    public static Build createBuild(String name, String number, int modules, int artifactsPerModule, int dependenciesPerModule, long seed) {
+        Random random = new Random(seed);
+        int dependenciesPool = Math.max(1, dependenciesPerModule * 4);
+        BuildInfoBuilder builder = new BuildInfoBuilder(name).number(number).started("2021-01-01T00:00:00.000+0000");
+        for (int i = 0; i < modules; i++) {
+            builder.addModule(createModule(random, getModuleId(i), artifactsPerModule, dependenciesPerModule, dependenciesPool));
+        }
+        return builder.build();
+    }
+
+    private static Module createModule(Random random, String moduleId, int artifacts, int dependencies, int dependenciesPool) {
+        ModuleBuilder builder = new ModuleBuilder().type(ModuleType.MAVEN).id(moduleId);
+        String artifactId = moduleId.split(":")[1];
+        for (int i = 0; i < artifacts; i++) {
+            String extension = EXTENSIONS[i % EXTENSIONS.length];
+            Artifact artifact = new ArtifactBuilder(artifactId + "-" + i + "." + extension)
+                    .type(extension)
+                    .md5(randomHex(random, 32))
+                    .sha1(randomHex(random, 40))
+                    .sha256(randomHex(random, 64))
+                    .remotePath("org/jfrog/test/" + artifactId + "/1.0.0")
+                    .build();
+            builder.addArtifact(artifact);
+        }
+        Set<Integer> dependencyIndexes = new LinkedHashSet<>();
+        while (dependencyIndexes.size() < Math.min(dependencies, dependenciesPool)) {
+            dependencyIndexes.add(random.nextInt(dependenciesPool));
+        }
+        for (int index : dependencyIndexes) {
+            String dependencyId = getDependencyId(index);
+            Dependency dependency = new DependencyBuilder()
+                    .id(dependencyId)
+                    .type("jar")
+                    .addScope(SCOPES[index % SCOPES.length])
+                    .md5(randomHex(random, 32))
+                    .sha1(randomHex(random, 40))
+                    .addRequestedBy(new String[]{getDependencyId(random.nextInt(dependenciesPool)), moduleId})
+                    .build();
+            builder.addDependency(dependency);
+        }
+        return builder.build();
+    }
+
+    public static String getModuleId(int index) {
+        return "org.jfrog.test:module-" + index + ":1.0.0";
+    }
+
+    private static String getDependencyId(int index) {
+        return "org.jfrog.deps:dependency-" + index + ":1." + (index % 10) + ".0";
+    }
+
+    /**
+     * Create an Artifactory AQL search response, as returned by the 'api/search/aql' REST API.
+     *
+     * @param results - Number of results
+     * @param seed    - The random seed
+     * @return the response body
+     */
+    public static byte[] createAqlResponse(int results, long seed) throws IOException {
+        Random random = new Random(seed);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = new ObjectMapper().getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("results");
+            for (int i = 0; i < results; i++) {
+                String artifactId = "module-" + random.nextInt(Math.max(1, results / 10));
+                generator.writeStartObject();
+                generator.writeStringField("repo", "libs-release-local");
+                generator.writeStringField("path", "org/jfrog/test/" + artifactId + "/1." + i);
+                generator.writeStringField("name", artifactId + "-1." + i + "." + EXTENSIONS[i % EXTENSIONS.length]);
+                generator.writeStringField("type", "file");
+                generator.writeNumberField("size", random.nextInt(10 * 1024 * 1024));
+                generator.writeStringField("created", "2021-01-01T00:00:00.000Z");
+                generator.writeStringField("actual_sha1", randomHex(random, 40));
+                generator.writeStringField("actual_md5", randomHex(random, 32));
+                generator.writeArrayFieldStart("virtual_repos");
+                generator.writeString("libs-release");
+                generator.writeEndArray();
+                generator.writeArrayFieldStart("properties");
+                writeProperty(generator, "build.name", "benchmark-build");
+                writeProperty(generator, "build.number", String.valueOf(i % 10));
+                writeProperty(generator, "vcs.revision", randomHex(random, 40));
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeObjectFieldStart("range");
+            generator.writeNumberField("start_pos", 0);
+            generator.writeNumberField("end_pos", results);
+            generator.writeNumberField("total", results);
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeProperty(JsonGenerator generator, String key, String value) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("key", key);
+        generator.writeStringField("value", value);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Create a file with random content.
+     *
+     * @param file - The file to create
+     * @param size - The file size in bytes
+     * @param seed - The random seed
+     */
+    public static void createFile(File file, long size, long seed) throws IOException {
+        Random random = new Random(seed);
+        byte[] buffer = new byte[(int) Math.min(size, 64 * 1024)];
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            for (long written = 0; written < size; written += buffer.length) {
+                random.nextBytes(buffer);
+                out.write(buffer, 0, (int) Math.min(buffer.length, size - written));
+            }
+        }
+    }
+
+    /**
+     * Create a zip of Go module sources, like the zip downloaded from a VCS and repacked by the Go publisher.
+     * The entries are under a root directory and contain Go-like source lines, so that they compress like real sources.
+     *
+     * @param zip        - The zip file to create
+     * @param moduleName - The module name, written to the go.mod entry
+     * @param files      - Number of source files
+     * @param fileSize   - Approximate size of each source file in bytes
+     * @param seed       - The random seed
+     */
+    public static void createGoModuleZip(File zip, String moduleName, int files, int fileSize, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(zip)))) {
+            zos.putNextEntry(new ZipEntry("module/go.mod"));
+            zos.write(("module " + moduleName + "\n").getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+            for (int i = 0; i < files; i++) {
+                String pkg = "pkg" + (i % 20);
+                zos.putNextEntry(new ZipEntry("module/" + pkg + "/file" + i + ".go"));
+                StringBuilder source = new StringBuilder("package ").append(pkg).append("\n\n");
+                while (source.length() < fileSize) {
+                    source.append("func f").append(randomHex(random, 8)).append("() string {\n\treturn \"")
+                            .append(randomHex(random, 32)).append("\"\n}\n\n");
+                }
+                zos.write(source.toString().getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Create a directory tree of files with random content. Each directory contains the given number of files and sub
+     * directories. The files names have different extensions, to allow matching only part of the files.
+     *
+     * @param root        - The root directory
+     * @param depth       - Depth of the tree. 0 creates only the files in the root directory.
+     * @param width       - Number of sub directories in each directory
+     * @param filesPerDir - Number of files in each directory
+     * @param fileSize    - Size of each file in bytes
+     * @param seed        - The random seed
+     * @return the number of files created
+     */
+    public static int createFileTree(File root, int depth, int width, int filesPerDir, int fileSize, long seed) throws IOException {
+        return createFileTree(root, depth, width, filesPerDir, fileSize, new Random(seed));
+    }
+
+    private static int createFileTree(File dir, int depth, int width, int filesPerDir, int fileSize, Random random) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Couldn't create directory " + dir);
+        }
+        int files = 0;
+        for (int i = 0; i < filesPerDir; i++) {
+            createFile(new File(dir, "file-" + i + "." + EXTENSIONS[i % EXTENSIONS.length]), fileSize, random.nextLong());
+            files++;
+        }
+        if (depth > 0) {
+            for (int i = 0; i < width; i++) {
+                files += createFileTree(new File(dir, "dir-" + i), depth - 1, width, filesPerDir, fileSize, random);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Create repository paths, like the paths matched against include-exclude patterns during deployment.
+     *
+     * @param count - Number of paths
+     * @param seed  - The random seed
+     * @return the paths
+     */
+    public static List<String> createArtifactPaths(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> paths = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String artifactId = "module-" + random.nextInt(100);
+            String version = "1." + random.nextInt(10) + "." + random.nextInt(10) + (random.nextInt(4) == 0 ? "-SNAPSHOT" : "");
+            String classifier = random.nextInt(3) == 0 ? "-sources" : "";
+            paths.add("org/jfrog/test/" + artifactId + "/" + version + "/" + artifactId + "-" + version + classifier + "." +
+                    EXTENSIONS[random.nextInt(EXTENSIONS.length)]);
+        }
+        return paths;
+    }
+
+    /**
+     * Create an 'npm ls --json' result. A small number of unique packages repeats in the tree, like in real npm projects.
+     *
+     * @param depth          - Depth of the dependency tree
+     * @param width          - Maximal number of dependencies of each package
+     * @param uniquePackages - Number of unique package names
+     * @param seed           - The random seed
+     * @return the 'npm ls' result
+     */
+    public static String createNpmLs(int depth, int width, int uniquePackages, long seed) throws IOException {
+        Random random = new Random(seed);
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("name", "root");
+        root.put("version", "1.0.0");
+        root.put("dependencies", createNpmDependencies(random, depth, width, uniquePackages));
+        return new ObjectMapper().writeValueAsString(root);
+    }
+
+    private static Map<String, Object> createNpmDependencies(Random random, int depth, int width, int uniquePackages) {
+        Map<String, Object> dependencies = new LinkedHashMap<>();
+        if (depth == 0) {
+            return dependencies;
+        }
+        for (int i = 0; i < width; i++) {
+            Map<String, Object> dependency = new LinkedHashMap<>();
+            dependency.put("version", "1.0." + random.nextInt(3));
+            dependency.put("resolved", "https://registry.npmjs.org/package/-/package-1.0.0.tgz");
+            dependency.put("dependencies", createNpmDependencies(random, depth - 1, random.nextInt(width) + 1, uniquePackages));
+            dependencies.put("package-" + random.nextInt(uniquePackages), dependency);
+        }
+        return dependencies;
+    }
+
+    /**
+     * Create a surefire XML report.
+     *
+     * @param file      - The report file to create
+     * @param testCases - Number of test cases in the report
+     * @param failures  - Number of failed test cases
+     * @param seed      - The random seed
+     */
+    public static void createSurefireReport(File file, int testCases, int failures, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write("<testsuite name=\"org.jfrog.test.BenchmarkTest\" time=\"" + random.nextInt(1000) + "\" tests=\"" + testCases +
+                    "\" errors=\"0\" skipped=\"0\" failures=\"" + failures + "\">\n");
+            writer.write("  <properties>\n    <property name=\"java.version\" value=\"1.8.0\"/>\n  </properties>\n");
+            for (int i = 0; i < testCases; i++) {
+                writer.write("  <testcase name=\"test" + i + "\" classname=\"org.jfrog.test.BenchmarkTest\" time=\"0.0" + random.nextInt(100) + "\"");
+                if (i < failures) {
+                    writer.write(">\n    <failure message=\"expected\" type=\"java.lang.AssertionError\">" + randomHex(random, 64) +
+                            "</failure>\n  </testcase>\n");
+                } else {
+                    writer.write("/>\n");
+                }
+            }
+            writer.write("  <system-out><![CDATA[" + randomHex(random, 1024) + "]]></system-out>\n");
+            writer.write("</testsuite>\n");
+        }
+    }
+
+    public static String randomHex(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = HEX_CHARS[random.nextInt(HEX_CHARS.length)];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,40 @@
+package org.jfrog.build.extractor.clientConfiguration.client.artifactory.services;
+
+import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.benchmarks.SyntheticData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses the response of an AQL search, as done when downloading by a file spec and when searching build dependencies.
+ * Placed in the package of the service to reach its response parsing without an HTTP server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SearchArtifactsByAqlBenchmark {
+
+    @Param({"100", "10000"})
+    public int results;
+
+    private byte[] response;
+
+    @Setup
+    public void setUp() throws IOException {
+        response = SyntheticData.createAqlResponse(results, SyntheticData.DEFAULT_SEED);
+    }
+
+    @Benchmark
+    public AqlSearchResult parseResponse() throws IOException {
+        SearchArtifactsByAql service = new SearchArtifactsByAql("items.find()", new NullLog());
+        service.setResponse(new ByteArrayInputStream(response));
+        return service.getResult();
+    }
+}
@@ -0,0 +1,78 @@
+package org.jfrog.build.extractor.clientConfiguration.util.spec;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+import org.apache.commons.io.FileUtils;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.benchmarks.SyntheticData;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.producerConsumer.ConsumerRunnableBase;
+import org.jfrog.build.extractor.producerConsumer.ProducerConsumerExecutor;
+import org.jfrog.build.extractor.producerConsumer.ProducerRunnableBase;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scans a directory tree for the files matching an upload file spec and creates their deploy details, including the
+ * files checksums. The deploy details are queued without consumers, so only the producer side is measured.
+ * Placed in the package of the producer, which is package private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SingleSpecDeploymentProducerBenchmark {
+
+    // 4 levels of 4 sub directories with 5 files in each directory - 1705 files, 341 of them are jars
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 4;
+    private static final int FILES_PER_DIR = 5;
+    private static final int FILE_SIZE = 1024;
+
+    @Param({"*.jar", "dir-1/(.*)/file-.\\.pom"})
+    public String pattern;
+
+    private File workspace;
+    private FileSpec fileSpec;
+    private int files;
+    private Multimap<String, String> buildProperties;
+
+    @Setup
+    public void setUp() throws IOException {
+        workspace = Files.createTempDirectory("spec-benchmark").toFile();
+        files = SyntheticData.createFileTree(workspace, DEPTH, WIDTH, FILES_PER_DIR, FILE_SIZE, SyntheticData.DEFAULT_SEED);
+        fileSpec = new FileSpec();
+        boolean isRegexp = pattern.contains("(");
+        fileSpec.setPattern(workspace.getAbsolutePath().replace("\\", "/") + "/" + pattern);
+        fileSpec.setRegexp(String.valueOf(isRegexp));
+        fileSpec.setTarget("libs-release-local/benchmark/" + (isRegexp ? "{1}" : ""));
+        fileSpec.setFlat("false");
+        buildProperties = ArrayListMultimap.create();
+        buildProperties.put("build.name", "benchmark-build");
+        buildProperties.put("build.number", "1");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(workspace);
+    }
+
+    @Benchmark
+    public Set<DeployDetails> executeSpec() throws IOException, NoSuchAlgorithmException, InterruptedException {
+        // The queue is large enough to hold all the files, so the producer never waits for consumers
+        ProducerConsumerExecutor executor = new ProducerConsumerExecutor(new NullLog(), new ProducerRunnableBase[0],
+                new ConsumerRunnableBase[0], files + 1);
+        Set<DeployDetails> deploymentSet = new HashSet<>();
+        new SingleSpecDeploymentProducer(fileSpec, workspace, buildProperties).executeSpec(deploymentSet, executor);
+        return deploymentSet;
+    }
+}
@@ -0,0 +1,62 @@
+package org.jfrog.build.extractor.maven;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.jfrog.build.benchmarks.SyntheticData.DEFAULT_SEED;
+
+/**
+ * Collects the dependencies of a reactor module after each of its mojos, and materializes them when the module ends.
+ * Every mojo execution passes the project artifacts resolved so far, so each mojo adds a few artifacts to the
+ * artifacts of the previous mojos.
+ * Placed in the package of the collector, which is package private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ModuleDependenciesBenchmark {
+
+    @Param({"100", "2000"})
+    public int artifacts;
+
+    @Param({"10"})
+    public int mojos;
+
+    private Set<Artifact>[] mojoArtifacts;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Random random = new Random(DEFAULT_SEED);
+        DefaultArtifactHandler handler = new DefaultArtifactHandler("jar");
+        String[] scopes = {Artifact.SCOPE_COMPILE, Artifact.SCOPE_RUNTIME, Artifact.SCOPE_TEST, Artifact.SCOPE_PROVIDED};
+        mojoArtifacts = new Set[mojos];
+        Set<Artifact> resolved = new LinkedHashSet<>();
+        for (int mojo = 0; mojo < mojos; mojo++) {
+            for (int i = mojo * artifacts / mojos; i < (mojo + 1) * artifacts / mojos; i++) {
+                resolved.add(new DefaultArtifact("org.jfrog.deps", "dependency-" + i, "1." + random.nextInt(10),
+                        scopes[random.nextInt(scopes.length)], "jar", null, handler));
+            }
+            mojoArtifacts[mojo] = new LinkedHashSet<>(resolved);
+        }
+    }
+
+    @Benchmark
+    public Set<Artifact> collect() {
+        ModuleDependencies moduleDependencies = new ModuleDependencies();
+        for (Set<Artifact> projectArtifacts : mojoArtifacts) {
+            moduleDependencies.merge(projectArtifacts);
+        }
+        return moduleDependencies.toSet(null);
+    }
+}
@@ -0,0 +1,72 @@
+package org.jfrog.build.extractor.maven;
+
+import org.apache.commons.io.FileUtils;
+import org.jfrog.build.benchmarks.SyntheticData;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the surefire reports of a module for failures, as done after the tests of every module.
+ * The 'scan' benchmark uses a new scanner on each invocation, while the 'cached' benchmark reuses the same scanner, like a
+ * reactor build that checks the same reports again after each mojo.
+ * Placed in the package of the scanner, which is package private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SurefireReportsScannerBenchmark {
+
+    @Param({"20"})
+    public int reports;
+
+    @Param({"10", "5000"})
+    public int testCasesPerReport;
+
+    private final SurefireReportsScanner cachedScanner = new SurefireReportsScanner();
+    private File reportsDir;
+    private List<File> reportFiles;
+
+    @Setup
+    public void setUp() throws IOException {
+        reportsDir = Files.createTempDirectory("surefire-benchmark").toFile();
+        reportFiles = new ArrayList<>(reports);
+        for (int i = 0; i < reports; i++) {
+            File report = new File(reportsDir, "TEST-org.jfrog.test.BenchmarkTest" + i + ".xml");
+            // Only the last report has failures, so all the reports are scanned
+            SyntheticData.createSurefireReport(report, testCasesPerReport, i == reports - 1 ? 1 : 0, SyntheticData.DEFAULT_SEED + i);
+            reportFiles.add(report);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(reportsDir);
+    }
+
+    @Benchmark
+    public void scan(Blackhole blackhole) throws IOException, XMLStreamException {
+        scanReports(new SurefireReportsScanner(), blackhole);
+    }
+
+    @Benchmark
+    public void cached(Blackhole blackhole) throws IOException, XMLStreamException {
+        scanReports(cachedScanner, blackhole);
+    }
+
+    private void scanReports(SurefireReportsScanner scanner, Blackhole blackhole) throws IOException, XMLStreamException {
+        for (File report : reportFiles) {
+            blackhole.consume(scanner.isFailed(report));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.jfrog.build.extractor.maven.resolver;
+
+import org.eclipse.aether.repository.Authentication;
+import org.eclipse.aether.repository.Proxy;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.util.repository.AuthenticationBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redirects the remote repositories of a resolution request to Artifactory, as done by the repository listener for every
+ * resolved artifact and metadata.
+ * Placed in the package of the redirecting class, which is package private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EclipseRemoteRepositoryFieldsBenchmark {
+    private static final int REPOSITORIES = 100;
+
+    private RemoteRepository artifactoryRepository;
+    private List<RemoteRepository> repositories;
+
+    @Setup
+    public void setUp() {
+        Authentication authentication = new AuthenticationBuilder().addUsername("user").addPassword("password").build();
+        Proxy proxy = new Proxy(Proxy.TYPE_HTTP, "proxy.local", 8888);
+        artifactoryRepository = new RemoteRepository.Builder("artifactory-release", "default", "http://127.0.0.1:8081/artifactory/libs-release")
+                .setAuthentication(authentication)
+                .setProxy(proxy)
+                .build();
+        repositories = new ArrayList<>(REPOSITORIES);
+        for (int i = 0; i < REPOSITORIES; i++) {
+            repositories.add(new RemoteRepository.Builder("remote-" + i, "default", "https://repo" + i + ".example.com/maven2").build());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REPOSITORIES)
+    public List<RemoteRepository> redirect() throws NoSuchFieldException, IllegalAccessException {
+        for (RemoteRepository repository : repositories) {
+            EclipseRemoteRepositoryFields.redirect(artifactoryRepository, repository);
+        }
+        return repositories;
+    }
+}
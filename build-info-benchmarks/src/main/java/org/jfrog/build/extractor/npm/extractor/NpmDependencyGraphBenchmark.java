@@ -0,0 +1,50 @@
+package org.jfrog.build.extractor.npm.extractor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jfrog.build.benchmarks.SyntheticData;
+import org.jfrog.build.extractor.npm.types.NpmScope;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the deduplicated dependency graph, used to collect the npm build dependencies, with the dependency tree built
+ * from the 'npm ls' JsonNode. Run with '-prof gc' to compare the memory allocated by each of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NpmDependencyGraphBenchmark {
+
+    @Param({"5", "7"})
+    public int depth;
+
+    @Param({"5"})
+    public int width;
+
+    @Param({"200"})
+    public int uniquePackages;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private String npmLs;
+
+    @Setup
+    public void setUp() throws IOException {
+        npmLs = SyntheticData.createNpmLs(depth, width, uniquePackages, SyntheticData.DEFAULT_SEED);
+    }
+
+    @Benchmark
+    public NpmDependencyGraph dependencyGraph() throws IOException {
+        return NpmDependencyGraph.parse(npmLs);
+    }
+
+    @Benchmark
+    public DependencyTree dependencyTree() throws IOException {
+        return NpmDependencyTree.createDependencyTree(mapper.readTree(npmLs), NpmScope.PRODUCTION);
+    }
+}
@@ -0,0 +1,97 @@
+package org.jfrog.build.benchmarks;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.*;
+
+@Test
+public class BenchmarkComparisonTest {
+
+    public void testReadResults() throws IOException {
+        List<BenchmarkResult> results = read(result("org.jfrog.build.benchmarks.FileChecksumCalculatorBenchmark.calculateChecksums",
+                "avgt", "{\"fileSize\": \"4096\", \"algorithms\": \"SHA1\"}", 10.5, "\"NaN\"", ", \"secondaryMetrics\": {\"\\u00b7gc.alloc.rate.norm\": {\"score\": 1024.0}}"));
+        assertEquals(results.size(), 1);
+        BenchmarkResult result = results.get(0);
+        assertEquals(result.getMode(), "avgt");
+        assertEquals(result.getScore(), 10.5);
+        assertEquals(result.getScoreError(), 0.0);
+        assertEquals(result.getScoreUnit(), "us/op");
+        assertEquals(result.getAllocatedBytes(), 1024.0);
+        // Params are sorted by name
+        assertEquals(result.getParams().keySet().iterator().next(), "algorithms");
+        assertFalse(result.isHigherBetter());
+
+        expectThrows(IOException.class, () -> read("{}"));
+    }
+
+    public void testCompare() throws IOException {
+        List<BenchmarkResult> baseline = read(
+                result("org.jfrog.build.benchmarks.A.avgt", "avgt", "{}", 100, "2", ""),
+                result("org.jfrog.build.benchmarks.B.avgt", "avgt", "{\"size\": \"1\"}", 100, "2", ""),
+                result("org.jfrog.build.benchmarks.B.avgt", "avgt", "{\"size\": \"2\"}", 100, "2", ""),
+                result("org.jfrog.build.benchmarks.C.thrpt", "thrpt", "{}", 100, "2", ""),
+                result("org.jfrog.build.benchmarks.D.avgt", "avgt", "{}", 100, "30", ""),
+                result("org.jfrog.build.benchmarks.Removed.avgt", "avgt", "{}", 100, "2", ""));
+        List<BenchmarkResult> current = read(
+                result("org.jfrog.build.benchmarks.A.avgt", "avgt", "{}", 150, "2", ""),
+                result("org.jfrog.build.benchmarks.B.avgt", "avgt", "{\"size\": \"1\"}", 50, "2", ""),
+                result("org.jfrog.build.benchmarks.B.avgt", "avgt", "{\"size\": \"2\"}", 105, "2", ""),
+                result("org.jfrog.build.benchmarks.C.thrpt", "thrpt", "{}", 150, "2", ""),
+                result("org.jfrog.build.benchmarks.D.avgt", "avgt", "{}", 130, "30", ""),
+                result("org.jfrog.build.benchmarks.Added.avgt", "avgt", "{}", 100, "2", ""));
+        BenchmarkComparison comparison = new BenchmarkComparison(baseline, current, BenchmarkComparison.DEFAULT_THRESHOLD);
+
+        Map<String, BenchmarkComparison.Status> statuses = comparison.getRows().stream()
+                .collect(Collectors.toMap(row -> row.getBenchmark() + row.getParams(), BenchmarkComparison.Row::getStatus));
+        assertEquals(statuses.size(), 7);
+        // Slower average time
+        assertEquals(statuses.get("benchmarks.A.avgt{}"), BenchmarkComparison.Status.REGRESSED);
+        // Faster average time
+        assertEquals(statuses.get("benchmarks.B.avgt{size=1}"), BenchmarkComparison.Status.IMPROVED);
+        // Below the threshold
+        assertEquals(statuses.get("benchmarks.B.avgt{size=2}"), BenchmarkComparison.Status.UNCHANGED);
+        // Higher throughput
+        assertEquals(statuses.get("benchmarks.C.thrpt{}"), BenchmarkComparison.Status.IMPROVED);
+        // Within the score errors
+        assertEquals(statuses.get("benchmarks.D.avgt{}"), BenchmarkComparison.Status.UNCHANGED);
+        assertEquals(statuses.get("benchmarks.Added.avgt{}"), BenchmarkComparison.Status.ADDED);
+        assertEquals(statuses.get("benchmarks.Removed.avgt{}"), BenchmarkComparison.Status.REMOVED);
+        assertTrue(comparison.hasRegressions());
+
+        StringBuilder report = new StringBuilder();
+        comparison.writeMarkdown(report);
+        String[] lines = report.toString().split("\n");
+        assertEquals(lines.length, 2 + 7 + 2);
+        assertEquals(lines[2], "| benchmarks.A.avgt |  | avgt | 100.000 +- 2.000 us/op | 150.000 +- 2.000 us/op | +50.0% |  | REGRESSED |");
+        assertEquals(lines[10], "{IMPROVED=2, REGRESSED=1, UNCHANGED=2, ADDED=1, REMOVED=1}");
+    }
+
+    public void testCompareAllocations() throws IOException {
+        String allocation = ", \"secondaryMetrics\": {\"\\u00b7gc.alloc.rate.norm\": {\"score\": %s}}";
+        List<BenchmarkResult> baseline = read(result("org.jfrog.build.benchmarks.A.avgt", "avgt", "{}", 100, "2", String.format(allocation, "2048.4")));
+        List<BenchmarkResult> current = read(result("org.jfrog.build.benchmarks.A.avgt", "avgt", "{}", 100, "2", String.format(allocation, "512")));
+        BenchmarkComparison comparison = new BenchmarkComparison(baseline, current, BenchmarkComparison.DEFAULT_THRESHOLD);
+        assertFalse(comparison.hasRegressions());
+        StringBuilder report = new StringBuilder();
+        comparison.writeMarkdown(report);
+        assertTrue(report.toString().contains("| +0.0% | 2048 -> 512 | UNCHANGED |"), report.toString());
+    }
+
+    private static String result(String benchmark, String mode, String params, double score, String scoreError, String secondaryMetrics) {
+        return "{\"benchmark\": \"" + benchmark + "\", \"mode\": \"" + mode + "\", \"params\": " + params +
+                ", \"primaryMetric\": {\"score\": " + score + ", \"scoreError\": " + scoreError + ", \"scoreUnit\": \"us/op\"}" +
+                secondaryMetrics + "}";
+    }
+
+    private static List<BenchmarkResult> read(String... results) throws IOException {
+        String json = results.length == 1 && results[0].equals("{}") ? "{}" : "[" + String.join(",", results) + "]";
+        return BenchmarkResult.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,79 @@
+package org.jfrog.build.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.Module;
+import org.jfrog.build.extractor.BuildInfoExtractorUtils;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.ZipFile;
+
+import static org.testng.Assert.*;
+
+/**
+ * The synthetic data should be the same for the same seed, so that results of different runs are comparable.
+ */
+@Test
+public class SyntheticDataTest {
+
+    public void testCreateBuild() throws IOException {
+        Build build = SyntheticData.createBuild("build", "1", 5, 3, 10, 1);
+        assertEquals(build.getModules().size(), 5);
+        for (Module module : build.getModules()) {
+            assertEquals(module.getArtifacts().size(), 3);
+            assertEquals(module.getDependencies().size(), 10);
+        }
+        assertEquals(BuildInfoExtractorUtils.buildInfoToJsonString(build),
+                BuildInfoExtractorUtils.buildInfoToJsonString(SyntheticData.createBuild("build", "1", 5, 3, 10, 1)));
+        assertNotEquals(BuildInfoExtractorUtils.buildInfoToJsonString(build),
+                BuildInfoExtractorUtils.buildInfoToJsonString(SyntheticData.createBuild("build", "1", 5, 3, 10, 2)));
+    }
+
+    public void testCreateAqlResponse() throws IOException {
+        assertEquals(SyntheticData.createAqlResponse(50, 1), SyntheticData.createAqlResponse(50, 1));
+        assertEquals(BuildInfoExtractorUtils.createMapper().readTree(SyntheticData.createAqlResponse(50, 1)).get("results").size(), 50);
+    }
+
+    public void testCreateFileTree() throws IOException {
+        File first = Files.createTempDirectory("synthetic-data").toFile();
+        File second = Files.createTempDirectory("synthetic-data").toFile();
+        try {
+            // 1 + 3 + 9 directories with 2 files each
+            assertEquals(SyntheticData.createFileTree(first, 2, 3, 2, 100, 1), 26);
+            assertEquals(SyntheticData.createFileTree(second, 2, 3, 2, 100, 1), 26);
+            File firstFile = new File(first, "dir-2/dir-1/file-1.pom");
+            assertEquals(firstFile.length(), 100);
+            assertTrue(Arrays.equals(Files.readAllBytes(firstFile.toPath()), Files.readAllBytes(new File(second, "dir-2/dir-1/file-1.pom").toPath())));
+        } finally {
+            FileUtils.deleteDirectory(first);
+            FileUtils.deleteDirectory(second);
+        }
+    }
+
+    public void testCreateGoModuleZip() throws IOException {
+        File dir = Files.createTempDirectory("synthetic-data").toFile();
+        try {
+            File first = new File(dir, "first.zip");
+            File second = new File(dir, "second.zip");
+            SyntheticData.createGoModuleZip(first, "github.com/jfrog/test", 10, 1000, 1);
+            SyntheticData.createGoModuleZip(second, "github.com/jfrog/test", 10, 1000, 1);
+            assertTrue(FileUtils.contentEquals(first, second));
+            try (ZipFile zipFile = new ZipFile(first)) {
+                // The go.mod entry and the sources
+                assertEquals(zipFile.size(), 11);
+                assertNotNull(zipFile.getEntry("module/go.mod"));
+            }
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    public void testCreateNpmLs() throws IOException {
+        assertEquals(SyntheticData.createNpmLs(4, 3, 10, 1), SyntheticData.createNpmLs(4, 3, 10, 1));
+        assertEquals(SyntheticData.createArtifactPaths(100, 1), SyntheticData.createArtifactPaths(100, 1));
+    }
+}
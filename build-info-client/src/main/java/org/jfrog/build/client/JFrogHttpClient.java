@@ -39,6 +39,9 @@ public class JFrogHttpClient implements AutoCloseable {
 
     private PreemptiveHttpClient deployClient;
     private Log log;
+    private boolean compressRequests;
+    private volatile boolean requestCompressionRejected;
+    private volatile boolean requestCompressionAccepted;
 
     private JFrogHttpClient(String url, String username, String password, String accessToken, Log log) {
         this.url = StringUtils.removeEnd(url, "/");
@@ -120,6 +123,48 @@ public class JFrogHttpClient implements AutoCloseable {
         clientBuilder.setConnectionRetries(connectionRetries);
     }
 
+    /**
+     * Compress the JSON request bodies of services which support it using gzip. Responses are decompressed regardless,
+     * if the server compresses them.
+     *
+     * @param compressRequests True to compress request bodies
+     */
+    public void setCompressRequests(boolean compressRequests) {
+        this.compressRequests = compressRequests;
+    }
+
+    /**
+     * @return true if request bodies should be compressed - compression is enabled and wasn't rejected by the server
+     */
+    public boolean isCompressRequests() {
+        return compressRequests && !requestCompressionRejected;
+    }
+
+    /**
+     * Called when the server accepted a compressed request body, so that following client errors aren't attributed to
+     * the compression.
+     */
+    public void requestCompressionAccepted() {
+        requestCompressionAccepted = true;
+    }
+
+    /**
+     * @return true if the server already accepted a compressed request body
+     */
+    public boolean isRequestCompressionAccepted() {
+        return requestCompressionAccepted;
+    }
+
+    /**
+     * Called when the server rejected a compressed request body, so that the following requests are sent uncompressed.
+     */
+    public void requestCompressionRejected() {
+        if (!requestCompressionRejected) {
+            requestCompressionRejected = true;
+            log.debug("The server doesn't accept compressed request bodies, sending uncompressed request bodies.");
+        }
+    }
+
     public ProxyConfiguration getProxyConfiguration() {
         return clientBuilder.getProxyConfiguration();
     }
@@ -134,7 +179,7 @@ public class JFrogHttpClient implements AutoCloseable {
         }
     }
 
-    public PreemptiveHttpClient getHttpClient() {
+    public synchronized PreemptiveHttpClient getHttpClient() {
         if (deployClient == null) {
             deployClient = clientBuilder.build();
         }
@@ -30,6 +30,7 @@ import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.*;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.protocol.HttpContext;
+import org.jfrog.build.api.metrics.BuildMetrics;
 import org.jfrog.build.api.util.CommonUtils;
 import org.jfrog.build.api.util.Log;
 
@@ -48,6 +49,7 @@ import java.util.Set;
 public class PreemptiveHttpClient implements AutoCloseable {
 
     private static final boolean REQUEST_SENT_RETRY_ENABLED = true;
+    private static final String RETRIES_METRIC = "http.retries";
     /**
      * Used for storing the original host name, before a redirect to a new URL, on the request context.
      */
@@ -179,6 +181,7 @@ public class PreemptiveHttpClient implements AutoCloseable {
                         " and message: " + response.getStatusLine().getReasonPhrase() + ".");
                 if (executionCount <= connectionRetries) {
                     log.warn("Attempting retry #" + executionCount);
+                    BuildMetrics.get().counter(RETRIES_METRIC).increment();
                     return true;
                 }
             }
@@ -212,6 +215,7 @@ public class PreemptiveHttpClient implements AutoCloseable {
             boolean shouldRetry = super.retryRequest(exception, executionCount, context);
             if (shouldRetry) {
                 log.warn("Attempting retry #" + executionCount);
+                BuildMetrics.get().counter(RETRIES_METRIC).increment();
                 return true;
             }
 
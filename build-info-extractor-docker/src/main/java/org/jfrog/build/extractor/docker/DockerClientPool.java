@@ -0,0 +1,153 @@
+package org.jfrog.build.extractor.docker;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.core.DockerClientConfig;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Pool of docker java clients, shared by the docker operations which use the same docker daemon configuration.
+ * Creating a client bootstraps a Netty event loop, so sharing the clients saves the bootstrap of every operation.
+ * <p>
+ * A client which isn't used for {@link #IDLE_TIMEOUT_MILLIS} is closed. Since the Netty threads of an open client
+ * prevent the JVM from exiting, processes which use the pool should call {@link #closeAll()} when done.
+ */
+public class DockerClientPool {
+    static final long IDLE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    // The default docker client config implements equals, so clients are pooled by their configuration
+    private static final Map<DockerClientConfig, PooledClient> clients = new HashMap<>();
+    private static ScheduledExecutorService evictor;
+
+    private DockerClientPool() {
+    }
+
+    /**
+     * Acquire a shared client for the docker daemon configuration. The returned lease must be closed when the client is
+     * no longer used, typically using a try-with-resources block. The client itself must not be closed.
+     *
+     * @param config  - The docker client configuration
+     * @param factory - Creates a new client for the configuration, if there's no pooled client for it
+     * @return a lease of the client
+     */
+    static synchronized Lease acquire(DockerClientConfig config, Function<DockerClientConfig, DockerClient> factory) {
+        PooledClient pooledClient = clients.get(config);
+        if (pooledClient == null) {
+            pooledClient = new PooledClient(factory.apply(config));
+            clients.put(config, pooledClient);
+            scheduleEviction();
+        }
+        pooledClient.leases++;
+        return new Lease(pooledClient);
+    }
+
+    /**
+     * Close all pooled clients. Clients which are currently in use are closed when their leases are closed.
+     */
+    public static synchronized void closeAll() {
+        clients.values().forEach(DockerClientPool::evict);
+        clients.clear();
+    }
+
+    /**
+     * @return the number of pooled clients
+     */
+    static synchronized int size() {
+        return clients.size();
+    }
+
+    /**
+     * Close the clients which weren't used since the idle timeout.
+     *
+     * @param now - The current time in milliseconds
+     */
+    static synchronized void evictIdleClients(long now) {
+        Iterator<PooledClient> iterator = clients.values().iterator();
+        while (iterator.hasNext()) {
+            PooledClient pooledClient = iterator.next();
+            if (pooledClient.leases == 0 && now - pooledClient.lastUsed >= IDLE_TIMEOUT_MILLIS) {
+                iterator.remove();
+                evict(pooledClient);
+            }
+        }
+    }
+
+    private static void scheduleEviction() {
+        if (evictor != null) {
+            return;
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "docker-client-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(() -> evictIdleClients(System.currentTimeMillis()),
+                IDLE_TIMEOUT_MILLIS / 2, IDLE_TIMEOUT_MILLIS / 2, TimeUnit.MILLISECONDS);
+    }
+
+    private static void evict(PooledClient pooledClient) {
+        pooledClient.evicted = true;
+        if (pooledClient.leases == 0) {
+            closeQuietly(pooledClient.client);
+        }
+    }
+
+    private static synchronized void release(PooledClient pooledClient) {
+        pooledClient.leases--;
+        pooledClient.lastUsed = System.currentTimeMillis();
+        if (pooledClient.evicted && pooledClient.leases == 0) {
+            closeQuietly(pooledClient.client);
+        }
+    }
+
+    private static void closeQuietly(DockerClient client) {
+        try {
+            client.close();
+        } catch (IOException | RuntimeException e) {
+            // Ignore - the client is no longer used
+        }
+    }
+
+    private static class PooledClient {
+        private final DockerClient client;
+        private int leases;
+        private long lastUsed = System.currentTimeMillis();
+        private boolean evicted;
+
+        private PooledClient(DockerClient client) {
+            this.client = client;
+        }
+    }
+
+    /**
+     * A lease of a pooled docker client. Closing the lease returns the client to the pool.
+     */
+    public static class Lease implements AutoCloseable {
+        private final PooledClient pooledClient;
+        private boolean closed;
+
+        private Lease(PooledClient pooledClient) {
+            this.pooledClient = pooledClient;
+        }
+
+        public DockerClient getClient() {
+            if (closed) {
+                throw new IllegalStateException("The docker client lease is closed");
+            }
+            return pooledClient.client;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(pooledClient);
+            }
+        }
+    }
+}
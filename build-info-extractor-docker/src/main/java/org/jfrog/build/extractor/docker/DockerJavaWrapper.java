@@ -15,7 +15,6 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.jfrog.build.api.util.Log;
 
-import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.HashSet;
@@ -36,23 +35,39 @@ public class DockerJavaWrapper {
         final AuthConfig authConfig = new AuthConfig();
         authConfig.withUsername(username);
         authConfig.withPassword(password);
-        DockerClient dockerClient = null;
-        try {
-            dockerClient = getDockerClient(host, envVars);
-            dockerClient.pushImageCmd(imageTag).withAuthConfig(authConfig).exec(new PushImageResultCallback()).awaitCompletion();
-        } finally {
-            closeQuietly(dockerClient, logger);
+        try (DockerClientPool.Lease lease = acquireDockerClient(host, envVars)) {
+            lease.getClient().pushImageCmd(imageTag).withAuthConfig(authConfig).exec(new PushImageResultCallback()).awaitCompletion();
         }
     }
 
     /**
-     * Gets the docker java client.
+     * Gets a new docker java client. The client should be closed by the caller.
      *
      * @param host    - Docker daemon ip.
      * @param envVars - System env variables.
      * @return - Docker java client
      */
     public static DockerClient getDockerClient(String host, Map<String, String> envVars) {
+        return createDockerClient(createDockerClientConfig(host, envVars));
+    }
+
+    /**
+     * Acquire a docker java client from the {@link DockerClientPool}. The client is shared by all operations which use the
+     * same docker daemon configuration, and it is returned to the pool by closing the lease.
+     *
+     * @param host    - Docker daemon ip.
+     * @param envVars - System env variables.
+     * @return - A lease of a pooled docker java client
+     */
+    public static DockerClientPool.Lease acquireDockerClient(String host, Map<String, String> envVars) {
+        return DockerClientPool.acquire(createDockerClientConfig(host, envVars), DockerJavaWrapper::createDockerClient);
+    }
+
+    private static DockerClient createDockerClient(DockerClientConfig config) {
+        return DockerClientBuilder.getInstance(config).withDockerCmdExecFactory(new NettyDockerCmdExecFactory()).build();
+    }
+
+    private static DockerClientConfig createDockerClientConfig(String host, Map<String, String> envVars) {
         if (envVars == null) {
             throw new IllegalStateException("envVars must not be null");
         }
@@ -73,8 +88,7 @@ public class DockerJavaWrapper {
             configBuilder.withDockerCertPath(envVars.get(DefaultDockerClientConfig.DOCKER_CERT_PATH));
         }
 
-        DockerClientConfig config = configBuilder.build();
-        return DockerClientBuilder.getInstance(config).withDockerCmdExecFactory(new NettyDockerCmdExecFactory()).build();
+        return configBuilder.build();
     }
 
     /**
@@ -105,30 +119,17 @@ public class DockerJavaWrapper {
     }
 
     /**
-     * Get image Id from imageTag using DockerClient.
+     * Inspect the image using DockerClient. A single inspection returns the image ID, architecture and OS together, so it
+     * should be preferred over calling {@link #getImageIdFromTag} and {@link #getImageArch} separately.
      *
      * @param imageTag - Docker image tag.
      * @param host     - Docker daemon ip.
      * @param envVars  - System env variables.
-     * @return - Docker image tag
+     * @return - Docker image inspection response
      */
     public static InspectImageResponse InspectImage(String imageTag, String host, Map<String, String> envVars, Log logger) {
-        DockerClient dockerClient = null;
-        try {
-            dockerClient = getDockerClient(host, envVars);
-            return dockerClient.inspectImageCmd(imageTag).exec();
-        } finally {
-            closeQuietly(dockerClient, logger);
-        }
-    }
-
-    private static void closeQuietly(DockerClient dockerClient, Log logger) {
-        if (dockerClient != null) {
-            try {
-                dockerClient.close();
-            } catch (IOException e) {
-                logger.error("Closes docker client failed.");
-            }
+        try (DockerClientPool.Lease lease = acquireDockerClient(host, envVars)) {
+            return lease.getClient().inspectImageCmd(imageTag).exec();
         }
     }
 
@@ -145,12 +146,8 @@ public class DockerJavaWrapper {
         final AuthConfig authConfig = new AuthConfig();
         authConfig.withUsername(username);
         authConfig.withPassword(password);
-        DockerClient dockerClient = null;
-        try {
-            dockerClient = getDockerClient(host, envVars);
-            dockerClient.pullImageCmd(imageTag).withAuthConfig(authConfig).exec(new PullImageResultCallback()).awaitCompletion();
-        } finally {
-            closeQuietly(dockerClient, logger);
+        try (DockerClientPool.Lease lease = acquireDockerClient(host, envVars)) {
+            lease.getClient().pullImageCmd(imageTag).withAuthConfig(authConfig).exec(new PullImageResultCallback()).awaitCompletion();
         }
     }
 
@@ -163,9 +160,10 @@ public class DockerJavaWrapper {
      * @param projectPath - Location of the docker file
      */
     public static void buildImage(String imageName, String host, Map<String, String> envVars, String projectPath) {
-        DockerClient dockerClient = DockerJavaWrapper.getDockerClient(host, envVars);
-        // Build the docker image with the name provided from env.
-        BuildImageCmd buildImageCmd = dockerClient.buildImageCmd(Paths.get(projectPath).toFile()).withTags(new HashSet<>(Collections.singletonList(imageName)));
-        buildImageCmd.exec(new BuildImageResultCallback()).awaitImageId();
+        try (DockerClientPool.Lease lease = acquireDockerClient(host, envVars)) {
+            // Build the docker image with the name provided from env.
+            BuildImageCmd buildImageCmd = lease.getClient().buildImageCmd(Paths.get(projectPath).toFile()).withTags(new HashSet<>(Collections.singletonList(imageName)));
+            buildImageCmd.exec(new BuildImageResultCallback()).awaitImageId();
+        }
     }
 }
@@ -1,13 +1,14 @@
 package org.jfrog.build.extractor.docker.extractor;
 
+import com.github.dockerjava.api.command.InspectImageResponse;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
-import org.apache.commons.lang3.tuple.Pair;
 import org.jfrog.build.api.Build;
 import org.jfrog.build.api.Module;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.extractor.clientConfiguration.ArtifactoryClientConfiguration;
 import org.jfrog.build.extractor.clientConfiguration.ArtifactoryManagerBuilder;
+import org.jfrog.build.extractor.docker.DockerClientPool;
 import org.jfrog.build.extractor.docker.DockerJavaWrapper;
 import org.jfrog.build.extractor.docker.DockerUtils;
 import org.jfrog.build.extractor.docker.types.DockerImage;
@@ -60,6 +61,8 @@ public class DockerPull extends DockerCommand {
         } catch (RuntimeException e) {
             ExceptionUtils.printRootCauseStackTrace(e, System.out);
             System.exit(1);
+        } finally {
+            DockerClientPool.closeAll();
         }
     }
 
@@ -72,9 +75,8 @@ public class DockerPull extends DockerCommand {
         logger.info(message);
         try {
             DockerJavaWrapper.pullImage(imageTag, username, password, host, env, logger);
-            String imageId = DockerJavaWrapper.getImageIdFromTag(imageTag, host, env, logger);
-            Pair<String, String> archDetails = DockerJavaWrapper.getImageArch(imageTag, host, env, logger);
-            DockerImage image = new DockerImage(imageId, imageTag, "", targetRepository, artifactoryManagerBuilder, archDetails.getLeft(), archDetails.getRight());
+            InspectImageResponse inspection = DockerJavaWrapper.InspectImage(imageTag, host, env, logger);
+            DockerImage image = new DockerImage(inspection.getId(), imageTag, "", targetRepository, artifactoryManagerBuilder, inspection.getArch(), inspection.getOs());
             Module module = image.generateBuildInfoModule(logger, DockerUtils.CommandType.Pull);
             if (module.getDependencies() == null || module.getDependencies().size() == 0) {
                 logger.warn("Could not find docker image: " + imageTag + " in Artifactory.");
@@ -0,0 +1,138 @@
+package org.jfrog.build.extractor.docker;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectImageResponse;
+import com.github.dockerjava.core.DefaultDockerClientConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jfrog.build.api.util.NullLog;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the docker java wrapper against a local fake docker daemon API served over TCP.
+ */
+@Test
+public class DockerJavaWrapperTest {
+    private static final String IMAGE_ID = "sha256:0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private Map<String, String> env;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handleRequest);
+        server.start();
+        env = Collections.singletonMap(DefaultDockerClientConfig.DOCKER_HOST, "tcp://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @AfterClass
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @BeforeMethod
+    @AfterMethod
+    public void reset() {
+        DockerClientPool.closeAll();
+        requests.clear();
+    }
+
+    public void testInspectImage() {
+        InspectImageResponse response = DockerJavaWrapper.InspectImage("hello-world:latest", null, env, new NullLog());
+        assertEquals(response.getId(), IMAGE_ID);
+        assertEquals(response.getArch(), "amd64");
+        assertEquals(response.getOs(), "linux");
+        assertEquals(requests.size(), 1);
+        assertTrue(requests.get(0).endsWith("/images/hello-world:latest/json"), requests.get(0));
+    }
+
+    public void testClientReused() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(DockerJavaWrapper.getImageIdFromTag("hello-world:latest", null, env, new NullLog()), IMAGE_ID);
+        }
+        assertEquals(requests.size(), 5);
+        assertEquals(DockerClientPool.size(), 1);
+
+        DockerClient client;
+        try (DockerClientPool.Lease first = DockerJavaWrapper.acquireDockerClient(null, env);
+             DockerClientPool.Lease second = DockerJavaWrapper.acquireDockerClient(null, env)) {
+            client = first.getClient();
+            assertSame(second.getClient(), client);
+        }
+        // A different docker daemon host uses a different client
+        try (DockerClientPool.Lease other = DockerJavaWrapper.acquireDockerClient(null,
+                Collections.singletonMap(DefaultDockerClientConfig.DOCKER_HOST, "tcp://127.0.0.1:1"))) {
+            assertNotSame(other.getClient(), client);
+        }
+        assertEquals(DockerClientPool.size(), 2);
+    }
+
+    public void testCloseAll() {
+        DockerClient client;
+        try (DockerClientPool.Lease lease = DockerJavaWrapper.acquireDockerClient(null, env)) {
+            client = lease.getClient();
+            // A client in use remains usable after closing the pool, until its lease is closed
+            DockerClientPool.closeAll();
+            assertEquals(DockerClientPool.size(), 0);
+            assertEquals(client.inspectImageCmd("hello-world:latest").exec().getId(), IMAGE_ID);
+            expectThrows(IllegalStateException.class, () -> {
+                lease.close();
+                lease.getClient();
+            });
+        }
+        try (DockerClientPool.Lease lease = DockerJavaWrapper.acquireDockerClient(null, env)) {
+            assertNotSame(lease.getClient(), client);
+        }
+    }
+
+    public void testEvictIdleClients() {
+        try (DockerClientPool.Lease ignored = DockerJavaWrapper.acquireDockerClient(null, env)) {
+            // Clients in use are never evicted
+            DockerClientPool.evictIdleClients(Long.MAX_VALUE);
+            assertEquals(DockerClientPool.size(), 1);
+        }
+        DockerClientPool.evictIdleClients(System.currentTimeMillis());
+        assertEquals(DockerClientPool.size(), 1);
+        DockerClientPool.evictIdleClients(System.currentTimeMillis() + DockerClientPool.IDLE_TIMEOUT_MILLIS);
+        assertEquals(DockerClientPool.size(), 0);
+    }
+
+    private void handleRequest(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        requests.add(path);
+        if (path.endsWith("/images/hello-world:latest/json")) {
+            respond(exchange, 200, "{\"Id\":\"" + IMAGE_ID + "\",\"RepoTags\":[\"hello-world:latest\"]," +
+                    "\"Architecture\":\"amd64\",\"Os\":\"linux\",\"Size\":13336}");
+        } else {
+            respond(exchange, 404, "{\"message\":\"No such image\"}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
@@ -2,7 +2,9 @@ package org.jfrog.build.extractor.go.extractor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ArrayListMultimap;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jfrog.build.api.Artifact;
 import org.jfrog.build.api.Build;
@@ -18,13 +20,22 @@ import org.jfrog.build.extractor.clientConfiguration.client.artifactory.Artifact
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
 import org.jfrog.build.extractor.go.GoDriver;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -42,6 +53,8 @@ public class GoPublish extends GoCommand {
 
     private ArrayListMultimap<String, String> properties;
     private List<Artifact> artifactList = new ArrayList<>();
+    // Temp files created in the project directory, deleted if the publish fails before deleting them
+    private final List<File> tempFiles = new ArrayList<>();
     private String deploymentRepo;
     private String version;
 
@@ -65,57 +78,151 @@ public class GoPublish extends GoCommand {
     }
 
     public Build execute() {
+        ExecutorService executor = Executors.newFixedThreadPool(GoZipBallStreamer.DEFAULT_COMPRESSION_THREADS);
         try (ArtifactoryManager artifactoryManager = artifactoryManagerBuilder.build()) {
             preparePrerequisites(deploymentRepo, artifactoryManager);
-            publishPkg(artifactoryManager);
-            return createBuild();
+            addDeployedArtifacts(publishPkg(artifactoryManager, executor, GoZipBallStreamer.DEFAULT_COMPRESSION_THREADS));
+            return createBuild(Collections.singletonList(createModule()));
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+            deleteTempFiles();
         }
         return null;
     }
 
+    /**
+     * Publish several go packages concurrently.
+     * The files of all packages are compressed and uploaded by one bounded pool. The deployable zips are written one after
+     * the other by the calling thread, while the files of the packages which were already written are uploaded.
+     *
+     * @param goPublishers - The packages to publish.
+     * @param threads      - The number of threads which compress and upload the files of all packages.
+     * @return A build containing the modules of all packages, in the order of the given publishers,
+     * or null if the publishing of any of the packages failed.
+     */
+    public static Build execute(List<GoPublish> goPublishers, int threads) {
+        int parallelism = Math.max(1, threads);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        List<ArtifactoryManager> artifactoryManagers = new ArrayList<>();
+        GoPublish current = null;
+        try {
+            List<List<Future<Artifact>>> deployments = new ArrayList<>();
+            for (GoPublish goPublish : goPublishers) {
+                current = goPublish;
+                ArtifactoryManager artifactoryManager = goPublish.artifactoryManagerBuilder.build();
+                artifactoryManagers.add(artifactoryManager);
+                goPublish.preparePrerequisites(goPublish.deploymentRepo, artifactoryManager);
+                deployments.add(goPublish.publishPkg(artifactoryManager, executor, parallelism));
+            }
+            List<Module> modules = new ArrayList<>();
+            for (int i = 0; i < goPublishers.size(); i++) {
+                current = goPublishers.get(i);
+                current.addDeployedArtifacts(deployments.get(i));
+                modules.add(current.createModule());
+            }
+            return createBuild(modules);
+        } catch (Exception e) {
+            current.logger.error(e.getMessage(), e);
+            return null;
+        } finally {
+            executor.shutdownNow();
+            artifactoryManagers.forEach(ArtifactoryManager::close);
+            goPublishers.forEach(GoPublish::deleteTempFiles);
+        }
+    }
+
     /**
      * The deployment of a Go package requires 3 files:
      * 1. zip file of source files.
      * 2. go.mod file.
      * 3. go.info file.
+     * The project directory is archived first, so that the files created in it later aren't archived. The go.mod and
+     * info files are then uploaded by the executor, while the calling thread writes the deployable zip, whose entries are
+     * compressed by the executor. The zip is uploaded by the executor too. The executor tasks never wait for each other,
+     * so the executor may be shared by several packages.
+     *
+     * @return the deployments of the above files, in the above order, which is the order of the build-info artifacts
      */
-    private void publishPkg(ArtifactoryManager artifactoryManager) throws Exception {
-        createAndDeployZip(artifactoryManager);
-        deployGoMod(artifactoryManager);
-        createAndDeployInfo(artifactoryManager);
-    }
-
-    private void createAndDeployZip(ArtifactoryManager artifactoryManager) throws Exception {
+    private List<Future<Artifact>> publishPkg(ArtifactoryManager artifactoryManager, ExecutorService executor, int parallelism) throws Exception {
         // First, we create a temporary zip file of all project files.
         File tmpZipFile = archiveProjectDir();
+        tempFiles.add(tmpZipFile);
+        Future<Artifact> modDeployment = executor.submit(() -> deployGoMod(artifactoryManager));
+        Future<Artifact> infoDeployment = executor.submit(() -> createAndDeployInfo(artifactoryManager));
 
         // Second, filter the raw zip file according to Go rules and create deployable zip can be later resolved.
         // We use the same code as Artifactory when he resolve a Go module directly from Github.
         File deployableZipFile = File.createTempFile(LOCAL_PKG_FILENAME, PKG_ZIP_FILE_EXTENSION, path.toFile());
+        tempFiles.add(deployableZipFile);
+        Map<String, String> checksums;
         try (GoZipBallStreamer pkgArchiver = new GoZipBallStreamer(new ZipFile(tmpZipFile), moduleName, version, logger)) {
-            pkgArchiver.writeDeployableZip(deployableZipFile);
-            Artifact deployedPackage = deploy(artifactoryManager, deployableZipFile, PKG_ZIP_FILE_EXTENSION);
-            artifactList.add(deployedPackage);
+            // The checksums are calculated while the zip is written, instead of reading the zip again.
+            MessageDigest md5 = MessageDigest.getInstance(MD5);
+            MessageDigest sha1 = MessageDigest.getInstance(SHA1);
+            try (OutputStream outputStream = new DigestOutputStream(new DigestOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(deployableZipFile)), md5), sha1)) {
+                pkgArchiver.writeDeployableZip(outputStream, path.toFile(), executor, parallelism);
+            }
+            checksums = new HashMap<>();
+            checksums.put(MD5, Hex.encodeHexString(md5.digest()));
+            checksums.put(SHA1, Hex.encodeHexString(sha1.digest()));
         } finally {
             Files.deleteIfExists(tmpZipFile.toPath());
+        }
+        Future<Artifact> zipDeployment = executor.submit(() -> deployZip(artifactoryManager, deployableZipFile, checksums));
+        return Arrays.asList(zipDeployment, modDeployment, infoDeployment);
+    }
+
+    private void addDeployedArtifacts(List<Future<Artifact>> deployments) throws Exception {
+        for (Future<Artifact> deployment : deployments) {
+            artifactList.add(getDeployedArtifact(deployment));
+        }
+    }
+
+    private Artifact getDeployedArtifact(Future<Artifact> deployment) throws Exception {
+        try {
+            return deployment.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    private Artifact deployZip(ArtifactoryManager artifactoryManager, File deployableZipFile, Map<String, String> checksums) throws Exception {
+        try {
+            return deploy(artifactoryManager, deployableZipFile, PKG_ZIP_FILE_EXTENSION, checksums);
+        } finally {
             Files.deleteIfExists(deployableZipFile.toPath());
         }
     }
 
-    private void deployGoMod(ArtifactoryManager artifactoryManager) throws Exception {
-        String modLocalPath = getModFilePath();
-        Artifact deployedMod = deploy(artifactoryManager, new File(modLocalPath), PKG_MOD_FILE_EXTENSION);
-        artifactList.add(deployedMod);
+    private Artifact deployGoMod(ArtifactoryManager artifactoryManager) throws Exception {
+        File modFile = new File(getModFilePath());
+        Map<String, String> checksums = FileChecksumCalculator.calculateChecksums(modFile, MD5, SHA1);
+        return deploy(artifactoryManager, modFile, PKG_MOD_FILE_EXTENSION, checksums);
     }
 
-    private void createAndDeployInfo(ArtifactoryManager artifactoryManager) throws Exception {
-        String infoLocalPath = path.toString() + File.separator + LOCAL_INFO_FILENAME;
-        File infoFile = writeInfoFile(infoLocalPath);
-        Artifact deployedInfo = deploy(artifactoryManager, infoFile, PKG_INFO_FILE_EXTENSION);
-        artifactList.add(deployedInfo);
-        infoFile.delete();
+    private Artifact createAndDeployInfo(ArtifactoryManager artifactoryManager) throws Exception {
+        // The project directory was already archived, so the info file may be created in it.
+        File infoFile = File.createTempFile(LOCAL_INFO_FILENAME, null, path.toFile());
+        try {
+            byte[] infoContent = createInfoContent();
+            Files.write(infoFile.toPath(), infoContent);
+            Map<String, String> checksums = FileChecksumCalculator.calculateStreamChecksums(new ByteArrayInputStream(infoContent), MD5, SHA1);
+            return deploy(artifactoryManager, infoFile, PKG_INFO_FILE_EXTENSION, checksums);
+        } finally {
+            Files.deleteIfExists(infoFile.toPath());
+        }
+    }
+
+    /**
+     * Delete the temp files which weren't deleted due to a failure.
+     */
+    private void deleteTempFiles() {
+        tempFiles.forEach(FileUtils::deleteQuietly);
+        tempFiles.clear();
     }
 
     private File archiveProjectDir() throws IOException {
@@ -143,8 +250,7 @@ public class GoPublish extends GoCommand {
      * 1. The package's version.
      * 2. The package creation timestamp.
      */
-    private File writeInfoFile(String localInfoPath) throws IOException {
-        File infoFile = new File(localInfoPath);
+    private byte[] createInfoContent() throws IOException {
         ObjectMapper mapper = new ObjectMapper();
         Map<String, String> infoMap = new HashMap();
         Date date = new Date();
@@ -153,16 +259,14 @@ public class GoPublish extends GoCommand {
         infoMap.put("Version", version);
         infoMap.put("Time", instant.toString());
 
-        mapper.writeValue(infoFile, infoMap);
-        return infoFile;
+        return mapper.writeValueAsBytes(infoMap);
     }
 
     /**
      * Deploy pkg file and add it as an buildInfo's artifact
      */
-    private Artifact deploy(ArtifactoryManager artifactoryManager, File deployedFile, String extension) throws Exception {
+    private Artifact deploy(ArtifactoryManager artifactoryManager, File deployedFile, String extension, Map<String, String> checksums) throws Exception {
         String artifactName = version + "." + extension;
-        Map<String, String> checksums = FileChecksumCalculator.calculateChecksums(deployedFile, MD5, SHA1);
         String remotePath = moduleName + "/@v";
         DeployDetails deployDetails = new DeployDetails.Builder()
                 .file(deployedFile)
@@ -182,16 +286,19 @@ public class GoPublish extends GoCommand {
                 .build();
     }
 
-    private Build createBuild() {
-        Build build = new Build();
+    private Module createModule() {
         String moduleId = StringUtils.defaultIfBlank(buildInfoModuleId, moduleName);
-        Module module = new ModuleBuilder()
+        return new ModuleBuilder()
                 .type(ModuleType.GO)
                 .id(moduleId)
                 .repository(deploymentRepo)
                 .artifacts(artifactList)
                 .build();
-        build.setModules(Collections.singletonList(module));
+    }
+
+    private static Build createBuild(List<Module> modules) {
+        Build build = new Build();
+        build.setModules(modules);
         return build;
     }
 }
@@ -40,14 +40,26 @@ import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.jfrog.build.api.util.Log;
 
-import java.io.Closeable;
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Enumeration;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.ZipEntry;
 
 
@@ -65,6 +77,12 @@ public class GoZipBallStreamer implements Closeable {
     private String subModuleName;
     private static final String MOD_FILE = "/go.mod";
     private static final String VENDOR = "vendor/";
+    // Entries are written with a fixed timestamp, so that packing the same sources twice produces the same zip and checksums.
+    private static final long ENTRY_TIME = 0L;
+    // Compressed entries up to this size are kept in memory. Larger entries are spilled to a temp file.
+    private static final long IN_MEMORY_ENTRY_THRESHOLD = 4 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    public static final int DEFAULT_COMPRESSION_THREADS = Runtime.getRuntime().availableProcessors();
 
     public GoZipBallStreamer(ZipFile zipFile, String projectName, String version, Log log) {
         this.zipFile = zipFile;
@@ -75,20 +93,202 @@ public class GoZipBallStreamer implements Closeable {
     }
 
     public void writeDeployableZip(File deployableZip) throws IOException {
+        writeDeployableZip(deployableZip, DEFAULT_COMPRESSION_THREADS);
+    }
+
+    /**
+     * Write the deployable zip, compressing its entries using the given number of threads.
+     * The entries are always written in the order of the original zip, so the output does not depend on the number of threads.
+     *
+     * @param deployableZip      - The output zip file.
+     * @param compressionThreads - Number of threads used to compress the entries. 1 means sequential compression.
+     */
+    public void writeDeployableZip(File deployableZip, int compressionThreads) throws IOException {
         try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(deployableZip)) {
             archiveOutputStream = zos;
-            packProject();
+            if (compressionThreads <= 1) {
+                packProject();
+            } else {
+                packProjectConcurrently(zos, deployableZip.getAbsoluteFile().getParentFile(), compressionThreads);
+            }
             archiveOutputStream.finish();
             archiveOutputStream.flush();
         }
     }
 
+    /**
+     * Write the deployable zip to a stream, so that the zip can be processed while it is written.
+     * A stream can't be rewritten after an entry is added, so the entries are always compressed ahead by the worker
+     * threads and added as raw entries, as done when writing the zip file concurrently.
+     *
+     * @param outputStream       - The output stream. The stream is not closed.
+     * @param tempDir            - Directory for compressed entries that are too large to be kept in memory.
+     * @param compressionThreads - Number of threads used to compress the entries.
+     */
+    public void writeDeployableZip(OutputStream outputStream, File tempDir, int compressionThreads) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, compressionThreads));
+        try {
+            writeDeployableZip(outputStream, tempDir, executor, compressionThreads);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Write the deployable zip to a stream, compressing its entries by the given executor, which may be shared with other
+     * work such as uploads. The calling thread writes the zip and waits for the compressed entries, so it must not be a
+     * thread of the executor.
+     *
+     * @param outputStream - The output stream. The stream is not closed.
+     * @param tempDir      - Directory for compressed entries that are too large to be kept in memory.
+     * @param executor     - The executor which compresses the entries. Not shut down.
+     * @param parallelism  - The number of entries compressed at the same time, used to bound the entries in flight.
+     */
+    public void writeDeployableZip(OutputStream outputStream, File tempDir, ExecutorService executor, int parallelism) throws IOException {
+        ZipArchiveOutputStream zos = new ZipArchiveOutputStream(new CloseShieldOutputStream(outputStream));
+        archiveOutputStream = zos;
+        packProjectConcurrently(zos, tempDir, executor, Math.max(1, parallelism));
+        zos.finish();
+        zos.close();
+    }
+
     protected void packProject() throws IOException {
         initiateProjectType();
         scanEntries();
         writeEntries();
     }
 
+    /**
+     * Pack the project, while compressing the entries in parallel.
+     * Each entry is deflated by a worker thread and then added to the output zip as a raw, pre-compressed entry.
+     * The number of entries in flight is bounded, to limit the memory and temp files used for the compressed data.
+     *
+     * @param zos                - The output zip stream.
+     * @param tempDir            - Directory for compressed entries that are too large to be kept in memory.
+     * @param compressionThreads - Number of compression threads.
+     */
+    private void packProjectConcurrently(ZipArchiveOutputStream zos, File tempDir, int compressionThreads) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(compressionThreads);
+        try {
+            packProjectConcurrently(zos, tempDir, executor, compressionThreads);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void packProjectConcurrently(ZipArchiveOutputStream zos, File tempDir, ExecutorService executor, int parallelism) throws IOException {
+        initiateProjectType();
+        scanEntries();
+        Deque<Future<CompressedEntry>> pending = new ArrayDeque<>();
+        try {
+            Enumeration<? extends ZipArchiveEntry> entries = zipFile.getEntries();
+            while (entries.hasMoreElements()) {
+                ZipArchiveEntry zipEntry = entries.nextElement();
+                if (zipEntry.isDirectory() || zipFile.getUnixSymlink(zipEntry) != null || excludeEntry(zipEntry.getName())) {
+                    continue;
+                }
+                pending.addLast(executor.submit(() -> compressEntry(zipEntry, tempDir)));
+                if (pending.size() > parallelism * 2) {
+                    writeCompressedEntry(zos, pending.removeFirst());
+                }
+            }
+            while (!pending.isEmpty()) {
+                writeCompressedEntry(zos, pending.removeFirst());
+            }
+        } finally {
+            releasePendingEntries(pending);
+        }
+    }
+
+    /**
+     * Release the compressed data of entries which were not written due to a failure.
+     */
+    private void releasePendingEntries(Deque<Future<CompressedEntry>> pending) {
+        // The executor may be shared, so the pending entries are awaited instead of the executor termination.
+        // The number of pending entries is bounded, so this doesn't take long.
+        boolean interrupted = false;
+        for (Future<CompressedEntry> future : pending) {
+            while (true) {
+                try {
+                    CompressedEntry compressedEntry = future.get();
+                    if (compressedEntry != null) {
+                        compressedEntry.close();
+                    }
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException ignored) {
+                    // The entry failed, nothing to release
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Deflate a single entry of the original zip.
+     *
+     * @return The compressed entry, or null if the entry couldn't be read.
+     */
+    private CompressedEntry compressEntry(ZipArchiveEntry originalEntry, File tempDir) {
+        ZipArchiveEntry correctedEntry = getCorrectedEntryName(originalEntry.getName(), originalEntry.getSize());
+        long size = originalEntry.getSize();
+        CompressedEntry compressedEntry = new CompressedEntry(correctedEntry);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            OutputStream sink;
+            if (size >= 0 && size <= IN_MEMORY_ENTRY_THRESHOLD) {
+                compressedEntry.buffer = new ByteArrayOutputStream((int) (size / 2) + 64);
+                sink = compressedEntry.buffer;
+            } else {
+                compressedEntry.spillFile = File.createTempFile("go-entry", ".deflated", tempDir);
+                sink = new BufferedOutputStream(new FileOutputStream(compressedEntry.spillFile), BUFFER_SIZE);
+            }
+            CRC32 crc = new CRC32();
+            CountingOutputStream compressedCounter = new CountingOutputStream(sink);
+            long uncompressedSize;
+            try (CheckedInputStream in = new CheckedInputStream(zipFile.getInputStream(originalEntry), crc);
+                 DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(compressedCounter, deflater, BUFFER_SIZE)) {
+                uncompressedSize = IOUtils.copyLarge(in, deflaterOutputStream);
+            }
+            correctedEntry.setMethod(ZipEntry.DEFLATED);
+            correctedEntry.setSize(uncompressedSize);
+            correctedEntry.setCompressedSize(compressedCounter.getByteCount());
+            correctedEntry.setCrc(crc.getValue());
+            return compressedEntry;
+        } catch (IOException e) {
+            log.error("Could not read or compress entity from zip for Go package " + projectName, e);
+            compressedEntry.close();
+            return null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeCompressedEntry(ZipArchiveOutputStream zos, Future<CompressedEntry> future) throws IOException {
+        CompressedEntry compressedEntry;
+        try {
+            compressedEntry = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing zip entries for Go package " + projectName, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not compress zip entries for Go package " + projectName, e.getCause());
+        }
+        if (compressedEntry == null) {
+            // Failed to read the entry. The error was already logged.
+            return;
+        }
+        try (InputStream rawStream = compressedEntry.getRawStream()) {
+            zos.addRawArchiveEntry(compressedEntry.entry, rawStream);
+        } finally {
+            compressedEntry.close();
+        }
+    }
+
     /**
      * Determine if the project is a compatible module from version 2+, a sub module or an incompatible module
      */
@@ -152,6 +352,7 @@ public class GoZipBallStreamer implements Closeable {
         String correctedEntryName = String.join("/", projectName + "@" + version, subPath);
         ZipArchiveEntry zipArchiveEntry = new ZipArchiveEntry(correctedEntryName);
         zipArchiveEntry.setSize(entryLength);
+        zipArchiveEntry.setTime(ENTRY_TIME);
         return zipArchiveEntry;
     }
 
@@ -287,4 +488,37 @@ public class GoZipBallStreamer implements Closeable {
     public void close() throws IOException {
         zipFile.close();
     }
-}
\ No newline at end of file
+
+    /**
+     * A deflated zip entry, waiting to be written to the output zip.
+     * The compressed data is kept in memory for small entries, or in a temp file for large entries.
+     */
+    private static class CompressedEntry implements Closeable {
+        private final ZipArchiveEntry entry;
+        private ByteArrayOutputStream buffer;
+        private File spillFile;
+
+        private CompressedEntry(ZipArchiveEntry entry) {
+            this.entry = entry;
+        }
+
+        private InputStream getRawStream() throws IOException {
+            if (spillFile != null) {
+                return new BufferedInputStream(new FileInputStream(spillFile), BUFFER_SIZE);
+            }
+            return new ByteArrayInputStream(buffer.toByteArray());
+        }
+
+        @Override
+        public void close() {
+            buffer = null;
+            if (spillFile != null) {
+                try {
+                    Files.deleteIfExists(spillFile.toPath());
+                } catch (IOException ignored) {
+                    spillFile.deleteOnExit();
+                }
+            }
+        }
+    }
+}
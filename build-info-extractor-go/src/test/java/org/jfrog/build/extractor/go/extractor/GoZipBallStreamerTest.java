@@ -0,0 +1,148 @@
+package org.jfrog.build.extractor.go.extractor;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jfrog.build.extractor.util.TestingLog;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.*;
+
+@Test
+public class GoZipBallStreamerTest {
+
+    private static final String MODULE_NAME = "github.com/jfrog/dummy";
+    private static final String VERSION = "v1.0.0";
+
+    private File tempDir;
+    private File sourceZip;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("go-zip-ball-streamer").toFile();
+        sourceZip = new File(tempDir, "source.zip");
+        Random random = new Random(7);
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(sourceZip)) {
+            addEntry(zos, "dummy/go.mod", ("module " + MODULE_NAME).getBytes(StandardCharsets.UTF_8));
+            addEntry(zos, "dummy/LICENSE", "license".getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < 50; i++) {
+                addEntry(zos, "dummy/pkg" + (i % 5) + "/file" + i + ".go", ("package pkg" + (i % 5) + "\n// " + i).getBytes(StandardCharsets.UTF_8));
+            }
+            // Large entries, which are compressed through temp files
+            byte[] large = new byte[6 * 1024 * 1024];
+            random.nextBytes(large);
+            addEntry(zos, "dummy/assets/random.bin", large);
+            Arrays.fill(large, (byte) 'a');
+            addEntry(zos, "dummy/assets/repeated.bin", large);
+            // Excluded vendor package
+            addEntry(zos, "dummy/vendor/github.com/other/lib.go", "package lib".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    public void testConcurrentCompressionMatchesSequential() throws IOException {
+        File sequential = writeDeployableZip("sequential.zip", 1);
+        File concurrent = writeDeployableZip("concurrent.zip", 4);
+
+        Map<String, byte[]> sequentialEntries = readEntries(sequential);
+        Map<String, byte[]> concurrentEntries = readEntries(concurrent);
+        assertEquals(new ArrayList<>(concurrentEntries.keySet()), new ArrayList<>(sequentialEntries.keySet()));
+        sequentialEntries.forEach((name, content) -> assertEquals(concurrentEntries.get(name), content, "Content mismatch in " + name));
+
+        assertTrue(concurrentEntries.containsKey(MODULE_NAME + "@" + VERSION + "/go.mod"));
+        assertTrue(concurrentEntries.containsKey(MODULE_NAME + "@" + VERSION + "/assets/random.bin"));
+        assertFalse(concurrentEntries.containsKey(MODULE_NAME + "@" + VERSION + "/vendor/github.com/other/lib.go"));
+    }
+
+    public void testConcurrentCompressionIsDeterministic() throws IOException {
+        File first = writeDeployableZip("first.zip", 3);
+        File second = writeDeployableZip("second.zip", 8);
+        assertTrue(FileUtils.contentEquals(first, second), "Expecting identical zips regardless of the number of threads");
+    }
+
+    public void testReproducibleAcrossRuns() throws IOException, InterruptedException {
+        File sequential = writeDeployableZip("sequential-first.zip", 1);
+        File concurrent = writeDeployableZip("concurrent-first.zip", 4);
+        // Zip entry times have a resolution of 2 seconds, so the second run is written with a different time
+        Thread.sleep(2500);
+        assertTrue(FileUtils.contentEquals(sequential, writeDeployableZip("sequential-second.zip", 1)),
+                "Expecting identical zips when packing the same sources again");
+        assertTrue(FileUtils.contentEquals(concurrent, writeDeployableZip("concurrent-second.zip", 4)),
+                "Expecting identical zips when packing the same sources again");
+        assertTrue(FileUtils.contentEquals(sequential, concurrent), "Expecting identical zips regardless of the number of threads");
+    }
+
+    public void testWriteToStream() throws IOException {
+        File file = writeDeployableZip("file.zip", 4);
+        File streamed = new File(tempDir, "streamed.zip");
+        try (GoZipBallStreamer streamer = new GoZipBallStreamer(new ZipFile(sourceZip), MODULE_NAME, VERSION, new TestingLog());
+             OutputStream outputStream = new FileOutputStream(streamed)) {
+            streamer.writeDeployableZip(outputStream, tempDir, 2);
+        }
+        assertTrue(FileUtils.contentEquals(file, streamed), "Expecting the streamed zip to be identical to the zip file");
+    }
+
+    public void testSharedExecutor() throws IOException {
+        File file = writeDeployableZip("file.zip", 4);
+        // Several zips are written by the same executor, which isn't shut down by the streamer
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                File streamed = new File(tempDir, "shared-" + i + ".zip");
+                try (GoZipBallStreamer streamer = new GoZipBallStreamer(new ZipFile(sourceZip), MODULE_NAME, VERSION, new TestingLog());
+                     OutputStream outputStream = new FileOutputStream(streamed)) {
+                    streamer.writeDeployableZip(outputStream, tempDir, executor, 2);
+                }
+                assertTrue(FileUtils.contentEquals(file, streamed), "Expecting the zip written by a shared executor to be identical to the zip file");
+            }
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private File writeDeployableZip(String name, int threads) throws IOException {
+        File deployableZip = new File(tempDir, name);
+        try (GoZipBallStreamer streamer = new GoZipBallStreamer(new ZipFile(sourceZip), MODULE_NAME, VERSION, new TestingLog())) {
+            streamer.writeDeployableZip(deployableZip, threads);
+        }
+        return deployableZip;
+    }
+
+    private static Map<String, byte[]> readEntries(File zip) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            for (ZipArchiveEntry entry : Collections.list(zipFile.getEntriesInPhysicalOrder())) {
+                try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                    entries.put(entry.getName(), IOUtils.toByteArray(inputStream));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static void addEntry(ZipArchiveOutputStream zos, String name, byte[] content) throws IOException {
+        zos.putArchiveEntry(new ZipArchiveEntry(name));
+        zos.write(content);
+        zos.closeArchiveEntry();
+    }
+}
@@ -26,6 +26,7 @@ import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
 import org.jfrog.gradle.plugin.artifactory.ArtifactoryPlugin;
 import org.jfrog.gradle.plugin.artifactory.ArtifactoryPluginUtil;
 import org.jfrog.gradle.plugin.artifactory.extractor.listener.ArtifactoryDependencyResolutionListener;
+import org.jfrog.gradle.plugin.artifactory.extractor.listener.ModulesHierarchyMap;
 import org.jfrog.gradle.plugin.artifactory.task.ArtifactoryTask;
 
 import javax.annotation.Nullable;
@@ -119,7 +120,7 @@ public class GradleModuleExtractor implements ModuleExtractor<Project> {
     private List<Dependency> calculateDependencies(Project project, String moduleId) throws Exception {
         ArtifactoryDependencyResolutionListener artifactoryDependencyResolutionListener =
                 project.getRootProject().getPlugins().getPlugin(ArtifactoryPlugin.class).getArtifactoryDependencyResolutionListener();
-        Map<String, String[][]> requestedByMap = artifactoryDependencyResolutionListener.getModulesHierarchyMap().get(moduleId);
+        ModulesHierarchyMap<ModuleVersionIdentifier> modulesHierarchyMap = artifactoryDependencyResolutionListener.getModulesHierarchyMap();
 
         Set<Configuration> configurationSet = project.getConfigurations();
         List<Dependency> dependencies = newArrayList();
@@ -153,8 +154,9 @@ public class GradleModuleExtractor implements ModuleExtractor<Project> {
                                         artifact.getClassifier(), artifact.getExtension()))
                                 .id(depId)
                                 .scopes(Sets.newHashSet(configuration.getName()));
-                        if (requestedByMap != null) {
-                            dependencyBuilder.requestedBy(requestedByMap.get(depId));
+                        String[][] requestedBy = modulesHierarchyMap.getRequestedBy(moduleId, depId);
+                        if (requestedBy != null) {
+                            dependencyBuilder.requestedBy(requestedBy);
                         }
                         if (file.isFile()) {
                             // In recent gradle builds (3.4+) subproject dependencies are represented by a dir not jar.
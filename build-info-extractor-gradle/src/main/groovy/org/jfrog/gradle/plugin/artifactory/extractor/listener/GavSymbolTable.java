@@ -0,0 +1,95 @@
+package org.jfrog.gradle.plugin.artifactory.extractor.listener;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A thread-safe symbol table, mapping each distinct module identifier to a single GAV string and a compact int ID.
+ * The GAV string of each module is built once, no matter how many times the module is resolved.
+ *
+ * @param <K> - The module identifier type
+ */
+public class GavSymbolTable<K> {
+    public static final int NOT_FOUND = -1;
+
+    private final ConcurrentMap<K, Integer> keyIds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> gavIds = new ConcurrentHashMap<>();
+    private final Function<K, String> gavFunction;
+    private volatile String[] gavs = new String[64];
+    private int size;
+
+    /**
+     * @param gavFunction - Function to build the GAV string of a module identifier
+     */
+    public GavSymbolTable(Function<K, String> gavFunction) {
+        this.gavFunction = gavFunction;
+    }
+
+    /**
+     * Get the ID of a module identifier, and add it to the table if needed.
+     *
+     * @param key - The module identifier
+     * @return the ID of the module
+     */
+    public int intern(K key) {
+        Integer id = keyIds.get(key);
+        if (id != null) {
+            return id;
+        }
+        return keyIds.computeIfAbsent(key, k -> intern(gavFunction.apply(k)));
+    }
+
+    /**
+     * Get the ID of a GAV string, and add it to the table if needed.
+     *
+     * @param gav - The GAV string
+     * @return the ID of the GAV
+     */
+    public int intern(String gav) {
+        Integer id = gavIds.get(gav);
+        if (id != null) {
+            return id;
+        }
+        return gavIds.computeIfAbsent(gav, this::append);
+    }
+
+    /**
+     * @param gav - The GAV string
+     * @return the ID of the GAV or NOT_FOUND if it is not in the table
+     */
+    public int getId(String gav) {
+        Integer id = gavIds.get(gav);
+        return id == null ? NOT_FOUND : id;
+    }
+
+    /**
+     * @param id - ID returned from this table
+     * @return the GAV string of the ID
+     */
+    public String getGav(int id) {
+        return gavs[id];
+    }
+
+    /**
+     * @return the number of distinct GAVs in the table
+     */
+    public int size() {
+        return gavIds.size();
+    }
+
+    /**
+     * Add a GAV to the ID to GAV array. The array element is written before the ID is published through the GAV to ID map,
+     * therefore any thread which got the ID can read the GAV.
+     */
+    private synchronized int append(String gav) {
+        String[] current = gavs;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+            gavs = current;
+        }
+        current[size] = gav;
+        return size++;
+    }
+}
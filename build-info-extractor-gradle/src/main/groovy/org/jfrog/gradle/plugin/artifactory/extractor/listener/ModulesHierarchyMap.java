@@ -0,0 +1,92 @@
+package org.jfrog.gradle.plugin.artifactory.extractor.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A thread-safe dependency hierarchy map for each module, used in the 'requestedBy' field of every dependency in the build info.
+ * Instead of storing the full path to root of each dependency, each dependency is stored once per module with a pointer to its parent.
+ * Modules and dependencies are represented by IDs of a shared {@link GavSymbolTable}. The paths to root are reconstructed on demand.
+ *
+ * @param <K> - The module identifier type
+ */
+public class ModulesHierarchyMap<K> {
+    private final ConcurrentMap<Integer, ConcurrentMap<Integer, Integer>> modulesParents = new ConcurrentHashMap<>();
+    private final GavSymbolTable<K> symbols;
+
+    /**
+     * @param gavFunction - Function to build the GAV string of a module identifier
+     */
+    public ModulesHierarchyMap(Function<K, String> gavFunction) {
+        this.symbols = new GavSymbolTable<>(gavFunction);
+    }
+
+    /**
+     * Add a dependency of a module. If the dependency was already added to the module, it keeps its original parent.
+     *
+     * @param module     - The module (the root of the dependency graph)
+     * @param dependency - The dependency
+     * @param parent     - The module or dependency that requested the dependency
+     */
+    public void addDependency(K module, K dependency, K parent) {
+        ConcurrentMap<Integer, Integer> parents = modulesParents.computeIfAbsent(symbols.intern(module), id -> new ConcurrentHashMap<>());
+        int dependencyId = symbols.intern(dependency);
+        if (!parents.containsKey(dependencyId)) {
+            parents.putIfAbsent(dependencyId, symbols.intern(parent));
+        }
+    }
+
+    /**
+     * Get the path to root of a dependency in a module.
+     * The path starts with the dependency's parent and ends with the module. In case of a circular dependency, the path ends before
+     * the first repeated item.
+     *
+     * @param moduleGav     - The module GAV
+     * @param dependencyGav - The dependency GAV
+     * @return a single path to root of the dependency, or null if the dependency was not added to the module
+     */
+    public String[][] getRequestedBy(String moduleGav, String dependencyGav) {
+        int moduleId = symbols.getId(moduleGav);
+        int dependencyId = symbols.getId(dependencyGav);
+        if (moduleId == GavSymbolTable.NOT_FOUND || dependencyId == GavSymbolTable.NOT_FOUND) {
+            return null;
+        }
+        ConcurrentMap<Integer, Integer> parents = modulesParents.get(moduleId);
+        if (parents == null) {
+            return null;
+        }
+        Integer current = parents.get(dependencyId);
+        if (current == null) {
+            return null;
+        }
+        List<Integer> path = new ArrayList<>();
+        while (current != null && !path.contains(current)) {
+            path.add(current);
+            if (current == moduleId) {
+                break;
+            }
+            current = parents.get(current);
+        }
+        String[] pathToRoot = new String[path.size()];
+        for (int i = 0; i < pathToRoot.length; i++) {
+            pathToRoot[i] = symbols.getGav(path.get(i));
+        }
+        return new String[][]{pathToRoot};
+    }
+
+    /**
+     * @param moduleGav - The module GAV
+     * @return true if dependencies were added to the module
+     */
+    public boolean containsModule(String moduleGav) {
+        int moduleId = symbols.getId(moduleGav);
+        return moduleId != GavSymbolTable.NOT_FOUND && modulesParents.containsKey(moduleId);
+    }
+
+    GavSymbolTable<K> getSymbols() {
+        return symbols;
+    }
+}
@@ -14,14 +14,17 @@ import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.TaskAction;
 import org.jfrog.build.api.Build;
 import org.jfrog.build.api.BuildInfoConfigProperties;
+import org.jfrog.build.api.metrics.JsonMetricsReporter;
 import org.jfrog.build.client.ArtifactoryUploadResponse;
 import org.jfrog.build.extractor.BuildInfoExtractorUtils;
 import org.jfrog.build.extractor.clientConfiguration.ArtifactoryClientConfiguration;
 import org.jfrog.build.extractor.clientConfiguration.IncludeExcludePatterns;
 import org.jfrog.build.extractor.clientConfiguration.PatternMatcher;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ChecksumPreflight;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
-import org.jfrog.build.extractor.clientConfiguration.deploy.DeployableArtifactsUtils;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeployableArtifactsWriter;
+import org.jfrog.build.extractor.clientConfiguration.deploy.PublishSpool;
 import org.jfrog.build.extractor.retention.Utils;
 import org.jfrog.gradle.plugin.artifactory.ArtifactoryPluginUtil;
 import org.jfrog.gradle.plugin.artifactory.extractor.*;
@@ -31,6 +34,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.stream.Collectors;
 
 /**
  * @author Ruben Perez
@@ -71,41 +75,75 @@ public class DeployTask extends DefaultTask {
     private void prepareAndDeploy() throws IOException {
         ArtifactoryClientConfiguration accRoot =
                 ArtifactoryPluginUtil.getArtifactoryConvention(getProject()).getClientConfig();
+        JsonMetricsReporter metricsReporter = JsonMetricsReporter.startIfConfigured(accRoot.getMetricsFile());
+        PublishSpool spool = openSpool(accRoot);
+        try {
+            prepareAndDeploy(accRoot, spool);
+            if (spool != null) {
+                spool.delete();
+            }
+        } finally {
+            if (spool != null) {
+                spool.close();
+            }
+            JsonMetricsReporter.closeQuietly(metricsReporter, accRoot.getLog());
+        }
+    }
+
+    /**
+     * Open the publish spool, if configured. A spool left by a failed publish is resumed,
+     * so that artifacts which were already deployed are skipped.
+     */
+    private PublishSpool openSpool(ArtifactoryClientConfiguration accRoot) throws IOException {
+        String spoolPath = accRoot.publisher.getSpoolPath();
+        if (StringUtils.isBlank(spoolPath)) {
+            return null;
+        }
+        return PublishSpool.open(new File(spoolPath), new GradleClientLogger(log));
+    }
 
+    private void prepareAndDeploy(ArtifactoryClientConfiguration accRoot, PublishSpool spool) throws IOException {
         Map<String, String> propsRoot = accRoot.publisher.getProps();
 
         // Reset the default properties, they may have changed
         GradleArtifactoryClientConfigUpdater.setMissingBuildAttributes(
                 accRoot, getProject().getRootProject());
 
-        Map<String, Set<DeployDetails>> allDeployDetails = new ConcurrentHashMap<>();
         List<ArtifactoryTask> orderedTasks = findArtifactoryPublishTasks(getProject().getGradle().getTaskGraph());
 
-        int publishForkCount = getPublishForkCount(accRoot);
-        if (publishForkCount <= 1) {
-            orderedTasks.forEach(t -> deployArtifacts(accRoot, propsRoot, allDeployDetails, t, null));
-        } else {
-            try {
-                ExecutorService executor = Executors.newFixedThreadPool(publishForkCount);
-                CompletableFuture<Void> allUploads = CompletableFuture.allOf(orderedTasks.stream()
-                        .map(t -> CompletableFuture.runAsync(() -> deployArtifacts(accRoot, propsRoot, allDeployDetails, t, "[" + Thread.currentThread().getName() + "]"), executor))
-                        .toArray(CompletableFuture[]::new));
-                allUploads.get();
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException(e);
+        // Extract Build Info. The build info is read from the module info files, so it doesn't depend on the deployment.
+        GradleBuildInfoExtractor gbie = new GradleBuildInfoExtractor(accRoot, moduleInfoFileProducers);
+        Build build = gbie.extract(getProject().getRootProject());
+        if (spool != null && accRoot.publisher.getContextUrl() != null && isPublishBuildInfo(accRoot) && !accRoot.info.isIncremental()) {
+            // Write the build info to the spool before anything is deployed, so that a failed publish can be resumed
+            spool.setBuildInfo(build);
+        }
+
+        // The deployable artifacts of each project are written to the file once they are deployed
+        try (DeployableArtifactsWriter deployableArtifactsWriter = openDeployableArtifactsWriter(accRoot)) {
+            int publishForkCount = getPublishForkCount(accRoot);
+            if (publishForkCount <= 1) {
+                orderedTasks.forEach(t -> deployArtifacts(accRoot, propsRoot, deployableArtifactsWriter, t, null, spool));
+            } else {
+                try {
+                    ExecutorService executor = Executors.newFixedThreadPool(publishForkCount);
+                    CompletableFuture<Void> allUploads = CompletableFuture.allOf(orderedTasks.stream()
+                            .map(t -> CompletableFuture.runAsync(() -> deployArtifacts(accRoot, propsRoot, deployableArtifactsWriter, t, "[" + Thread.currentThread().getName() + "]", spool), executor))
+                            .toArray(CompletableFuture[]::new));
+                    allUploads.get();
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new RuntimeException(e);
+                }
             }
         }
 
-        // Extract Build Info.
-        GradleBuildInfoExtractor gbie = new GradleBuildInfoExtractor(accRoot, moduleInfoFileProducers);
-        Build build = gbie.extract(getProject().getRootProject());
         exportBuildInfo(build, getExportFile(accRoot));
 
         // Export generated.
         generateBuildInfoJson(accRoot, build);
 
         // Handle deployment.
-        handleBuildInfoDeployment(accRoot, build, allDeployDetails);
+        handleBuildInfoDeployment(accRoot, build, spool);
     }
 
     private void generateBuildInfoJson(ArtifactoryClientConfiguration accRoot, Build build) throws IOException {
@@ -119,7 +157,7 @@ public class DeployTask extends DefaultTask {
         }
     }
 
-    private void handleBuildInfoDeployment(ArtifactoryClientConfiguration accRoot, Build build, Map<String, Set<DeployDetails>> allDeployDetails) throws IOException {
+    private void handleBuildInfoDeployment(ArtifactoryClientConfiguration accRoot, Build build, PublishSpool spool) throws IOException {
         String contextUrl = accRoot.publisher.getContextUrl();
         if (contextUrl != null) {
             try (ArtifactoryManager artifactoryManager = new ArtifactoryManager(
@@ -127,6 +165,7 @@ public class DeployTask extends DefaultTask {
                     accRoot.publisher.getUsername(),
                     accRoot.publisher.getPassword(),
                     new GradleClientLogger(log))) {
+                artifactoryManager.setCompressRequests(accRoot.isCompressRequests());
 
                 if (isPublishBuildInfo(accRoot)) {
                     // If export property set always save the file before sending it to artifactory
@@ -134,25 +173,23 @@ public class DeployTask extends DefaultTask {
                     if (accRoot.info.isIncremental()) {
                         log.debug("Publishing build info modules to artifactory at: '{}'", contextUrl);
                         artifactoryManager.sendModuleInfo(build);
+                    } else if (spool == null) {
+                        log.debug("Publishing build info to artifactory at: '{}'", contextUrl);
+                        Utils.sendBuildAndBuildRetention(artifactoryManager, build, accRoot);
+                    } else if (spool.isBuildInfoPublished()) {
+                        log.debug("Build info was already published to artifactory at: '{}'", contextUrl);
                     } else {
                         log.debug("Publishing build info to artifactory at: '{}'", contextUrl);
                         Utils.sendBuildAndBuildRetention(artifactoryManager, build, accRoot);
-                    }
-                }
-                if (isGenerateDeployableArtifactsToFile(accRoot)) {
-                    try {
-                        exportDeployableArtifacts(allDeployDetails, new File(accRoot.info.getDeployableArtifactsFilePath()), accRoot.info.isBackwardCompatibleDeployableArtifacts());
-                    } catch (Exception e) {
-                        log.error("Failed writing deployable artifacts to file: ", e);
-                        throw new RuntimeException("Failed writing deployable artifacts to file", e);
+                        spool.buildInfoPublished();
                     }
                 }
             }
         }
     }
 
-    private void deployArtifacts(ArtifactoryClientConfiguration accRoot, Map<String, String> propsRoot, Map<String,
-            Set<DeployDetails>> allDeployDetails, ArtifactoryTask artifactoryTask, String logPrefix) {
+    private void deployArtifacts(ArtifactoryClientConfiguration accRoot, Map<String, String> propsRoot,
+                                 DeployableArtifactsWriter deployableArtifactsWriter, ArtifactoryTask artifactoryTask, String logPrefix, PublishSpool spool) {
         try {
             if (artifactoryTask.getDidWork()) {
                 ArtifactoryClientConfiguration.PublisherHandler publisher =
@@ -182,16 +219,20 @@ public class DeployTask extends DefaultTask {
                             configureProxy(accRoot, artifactoryManager);
                             configConnectionTimeout(accRoot, artifactoryManager);
                             configRetriesParams(accRoot, artifactoryManager);
-                            deployArtifacts(artifactoryTask.deployDetails, artifactoryManager, patterns, logPrefix, publisher.getMinChecksumDeploySizeKb());
+                            artifactoryManager.setCompressRequests(accRoot.isCompressRequests());
+                            deployArtifacts(artifactoryTask.getProject().getName(), artifactoryTask.deployDetails, artifactoryManager, patterns,
+                                    logPrefix, publisher.getMinChecksumDeploySizeKb(), spool);
                         }
                     }
 
-                    if (!artifactoryTask.deployDetails.isEmpty()) {
+                    if (deployableArtifactsWriter != null && !artifactoryTask.deployDetails.isEmpty()) {
                         Set<DeployDetails> deployDetailsSet = new LinkedHashSet<>();
                         for (GradleDeployDetails details : artifactoryTask.deployDetails) {
                             deployDetailsSet.add(details.getDeployDetails());
                         }
-                        allDeployDetails.put(artifactoryTask.getProject().getName(), deployDetailsSet);
+                        synchronized (deployableArtifactsWriter) {
+                            deployableArtifactsWriter.writeModule(artifactoryTask.getProject().getName(), deployDetailsSet);
+                        }
                     }
                 }
             } else {
@@ -235,9 +276,21 @@ public class DeployTask extends DefaultTask {
         BuildInfoExtractorUtils.saveBuildInfoToFile(build, toFile);
     }
 
-    private void exportDeployableArtifacts(Map<String, Set<DeployDetails>> allDeployDetails, File toFile, boolean exportBackwardCompatibleDeployableArtifacts) throws IOException {
+    /**
+     * @return a writer of the deployable artifacts file, or null if the file should not be created.
+     */
+    private DeployableArtifactsWriter openDeployableArtifactsWriter(ArtifactoryClientConfiguration accRoot) throws IOException {
+        if (accRoot.publisher.getContextUrl() == null || !isGenerateDeployableArtifactsToFile(accRoot)) {
+            return null;
+        }
+        File toFile = new File(accRoot.info.getDeployableArtifactsFilePath());
         log.debug("Exporting deployable artifacts to '{}'", toFile.getAbsolutePath());
-        DeployableArtifactsUtils.saveDeployableArtifactsToFile(allDeployDetails, toFile, exportBackwardCompatibleDeployableArtifacts);
+        try {
+            return new DeployableArtifactsWriter(toFile, accRoot.info.isBackwardCompatibleDeployableArtifacts());
+        } catch (IOException e) {
+            log.error("Failed writing deployable artifacts to file: ", e);
+            throw new IOException("Failed writing deployable artifacts to file", e);
+        }
     }
 
     private File getExportFile(ArtifactoryClientConfiguration clientConf) {
@@ -268,19 +321,36 @@ public class DeployTask extends DefaultTask {
         return !StringUtils.isEmpty(acc.info.getDeployableArtifactsFilePath());
     }
 
-    private void deployArtifacts(Set<GradleDeployDetails> allDeployDetails, ArtifactoryManager artifactoryManager,
-                                 IncludeExcludePatterns patterns, String logPrefix, int minChecksumDeploySizeKb)
+    private void deployArtifacts(String module, Set<GradleDeployDetails> allDeployDetails, ArtifactoryManager artifactoryManager,
+                                 IncludeExcludePatterns patterns, String logPrefix, int minChecksumDeploySizeKb, PublishSpool spool)
             throws IOException {
+        List<GradleDeployDetails> deployableDetails = new ArrayList<>();
         for (GradleDeployDetails detail : allDeployDetails) {
-            DeployDetails deployDetails = detail.getDeployDetails();
-            String artifactPath = deployDetails.getArtifactPath();
+            String artifactPath = detail.getDeployDetails().getArtifactPath();
             if (PatternMatcher.pathConflicts(artifactPath, patterns)) {
                 log.log(LogLevel.LIFECYCLE, "Skipping the deployment of '" + artifactPath +
                         "' due to the defined include-exclude patterns.");
                 continue;
             }
+            deployableDetails.add(detail);
+        }
+        if (spool != null) {
+            // Record the deploy plan, and skip the artifacts which were already deployed by a failed publish
+            spool.addArtifacts(module, deployableDetails.stream()
+                    .map(GradleDeployDetails::getDeployDetails)
+                    .collect(Collectors.toList()));
+            deployableDetails.removeIf(detail -> spool.restoreDeployed(detail.getDeployDetails()));
+        }
+        ChecksumPreflight checksumPreflight = artifactoryManager.preflightChecksums(deployableDetails.stream()
+                .map(GradleDeployDetails::getDeployDetails)
+                .collect(Collectors.toList()));
+        for (GradleDeployDetails detail : deployableDetails) {
+            DeployDetails deployDetails = detail.getDeployDetails();
             try {
                 ArtifactoryUploadResponse response = artifactoryManager.upload(deployDetails, logPrefix, minChecksumDeploySizeKb);
+                if (spool != null) {
+                    spool.artifactDeployed(deployDetails, response.getPath(), response.getChecksums().getSha256());
+                }
                 detail.getDeployDetails().setDeploySucceeded(true);
                 detail.getDeployDetails().setSha256(response.getChecksums().getSha256());
             } catch (IOException e){
@@ -289,6 +359,7 @@ public class DeployTask extends DefaultTask {
                 throw e;
             }
         }
+        checksumPreflight.logSummary();
     }
 
     private List<ArtifactoryTask> findArtifactoryPublishTasks(TaskExecutionGraph graph) {
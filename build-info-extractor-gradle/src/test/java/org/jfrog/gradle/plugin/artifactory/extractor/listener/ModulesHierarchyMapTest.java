@@ -0,0 +1,110 @@
+package org.jfrog.gradle.plugin.artifactory.extractor.listener;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the modules hierarchy map, including concurrent updates as done by Gradle when running with --parallel.
+ */
+@Test
+public class ModulesHierarchyMapTest {
+    private static final int MODULES = 50;
+    private static final int DEPENDENCIES = 200;
+    private static final int THREADS = 8;
+
+    public void testRequestedBy() {
+        ModulesHierarchyMap<String> hierarchyMap = new ModulesHierarchyMap<>(key -> key);
+        // module -> a -> b -> c
+        hierarchyMap.addDependency("module", "a", "module");
+        hierarchyMap.addDependency("module", "b", "a");
+        hierarchyMap.addDependency("module", "c", "b");
+        // The first parent of a dependency is kept
+        hierarchyMap.addDependency("module", "c", "a");
+
+        assertEquals(getPathToRoot(hierarchyMap, "module", "a"), new String[]{"module"});
+        assertEquals(getPathToRoot(hierarchyMap, "module", "c"), new String[]{"b", "a", "module"});
+        assertNull(hierarchyMap.getRequestedBy("module", "d"));
+        assertNull(hierarchyMap.getRequestedBy("a", "b"));
+        assertTrue(hierarchyMap.containsModule("module"));
+        assertFalse(hierarchyMap.containsModule("a"));
+    }
+
+    public void testCircularDependencies() {
+        ModulesHierarchyMap<String> hierarchyMap = new ModulesHierarchyMap<>(key -> key);
+        // a -> b -> c -> b
+        hierarchyMap.addDependency("module", "b", "c");
+        hierarchyMap.addDependency("module", "c", "b");
+        hierarchyMap.addDependency("module", "a", "b");
+
+        assertEquals(getPathToRoot(hierarchyMap, "module", "a"), new String[]{"b", "c"});
+    }
+
+    public void testSymbolsInterned() {
+        ModulesHierarchyMap<String> hierarchyMap = new ModulesHierarchyMap<>(key -> key);
+        hierarchyMap.addDependency("module1", "a", "module1");
+        hierarchyMap.addDependency("module2", "a", "module2");
+        hierarchyMap.addDependency("module2", "b", "a");
+
+        assertEquals(hierarchyMap.getSymbols().size(), 4);
+        assertSame(hierarchyMap.getRequestedBy("module2", "b")[0][0], hierarchyMap.getSymbols().getGav(hierarchyMap.getSymbols().getId("a")));
+    }
+
+    /**
+     * Each module has a chain of dependencies: module -> dep-0 -> dep-1 -> ... -> dep-N.
+     * Dependencies are shared between modules and added concurrently, and in a different order in each thread.
+     */
+    public void testConcurrentUpdates() throws Exception {
+        ModulesHierarchyMap<String> hierarchyMap = new ModulesHierarchyMap<>(key -> key);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int i = 0; i < MODULES; i++) {
+                        String module = "module-" + ((i + offset) % MODULES);
+                        for (int j = 0; j < DEPENDENCIES; j++) {
+                            int dep = (j + offset * 7) % DEPENDENCIES;
+                            // Create new strings, to make sure the symbols are interned
+                            String parent = dep == 0 ? module : new String("org:dep:" + (dep - 1));
+                            hierarchyMap.addDependency(new String(module), new String("org:dep:" + dep), parent);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(hierarchyMap.getSymbols().size(), MODULES + DEPENDENCIES);
+        for (int i = 0; i < MODULES; i++) {
+            String module = "module-" + i;
+            String[][] requestedBy = hierarchyMap.getRequestedBy(module, "org:dep:" + (DEPENDENCIES - 1));
+            assertNotNull(requestedBy);
+            String[] pathToRoot = requestedBy[0];
+            assertEquals(pathToRoot.length, DEPENDENCIES);
+            for (int j = 0; j < DEPENDENCIES - 1; j++) {
+                assertEquals(pathToRoot[j], "org:dep:" + (DEPENDENCIES - 2 - j));
+            }
+            assertEquals(pathToRoot[DEPENDENCIES - 1], module);
+        }
+    }
+
+    private static String[] getPathToRoot(ModulesHierarchyMap<String> hierarchyMap, String module, String dependency) {
+        String[][] requestedBy = hierarchyMap.getRequestedBy(module, dependency);
+        assertNotNull(requestedBy);
+        assertEquals(requestedBy.length, 1);
+        return requestedBy[0];
+    }
+}
@@ -13,12 +13,14 @@ import org.apache.tools.ant.*;
 import org.apache.tools.ant.taskdefs.Ant;
 import org.jfrog.build.api.*;
 import org.jfrog.build.api.builder.BuildInfoBuilder;
+import org.jfrog.build.api.metrics.JsonMetricsReporter;
 import org.jfrog.build.context.BuildContext;
 import org.jfrog.build.extractor.BuildInfoExtractorUtils;
 import org.jfrog.build.extractor.clientConfiguration.ArtifactoryClientConfiguration;
 import org.jfrog.build.extractor.clientConfiguration.IncludeExcludePatterns;
 import org.jfrog.build.extractor.clientConfiguration.PatternMatcher;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ChecksumPreflight;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
 import org.jfrog.build.extractor.packageManager.PackageManagerUtils;
 import org.jfrog.build.extractor.retention.Utils;
@@ -27,7 +29,13 @@ import org.jfrog.build.util.IvyBuildInfoLog;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 /**
@@ -43,6 +51,7 @@ public class ArtifactoryBuildListener implements BuildListener {
     private boolean isDidDeploy;
     private BuildContext ctx;
     private IvyBuildInfoLog buildInfoLog;
+    private JsonMetricsReporter metricsReporter;
 
     private void assertInitialized(BuildEvent event) {
         if (buildInfoLog != null) {
@@ -85,6 +94,7 @@ public class ArtifactoryBuildListener implements BuildListener {
         try {
             getBuildInfoLog(event).debug("[buildinfo:ant] Received Build Started Event");
             ctx.setBuildStartTime(System.currentTimeMillis());
+            metricsReporter = JsonMetricsReporter.startIfConfigured(ctx.getClientConf().getMetricsFile());
             getBuildInfoLog(event).info("[buildinfo:ant] Build Started timestamp=" + ctx.getBuildStartTime());
         } catch (Exception e) {
             RuntimeException re = new RuntimeException("Fail to register start of build, due to: " + e.getMessage(), e);
@@ -121,6 +131,8 @@ public class ArtifactoryBuildListener implements BuildListener {
                 }
             }
         } finally {
+            JsonMetricsReporter.closeQuietly(metricsReporter, getBuildInfoLog(event));
+            metricsReporter = null;
             String propertyFilePath = System.getenv(BuildInfoConfigProperties.PROP_PROPS_FILE);
             if (StringUtils.isNotBlank(propertyFilePath)) {
                 File file = new File(propertyFilePath);
@@ -363,11 +375,12 @@ public class ArtifactoryBuildListener implements BuildListener {
             configureProxy(clientConf, artifactoryManager);
             configConnectionTimeout(clientConf, artifactoryManager);
             configRetriesParams(clientConf, artifactoryManager);
+            artifactoryManager.setCompressRequests(clientConf.isCompressRequests());
             if (clientConf.publisher.isPublishArtifacts()) {
                 IncludeExcludePatterns patterns = new IncludeExcludePatterns(
                         clientConf.publisher.getIncludePatterns(), clientConf.publisher.getExcludePatterns());
 
-                deployArtifacts(project, artifactoryManager, deployDetails, patterns);
+                deployArtifacts(project, artifactoryManager, deployDetails, patterns, clientConf.publisher.getPublishForkCount());
             }
             if (clientConf.publisher.isPublishBuildInfo()) {
                 Utils.sendBuildAndBuildRetention(artifactoryManager, build, clientConf);
@@ -378,8 +391,14 @@ public class ArtifactoryBuildListener implements BuildListener {
         }
     }
 
-    private void deployArtifacts(Project project, ArtifactoryManager artifactoryManager, Set<DeployDetails> deployDetails,
-                                 IncludeExcludePatterns patterns) throws IOException {
+    /**
+     * Deploy the artifacts which are not excluded by the include-exclude patterns.
+     * The artifacts are uploaded concurrently by up to 'publishForkCount' threads. After the first failure, the remaining
+     * artifacts are not uploaded.
+     */
+    void deployArtifacts(Project project, ArtifactoryManager artifactoryManager, Set<DeployDetails> deployDetails,
+                         IncludeExcludePatterns patterns, int publishForkCount) throws IOException {
+        List<DeployDetails> deployableArtifacts = new ArrayList<>(deployDetails.size());
         for (DeployDetails deployDetail : deployDetails) {
             String artifactPath = deployDetail.getArtifactPath();
             if (PatternMatcher.pathConflicts(artifactPath, patterns)) {
@@ -387,7 +406,45 @@ public class ArtifactoryBuildListener implements BuildListener {
                         "' due to the defined include-exclude patterns.", Project.MSG_INFO);
                 continue;
             }
-            artifactoryManager.upload(deployDetail);
+            deployableArtifacts.add(deployDetail);
+        }
+        ChecksumPreflight checksumPreflight = artifactoryManager.preflightChecksums(deployableArtifacts);
+        if (publishForkCount <= 1 || deployableArtifacts.size() <= 1) {
+            for (DeployDetails deployDetail : deployableArtifacts) {
+                artifactoryManager.upload(deployDetail);
+            }
+            checksumPreflight.logSummary();
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(publishForkCount, deployableArtifacts.size()));
+        AtomicBoolean failed = new AtomicBoolean();
+        try {
+            CompletableFuture<?>[] uploads = deployableArtifacts.stream()
+                    .map(deployDetail -> CompletableFuture.runAsync(() -> {
+                        if (failed.get()) {
+                            return;
+                        }
+                        try {
+                            artifactoryManager.upload(deployDetail, "[" + Thread.currentThread().getName() + "]");
+                        } catch (IOException e) {
+                            failed.set(true);
+                            throw new UncheckedIOException(e);
+                        }
+                    }, executor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(uploads).get();
+            checksumPreflight.logSummary();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while deploying artifacts", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException("Error occurred while deploying artifacts: " + cause.getMessage(), cause);
+        } finally {
+            executor.shutdownNow();
         }
     }
 
@@ -34,9 +34,12 @@ import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
 import org.jfrog.build.util.IvyResolverHelper;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import static org.jfrog.build.extractor.BuildInfoExtractorUtils.getModuleIdString;
 import static org.jfrog.build.extractor.BuildInfoExtractorUtils.getTypeString;
@@ -51,6 +54,7 @@ public class ArtifactoryBuildInfoTrigger implements Trigger {
 
     private static final String MD5 = "MD5";
     private static final String SHA1 = "SHA1";
+    private static final int CHECKSUM_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
     private final Filter filter;
     private BuildContext ctx;
     private String eventName;
@@ -99,55 +103,68 @@ public class ArtifactoryBuildInfoTrigger implements Trigger {
         Module module = getOrCreateModule(attributes);
         project.log("[buildinfo:collect] Collecting dependencies for " + module.getId(), Project.MSG_INFO);
         if (module.getDependencies() == null || module.getDependencies().isEmpty()) {
-            String[] configurations = report.getConfigurations();
-            List<Dependency> moduleDependencies = new ArrayList<>();
-            for (String configuration : configurations) {
-                project.log("[buildinfo:collect] Configuration: " + configuration + " Dependencies", Project.MSG_DEBUG);
-                ConfigurationResolveReport configurationReport = report.getConfigurationReport(configuration);
-                ArtifactDownloadReport[] allArtifactsReports = configurationReport.getAllArtifactsReports();
-                for (final ArtifactDownloadReport artifactsReport : allArtifactsReports) {
-                    project.log(
-                            "[buildinfo:collect] Artifact Download Report for configuration: " + configuration + " : " + artifactsReport,
-                            Project.MSG_DEBUG);
-                    ModuleRevisionId id = artifactsReport.getArtifact().getModuleRevisionId();
-                    String type = getType(artifactsReport.getArtifact());
-                    Dependency dependency = findDependencyInList(id, type, moduleDependencies);
-                    if (dependency == null) {
-                        DependencyBuilder dependencyBuilder = new DependencyBuilder();
-                        dependencyBuilder.type(type).scopes(CommonUtils.newHashSet(configuration));
-                        String idString = getModuleIdString(id.getOrganisation(),
-                                id.getName(), id.getRevision());
-                        dependencyBuilder.id(idString);
-                        File file = artifactsReport.getLocalFile();
-                        Map<String, String> checksums;
-                        try {
-                            checksums = FileChecksumCalculator.calculateChecksums(file, MD5, SHA1);
-                        } catch (Exception e) {
-                            throw new RuntimeException(e);
-                        }
-                        String md5 = checksums.get(MD5);
-                        String sha1 = checksums.get(SHA1);
-                        dependencyBuilder.md5(md5).sha1(sha1);
-                        dependency = dependencyBuilder.build();
-                        moduleDependencies.add(dependency);
+            module.setDependencies(collectDependencies(project, report));
+        }
+    }
+
+    /**
+     * Collect the dependencies of all the configurations of a resolve report. A dependency resolved in several
+     * configurations is added once, with all of its configurations as scopes.
+     *
+     * @param project The Ant project
+     * @param report  The resolve report
+     * @return the dependencies, in the order of their first resolution
+     */
+    List<Dependency> collectDependencies(Project project, ResolveReport report) {
+        String[] configurations = report.getConfigurations();
+        // Dependencies are identified by their organisation, name and type, regardless of the revision
+        Map<String, ResolvedDependency> resolvedDependencies = new LinkedHashMap<>();
+        for (String configuration : configurations) {
+            project.log("[buildinfo:collect] Configuration: " + configuration + " Dependencies", Project.MSG_DEBUG);
+            ConfigurationResolveReport configurationReport = report.getConfigurationReport(configuration);
+            ArtifactDownloadReport[] allArtifactsReports = configurationReport.getAllArtifactsReports();
+            for (final ArtifactDownloadReport artifactsReport : allArtifactsReports) {
+                project.log(
+                        "[buildinfo:collect] Artifact Download Report for configuration: " + configuration + " : " + artifactsReport,
+                        Project.MSG_DEBUG);
+                ModuleRevisionId id = artifactsReport.getArtifact().getModuleRevisionId();
+                String type = getType(artifactsReport.getArtifact());
+                String dependencyKey = getModuleIdString(id.getOrganisation(), id.getName(), "") + type;
+                ResolvedDependency dependency = resolvedDependencies.get(dependencyKey);
+                if (dependency == null) {
+                    String idString = getModuleIdString(id.getOrganisation(),
+                            id.getName(), id.getRevision());
+                    dependency = new ResolvedDependency(idString, type, configuration, artifactsReport.getLocalFile());
+                    resolvedDependencies.put(dependencyKey, dependency);
+                } else {
+                    if (!dependency.scopes.contains(configuration)) {
+                        dependency.scopes.add(configuration);
                         project.log(
-                                "[buildinfo:collect] Added dependency '" + dependency.getId() + "'", Project.MSG_DEBUG);
+                                "[buildinfo:collect] Added scope " + configuration +
+                                        " to dependency '" + dependency.id + "'", Project.MSG_DEBUG);
                     } else {
-                        if (!dependency.getScopes().contains(configuration)) {
-                            dependency.getScopes().add(configuration);
-                            project.log(
-                                    "[buildinfo:collect] Added scope " + configuration +
-                                            " to dependency '" + dependency.getId() + "'", Project.MSG_DEBUG);
-                        } else {
-                            project.log(
-                                    "[buildinfo:collect] Find same dependency twice in configuration '" + configuration +
-                                            "' for dependency '" + artifactsReport + "'", Project.MSG_WARN);
-                        }
+                        project.log(
+                                "[buildinfo:collect] Find same dependency twice in configuration '" + configuration +
+                                        "' for dependency '" + artifactsReport + "'", Project.MSG_WARN);
                     }
                 }
             }
-            module.setDependencies(moduleDependencies);
         }
+        List<Map<String, String>> checksums = calculateFilesChecksums(resolvedDependencies.values().stream()
+                .map(resolvedDependency -> resolvedDependency.file).collect(Collectors.toList()));
+        List<Dependency> moduleDependencies = new ArrayList<>(resolvedDependencies.size());
+        int i = 0;
+        for (ResolvedDependency resolvedDependency : resolvedDependencies.values()) {
+            Map<String, String> fileChecksums = checksums.get(i++);
+            Dependency dependency = new DependencyBuilder()
+                    .type(resolvedDependency.type).scopes(resolvedDependency.scopes).id(resolvedDependency.id)
+                    .md5(fileChecksums.get(MD5)).sha1(fileChecksums.get(SHA1))
+                    .build();
+            moduleDependencies.add(dependency);
+            project.log(
+                    "[buildinfo:collect] Added dependency '" + dependency.getId() + "'", Project.MSG_DEBUG);
+        }
+        return moduleDependencies;
     }
 
     /**
@@ -279,9 +296,35 @@ public class ArtifactoryBuildInfoTrigger implements Trigger {
         return checksums;
     }
 
-    private Dependency findDependencyInList(final ModuleRevisionId id, final String type, List<Dependency> moduleDependencies) {
-        final String idToFind = getModuleIdString(id.getOrganisation(), id.getName(), "");
-        return CommonUtils.getFirstSatisfying(moduleDependencies, input -> input.getId().startsWith(idToFind) && input.getType().equals(type), null);
+    /**
+     * Calculate the checksums of the resolved dependency files. Files are hashed concurrently using up to
+     * {@link #CHECKSUM_THREADS} threads.
+     *
+     * @param files - The files to hash
+     * @return the checksums of the files, in the order of the input files
+     */
+    private List<Map<String, String>> calculateFilesChecksums(List<File> files) {
+        if (files.size() <= 1) {
+            return files.stream().map(this::calculateFileChecksum).collect(Collectors.toList());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(files.size(), CHECKSUM_THREADS));
+        try {
+            List<CompletableFuture<Map<String, String>>> futures = files.stream()
+                    .map(file -> CompletableFuture.supplyAsync(() -> calculateFileChecksum(file), executor))
+                    .collect(Collectors.toList());
+            List<Map<String, String>> checksums = new ArrayList<>(futures.size());
+            for (CompletableFuture<Map<String, String>> future : futures) {
+                checksums.add(future.join());
+            }
+            return checksums;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     private Module findModule(List<Module> modules, final String moduleKey) {
@@ -311,5 +354,21 @@ public class ArtifactoryBuildInfoTrigger implements Trigger {
     private boolean isArtifactExist(List<Artifact> artifacts, final String artifactName) {
         return CommonUtils.isAnySatisfying(artifacts, input -> input.getName().equals(artifactName));
     }
-}
 
+    /**
+     * A dependency collected from the resolve report, before its file checksums are calculated.
+     */
+    private static class ResolvedDependency {
+        private final String id;
+        private final String type;
+        private final Set<String> scopes;
+        private final File file;
+
+        private ResolvedDependency(String id, String type, String scope, File file) {
+            this.id = id;
+            this.type = type;
+            this.scopes = CommonUtils.newHashSet(scope);
+            this.file = file;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.jfrog.build.extractor.listener;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.tools.ant.Project;
+import org.jfrog.build.client.ArtifactoryUploadResponse;
+import org.jfrog.build.extractor.clientConfiguration.IncludeExcludePatterns;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.util.TestingLog;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the deployment of the Ivy artifacts by the build listener, using an Artifactory manager which records the uploads.
+ */
+@Test
+public class ArtifactoryBuildListenerTest {
+    private static final int ARTIFACTS_COUNT = 20;
+
+    private File tempDir;
+    private File artifactFile;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("ivy-deploy").toFile();
+        artifactFile = new File(tempDir, "artifact.jar");
+        FileUtils.writeStringToFile(artifactFile, "artifact", "UTF-8");
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    public void testSerialDeploy() throws IOException {
+        try (RecordingArtifactoryManager artifactoryManager = new RecordingArtifactoryManager(-1)) {
+            new ArtifactoryBuildListener().deployArtifacts(new Project(), artifactoryManager, createDeployDetails(),
+                    new IncludeExcludePatterns("", "*/excluded-*"), 1);
+            assertEquals(artifactoryManager.uploads, getExpectedPaths());
+            assertEquals(artifactoryManager.maxConcurrentUploads.get(), 1);
+        }
+    }
+
+    public void testParallelDeploy() throws IOException {
+        try (RecordingArtifactoryManager artifactoryManager = new RecordingArtifactoryManager(-1)) {
+            new ArtifactoryBuildListener().deployArtifacts(new Project(), artifactoryManager, createDeployDetails(),
+                    new IncludeExcludePatterns("", "*/excluded-*"), 3);
+            // Each artifact which isn't excluded is uploaded once, by up to 3 threads
+            assertEquals(artifactoryManager.uploads.size(), getExpectedPaths().size());
+            assertEquals(new HashSet<>(artifactoryManager.uploads), new HashSet<>(getExpectedPaths()));
+            assertTrue(artifactoryManager.maxConcurrentUploads.get() > 1);
+            assertTrue(artifactoryManager.maxConcurrentUploads.get() <= 3);
+            // The uploads are started in the order of the deploy details. Each of the 3 threads may pass the other ones by
+            // the time it records its upload, but never by more than 2 positions.
+            List<String> expectedPaths = getExpectedPaths();
+            for (int i = 0; i < expectedPaths.size(); i++) {
+                assertTrue(Math.abs(artifactoryManager.uploads.indexOf(expectedPaths.get(i)) - i) <= 2, artifactoryManager.uploads.toString());
+            }
+        }
+    }
+
+    public void testParallelDeployFailure() {
+        try (RecordingArtifactoryManager artifactoryManager = new RecordingArtifactoryManager(0)) {
+            IOException exception = expectThrows(IOException.class, () -> new ArtifactoryBuildListener().deployArtifacts(new Project(),
+                    artifactoryManager, createDeployDetails(), new IncludeExcludePatterns(), 3));
+            // The original exception is rethrown, and the artifacts after the failure are not uploaded
+            assertEquals(exception.getMessage(), "Failed uploading org/module/artifact-0.jar");
+            assertTrue(artifactoryManager.uploads.size() < ARTIFACTS_COUNT, artifactoryManager.uploads.toString());
+        }
+    }
+
+    /**
+     * @return the deploy details of the artifacts. Every 4th artifact is excluded by the test patterns.
+     */
+    private Set<DeployDetails> createDeployDetails() {
+        Set<DeployDetails> deployDetails = new LinkedHashSet<>();
+        for (int i = 0; i < ARTIFACTS_COUNT; i++) {
+            deployDetails.add(new DeployDetails.Builder().file(artifactFile).targetRepository("libs-release-local")
+                    .artifactPath(getPath(i)).build());
+        }
+        return deployDetails;
+    }
+
+    private List<String> getExpectedPaths() {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < ARTIFACTS_COUNT; i++) {
+            if (i % 4 != 3) {
+                paths.add(getPath(i));
+            }
+        }
+        return paths;
+    }
+
+    private static String getPath(int i) {
+        return i % 4 == 3 ? "org/module/excluded-" + i + ".jar" : "org/module/artifact-" + i + ".jar";
+    }
+
+    /**
+     * Records the uploaded artifact paths, in the order the uploads started.
+     */
+    private static class RecordingArtifactoryManager extends ArtifactoryManager {
+        private final List<String> uploads = new CopyOnWriteArrayList<>();
+        private final Set<String> running = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger maxConcurrentUploads = new AtomicInteger();
+        private final int failedIndex;
+
+        /**
+         * @param failedIndex - The index of the artifact which fails to upload, or -1
+         */
+        private RecordingArtifactoryManager(int failedIndex) {
+            super("http://127.0.0.1:1", new TestingLog());
+            this.failedIndex = failedIndex;
+        }
+
+        @Override
+        public ArtifactoryUploadResponse upload(DeployDetails details) throws IOException {
+            return upload(details, null);
+        }
+
+        @Override
+        public ArtifactoryUploadResponse upload(DeployDetails details, String logPrefix) throws IOException {
+            String path = details.getArtifactPath();
+            uploads.add(path);
+            running.add(path);
+            maxConcurrentUploads.accumulateAndGet(running.size(), Math::max);
+            try {
+                if (path.equals(getPath(failedIndex))) {
+                    throw new IOException("Failed uploading " + path);
+                }
+                TimeUnit.MILLISECONDS.sleep(20);
+                return new ArtifactoryUploadResponse();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } finally {
+                running.remove(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.jfrog.build.extractor.trigger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.ivy.core.event.resolve.EndResolveEvent;
+import org.apache.ivy.core.module.descriptor.DefaultArtifact;
+import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ArtifactDownloadReport;
+import org.apache.ivy.core.report.ConfigurationResolveReport;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.tools.ant.Project;
+import org.jfrog.build.api.Dependency;
+import org.jfrog.build.api.util.FileChecksumCalculator;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests the collection of the resolved dependencies by the build info trigger, using resolve reports built in memory.
+ */
+@Test
+public class ArtifactoryBuildInfoTriggerTest {
+    private static final int DEPENDENCIES_COUNT = 50;
+
+    private File tempDir;
+    private DefaultModuleDescriptor moduleDescriptor;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("ivy-dependencies").toFile();
+        moduleDescriptor = DefaultModuleDescriptor.newDefaultInstance(ModuleRevisionId.newInstance("org", "module", "1.0"));
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    public void testCollectDependencies() throws Exception {
+        List<ArtifactDownloadReport> compile = new ArrayList<>();
+        List<ArtifactDownloadReport> test = new ArrayList<>();
+        for (int i = 0; i < DEPENDENCIES_COUNT; i++) {
+            compile.add(createArtifactReport("org" + i, "lib", "1." + i, "jar"));
+        }
+        // The test configuration resolves the compile dependencies in reverse order, a newer revision of one of them,
+        // a source artifact of another one and a test only dependency
+        for (int i = DEPENDENCIES_COUNT - 1; i >= 0; i--) {
+            test.add(createArtifactReport("org" + i, "lib", i == 0 ? "2.0" : "1." + i, "jar"));
+        }
+        test.add(createArtifactReport("org1", "lib", "1.1", "source"));
+        test.add(createArtifactReport("org", "testlib", "3.0", "jar"));
+
+        ResolveReport report = new ResolveReport(moduleDescriptor);
+        report.addReport("compile", createConfigurationReport("compile", compile));
+        report.addReport("test", createConfigurationReport("test", test));
+        List<Dependency> dependencies = new ArtifactoryBuildInfoTrigger(EndResolveEvent.NAME).collectDependencies(new Project(), report);
+
+        // Dependencies are ordered by their first resolution. The revision of the first resolution is kept.
+        assertEquals(dependencies.size(), DEPENDENCIES_COUNT + 2);
+        for (int i = 0; i < DEPENDENCIES_COUNT; i++) {
+            Dependency dependency = dependencies.get(i);
+            assertEquals(dependency.getId(), "org" + i + ":lib:1." + i);
+            assertEquals(dependency.getType(), "jar");
+            assertEquals(dependency.getScopes(), new HashSet<>(Arrays.asList("compile", "test")));
+            assertChecksums(dependency, "org" + i + "-lib-1." + i + ".jar");
+        }
+        Dependency source = dependencies.get(DEPENDENCIES_COUNT);
+        assertEquals(source.getId(), "org1:lib:1.1");
+        assertEquals(source.getType(), "source");
+        assertEquals(source.getScopes(), Collections.singleton("test"));
+        assertChecksums(source, "org1-lib-1.1.source");
+        Dependency testDependency = dependencies.get(DEPENDENCIES_COUNT + 1);
+        assertEquals(testDependency.getId(), "org:testlib:3.0");
+        assertEquals(testDependency.getScopes(), Collections.singleton("test"));
+        assertEquals(dependencies.stream().map(Dependency::getId).distinct().count(), DEPENDENCIES_COUNT + 1);
+    }
+
+    private ArtifactDownloadReport createArtifactReport(String organisation, String name, String revision, String type) throws IOException {
+        ModuleRevisionId id = ModuleRevisionId.newInstance(organisation, name, revision);
+        ArtifactDownloadReport artifactReport = new ArtifactDownloadReport(new DefaultArtifact(id, null, name, type, type));
+        File file = new File(tempDir, getFileName(organisation, name, revision, type));
+        FileUtils.writeStringToFile(file, file.getName(), "UTF-8");
+        artifactReport.setLocalFile(file);
+        return artifactReport;
+    }
+
+    private ConfigurationResolveReport createConfigurationReport(String configuration, List<ArtifactDownloadReport> artifactReports) {
+        return new ConfigurationResolveReport(null, moduleDescriptor, configuration, new Date(), null) {
+            @Override
+            public ArtifactDownloadReport[] getAllArtifactsReports() {
+                return artifactReports.toArray(new ArtifactDownloadReport[0]);
+            }
+        };
+    }
+
+    private void assertChecksums(Dependency dependency, String fileName) throws Exception {
+        Map<String, String> checksums = FileChecksumCalculator.calculateChecksums(new File(tempDir, fileName), "MD5", "SHA1");
+        assertEquals(dependency.getSha1(), checksums.get("SHA1"));
+        assertEquals(dependency.getMd5(), checksums.get("MD5"));
+    }
+
+    private static String getFileName(String organisation, String name, String revision, String type) {
+        return String.join("-", organisation, name, revision) + "." + type;
+    }
+}
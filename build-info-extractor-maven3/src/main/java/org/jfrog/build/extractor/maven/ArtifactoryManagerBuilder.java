@@ -8,6 +8,7 @@ import org.jfrog.build.extractor.clientConfiguration.ArtifactoryClientConfigurat
 import org.jfrog.build.extractor.clientConfiguration.ClientConfigurationFields;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 
+import static org.jfrog.build.extractor.clientConfiguration.ClientProperties.PROP_COMPRESS_REQUESTS;
 import static org.jfrog.build.extractor.clientConfiguration.ClientProperties.PROP_CONNECTION_RETRIES;
 import static org.jfrog.build.extractor.clientConfiguration.ClientProperties.PROP_TIMEOUT;
 
@@ -28,6 +29,7 @@ public class ArtifactoryManagerBuilder {
         resolveProxy(clientConf.proxy, artifactoryManager);
         resolveRetriesParams(clientConf, artifactoryManager);
         resolveInsecureTls(clientConf, artifactoryManager);
+        resolveCompressRequests(clientConf, artifactoryManager);
         return artifactoryManager;
     }
 
@@ -72,6 +74,13 @@ public class ArtifactoryManagerBuilder {
         artifactoryManager.setInsecureTls(clientConf.getInsecureTls());
     }
 
+    private void resolveCompressRequests(ArtifactoryClientConfiguration clientConf, ArtifactoryManager artifactoryManager) {
+        if (clientConf.isCompressRequests()) {
+            logResolvedProperty(PROP_COMPRESS_REQUESTS, "true");
+            artifactoryManager.setCompressRequests(true);
+        }
+    }
+
     private void resolveProxy(ArtifactoryClientConfiguration.ProxyHandler proxyConf,
                               ArtifactoryManager artifactoryManager) {
         String proxyHost = proxyConf.getHost();
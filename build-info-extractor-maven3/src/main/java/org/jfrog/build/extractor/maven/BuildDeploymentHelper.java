@@ -30,7 +30,8 @@ import org.jfrog.build.extractor.ModuleParallelDeployHelper;
 import org.jfrog.build.extractor.clientConfiguration.ArtifactoryClientConfiguration;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
-import org.jfrog.build.extractor.clientConfiguration.deploy.DeployableArtifactsUtils;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeployableArtifactsWriter;
+import org.jfrog.build.extractor.clientConfiguration.deploy.PublishSpool;
 import org.jfrog.build.extractor.retention.Utils;
 
 import java.io.File;
@@ -74,30 +75,84 @@ public class BuildDeploymentHelper {
             }
         }
 
-        if (isDeployArtifacts(clientConf, wereThereTestFailures, deployableArtifactsByModule)) {
-            try (ArtifactoryManager artifactoryManager = artifactoryManagerBuilder.resolveProperties(clientConf)) {
-                new ModuleParallelDeployHelper().deployArtifacts(artifactoryManager, deployableArtifactsByModule, clientConf.publisher.getPublishForkCount());
+        boolean deployArtifacts = isDeployArtifacts(clientConf, wereThereTestFailures, deployableArtifactsByModule);
+        boolean publishBuildInfo = isPublishBuildInfo(clientConf, wereThereTestFailures);
+        PublishSpool spool = deployArtifacts || publishBuildInfo ? openSpool(clientConf, build, publishBuildInfo) : null;
+        try {
+            if (deployArtifacts) {
+                try (ArtifactoryManager artifactoryManager = artifactoryManagerBuilder.resolveProperties(clientConf)) {
+                    new ModuleParallelDeployHelper().deployArtifacts(artifactoryManager, deployableArtifactsByModule, clientConf.publisher.getPublishForkCount(), spool);
+                }
+            }
+
+            if (!StringUtils.isEmpty(clientConf.info.getDeployableArtifactsFilePath())) {
+                try (DeployableArtifactsWriter writer = new DeployableArtifactsWriter(new File(clientConf.info.getDeployableArtifactsFilePath()), false)) {
+                    for (Map.Entry<String, Set<DeployDetails>> moduleDeployableArtifacts : deployableArtifactsByModule.entrySet()) {
+                        writer.writeModule(moduleDeployableArtifacts.getKey(), moduleDeployableArtifacts.getValue());
+                    }
+                } catch (Exception e) {
+                    logger.error("Failed writing deployable artifacts to file: ", e);
+                    throw new RuntimeException("Failed writing deployable artifacts to file", e);
+                }
             }
+
+            if (publishBuildInfo) {
+                publishBuildInfo(clientConf, build, spool);
+            }
+            if (spool != null) {
+                spool.delete();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error occurred while completing the publish spool", e);
+        } finally {
+            closeSpool(spool);
         }
+    }
 
-        if (!StringUtils.isEmpty(clientConf.info.getDeployableArtifactsFilePath())) {
-            try {
-                DeployableArtifactsUtils.saveDeployableArtifactsToFile(deployableArtifactsByModule, new File(clientConf.info.getDeployableArtifactsFilePath()), false);
-            } catch (Exception e) {
-                logger.error("Failed writing deployable artifacts to file: ", e);
-                throw new RuntimeException("Failed writing deployable artifacts to file", e);
+    /**
+     * Open the publish spool, if configured, and write the build info to it before anything is published.
+     * A spool left by a failed publish is resumed, so that artifacts which were already deployed are skipped.
+     */
+    private PublishSpool openSpool(ArtifactoryClientConfiguration clientConf, Build build, boolean publishBuildInfo) {
+        String spoolPath = clientConf.publisher.getSpoolPath();
+        if (StringUtils.isBlank(spoolPath)) {
+            return null;
+        }
+        PublishSpool spool = null;
+        try {
+            spool = PublishSpool.open(new File(spoolPath), new Maven3BuildInfoLogger(logger));
+            if (publishBuildInfo) {
+                spool.setBuildInfo(build);
             }
+            return spool;
+        } catch (IOException e) {
+            closeSpool(spool);
+            throw new RuntimeException("Error occurred while opening the publish spool '" + spoolPath + "'", e);
         }
+    }
 
-        if (isPublishBuildInfo(clientConf, wereThereTestFailures)) {
-            publishBuildInfo(clientConf, build);
+    private void closeSpool(PublishSpool spool) {
+        if (spool == null) {
+            return;
+        }
+        try {
+            spool.close();
+        } catch (IOException e) {
+            logger.warn("Failed closing the publish spool: " + e.getMessage());
         }
     }
 
-    private void publishBuildInfo(ArtifactoryClientConfiguration clientConf, Build build) {
+    private void publishBuildInfo(ArtifactoryClientConfiguration clientConf, Build build, PublishSpool spool) {
+        if (spool != null && spool.isBuildInfoPublished()) {
+            logger.info("Artifactory Build Info Recorder: build info was already published, skipping...");
+            return;
+        }
         try (ArtifactoryManager artifactoryManager = artifactoryManagerBuilder.resolveProperties(clientConf)) {
             logger.info("Artifactory Build Info Recorder: Deploying build info ...");
             Utils.sendBuildAndBuildRetention(artifactoryManager, build, clientConf);
+            if (spool != null) {
+                spool.buildInfoPublished();
+            }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
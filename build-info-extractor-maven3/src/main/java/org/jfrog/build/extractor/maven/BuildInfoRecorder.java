@@ -18,7 +18,6 @@ package org.jfrog.build.extractor.maven;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.artifact.Artifact;
-import org.apache.maven.artifact.DefaultArtifact;
 import org.apache.maven.artifact.metadata.ArtifactMetadata;
 import org.apache.maven.execution.AbstractExecutionListener;
 import org.apache.maven.execution.ExecutionEvent;
@@ -32,6 +31,7 @@ import org.codehaus.plexus.logging.Logger;
 import org.jfrog.build.api.Build;
 import org.jfrog.build.api.BuildInfoConfigProperties;
 import org.jfrog.build.api.builder.*;
+import org.jfrog.build.api.metrics.JsonMetricsReporter;
 import org.jfrog.build.api.util.CommonUtils;
 import org.jfrog.build.api.util.FileChecksumCalculator;
 import org.jfrog.build.extractor.BuildInfoExtractor;
@@ -42,18 +42,8 @@ import org.jfrog.build.extractor.clientConfiguration.PatternMatcher;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
 import org.jfrog.build.extractor.maven.resolver.ResolutionHelper;
 import org.jfrog.build.extractor.packageManager.PackageManagerUtils;
-import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
+
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
@@ -84,7 +74,7 @@ public class BuildInfoRecorder extends AbstractExecutionListener implements Buil
     private Logger logger;
 
     private final Set<Artifact> resolvedArtifacts = Collections.synchronizedSet(new HashSet<>());
-    private final ThreadLocal<Set<Artifact>> currentModuleDependencies = new ThreadLocal<>();
+    private final ThreadLocal<ModuleDependencies> currentModuleDependencies = new ThreadLocal<>();
     private final ThreadLocal<Set<Artifact>> currentModuleArtifacts = new ThreadLocal<>();
     private final ThreadLocal<ModuleBuilder> currentModule = new ThreadLocal<>();
     private Map<String, DeployDetails> deployableArtifactBuilderMap;
@@ -97,21 +87,8 @@ public class BuildInfoRecorder extends AbstractExecutionListener implements Buil
     private BuildInfoMavenBuilder buildInfoBuilder;
     private ArtifactoryClientConfiguration conf;
     private ExecutionListener wrappedListener;
-    private DocumentBuilder documentBuilder;
-
-    private final ThreadLocal<XPathExpression> xPathExpression = new ThreadLocal<XPathExpression>() {
-        @Override
-        protected XPathExpression initialValue() {
-            XPathExpression result = null;
-            try {
-                result = XPathFactory.newInstance().newXPath()
-                        .compile("/testsuite/@failures>0 or /testsuite/@errors>0");
-            } catch (XPathExpressionException ex) {
-                logger.error("Fail to create XPathExpression", ex);
-            }
-            return result;
-        }
-    };
+    private JsonMetricsReporter metricsReporter;
+    private final SurefireReportsScanner surefireReportsScanner = new SurefireReportsScanner();
 
     public void setListenerToWrap(ExecutionListener executionListener) {
         wrappedListener = executionListener;
@@ -149,6 +126,7 @@ public class BuildInfoRecorder extends AbstractExecutionListener implements Buil
     public void sessionStarted(ExecutionEvent event) {
         try {
             logger.info("Initializing Artifactory Build-Info Recording");
+            metricsReporter = JsonMetricsReporter.startIfConfigured(conf.getMetricsFile());
             buildInfoBuilder = buildInfoModelPropertyResolver.resolveProperties(event, conf);
             deployableArtifactBuilderMap = new ConcurrentHashMap<>();
 
@@ -179,6 +157,8 @@ public class BuildInfoRecorder extends AbstractExecutionListener implements Buil
             logger.error(message, t);
             throw new RuntimeException(message, t);
         } finally {
+            JsonMetricsReporter.closeQuietly(metricsReporter, conf.getLog());
+            metricsReporter = null;
             String propertyFilePath = System.getenv(BuildInfoConfigProperties.PROP_PROPS_FILE); // This is used in Jenkins jobs
             if (StringUtils.isBlank(propertyFilePath)) {
                 propertyFilePath = conf.getPropertiesFile(); // This is used in the Artifactory maven plugin and Bamboo
@@ -324,17 +304,12 @@ public class BuildInfoRecorder extends AbstractExecutionListener implements Buil
     private boolean isTestsFailed(List<File> surefireReports) {
 
         for (File report : surefireReports) {
-            try (FileInputStream stream = new FileInputStream(report)) {
-                Document doc = getDocumentBuilder().parse(new InputSource(stream));
-                Boolean evaluate = ((Boolean) xPathExpression.get().evaluate(doc, XPathConstants.BOOLEAN));
-
-                if (evaluate != null && evaluate) {
+            try {
+                if (surefireReportsScanner.isFailed(report)) {
                     return true;
                 }
             } catch (FileNotFoundException e) {
                 logger.error("File '" + report.getAbsolutePath() + "' does not exist.", e);
-            } catch (XPathExpressionException e) {
-                logger.error("Expression '/testsuite/@failures>0 or /testsuite/@errors>0' is invalid.", e);
             } catch (Exception e) {
                 logger.error("Expression caught while checking build tests result.", e);
             }
@@ -368,7 +343,7 @@ public class BuildInfoRecorder extends AbstractExecutionListener implements Buil
         currentModule.set(module);
 
         currentModuleArtifacts.set(Collections.synchronizedSet(new HashSet<>()));
-        currentModuleDependencies.set(Collections.synchronizedSet(new HashSet<>()));
+        currentModuleDependencies.set(new ModuleDependencies());
     }
 
     private void extractArtifactsAndDependencies(MavenProject project) {
@@ -418,56 +393,26 @@ public class BuildInfoRecorder extends AbstractExecutionListener implements Buil
      *   Not include the Pom file
      */
     private void extractModuleAttachedArtifacts(MavenProject project, Set<Artifact> artifacts) {
-        List<Artifact> attachedArtifacts = project.getAttachedArtifacts();
+        List<?> attachedArtifacts = project.getAttachedArtifacts();
         if (attachedArtifacts != null) {
-            artifacts.addAll(attachedArtifacts);
+            for (Object attachedArtifact : attachedArtifacts) {
+                artifacts.add((Artifact) attachedArtifact);
+            }
         }
     }
 
+    /**
+     * Merge the dependencies taken from the MavenProject object into the current module dependencies.
+     * Only artifacts that were not merged after previous mojos are copied.
+     */
     private void extractModuleDependencies(MavenProject project) {
-        Set<Artifact> moduleDependencies = currentModuleDependencies.get();
+        ModuleDependencies moduleDependencies = currentModuleDependencies.get();
         if (moduleDependencies == null) {
             logger.warn("Skipping Artifactory Build-Info project dependency extraction: Null current module dependencies.");
             return;
         }
 
-        mergeProjectDependencies(project.getArtifacts());
-    }
-
-    /**
-     * Merge the dependencies taken from the MavenProject object with those
-     * collected inside the resolvedArtifacts collection.
-     *
-     * @param projectDependencies The artifacts taken from the MavenProject
-     *                            object.
-     */
-    private void mergeProjectDependencies(Set<Artifact> projectDependencies) {
-        // Go over all the artifacts taken from the MavenProject object, and replace their equals method, so that we are
-        // able to merge them together with the artifacts inside the resolvedArtifacts set:
-        Set<Artifact> dependecies = new HashSet<>();
-        for (Artifact artifact : projectDependencies) {
-            String classifier = artifact.getClassifier();
-            classifier = classifier == null ? "" : classifier;
-            String scope = artifact.getScope();
-            scope = StringUtils.isBlank(scope) ? Artifact.SCOPE_COMPILE : scope;  // HAP-909
-            DefaultArtifact art = new DefaultArtifact(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion(),
-                    scope, artifact.getType(), classifier, artifact.getArtifactHandler());
-
-            art.setFile(artifact.getFile());
-            dependecies.add(art);
-        }
-
-        // Now we merge the artifacts from the two collections. In case an artifact is included in both collections, we'd like to keep
-        // the one that was taken from the MavenProject, because of the scope it has.
-        // The merge is done only if the client is configured to do so.
-        Set<Artifact> moduleDependencies = currentModuleDependencies.get();
-        Set<Artifact> tempSet = new HashSet<>(moduleDependencies);
-        moduleDependencies.clear();
-        moduleDependencies.addAll(dependecies);
-        moduleDependencies.addAll(tempSet);
-        if (conf.publisher.isRecordAllDependencies()) {
-            moduleDependencies.addAll(resolvedArtifacts);
-        }
+        moduleDependencies.merge(project.getArtifacts());
     }
 
     private void addModuleToBuild(MavenProject project, ModuleBuilder module) {
@@ -632,12 +577,14 @@ public class BuildInfoRecorder extends AbstractExecutionListener implements Buil
     }
 
     private void addDependenciesToCurrentModule(ModuleBuilder module) {
-        Set<Artifact> moduleDependencies = currentModuleDependencies.get();
-        if (moduleDependencies == null) {
+        ModuleDependencies currentDependencies = currentModuleDependencies.get();
+        if (currentDependencies == null) {
             logger.warn("Skipping Artifactory Build-Info module dependency addition: Null current module dependency "
                     + "list.");
             return;
         }
+        // Merge the artifacts collected inside the resolvedArtifacts collection, only if the client is configured to do so.
+        Set<Artifact> moduleDependencies = currentDependencies.toSet(conf.publisher.isRecordAllDependencies() ? resolvedArtifacts : null);
         for (Artifact dependency : moduleDependencies) {
             File depFile = dependency.getFile();
             String gav = getModuleIdString(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
@@ -711,19 +658,6 @@ public class BuildInfoRecorder extends AbstractExecutionListener implements Buil
         return resolutionHelper;
     }
 
-    private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
-        if (documentBuilder == null) {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            factory.setValidating(false);
-            factory.setFeature("http://xml.org/sax/features/validation", false);
-            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-dtd-grammar", false);
-            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-            documentBuilder = factory.newDocumentBuilder();
-        }
-        return documentBuilder;
-    }
-
     private void cleanUpModule() {
         currentModule.remove();
         currentModuleArtifacts.remove();
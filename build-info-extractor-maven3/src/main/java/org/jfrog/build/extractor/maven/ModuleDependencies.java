@@ -0,0 +1,66 @@
+package org.jfrog.build.extractor.maven;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+
+import java.util.*;
+
+/**
+ * Collects the dependencies of a Maven module after each mojo execution.
+ * Dependencies are identified by their group, artifact, version, type and classifier, like in {@link DefaultArtifact#equals(Object)}.
+ * Project artifacts which were already merged with the same scope and file are skipped, so only newly resolved artifacts are copied.
+ * The module dependencies are materialized once, when the module is finalized.
+ */
+class ModuleDependencies {
+
+    // Copies of the project artifacts. A copy of a newer project artifact replaces an older copy with the same identity.
+    private final Map<Artifact, Artifact> dependencies = new LinkedHashMap<>();
+    // Project artifacts that were already merged, mapped to their copies
+    private final Map<Artifact, Artifact> mergedArtifacts = new IdentityHashMap<>();
+
+    /**
+     * Merge the dependencies taken from the MavenProject object.
+     *
+     * @param projectDependencies The artifacts taken from the MavenProject object, which returns them as a raw set.
+     */
+    synchronized void merge(Collection<?> projectDependencies) {
+        for (Object projectDependency : projectDependencies) {
+            Artifact artifact = (Artifact) projectDependency;
+            String scope = artifact.getScope();
+            scope = StringUtils.isBlank(scope) ? Artifact.SCOPE_COMPILE : scope;  // HAP-909
+            Artifact merged = mergedArtifacts.get(artifact);
+            if (merged != null && scope.equals(merged.getScope()) && Objects.equals(artifact.getFile(), merged.getFile())
+                    && dependencies.get(merged) == merged) {
+                continue;
+            }
+            String classifier = artifact.getClassifier();
+            classifier = classifier == null ? "" : classifier;
+            DefaultArtifact art = new DefaultArtifact(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion(),
+                    scope, artifact.getType(), classifier, artifact.getArtifactHandler());
+            art.setFile(artifact.getFile());
+            // Remove first, to keep the identity of the new copy as the key
+            dependencies.remove(art);
+            dependencies.put(art, art);
+            mergedArtifacts.put(artifact, art);
+        }
+    }
+
+    /**
+     * Materialize the module dependencies.
+     * In case an artifact is included both in the project dependencies and in the resolved artifacts, the one taken from the
+     * MavenProject is kept, because of the scope it has.
+     *
+     * @param resolvedArtifacts - Additional resolved artifacts to include, or null
+     * @return the module dependencies
+     */
+    synchronized Set<Artifact> toSet(Set<Artifact> resolvedArtifacts) {
+        Set<Artifact> moduleDependencies = new LinkedHashSet<>(dependencies.values());
+        if (resolvedArtifacts != null) {
+            synchronized (resolvedArtifacts) {
+                moduleDependencies.addAll(resolvedArtifacts);
+            }
+        }
+        return moduleDependencies;
+    }
+}
@@ -0,0 +1,101 @@
+package org.jfrog.build.extractor.maven;
+
+import org.apache.commons.lang.StringUtils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Checks whether surefire XML reports contain test failures or errors.
+ * Only the attributes of the root 'testsuite' element are read, so the size of the report doesn't matter.
+ * Results are cached by the report path, size and last modified time, so a report is scanned again only after it changes.
+ */
+class SurefireReportsScanner {
+
+    private final ConcurrentMap<String, ScanResult> results = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<XMLInputFactory> inputFactory = ThreadLocal.withInitial(() -> {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    });
+
+    /**
+     * @param report - Surefire XML report
+     * @return true if the root testsuite element of the report has failures or errors greater than 0
+     * @throws IOException        in case of an error reading the report
+     * @throws XMLStreamException in case of an error parsing the report
+     */
+    boolean isFailed(File report) throws IOException, XMLStreamException {
+        String path = report.getAbsolutePath();
+        long size = report.length();
+        long lastModified = report.lastModified();
+        ScanResult result = results.get(path);
+        if (result != null && result.size == size && result.lastModified == lastModified) {
+            return result.failed;
+        }
+        boolean failed;
+        try (InputStream stream = new FileInputStream(report)) {
+            failed = isFailed(stream);
+        }
+        results.put(path, new ScanResult(size, lastModified, failed));
+        return failed;
+    }
+
+    /**
+     * @param stream - Surefire XML report stream
+     * @return true if the root testsuite element of the report has failures or errors greater than 0
+     * @throws XMLStreamException in case of an error parsing the report
+     */
+    boolean isFailed(InputStream stream) throws XMLStreamException {
+        XMLStreamReader reader = inputFactory.get().createXMLStreamReader(stream);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    // Stop at the root element
+                    return "testsuite".equals(reader.getLocalName()) && StringUtils.isEmpty(reader.getNamespaceURI()) &&
+                            (isPositive(reader.getAttributeValue(null, "failures")) || isPositive(reader.getAttributeValue(null, "errors")));
+                }
+            }
+            return false;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Compare a numeric attribute value to 0, like an XPath number comparison.
+     */
+    private static boolean isPositive(String value) {
+        if (value == null) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(value.trim()) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static class ScanResult {
+        private final long size;
+        private final long lastModified;
+        private final boolean failed;
+
+        private ScanResult(long size, long lastModified, boolean failed) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.failed = failed;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package org.jfrog.build.extractor.maven.resolver;
 
-import org.apache.commons.lang.mutable.MutableBoolean;
 import org.apache.maven.artifact.DefaultArtifact;
 import org.apache.maven.plugin.internal.DefaultPluginDependenciesResolver;
 import org.apache.maven.project.DefaultProjectDependenciesResolver;
@@ -17,12 +16,15 @@ import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.internal.impl.DefaultRepositorySystem;
 import org.eclipse.aether.metadata.Metadata;
 import org.eclipse.aether.repository.RemoteRepository;
-import org.eclipse.aether.repository.RepositoryPolicy;
 import org.eclipse.aether.resolution.ArtifactRequest;
 import org.jfrog.build.extractor.maven.BuildInfoRecorder;
 
 import java.lang.reflect.Field;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Repository listener when running in Maven 3.1.x
@@ -57,7 +59,15 @@ public class ArtifactoryEclipseRepositoryListener extends AbstractRepositoryList
     @Requirement
     private Logger logger;
 
-    private final MutableBoolean artifactoryRepositoriesEnforced = new MutableBoolean(false);
+    private final CountDownLatch artifactoryRepositoriesEnforced = new CountDownLatch(1);
+
+    // The resolution configuration doesn't change once initialized, so it is checked only on the first events.
+    private volatile boolean resolutionInitialized = false;
+    private volatile boolean resolutionRepositoriesConfigured = false;
+
+    // Repository URLs mapped to the Artifactory resolution repository which should replace them.
+    // An empty value means that the URL is already an Artifactory resolution repository URL.
+    private final ConcurrentMap<String, Optional<RemoteRepository>> redirections = new ConcurrentHashMap<>();
 
     /**
      * The method replaces the DefaultArtifactResolver instance with an instance of ArtifactoryEclipseArtifactResolver.
@@ -78,10 +88,7 @@ public class ArtifactoryEclipseRepositoryListener extends AbstractRepositoryList
         repoSystemPluginField.setAccessible(true);
         repoSystemPluginField.set(pluginDependenciesResolver, repositorySystem);
 
-        artifactoryRepositoriesEnforced.setValue(true);
-        synchronized (artifactoryRepositoriesEnforced) {
-            artifactoryRepositoriesEnforced.notifyAll();
-        }
+        artifactoryRepositoriesEnforced.countDown();
     }
 
     private BuildInfoRecorder getBuildInfoRecorder() {
@@ -99,17 +106,16 @@ public class ArtifactoryEclipseRepositoryListener extends AbstractRepositoryList
     }
 
     private void waitForResolutionToBeSet() {
+        // Once the Artifactory resolver is set, this check doesn't require any locking:
+        if (artifactoryRepositoriesEnforced.getCount() == 0) {
+            return;
+        }
         // In case the Artifactory resolver is not yet set, we wait for it first:
-        if (!artifactoryRepositoriesEnforced.booleanValue()) {
-            synchronized (artifactoryRepositoriesEnforced) {
-                if (!artifactoryRepositoriesEnforced.booleanValue()) {
-                    try {
-                        artifactoryRepositoriesEnforced.wait();
-                    } catch (InterruptedException e) {
-                        logger.error("Failed while waiting for Artifactory repositories enforcement", e);
-                    }
-                }
-            }
+        try {
+            artifactoryRepositoriesEnforced.await();
+        } catch (InterruptedException e) {
+            logger.error("Failed while waiting for Artifactory repositories enforcement", e);
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -119,8 +125,7 @@ public class ArtifactoryEclipseRepositoryListener extends AbstractRepositoryList
      * this method makes sure those artifacts will be resolved from Artifactory as well.
      */
     private void verifyArtifactoryResolutionEnforced(RepositoryEvent event) {
-        initResolutionHelper(event.getSession());
-        if (!getBuildInfoRecorder().getResolutionHelper().resolutionRepositoriesConfigured()) {
+        if (!isResolutionRepositoriesConfigured(event.getSession())) {
             return;
         }
         if (event.getArtifact() == null && event.getMetadata() == null) {
@@ -134,40 +139,58 @@ public class ArtifactoryEclipseRepositoryListener extends AbstractRepositoryList
 
         waitForResolutionToBeSet();
 
-        // Now that the resolver enforcement is done, we make sure that the Artifactory resolution repositories in the resolver are initialized:
-        artifactResolver.initResolutionRepositories(event.getSession());
-
-        // Take the Artifactory resolution repositories from the Artifactory resolver:
-        RemoteRepository artifactorySnapshotRepo;
-        RemoteRepository artifactoryReleaseRepo;
-        boolean snapshot;
-        if (event.getArtifact() != null) {
-            artifactorySnapshotRepo = artifactResolver.getSnapshotRepository(event.getSession());
-            artifactoryReleaseRepo = artifactResolver.getReleaseRepository(event.getSession());
-            snapshot = event.getArtifact().isSnapshot();
-        } else {
-            artifactorySnapshotRepo = metadataResolver.getSnapshotRepository(event.getSession());
-            artifactoryReleaseRepo = metadataResolver.getReleaseRepository(event.getSession());
-            snapshot = event.getMetadata().getNature() == Metadata.Nature.SNAPSHOT;
+        boolean metadata = event.getArtifact() == null;
+        boolean snapshot = metadata ? event.getMetadata().getNature() == Metadata.Nature.SNAPSHOT : event.getArtifact().isSnapshot();
+        if (!repo.getPolicy(snapshot).isEnabled()) {
+            return;
         }
 
         // If the artifact about to be downloaded was not handled by the Artifactory resolution resolver, but by the default resolver (before
         // it had been replaced), modify the repository URL:
         try {
-            if (snapshot && !repo.getUrl().equals(artifactorySnapshotRepo.getUrl()) && repo.getPolicy(true).isEnabled()) {
-                logger.debug("Replacing resolution repository URL: " + repo + " with: " + artifactorySnapshotRepo.getUrl());
-                copyRepositoryFields(artifactorySnapshotRepo, repo);
-                setRepositoryPolicy(repo);
-            } else if (!snapshot && !repo.getUrl().equals(artifactoryReleaseRepo.getUrl()) && repo.getPolicy(false).isEnabled()) {
-                logger.debug("Replacing resolution repository URL: " + repo + " with: " + artifactoryReleaseRepo.getUrl());
-                copyRepositoryFields(artifactoryReleaseRepo, repo);
-                setRepositoryPolicy(repo);
+            RemoteRepository artifactoryRepo = getArtifactoryRepository(event.getSession(), repo.getUrl(), snapshot, metadata);
+            if (artifactoryRepo != null) {
+                logger.debug("Replacing resolution repository URL: " + repo + " with: " + artifactoryRepo.getUrl());
+                EclipseRemoteRepositoryFields.redirect(artifactoryRepo, repo);
             }
         } catch (Exception e) {
             logger.error("Failed while replacing resolution repository URL", e);
         }
     }
 
+    private boolean isResolutionRepositoriesConfigured(RepositorySystemSession session) {
+        if (!resolutionInitialized) {
+            initResolutionHelper(session);
+            resolutionRepositoriesConfigured = getBuildInfoRecorder().getResolutionHelper().resolutionRepositoriesConfigured();
+            resolutionInitialized = true;
+        }
+        return resolutionRepositoriesConfigured;
+    }
+
+    /**
+     * Get the Artifactory resolution repository which should replace the given repository URL.
+     * The result is memoized by URL, since the same repositories are used by many artifacts and metadata downloads.
+     *
+     * @return The Artifactory resolution repository, or null if the URL should not be replaced.
+     */
+    private RemoteRepository getArtifactoryRepository(RepositorySystemSession session, String url, boolean snapshot, boolean metadata) {
+        String key = (metadata ? "metadata:" : "artifact:") + (snapshot ? "snapshot:" : "release:") + url;
+        return redirections.computeIfAbsent(key, k -> {
+            // Make sure that the Artifactory resolution repositories in the resolver are initialized, and take them from the resolver:
+            artifactResolver.initResolutionRepositories(session);
+            RemoteRepository artifactoryRepo;
+            if (metadata) {
+                artifactoryRepo = snapshot ? metadataResolver.getSnapshotRepository(session) : metadataResolver.getReleaseRepository(session);
+            } else {
+                artifactoryRepo = snapshot ? artifactResolver.getSnapshotRepository(session) : artifactResolver.getReleaseRepository(session);
+            }
+            if (artifactoryRepo == null || url.equals(artifactoryRepo.getUrl())) {
+                return Optional.empty();
+            }
+            return Optional.of(artifactoryRepo);
+        }).orElse(null);
+    }
+
     private void initResolutionHelper(RepositorySystemSession session) {
         ResolutionHelper helper = getBuildInfoRecorder().getResolutionHelper();
         if (helper.isInitialized()) {
@@ -179,37 +202,6 @@ public class ArtifactoryEclipseRepositoryListener extends AbstractRepositoryList
         helper.init(allMavenProps);
     }
 
-    private void copyRepositoryFields(RemoteRepository fromRepo, RemoteRepository toRepo)
-            throws IllegalAccessException, NoSuchFieldException {
-        Field url = RemoteRepository.class.getDeclaredField("url");
-        url.setAccessible(true);
-        url.set(toRepo, fromRepo.getUrl());
-        if (fromRepo.getAuthentication() != null) {
-            Field authentication = RemoteRepository.class.getDeclaredField("authentication");
-            authentication.setAccessible(true);
-            authentication.set(toRepo, fromRepo.getAuthentication());
-        }
-        if (fromRepo.getProxy() != null) {
-            Field proxy = RemoteRepository.class.getDeclaredField("proxy");
-            proxy.setAccessible(true);
-            proxy.set(toRepo, fromRepo.getProxy());
-        }
-    }
-
-    /**
-     * Enables both snapshot and release polocies for a repository
-     */
-    private void setRepositoryPolicy(RemoteRepository repo) throws NoSuchFieldException, IllegalAccessException {
-        RepositoryPolicy policy = new RepositoryPolicy(true, RepositoryPolicy.UPDATE_POLICY_DAILY, RepositoryPolicy.CHECKSUM_POLICY_WARN);
-
-        Field releasePolicyField = RemoteRepository.class.getDeclaredField("releasePolicy");
-        Field snapshotPolicyField = RemoteRepository.class.getDeclaredField("snapshotPolicy");
-        releasePolicyField.setAccessible(true);
-        snapshotPolicyField.setAccessible(true);
-        releasePolicyField.set(repo, policy);
-        snapshotPolicyField.set(repo, policy);
-    }
-
     /**
      * Intercepts resolved artifacts and updates the BuildInfoRecorder, so that build-info includes all resolved artifacts.
      */
@@ -24,10 +24,13 @@ import org.sonatype.aether.repository.RemoteRepository;
 import org.sonatype.aether.repository.RepositoryPolicy;
 import org.sonatype.aether.resolution.ArtifactRequest;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Repository listener when running in Maven 3.0.x.
@@ -61,7 +64,15 @@ public class ArtifactorySonatypeRepositoryListener extends AbstractRepositoryLis
 
     private PlexusContainer plexusContainer;
 
-    Boolean artifactoryRepositoriesEnforced = false;
+    private final CountDownLatch artifactoryRepositoriesEnforced = new CountDownLatch(1);
+
+    // The resolution configuration doesn't change once initialized, so it is checked only on the first events.
+    private volatile boolean resolutionInitialized = false;
+    private volatile boolean resolutionRepositoriesConfigured = false;
+
+    // Repository URLs mapped to the Artifactory resolution repository which should replace them.
+    // An empty value means that the URL is already an Artifactory resolution repository URL.
+    private final ConcurrentMap<String, Optional<RemoteRepository>> redirections = new ConcurrentHashMap<>();
     private ArtifactorySonatypeArtifactResolver artifactResolver = null;
     private ArtifactorySonatypeMetadataResolver metadataResolver = null;
 
@@ -97,10 +108,7 @@ public class ArtifactorySonatypeRepositoryListener extends AbstractRepositoryLis
         }
         setArtifactResolverMethod.invoke(descriptorReader, artifactResolver);
 
-        artifactoryRepositoriesEnforced = true;
-        synchronized (artifactoryRepositoriesEnforced) {
-            artifactoryRepositoriesEnforced.notifyAll();
-        }
+        artifactoryRepositoriesEnforced.countDown();
     }
 
     private BuildInfoRecorder getBuildInfoRecorder() {
@@ -127,15 +135,28 @@ public class ArtifactorySonatypeRepositoryListener extends AbstractRepositoryLis
         verifyArtifactoryResolutionEnforced(event);
     }
 
+    private void waitForResolutionToBeSet() {
+        // Once the Artifactory resolver is set, this check doesn't require any locking:
+        if (artifactoryRepositoriesEnforced.getCount() == 0) {
+            return;
+        }
+        // In case the Artifactory resolver is not yet set, we wait for it first:
+        try {
+            artifactoryRepositoriesEnforced.await();
+        } catch (InterruptedException e) {
+            logger.error("Failed while waiting for Artifactory repositories enforcement", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * The enforceArtifactoryResolver() method replaces the default artifact resolver instance with a resolver that enforces Artifactory
      * resolution repositories. However, since there's a chance that Maven started resolving a few artifacts before the instance replacement,
-     * thsi method makes sure those artifacts will be resolved from Artifactory as well.
+     * this method makes sure those artifacts will be resolved from Artifactory as well.
      * @param event
      */
     private void verifyArtifactoryResolutionEnforced(RepositoryEvent event) {
-        initResolutionHelper(event.getSession());
-        if (!resolutionHelper.resolutionRepositoriesConfigured()) {
+        if (!isResolutionRepositoriesConfigured(event.getSession())) {
             return;
         }
         if (event.getArtifact() == null && event.getMetadata() == null) {
@@ -147,47 +168,18 @@ public class ArtifactorySonatypeRepositoryListener extends AbstractRepositoryLis
 
         RemoteRepository repo = (RemoteRepository)event.getRepository();
 
-        // In case the Artifactory resolver is not yet set, we wait for it first:
-        if (!artifactoryRepositoriesEnforced) {
-            synchronized (artifactoryRepositoriesEnforced) {
-                if (!artifactoryRepositoriesEnforced) {
-                    try {
-                        artifactoryRepositoriesEnforced.wait();
-                    } catch (InterruptedException e) {
-                        logger.error("Failed while waiting for Artifactory repositories enforcement", e);
-                    }
-                }
-            }
-        }
+        waitForResolutionToBeSet();
 
-        // Now that the resolver enforcement is done, we make sure that the Artifactory resolution repositories in the resolver are initialized:
-        artifactResolver.initResolutionRepositories(event.getSession());
-
-        // Take the Artifactory resolution repositories from the Artifactory resolver:
-        RemoteRepository artifactorySnapshotRepo;
-        RemoteRepository artifactoryReleaseRepo;
-        boolean snapshot;
-        if (event.getArtifact() != null) {
-            artifactorySnapshotRepo = artifactResolver.getSnapshotRepository(event.getSession());
-            artifactoryReleaseRepo = artifactResolver.getReleaseRepository(event.getSession());
-            snapshot = event.getArtifact().isSnapshot();
-        } else {
-            artifactorySnapshotRepo = metadataResolver.getSnapshotRepository(event.getSession());
-            artifactoryReleaseRepo = metadataResolver.getReleaseRepository(event.getSession());
-            snapshot = event.getMetadata().getNature() == Metadata.Nature.SNAPSHOT;
-        }
+        boolean metadata = event.getArtifact() == null;
+        boolean snapshot = metadata ? event.getMetadata().getNature() == Metadata.Nature.SNAPSHOT : event.getArtifact().isSnapshot();
 
         // If the artifact about to be downloaded was not handled by the Artifactory resolution resolver, but by the default resolver (before
         // it had been replaced), modify the repository URL:
         try {
-            if (snapshot && !repo.getUrl().equals(artifactorySnapshotRepo.getUrl())) {
-                logger.debug("Replacing resolution repository URL: " + repo + " with: " + artifactorySnapshotRepo.getUrl());
-                copyRepositoryFields(artifactorySnapshotRepo, repo);
-                setRepositoryPolicy(repo);
-            } else
-            if (!snapshot && !repo.getUrl().equals(artifactoryReleaseRepo.getUrl())) {
-                logger.debug("Replacing resolution repository URL: " + repo + " with: " + artifactoryReleaseRepo.getUrl());
-                copyRepositoryFields(artifactoryReleaseRepo, repo);
+            RemoteRepository artifactoryRepo = getArtifactoryRepository(event.getSession(), repo.getUrl(), snapshot, metadata);
+            if (artifactoryRepo != null) {
+                logger.debug("Replacing resolution repository URL: " + repo + " with: " + artifactoryRepo.getUrl());
+                copyRepositoryFields(artifactoryRepo, repo);
                 setRepositoryPolicy(repo);
             }
         } catch (Exception e) {
@@ -195,6 +187,39 @@ public class ArtifactorySonatypeRepositoryListener extends AbstractRepositoryLis
         }
     }
 
+    private boolean isResolutionRepositoriesConfigured(RepositorySystemSession session) {
+        if (!resolutionInitialized) {
+            initResolutionHelper(session);
+            resolutionRepositoriesConfigured = resolutionHelper.resolutionRepositoriesConfigured();
+            resolutionInitialized = true;
+        }
+        return resolutionRepositoriesConfigured;
+    }
+
+    /**
+     * Get the Artifactory resolution repository which should replace the given repository URL.
+     * The result is memoized by URL, since the same repositories are used by many artifacts and metadata downloads.
+     *
+     * @return The Artifactory resolution repository, or null if the URL should not be replaced.
+     */
+    private RemoteRepository getArtifactoryRepository(RepositorySystemSession session, String url, boolean snapshot, boolean metadata) {
+        String key = (metadata ? "metadata:" : "artifact:") + (snapshot ? "snapshot:" : "release:") + url;
+        return redirections.computeIfAbsent(key, k -> {
+            // Make sure that the Artifactory resolution repositories in the resolver are initialized, and take them from the resolver:
+            artifactResolver.initResolutionRepositories(session);
+            RemoteRepository artifactoryRepo;
+            if (metadata) {
+                artifactoryRepo = snapshot ? metadataResolver.getSnapshotRepository(session) : metadataResolver.getReleaseRepository(session);
+            } else {
+                artifactoryRepo = snapshot ? artifactResolver.getSnapshotRepository(session) : artifactResolver.getReleaseRepository(session);
+            }
+            if (artifactoryRepo == null || url.equals(artifactoryRepo.getUrl())) {
+                return Optional.empty();
+            }
+            return Optional.of(artifactoryRepo);
+        }).orElse(null);
+    }
+
     private void initResolutionHelper(RepositorySystemSession session) {
         if (resolutionHelper.isInitialized()) {
             return;
@@ -205,35 +230,28 @@ public class ArtifactorySonatypeRepositoryListener extends AbstractRepositoryLis
         resolutionHelper.init(allMavenProps);
     }
 
-    private void copyRepositoryFields(RemoteRepository fromRepo, RemoteRepository toRepo)
-            throws IllegalAccessException, NoSuchFieldException {
-        Field url = RemoteRepository.class.getDeclaredField("url");
-        url.setAccessible(true);
-        url.set(toRepo, fromRepo.getUrl());
+    /**
+     * Copies the URL, authentication and proxy of a repository.
+     * RemoteRepository is mutable in Maven 3.0.x, so its setters are used.
+     */
+    private void copyRepositoryFields(RemoteRepository fromRepo, RemoteRepository toRepo) {
+        toRepo.setUrl(fromRepo.getUrl());
         if (fromRepo.getAuthentication() != null) {
-            Field authentication = RemoteRepository.class.getDeclaredField("authentication");
-            authentication.setAccessible(true);
-            authentication.set(toRepo, fromRepo.getAuthentication());
+            toRepo.setAuthentication(fromRepo.getAuthentication());
         }
         if (fromRepo.getProxy() != null) {
-            Field proxy = RemoteRepository.class.getDeclaredField("proxy");
-            proxy.setAccessible(true);
-            proxy.set(toRepo, fromRepo.getProxy());
+            toRepo.setProxy(fromRepo.getProxy());
         }
     }
 
     /**
      * Enables both snapshot and release polocies for a repository
      */
-    private void setRepositoryPolicy(RemoteRepository repo) throws NoSuchFieldException, IllegalAccessException {
+    private void setRepositoryPolicy(RemoteRepository repo) {
+        // RepositoryPolicy is mutable in Maven 3.0.x, so a new instance is created for each repository:
         RepositoryPolicy policy = new RepositoryPolicy(true, RepositoryPolicy.UPDATE_POLICY_DAILY, RepositoryPolicy.CHECKSUM_POLICY_WARN);
-
-        Field releasePolicyField = RemoteRepository.class.getDeclaredField("releasePolicy");
-        Field snapshotPolicyField = RemoteRepository.class.getDeclaredField("snapshotPolicy");
-        releasePolicyField.setAccessible(true);
-        snapshotPolicyField.setAccessible(true);
-        releasePolicyField.set(repo, policy);
-        snapshotPolicyField.set(repo, policy);
+        repo.setPolicy(true, policy);
+        repo.setPolicy(false, policy);
     }
 
     /**
@@ -0,0 +1,74 @@
+package org.jfrog.build.extractor.maven.resolver;
+
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+
+import java.lang.reflect.Field;
+
+/**
+ * Modifies the fields of an org.eclipse.aether.repository.RemoteRepository instance.
+ * RemoteRepository is immutable in Maven 3.1.x, therefore its fields are modified using reflection.
+ * The Field handles are resolved once and reused for every modified repository.
+ */
+final class EclipseRemoteRepositoryFields {
+
+    private static final RepositoryPolicy ENABLED_POLICY = new RepositoryPolicy(true, RepositoryPolicy.UPDATE_POLICY_DAILY, RepositoryPolicy.CHECKSUM_POLICY_WARN);
+
+    private static final Field URL;
+    private static final Field AUTHENTICATION;
+    private static final Field PROXY;
+    private static final Field RELEASE_POLICY;
+    private static final Field SNAPSHOT_POLICY;
+    private static final NoSuchFieldException INIT_FAILURE;
+
+    static {
+        Field url = null, authentication = null, proxy = null, releasePolicy = null, snapshotPolicy = null;
+        NoSuchFieldException initFailure = null;
+        try {
+            url = getAccessibleField("url");
+            authentication = getAccessibleField("authentication");
+            proxy = getAccessibleField("proxy");
+            releasePolicy = getAccessibleField("releasePolicy");
+            snapshotPolicy = getAccessibleField("snapshotPolicy");
+        } catch (NoSuchFieldException e) {
+            initFailure = e;
+        }
+        URL = url;
+        AUTHENTICATION = authentication;
+        PROXY = proxy;
+        RELEASE_POLICY = releasePolicy;
+        SNAPSHOT_POLICY = snapshotPolicy;
+        INIT_FAILURE = initFailure;
+    }
+
+    private EclipseRemoteRepositoryFields() {
+    }
+
+    private static Field getAccessibleField(String name) throws NoSuchFieldException {
+        Field field = RemoteRepository.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+
+    /**
+     * Copy the URL, authentication and proxy of the Artifactory repository to the given repository,
+     * and enable both its snapshot and release policies.
+     *
+     * @param fromRepo - The Artifactory resolution repository.
+     * @param toRepo   - The repository to modify.
+     */
+    static void redirect(RemoteRepository fromRepo, RemoteRepository toRepo) throws NoSuchFieldException, IllegalAccessException {
+        if (INIT_FAILURE != null) {
+            throw new NoSuchFieldException(INIT_FAILURE.getMessage());
+        }
+        URL.set(toRepo, fromRepo.getUrl());
+        if (fromRepo.getAuthentication() != null) {
+            AUTHENTICATION.set(toRepo, fromRepo.getAuthentication());
+        }
+        if (fromRepo.getProxy() != null) {
+            PROXY.set(toRepo, fromRepo.getProxy());
+        }
+        RELEASE_POLICY.set(toRepo, ENABLED_POLICY);
+        SNAPSHOT_POLICY.set(toRepo, ENABLED_POLICY);
+    }
+}
@@ -0,0 +1,78 @@
+package org.jfrog.build.extractor.maven;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+@Test
+public class ModuleDependenciesTest {
+
+    public void testMergeOnlyNewArtifacts() {
+        ModuleDependencies moduleDependencies = new ModuleDependencies();
+        Set<Artifact> projectArtifacts = new LinkedHashSet<>();
+        projectArtifacts.add(createArtifact("a", "compile"));
+        projectArtifacts.add(createArtifact("b", null));
+        moduleDependencies.merge(projectArtifacts);
+        Set<Artifact> first = moduleDependencies.toSet(null);
+        assertEquals(first.size(), 2);
+        assertEquals(getArtifact(first, "b").getScope(), Artifact.SCOPE_COMPILE, "Blank scope should be replaced with compile");
+
+        // Merging the same artifacts again shouldn't create new copies
+        projectArtifacts.add(createArtifact("c", "test"));
+        moduleDependencies.merge(projectArtifacts);
+        Set<Artifact> second = moduleDependencies.toSet(null);
+        assertEquals(second.size(), 3);
+        assertSame(getArtifact(second, "a"), getArtifact(first, "a"));
+        assertSame(getArtifact(second, "b"), getArtifact(first, "b"));
+        assertEquals(getArtifact(second, "c").getScope(), "test");
+    }
+
+    public void testNewerProjectArtifactReplacesOlder() {
+        ModuleDependencies moduleDependencies = new ModuleDependencies();
+        Artifact compileArtifact = createArtifact("a", "compile");
+        moduleDependencies.merge(Collections.singleton(compileArtifact));
+        moduleDependencies.merge(Collections.singleton(createArtifact("a", "test")));
+        assertEquals(getArtifact(moduleDependencies.toSet(null), "a").getScope(), "test");
+
+        // The original artifact is merged again, since its copy was replaced
+        moduleDependencies.merge(Collections.singleton(compileArtifact));
+        assertEquals(getArtifact(moduleDependencies.toSet(null), "a").getScope(), "compile");
+
+        // Scope of an already merged artifact changed
+        compileArtifact.setScope("provided");
+        moduleDependencies.merge(Collections.singleton(compileArtifact));
+        Set<Artifact> dependencies = moduleDependencies.toSet(null);
+        assertEquals(dependencies.size(), 1);
+        assertEquals(getArtifact(dependencies, "a").getScope(), "provided");
+    }
+
+    public void testProjectArtifactsPreferredOverResolvedArtifacts() {
+        ModuleDependencies moduleDependencies = new ModuleDependencies();
+        moduleDependencies.merge(Collections.singleton(createArtifact("a", "test")));
+        Set<Artifact> resolvedArtifacts = Collections.synchronizedSet(new HashSet<>());
+        resolvedArtifacts.add(createArtifact("a", "runtime"));
+        resolvedArtifacts.add(createArtifact("b", "runtime"));
+
+        Set<Artifact> dependencies = moduleDependencies.toSet(resolvedArtifacts);
+        assertEquals(dependencies.size(), 2);
+        assertEquals(getArtifact(dependencies, "a").getScope(), "test");
+        assertEquals(getArtifact(dependencies, "b").getScope(), "runtime");
+        assertEquals(moduleDependencies.toSet(null).size(), 1, "Resolved artifacts shouldn't be merged into the module dependencies");
+    }
+
+    private static Artifact createArtifact(String artifactId, String scope) {
+        DefaultArtifact artifact = new DefaultArtifact("org.jfrog", artifactId, "1.0", scope, "jar", "", new DefaultArtifactHandler("jar"));
+        artifact.setFile(new File(artifactId + ".jar"));
+        return artifact;
+    }
+
+    private static Artifact getArtifact(Set<Artifact> artifacts, String artifactId) {
+        return artifacts.stream().filter(artifact -> artifactId.equals(artifact.getArtifactId())).findAny().orElse(null);
+    }
+}
@@ -0,0 +1,87 @@
+package org.jfrog.build.extractor.maven;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.testng.Assert.*;
+
+@Test
+public class SurefireReportsScannerTest {
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n";
+
+    private final SurefireReportsScanner scanner = new SurefireReportsScanner();
+    private File tempDir;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("surefire-reports").toFile();
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    @DataProvider
+    private Object[][] reportsProvider() {
+        return new Object[][]{
+                {"<testsuite name=\"a\" tests=\"2\" failures=\"0\" errors=\"0\"><testcase name=\"t\"/></testsuite>", false},
+                {"<testsuite name=\"a\" tests=\"2\" failures=\"1\" errors=\"0\"><testcase name=\"t\"/></testsuite>", true},
+                {"<testsuite name=\"a\" tests=\"2\" failures=\"0\" errors=\"2\"><testcase name=\"t\"/></testsuite>", true},
+                {"<testsuite name=\"a\" tests=\"2\" failures=\"1.0\"/>", true},
+                {"<testsuite name=\"a\" tests=\"2\"/>", false},
+                {"<testsuite name=\"a\" failures=\"NaN\" errors=\"\"/>", false},
+                {"<!-- comment --><testsuite xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" failures=\"3\"/>", true},
+                // Only the root element is checked
+                {"<testsuites><testsuite failures=\"1\"/></testsuites>", false},
+                {"<testsuite xmlns=\"urn:other\" failures=\"1\"/>", false},
+                // The rest of the report is not parsed
+                {"<testsuite failures=\"1\"><unclosed>", true},
+        };
+    }
+
+    @Test(dataProvider = "reportsProvider")
+    public void testIsFailed(String report, boolean expected) throws XMLStreamException {
+        assertEquals(scanner.isFailed(new ByteArrayInputStream((XML_HEADER + report).getBytes(StandardCharsets.UTF_8))), expected, report);
+    }
+
+    public void testLargeReport() throws IOException, XMLStreamException {
+        File report = new File(tempDir, "TEST-large.xml");
+        try (Writer writer = Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(XML_HEADER);
+            writer.write("<testsuite name=\"large\" tests=\"100000\" failures=\"0\" errors=\"1\">\n");
+            for (int i = 0; i < 100000; i++) {
+                writer.write("  <testcase name=\"test" + i + "\" classname=\"org.jfrog.Test\" time=\"0.001\"><system-out>output</system-out></testcase>\n");
+            }
+            writer.write("</testsuite>\n");
+        }
+        assertTrue(scanner.isFailed(report));
+    }
+
+    public void testMemoization() throws IOException, XMLStreamException {
+        File report = new File(tempDir, "TEST-memo.xml");
+        FileUtils.writeStringToFile(report, XML_HEADER + "<testsuite failures=\"0\" errors=\"0\"/>", StandardCharsets.UTF_8);
+        assertTrue(report.setLastModified(1_000_000L));
+        assertFalse(scanner.isFailed(report));
+
+        // Same size and modification time - the cached result is returned
+        FileUtils.writeStringToFile(report, XML_HEADER + "<testsuite failures=\"1\" errors=\"0\"/>", StandardCharsets.UTF_8);
+        assertTrue(report.setLastModified(1_000_000L));
+        assertFalse(scanner.isFailed(report));
+
+        // Modified report - the report is scanned again
+        assertTrue(report.setLastModified(2_000_000L));
+        assertTrue(scanner.isFailed(report));
+    }
+}
@@ -0,0 +1,52 @@
+package org.jfrog.build.extractor.maven.resolver;
+
+import org.eclipse.aether.repository.Authentication;
+import org.eclipse.aether.repository.Proxy;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.util.repository.AuthenticationBuilder;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class EclipseRemoteRepositoryFieldsTest {
+
+    private static final String ARTIFACTORY_URL = "http://127.0.0.1:8081/artifactory/libs-release";
+    private static final String CENTRAL_URL = "https://repo.maven.apache.org/maven2";
+
+    @Test
+    public void testRedirect() throws Exception {
+        Authentication authentication = new AuthenticationBuilder().addUsername("user").addPassword("password").build();
+        Proxy proxy = new Proxy(Proxy.TYPE_HTTP, "proxy.local", 8888);
+        RemoteRepository artifactoryRepo = new RemoteRepository.Builder("artifactory-release", "default", ARTIFACTORY_URL)
+                .setAuthentication(authentication)
+                .setProxy(proxy)
+                .build();
+        RemoteRepository centralRepo = new RemoteRepository.Builder("central", "default", CENTRAL_URL)
+                .setSnapshotPolicy(new RepositoryPolicy(false, RepositoryPolicy.UPDATE_POLICY_NEVER, RepositoryPolicy.CHECKSUM_POLICY_FAIL))
+                .build();
+
+        EclipseRemoteRepositoryFields.redirect(artifactoryRepo, centralRepo);
+
+        assertEquals(centralRepo.getUrl(), ARTIFACTORY_URL);
+        assertEquals(centralRepo.getId(), "central");
+        assertSame(centralRepo.getAuthentication(), authentication);
+        assertSame(centralRepo.getProxy(), proxy);
+        assertTrue(centralRepo.getPolicy(true).isEnabled());
+        assertTrue(centralRepo.getPolicy(false).isEnabled());
+        assertEquals(centralRepo.getPolicy(true).getChecksumPolicy(), RepositoryPolicy.CHECKSUM_POLICY_WARN);
+    }
+
+    @Test
+    public void testRedirectKeepsAuthenticationAndProxy() throws Exception {
+        Proxy proxy = new Proxy(Proxy.TYPE_HTTP, "proxy.local", 8888);
+        RemoteRepository artifactoryRepo = new RemoteRepository.Builder("artifactory-release", "default", ARTIFACTORY_URL).build();
+        RemoteRepository centralRepo = new RemoteRepository.Builder("central", "default", CENTRAL_URL).setProxy(proxy).build();
+
+        EclipseRemoteRepositoryFields.redirect(artifactoryRepo, centralRepo);
+
+        assertEquals(centralRepo.getUrl(), ARTIFACTORY_URL);
+        assertNull(centralRepo.getAuthentication());
+        assertSame(centralRepo.getProxy(), proxy);
+    }
+}
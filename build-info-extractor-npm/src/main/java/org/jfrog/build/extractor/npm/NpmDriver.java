@@ -9,11 +9,16 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.extractor.executor.CommandExecutor;
 import org.jfrog.build.extractor.executor.CommandResults;
+import org.jfrog.build.extractor.npm.extractor.NpmDependencyGraph;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.Serializable;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -23,6 +28,8 @@ import java.util.stream.Stream;
 public class NpmDriver implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    private static final int NPM_LS_PIPE_SIZE = 64 * 1024;
+
     private static ObjectReader jsonReader = new ObjectMapper().reader();
     private CommandExecutor commandExecutor;
 
@@ -97,6 +104,74 @@ public class NpmDriver implements Serializable {
         }
     }
 
+    /**
+     * Run 'npm ls' and parse its results directly into a deduplicated dependency graph, without building a JSON tree.
+     * The output lines are piped to the parser while the command is running, so the output is never held in memory.
+     * If 'npm ls' fails but prints its results, its error output is added to the problems of the graph.
+     *
+     * @param workingDirectory - The npm project directory
+     * @param extraArgs        - Extra 'npm ls' arguments
+     * @return the dependency graph of the npm project
+     * @throws IOException in case of an error running 'npm ls' or parsing its results, or if 'npm ls' printed no results
+     */
+    public NpmDependencyGraph listDependencyGraph(File workingDirectory, List<String> extraArgs) throws IOException {
+        List<String> args = new ArrayList<>();
+        args.add("ls");
+        args.add("--json");
+        args.add("--all");
+        args.addAll(extraArgs);
+        ExecutorService parserExecutor = Executors.newSingleThreadExecutor();
+        CommandResults npmCommandRes = null;
+        AtomicBoolean hasOutput = new AtomicBoolean();
+        NpmDependencyGraph npmLsResults;
+        try {
+            PipedInputStream npmLsInput = new PipedInputStream(NPM_LS_PIPE_SIZE);
+            Writer npmLsWriter = new BufferedWriter(new OutputStreamWriter(new PipedOutputStream(npmLsInput), StandardCharsets.UTF_8));
+            Future<NpmDependencyGraph> graph = parserExecutor.submit(() -> {
+                try (InputStream inputStream = npmLsInput) {
+                    return NpmDependencyGraph.parse(inputStream);
+                }
+            });
+            try {
+                npmCommandRes = commandExecutor.exeCommand(workingDirectory, args, null, null, line -> {
+                    if (graph.isDone()) {
+                        // The parser stopped reading, no need to run the command any longer
+                        return false;
+                    }
+                    if (!hasOutput.get() && StringUtils.isNotBlank(line)) {
+                        hasOutput.set(true);
+                    }
+                    npmLsWriter.write(line);
+                    npmLsWriter.write('\n');
+                    return true;
+                });
+                npmLsWriter.close();
+            } catch (IOException e) {
+                if (!graph.isDone()) {
+                    throw e;
+                }
+                // The parser closed the pipe. Its results or error are returned below.
+            }
+            npmLsResults = graph.get();
+        } catch (ExecutionException e) {
+            if (npmCommandRes != null && !npmCommandRes.isOk()) {
+                throw new IOException("npm ls failed: " + npmCommandRes.getErr(), e.getCause());
+            }
+            throw new IOException("npm ls failed", e.getCause());
+        } catch (IOException | InterruptedException e) {
+            throw new IOException("npm ls failed", e);
+        } finally {
+            parserExecutor.shutdownNow();
+        }
+        if (!hasOutput.get()) {
+            throw new IOException("npm ls printed no results: " + (npmCommandRes == null ? "" : npmCommandRes.getErr()));
+        }
+        if (npmCommandRes != null && !npmCommandRes.isOk() && npmLsResults.getProblems().isEmpty()) {
+            npmLsResults.addProblem(npmCommandRes.getErr());
+        }
+        return npmLsResults;
+    }
+
     public String version(File workingDirectory) throws IOException, InterruptedException {
         return runCommand(workingDirectory, new String[]{"--version"}, Collections.emptyList()).getRes();
     }
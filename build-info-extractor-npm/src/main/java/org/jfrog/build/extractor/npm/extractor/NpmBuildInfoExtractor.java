@@ -1,6 +1,5 @@
 package org.jfrog.build.extractor.npm.extractor;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import org.apache.commons.lang3.StringUtils;
 import org.jfrog.build.api.Build;
 import org.jfrog.build.api.Dependency;
@@ -16,11 +15,9 @@ import org.jfrog.build.extractor.npm.NpmDriver;
 import org.jfrog.build.extractor.npm.types.NpmPackageInfo;
 import org.jfrog.build.extractor.npm.types.NpmProject;
 import org.jfrog.build.extractor.npm.types.NpmScope;
-import org.jfrog.build.extractor.producerConsumer.ConsumerRunnableBase;
-import org.jfrog.build.extractor.producerConsumer.ProducerConsumerExecutor;
-import org.jfrog.build.extractor.producerConsumer.ProducerRunnableBase;
+import org.jfrog.build.extractor.npm.extractor.NpmDependencyGraph.NpmPackageNode;
+import org.jfrog.build.extractor.producerConsumer.ProducerConsumerPipeline;
 
-import javax.swing.tree.DefaultMutableTreeNode;
 import java.io.BufferedWriter;
 import java.io.FileInputStream;
 import java.io.FileWriter;
@@ -30,6 +27,9 @@ import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.jfrog.build.client.PreemptiveHttpClientBuilder.CONNECTION_POOL_SIZE;
 
@@ -39,6 +39,7 @@ import static org.jfrog.build.client.PreemptiveHttpClientBuilder.CONNECTION_POOL
 public class NpmBuildInfoExtractor implements BuildInfoExtractor<NpmProject> {
     private static final String NPMRC_BACKUP_FILE_NAME = "jfrog.npmrc.backup";
     private static final String NPMRC_FILE_NAME = ".npmrc";
+    private static final int DEPENDENCIES_CONSUMERS = 3;
 
     private final ArtifactoryManagerBuilder artifactoryManagerBuilder;
     private NpmPackageInfo npmPackageInfo = new NpmPackageInfo();
@@ -280,8 +281,8 @@ public class NpmBuildInfoExtractor implements BuildInfoExtractor<NpmProject> {
     /**
      * For each scope ('development' or 'production'):
      * 1. Run 'npm ls' command.
-     * 2. From 'npm ls' command results - Create a tree of 'NpmPackageInfo's.
-     * 3. Collect the dependencies from the tree.
+     * 2. From 'npm ls' command results - Create a deduplicated graph of npm packages.
+     * 3. Collect the dependencies from the graph.
      *
      * @param workingDir - Project's directory
      * @return List of dependencies
@@ -296,8 +297,8 @@ public class NpmBuildInfoExtractor implements BuildInfoExtractor<NpmProject> {
         for (NpmScope scope : scopes) {
             List<String> extraListArgs = new ArrayList<>();
             extraListArgs.add("--" + scope);
-            JsonNode jsonNode = npmDriver.list(workingDir.toFile(), extraListArgs);
-            populateDependenciesMap(dependencies, getDependenciesMapFromLatestBuild(), jsonNode, scope);
+            NpmDependencyGraph dependencyGraph = npmDriver.listDependencyGraph(workingDir.toFile(), extraListArgs);
+            populateDependenciesMap(dependencies, getDependenciesMapFromLatestBuild(), dependencyGraph, scope);
         }
 
         return new ArrayList<>(dependencies.values());
@@ -329,25 +330,30 @@ public class NpmBuildInfoExtractor implements BuildInfoExtractor<NpmProject> {
 
     /**
      * Populate the dependencies map for the specified scope by:
-     * 1. Create npm dependency tree from root node of 'npm ls' command tree. Populate each node with name, version and scope.
-     * 2. For each dependency, retrieve sha1 and md5 from Artifactory. Use the producer-consumer mechanism to parallelize it.
+     * 1. Use the npm dependency graph created from the 'npm ls' command results. Each package appears once in the graph.
+     * 2. For each dependency, retrieve sha1 and md5 from Artifactory. Use a producer-consumer pipeline to parallelize it.
      */
-    private void populateDependenciesMap(Map<String, Dependency> dependencies, Map<String, Dependency> previousBuildDependencies, JsonNode npmDependencyTree, NpmScope scope) throws Exception {
+    private void populateDependenciesMap(Map<String, Dependency> dependencies, Map<String, Dependency> previousBuildDependencies, NpmDependencyGraph dependencyGraph, NpmScope scope) throws Exception {
         // Set of packages that could not be found in Artifactory.
         Set<NpmPackageInfo> badPackages = Collections.synchronizedSet(new HashSet<>());
-        DefaultMutableTreeNode rootNode = NpmDependencyTree.createDependencyTree(npmDependencyTree, scope);
         try (ArtifactoryManager artifactoryManager = artifactoryManagerBuilder.build()) {
-            // Create producer Runnable.
-            ProducerRunnableBase[] producerRunnable = new ProducerRunnableBase[]{new NpmExtractorProducer(rootNode)};
-            // Create consumer Runnables.
-            ConsumerRunnableBase[] consumerRunnables = new ConsumerRunnableBase[]{
-                    new NpmExtractorConsumer(artifactoryManager, dependencies, previousBuildDependencies, badPackages),
-                    new NpmExtractorConsumer(artifactoryManager, dependencies, previousBuildDependencies, badPackages),
-                    new NpmExtractorConsumer(artifactoryManager, dependencies, previousBuildDependencies, badPackages)
-            };
-            // Create the deployment executor.
-            ProducerConsumerExecutor deploymentExecutor = new ProducerConsumerExecutor(logger, producerRunnable, consumerRunnables, CONNECTION_POOL_SIZE);
-            deploymentExecutor.start();
+            NpmExtractorConsumer consumer = new NpmExtractorConsumer(artifactoryManager, dependencies, previousBuildDependencies, badPackages, scope.toString(), logger);
+            ProducerConsumerPipeline pipeline = ProducerConsumerPipeline.<NpmPackageNode>from(emitter -> {
+                // Traverse over the unique packages of the npm dependency graph. If a package is legal - Produce it.
+                for (NpmPackageNode npmPackageNode : dependencyGraph.getPackages()) {
+                    if (StringUtils.isBlank(npmPackageNode.getVersion())) {
+                        logger.warn("npm dependencies list contains the package " + npmPackageNode.getName() + " without version information. The dependency will not be added to build-info");
+                        continue;
+                    }
+                    emitter.emit(npmPackageNode);
+                }
+            }).failFast().consume("npm-dependencies", DEPENDENCIES_CONSUMERS, CONNECTION_POOL_SIZE, consumer);
+            ExecutorService executorService = Executors.newFixedThreadPool(DEPENDENCIES_CONSUMERS + 1);
+            try {
+                pipeline.run(executorService, 0, TimeUnit.MILLISECONDS).throwIfFailed("Failed collecting npm dependencies");
+            } finally {
+                executorService.shutdownNow();
+            }
             if (!badPackages.isEmpty()) {
                 logger.info((Arrays.toString(badPackages.toArray())));
                 logger.info("The npm dependencies above could not be found in Artifactory and therefore are not included in the build-info. " +
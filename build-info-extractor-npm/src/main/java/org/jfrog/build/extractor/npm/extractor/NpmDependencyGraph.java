@@ -0,0 +1,283 @@
+package org.jfrog.build.extractor.npm.extractor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.jfrog.build.api.producerConsumer.ProducerConsumerItem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * A deduplicated npm dependency graph, parsed directly from the results of 'npm ls --json' command.
+ * Each package (name and version) is stored once, no matter how many times it appears in the npm dependency tree.
+ * Every appearance of a package in the tree is stored as an occurrence with a link to its parent occurrence, so occurrences
+ * share their paths to root instead of copying them. The paths to root are built only when requested.
+ */
+public class NpmDependencyGraph {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Map<String, NpmPackageNode> packages = new LinkedHashMap<>();
+    private final List<String> problems = new ArrayList<>();
+    private final Occurrence root;
+    private boolean hasDetachedOccurrences;
+
+    private NpmDependencyGraph(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            root = new Occurrence(new NpmPackageNode("", ""));
+            return;
+        }
+        PackageFields rootFields = parsePackageFields(parser);
+        root = new Occurrence(new NpmPackageNode(Objects.toString(rootFields.name, ""), Objects.toString(rootFields.version, "")));
+        // The problems of the whole tree are listed in the root
+        problems.addAll(rootFields.problems);
+        rootFields.attachChildren(root);
+        if (hasDetachedOccurrences) {
+            removeDetachedOccurrences();
+        }
+    }
+
+    /**
+     * Create a npm dependency graph from the results of 'npm ls' command.
+     *
+     * @param npmList - Results of 'npm ls --json' command.
+     * @return the npm dependency graph.
+     * @throws IOException in case of a malformed JSON.
+     */
+    public static NpmDependencyGraph parse(String npmList) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(npmList)) {
+            return new NpmDependencyGraph(parser);
+        }
+    }
+
+    /**
+     * Create a npm dependency graph from the results of 'npm ls' command.
+     *
+     * @param npmList - Results of 'npm ls --json' command.
+     * @return the npm dependency graph.
+     * @throws IOException in case of a malformed JSON or an error reading the stream.
+     */
+    public static NpmDependencyGraph parse(InputStream npmList) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(npmList)) {
+            return new NpmDependencyGraph(parser);
+        }
+    }
+
+    /**
+     * @return the root project ID in the form of 'name:version'.
+     */
+    public String getRootId() {
+        return root.node.id;
+    }
+
+    /**
+     * @return the unique packages of the graph, excluding the root project.
+     */
+    public Collection<NpmPackageNode> getPackages() {
+        return Collections.unmodifiableCollection(packages.values());
+    }
+
+    /**
+     * @return the problems reported by 'npm ls', such as missing or invalid packages.
+     */
+    public List<String> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    /**
+     * Add a problem of the 'npm ls' command, which wasn't listed in its results.
+     *
+     * @param problem - The problem
+     */
+    public void addProblem(String problem) {
+        problems.add(problem);
+    }
+
+    /**
+     * @param name    - The package name
+     * @param version - The package version
+     * @return the package or null if the package is not in the graph.
+     */
+    public NpmPackageNode getPackage(String name, String version) {
+        return packages.get(name + ":" + version);
+    }
+
+    /**
+     * Read the fields of a package object. The children are attached to the package only after its version is read, because
+     * the JSON fields are not ordered.
+     */
+    private PackageFields parsePackageFields(JsonParser parser) throws IOException {
+        PackageFields fields = new PackageFields();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (fieldName) {
+                case "name":
+                    fields.name = readText(parser, token);
+                    break;
+                case "version":
+                    fields.version = readText(parser, token);
+                    break;
+                case "problems":
+                    if (token == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            fields.problems.add(readText(parser, parser.currentToken()));
+                        }
+                    } else {
+                        fields.problems.add(readText(parser, token));
+                    }
+                    break;
+                case "dependencies":
+                    if (token == JsonToken.START_OBJECT) {
+                        parseDependencies(parser, fields.children);
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return fields;
+    }
+
+    private void parseDependencies(JsonParser parser, List<Occurrence> children) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            PackageFields fields = parsePackageFields(parser);
+            if (fields.version == null) {
+                // Packages without version are not included in the graph, and so do their dependencies
+                hasDetachedOccurrences |= !fields.children.isEmpty();
+                continue;
+            }
+            NpmPackageNode node = packages.computeIfAbsent(name + ":" + fields.version, id -> new NpmPackageNode(name, fields.version));
+            Occurrence occurrence = new Occurrence(node);
+            node.occurrences.add(occurrence);
+            fields.attachChildren(occurrence);
+            children.add(occurrence);
+        }
+    }
+
+    /**
+     * Read a scalar value as text, like {@link com.fasterxml.jackson.databind.JsonNode#asText()}.
+     */
+    private static String readText(JsonParser parser, JsonToken token) throws IOException {
+        if (token.isScalarValue()) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return "";
+    }
+
+    /**
+     * Remove occurrences that are not connected to the root, because one of their ancestors has no version.
+     */
+    private void removeDetachedOccurrences() {
+        Iterator<NpmPackageNode> nodes = packages.values().iterator();
+        while (nodes.hasNext()) {
+            NpmPackageNode node = nodes.next();
+            node.occurrences.removeIf(occurrence -> !isAttached(occurrence));
+            if (node.occurrences.isEmpty()) {
+                nodes.remove();
+            }
+        }
+    }
+
+    private boolean isAttached(Occurrence occurrence) {
+        Occurrence current = occurrence;
+        while (current.parent != null) {
+            current = current.parent;
+        }
+        return current == root;
+    }
+
+    private static class PackageFields {
+        private final List<Occurrence> children = new ArrayList<>();
+        private final List<String> problems = new ArrayList<>(0);
+        private String name;
+        private String version;
+
+        private void attachChildren(Occurrence parent) {
+            for (Occurrence child : children) {
+                child.parent = parent;
+            }
+        }
+    }
+
+    /**
+     * An appearance of a package in the npm dependency tree.
+     */
+    private static class Occurrence {
+        private final NpmPackageNode node;
+        private Occurrence parent;
+
+        private Occurrence(NpmPackageNode node) {
+            this.node = node;
+        }
+    }
+
+    /**
+     * A unique npm package in the dependency graph.
+     */
+    public static class NpmPackageNode implements ProducerConsumerItem {
+        private final List<Occurrence> occurrences = new ArrayList<>(1);
+        private final String name;
+        private final String version;
+        private final String id;
+
+        private NpmPackageNode(String name, String version) {
+            this.name = name;
+            this.version = version;
+            this.id = name + ":" + version;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        /**
+         * @return the number of times the package appears in the npm dependency tree.
+         */
+        public int getOccurrencesCount() {
+            return occurrences.size();
+        }
+
+        /**
+         * Build the path-to-root dependency lists of all occurrences of the package.
+         * The structure of each dependency in the list is 'dependency-name:dependency-version'. Each list starts with the
+         * parent of the package and ends with the root project.
+         *
+         * @return the path-to-root dependency lists, used for 'RequestedBy' in {@link org.jfrog.build.api.Dependency}.
+         */
+        public String[][] getPathsToRoot() {
+            String[][] pathsToRoot = new String[occurrences.size()][];
+            for (int i = 0; i < pathsToRoot.length; i++) {
+                int depth = 0;
+                for (Occurrence current = occurrences.get(i).parent; current != null; current = current.parent) {
+                    depth++;
+                }
+                String[] pathToRoot = new String[depth];
+                int j = 0;
+                for (Occurrence current = occurrences.get(i).parent; current != null; current = current.parent) {
+                    pathToRoot[j++] = current.node.id;
+                }
+                pathsToRoot[i] = pathToRoot;
+            }
+            return pathsToRoot;
+        }
+
+        @Override
+        public String toString() {
+            return id;
+        }
+    }
+}
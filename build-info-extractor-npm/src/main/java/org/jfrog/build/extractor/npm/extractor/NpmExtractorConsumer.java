@@ -1,27 +1,27 @@
 package org.jfrog.build.extractor.npm.extractor;
 
+import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.jfrog.build.api.Dependency;
 import org.jfrog.build.api.builder.DependencyBuilder;
-import org.jfrog.build.api.producerConsumer.ProducerConsumerItem;
 import org.jfrog.build.api.search.AqlSearchResult;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.jfrog.build.extractor.npm.extractor.NpmDependencyGraph.NpmPackageNode;
 import org.jfrog.build.extractor.npm.types.NpmPackageInfo;
-import org.jfrog.build.extractor.producerConsumer.ConsumerRunnableBase;
-import org.jfrog.build.extractor.producerConsumer.ProducerConsumerExecutor;
+import org.jfrog.build.extractor.producerConsumer.ProducerConsumerPipeline;
 
 import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
 
 /**
- * Consumes PackageInfos and fills the dependencies map with sha1 and md5.
+ * Consumes unique npm packages and fills the dependencies map with sha1 and md5.
  * Retrieves sha1 and md5 information from Artifactory by running an AQL.
  *
  * @author Yahav Itzhak
  */
-public class NpmExtractorConsumer extends ConsumerRunnableBase {
+public class NpmExtractorConsumer implements ProducerConsumerPipeline.Consumer<NpmPackageNode> {
     private static final String NPM_AQL_FORMAT =
             "items.find({" +
                     "\"@npm.name\": \"%s\"," +
@@ -30,36 +30,26 @@ public class NpmExtractorConsumer extends ConsumerRunnableBase {
     private Map<String, Dependency> previousBuildDependencies;
     private final ArtifactoryManager artifactoryManager;
     private Map<String, Dependency> dependencies;
-    private ProducerConsumerExecutor executor;
     private Set<NpmPackageInfo> badPackages;
-    private Log log;
+    private final String scope;
+    private final Log log;
 
     NpmExtractorConsumer(ArtifactoryManager artifactoryManager, Map<String, Dependency> dependencies,
-                         Map<String, Dependency> previousBuildDependencies, Set<NpmPackageInfo> badPackages) {
+                         Map<String, Dependency> previousBuildDependencies, Set<NpmPackageInfo> badPackages, String scope, Log log) {
         this.artifactoryManager = artifactoryManager;
         this.dependencies = dependencies;
         this.previousBuildDependencies = previousBuildDependencies;
         this.badPackages = badPackages;
+        this.scope = scope;
+        this.log = log;
     }
 
     @Override
-    public void consumerRun() {
-        while (!Thread.interrupted()) {
-            try {
-                ProducerConsumerItem item = executor.take();
-                if (item == executor.TERMINATE) {
-                    // If reached the TERMINATE NpmPackageInfo, return it to the queue and exit.
-                    executor.put(item);
-                    break;
-                }
-                NpmPackageInfo npmPackageInfo = (NpmPackageInfo) item;
-                // Try to extract sha1 and md5 for 'npmPackageInfo'. If it doesn't exist in Artifactory's cache, add it to the 'badPackages' list.
-                if (!appendDependency(npmPackageInfo)) {
-                    badPackages.add(npmPackageInfo);
-                }
-            } catch (InterruptedException e) {
-                return;
-            }
+    public void consume(NpmPackageNode npmPackageNode) {
+        NpmPackageInfo npmPackageInfo = new NpmPackageInfo(npmPackageNode.getName(), npmPackageNode.getVersion(), scope, null);
+        // Try to extract sha1 and md5 for 'npmPackageInfo'. If it doesn't exist in Artifactory's cache, add it to the 'badPackages' list.
+        if (!appendDependency(npmPackageInfo, npmPackageNode.getPathsToRoot())) {
+            badPackages.add(npmPackageInfo);
         }
     }
 
@@ -68,9 +58,10 @@ public class NpmExtractorConsumer extends ConsumerRunnableBase {
      * Otherwise, retrieve sha1 and md5 from Artifactory and add the dependency to the dependencies map.
      *
      * @param npmPackageInfo - The npm package information.
+     * @param pathsToRoot    - The path-to-root dependency lists of all occurrences of the package in the dependency tree.
      * @return True if the package is legal. False in case of an error such as an absence in Artifactory's cache.
      */
-    private boolean appendDependency(NpmPackageInfo npmPackageInfo) {
+    private boolean appendDependency(NpmPackageInfo npmPackageInfo, String[][] pathsToRoot) {
         String id = npmPackageInfo.getName() + ":" + npmPackageInfo.getVersion();
         Dependency dependency = dependencies.get(id);
         if (dependency == null) {
@@ -82,7 +73,7 @@ public class NpmExtractorConsumer extends ConsumerRunnableBase {
         } else {
             dependency.getScopes().add(npmPackageInfo.getScope());
         }
-        dependency.addRequestedBy(npmPackageInfo.getPathToRoot());
+        dependency.setRequestedBy((String[][]) ArrayUtils.addAll(dependency.getRequestedBy(), pathsToRoot));
         return true;
     }
 
@@ -145,14 +136,4 @@ public class NpmExtractorConsumer extends ConsumerRunnableBase {
                 .addScope(npmPackageInfo.getScope())
                 .build();
     }
-
-    @Override
-    public void setExecutor(ProducerConsumerExecutor executor) {
-        this.executor = executor;
-    }
-
-    @Override
-    public void setLog(Log log) {
-        this.log = log;
-    }
 }
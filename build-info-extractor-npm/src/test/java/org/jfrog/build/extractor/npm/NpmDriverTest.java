@@ -0,0 +1,113 @@
+package org.jfrog.build.extractor.npm;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.jfrog.build.extractor.npm.extractor.NpmDependencyGraph;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+/**
+ * Runs the npm driver against a fake npm executable, which prints the content of the file in $NPM_LS_RESULTS.
+ * If the file in $NPM_LS_ERRORS isn't empty, the fake npm prints it to the error output and fails.
+ */
+@Test
+public class NpmDriverTest {
+    private File tempDir;
+    private File npmLsResults;
+    private File npmLsErrors;
+    private NpmDriver npmDriver;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            throw new SkipException("The fake npm executable is a shell script");
+        }
+        tempDir = Files.createTempDirectory("npm-driver-test").toFile();
+        File npm = new File(tempDir, "npm");
+        FileUtils.writeStringToFile(npm, "#!/bin/sh\ncat \"$NPM_LS_RESULTS\"\n" +
+                "if [ -s \"$NPM_LS_ERRORS\" ]; then cat \"$NPM_LS_ERRORS\" >&2; exit 1; fi\n", StandardCharsets.UTF_8);
+        assertTrue(npm.setExecutable(true));
+        npmLsResults = new File(tempDir, "npm-ls.json");
+        npmLsErrors = new File(tempDir, "npm-ls.err");
+        Map<String, String> env = new HashMap<>();
+        env.put("PATH", tempDir.getAbsolutePath() + File.pathSeparator + System.getenv("PATH"));
+        env.put("NPM_LS_RESULTS", npmLsResults.getAbsolutePath());
+        env.put("NPM_LS_ERRORS", npmLsErrors.getAbsolutePath());
+        npmDriver = new NpmDriver(env);
+    }
+
+    @BeforeMethod
+    public void clearErrors() throws IOException {
+        FileUtils.writeStringToFile(npmLsErrors, "", StandardCharsets.UTF_8);
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        if (tempDir != null) {
+            FileUtils.deleteDirectory(tempDir);
+        }
+    }
+
+    /**
+     * The output is larger than the pipe to the parser, so it must be parsed while the command is running.
+     */
+    public void testListDependencyGraph() throws IOException {
+        StringBuilder npmLs = new StringBuilder("{\n  \"name\": \"root\",\n  \"version\": \"1.0.0\",\n  \"dependencies\": {\n");
+        for (int i = 0; i < 5000; i++) {
+            npmLs.append(i > 0 ? ",\n" : "").append("    \"dep-").append(i).append("\": {\n      \"version\": \"1.0.").append(i)
+                    .append("\",\n      \"resolved\": \"https://registry.npmjs.org/dep-").append(i).append("/-/dep-").append(i).append("-1.0.").append(i).append(".tgz\"\n    }");
+        }
+        npmLs.append("\n  }\n}\n");
+        FileUtils.writeStringToFile(npmLsResults, npmLs.toString(), StandardCharsets.UTF_8);
+
+        NpmDependencyGraph graph = npmDriver.listDependencyGraph(tempDir, Collections.emptyList());
+        assertEquals(graph.getRootId(), "root:1.0.0");
+        assertEquals(graph.getPackages().size(), 5000);
+        assertEquals(graph.getPackage("dep-4999", "1.0.4999").getPathsToRoot()[0], new String[]{"root:1.0.0"});
+    }
+
+    public void testListWithoutResults() throws IOException {
+        FileUtils.writeStringToFile(npmLsResults, "", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(npmLsErrors, "npm ERR! enoent Could not read package.json", StandardCharsets.UTF_8);
+        IOException exception = expectThrows(IOException.class, () -> npmDriver.listDependencyGraph(tempDir, Collections.emptyList()));
+        assertTrue(exception.getMessage().contains("Could not read package.json"), exception.getMessage());
+    }
+
+    public void testListWithProblems() throws IOException {
+        FileUtils.writeStringToFile(npmLsResults, "{\"name\": \"root\", \"version\": \"1.0.0\", \"dependencies\": {\"a\": {\"version\": \"1.0.0\"}}}",
+                StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(npmLsErrors, "npm ERR! invalid: a@1.0.0", StandardCharsets.UTF_8);
+        NpmDependencyGraph graph = npmDriver.listDependencyGraph(tempDir, Collections.emptyList());
+        assertEquals(graph.getPackages().size(), 1);
+        assertEquals(graph.getProblems().size(), 1);
+        assertTrue(graph.getProblems().get(0).contains("invalid: a@1.0.0"), graph.getProblems().get(0));
+
+        // Problems listed in the results aren't replaced by the error output
+        FileUtils.writeStringToFile(npmLsResults, "{\"name\": \"root\", \"version\": \"1.0.0\", \"problems\": [\"missing: b@1\"]}",
+                StandardCharsets.UTF_8);
+        assertEquals(npmDriver.listDependencyGraph(tempDir, Collections.emptyList()).getProblems(), Collections.singletonList("missing: b@1"));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testListMalformedDependencyGraph() throws IOException {
+        StringBuilder npmLs = new StringBuilder("{\"name\": \"root\", \"version\": \"1.0.0\", \"dependencies\": {\"a\": [}\n");
+        for (int i = 0; i < 10000; i++) {
+            npmLs.append("garbage line ").append(i).append('\n');
+        }
+        FileUtils.writeStringToFile(npmLsResults, npmLs.toString(), StandardCharsets.UTF_8);
+        npmDriver.listDependencyGraph(tempDir, Collections.emptyList());
+    }
+}
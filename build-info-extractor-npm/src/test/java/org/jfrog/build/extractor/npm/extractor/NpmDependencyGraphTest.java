@@ -0,0 +1,120 @@
+package org.jfrog.build.extractor.npm.extractor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jfrog.build.extractor.npm.extractor.NpmDependencyGraph.NpmPackageNode;
+import org.jfrog.build.extractor.npm.types.NpmPackageInfo;
+import org.jfrog.build.extractor.npm.types.NpmScope;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+@Test
+public class NpmDependencyGraphTest {
+    private static final String NPM_LS =
+            "{\"version\": \"1.0.0\", \"name\": \"root\", \"problems\": [\"missing: c@1\"], \"dependencies\": {" +
+                    "  \"a\": {\"version\": \"1.0.0\", \"dependencies\": {" +
+                    "    \"b\": {\"version\": \"2.0.0\", \"resolved\": \"https://registry/b\", \"dependencies\": {" +
+                    "      \"c\": {\"version\": \"3.0.0\"}" +
+                    "    }}," +
+                    "    \"d\": {\"dependencies\": {\"c\": {\"version\": \"3.0.0\"}}, \"version\": \"4.0.0\"}" +
+                    "  }}," +
+                    "  \"b\": {\"version\": \"2.0.0\", \"dependencies\": {" +
+                    "    \"c\": {\"version\": \"3.0.0\"}" +
+                    "  }}," +
+                    "  \"missing\": {\"required\": \"^1.0.0\", \"dependencies\": {\"e\": {\"version\": \"5.0.0\"}}}," +
+                    "  \"blank\": {\"version\": \"\"}," +
+                    "  \"@scope/f\": {\"version\": \"6.0.0\", \"extraneous\": true}" +
+                    "}}";
+
+    public void testDeduplication() throws IOException {
+        NpmDependencyGraph graph = NpmDependencyGraph.parse(NPM_LS);
+        assertEquals(graph.getRootId(), "root:1.0.0");
+        assertEquals(graph.getPackages().size(), 6);
+        assertEquals(graph.getProblems(), Collections.singletonList("missing: c@1"));
+
+        NpmPackageNode c = graph.getPackage("c", "3.0.0");
+        assertEquals(c.getOccurrencesCount(), 3);
+        String[][] pathsToRoot = c.getPathsToRoot();
+        assertEquals(pathsToRoot.length, 3);
+        assertEquals(pathsToRoot[0], new String[]{"b:2.0.0", "a:1.0.0", "root:1.0.0"});
+        assertEquals(pathsToRoot[1], new String[]{"d:4.0.0", "a:1.0.0", "root:1.0.0"});
+        assertEquals(pathsToRoot[2], new String[]{"b:2.0.0", "root:1.0.0"});
+        // Path elements are shared between paths
+        assertSame(pathsToRoot[0][2], pathsToRoot[2][1]);
+
+        // Packages without version and their dependencies are not included in the graph
+        assertNull(graph.getPackage("e", "5.0.0"));
+        assertEquals(graph.getPackage("blank", "").getPathsToRoot()[0], new String[]{"root:1.0.0"});
+        assertEquals(graph.getPackage("@scope/f", "6.0.0").getOccurrencesCount(), 1);
+    }
+
+    public void testEmptyResults() throws IOException {
+        NpmDependencyGraph graph = NpmDependencyGraph.parse("{}");
+        assertEquals(graph.getRootId(), ":");
+        assertTrue(graph.getPackages().isEmpty());
+    }
+
+    /**
+     * The graph should produce the same paths to root as the dependency tree created by {@link NpmDependencyTree}.
+     */
+    public void testSameAsDependencyTree() throws IOException {
+        String npmLs = createNpmLs(new Random(7), 6, 4);
+        NpmDependencyGraph graph = NpmDependencyGraph.parse(npmLs);
+        DependencyTree tree = NpmDependencyTree.createDependencyTree(new ObjectMapper().readTree(npmLs), NpmScope.PRODUCTION);
+
+        Map<String, List<List<String>>> treePaths = new HashMap<>();
+        Enumeration<?> nodes = tree.breadthFirstEnumeration();
+        int treeSize = 0;
+        while (nodes.hasMoreElements()) {
+            NpmPackageInfo packageInfo = (NpmPackageInfo) ((DependencyTree) nodes.nextElement()).getUserObject();
+            if (packageInfo != null) {
+                treePaths.computeIfAbsent(packageInfo.toString(), id -> new ArrayList<>()).add(Arrays.asList(packageInfo.getPathToRoot()));
+                treeSize++;
+            }
+        }
+
+        int occurrences = 0;
+        assertEquals(graph.getPackages().size(), treePaths.size());
+        for (NpmPackageNode node : graph.getPackages()) {
+            List<List<String>> graphPaths = new ArrayList<>();
+            for (String[] pathToRoot : node.getPathsToRoot()) {
+                graphPaths.add(Arrays.asList(pathToRoot));
+            }
+            List<List<String>> expected = treePaths.get(node.toString());
+            assertNotNull(expected, node.toString());
+            assertEqualsNoOrder(graphPaths.toArray(), expected.toArray(), node.toString());
+            occurrences += node.getOccurrencesCount();
+        }
+        assertEquals(occurrences, treeSize);
+        assertTrue(graph.getPackages().size() < treeSize);
+    }
+
+    /**
+     * Create a random 'npm ls' result with a small number of unique packages that repeat in the tree.
+     */
+    private static String createNpmLs(Random random, int depth, int width) throws IOException {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("name", "root");
+        root.put("version", "1.0.0");
+        root.put("dependencies", createDependencies(random, depth, width));
+        return new ObjectMapper().writeValueAsString(root);
+    }
+
+    private static Map<String, Object> createDependencies(Random random, int depth, int width) {
+        Map<String, Object> dependencies = new LinkedHashMap<>();
+        if (depth == 0) {
+            return dependencies;
+        }
+        for (int i = 0; i < width; i++) {
+            Map<String, Object> dependency = new LinkedHashMap<>();
+            dependency.put("version", "1.0." + random.nextInt(3));
+            dependency.put("dependencies", createDependencies(random, depth - 1, random.nextInt(width) + 1));
+            dependencies.put("package-" + random.nextInt(20), dependency);
+        }
+        return dependencies;
+    }
+}
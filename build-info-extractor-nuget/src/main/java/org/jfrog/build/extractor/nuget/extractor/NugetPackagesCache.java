@@ -0,0 +1,95 @@
+package org.jfrog.build.extractor.nuget.extractor;
+
+import org.apache.commons.io.FilenameUtils;
+import org.jfrog.build.api.util.FileChecksumCalculator;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import static org.jfrog.build.extractor.nuget.extractor.NugetRun.createAlternativeVersionForms;
+
+/**
+ * Resolves .nupkg files in the NuGet global packages folder and calculates their checksums.
+ * Projects of the same solution usually reference the same packages, therefore each package version is located and hashed only once.
+ * This cache is shared by the threads which parse the solution projects.
+ */
+class NugetPackagesCache {
+    static final String SHA1 = "SHA1";
+    static final String MD5 = "MD5";
+
+    private final ConcurrentMap<String, Optional<File>> nupkgFiles = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Map<String, String>>> checksums = new ConcurrentHashMap<>();
+
+    /**
+     * Find the .nupkg file of a package in the global packages folder.
+     * If the original version can not be found in the cache, the alternative version forms are checked as well.
+     *
+     * @param id        - The package id.
+     * @param version   - The package version, as declared in the packages.config file.
+     * @param cachePath - The global packages folder.
+     * @return The .nupkg file or null if it doesn't exist.
+     */
+    File findNupkg(String id, String version, String cachePath) {
+        return nupkgFiles.computeIfAbsent(id + ':' + version + ':' + cachePath, key -> {
+            File nupkg = createNupkgFile(id, version, cachePath);
+            if (nupkg.exists()) {
+                return Optional.of(nupkg);
+            }
+            for (String alternativeVersion : createAlternativeVersionForms(version)) {
+                nupkg = createNupkgFile(id, alternativeVersion, cachePath);
+                if (nupkg.exists()) {
+                    return Optional.of(nupkg);
+                }
+            }
+            return Optional.empty();
+        }).orElse(null);
+    }
+
+    /**
+     * Get the MD5 and SHA1 checksums of a .nupkg file.
+     * If several threads request the checksums of the same file, it is hashed by the first thread while the others wait for the result.
+     *
+     * @param nupkg - The .nupkg file.
+     * @return Map with the MD5 and SHA1 checksums.
+     */
+    Map<String, String> getChecksums(File nupkg) throws IOException, NoSuchAlgorithmException {
+        String key = nupkg.getAbsolutePath();
+        CompletableFuture<Map<String, String>> calculation = new CompletableFuture<>();
+        CompletableFuture<Map<String, String>> existing = checksums.putIfAbsent(key, calculation);
+        if (existing == null) {
+            try {
+                calculation.complete(FileChecksumCalculator.calculateChecksums(nupkg, MD5, SHA1));
+            } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+                // Allow other threads to retry the calculation
+                checksums.remove(key, calculation);
+                calculation.completeExceptionally(e);
+                throw e;
+            }
+            return calculation.join();
+        }
+        try {
+            return existing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calculating the checksums of " + nupkg.getPath(), e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed calculating the checksums of " + nupkg.getPath(), e.getCause());
+        }
+    }
+
+    /**
+     * The .nupkg file is placed in <cachePath>/<id>/<version>/<id>.<version>.nupgk
+     */
+    private static File createNupkgFile(String id, String version, String cachePath) {
+        String nupkgFileName = id + "." + version + ".nupkg";
+        String nupkgBasePath = FilenameUtils.concat(FilenameUtils.concat(cachePath, id), version);
+        return new File(nupkgBasePath, nupkgFileName);
+    }
+}
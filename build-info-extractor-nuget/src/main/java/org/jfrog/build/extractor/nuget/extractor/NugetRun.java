@@ -9,7 +9,6 @@ import org.jfrog.build.api.Module;
 import org.jfrog.build.api.builder.DependencyBuilder;
 import org.jfrog.build.api.builder.ModuleBuilder;
 import org.jfrog.build.api.builder.ModuleType;
-import org.jfrog.build.api.util.FileChecksumCalculator;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.extractor.clientConfiguration.ArtifactoryClientConfiguration;
 import org.jfrog.build.extractor.clientConfiguration.ArtifactoryManagerBuilder;
@@ -29,6 +28,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -56,8 +59,9 @@ public class NugetRun extends PackageManagerExtractor {
             "</configuration>";
     private static final String SOURCE_NAME = "BuildInfo.extractor.nuget";
     private static final String SLN_FILE_PARSING_REGEX = "^Project\\(\\\"(.*)";
-    private static final String SHA1 = "SHA1";
-    private static final String MD5 = "MD5";
+    private static final String SHA1 = NugetPackagesCache.SHA1;
+    private static final String MD5 = NugetPackagesCache.MD5;
+    private static final int PROJECT_PARSING_THREADS = Runtime.getRuntime().availableProcessors();
     private static final String ABSENT_NUPKG_WARN_MSG = " Skipping adding this dependency to the build info. " +
             "This might be because the package already exists in a different NuGet cache," +
             " possibly the SDK's NuGetFallbackFolder cache. Removing the package from this cache may resolve the issue.";
@@ -306,18 +310,39 @@ public class NugetRun extends PackageManagerExtractor {
 
     /**
      * Parse the .sln file and collect dependencies for each project defined.
+     * The projects are parsed concurrently, sharing a single packages cache, so that each package version is hashed once.
+     * The modules are added in the order of the projects in the .sln file.
      */
     private void collectDependenciesFromSln(File slnFile) throws IOException, InterruptedException {
         Pattern pattern = Pattern.compile(SLN_FILE_PARSING_REGEX);
         String globalCachePath = toolchainDriver.globalPackagesCache();
+        List<String> projectLines;
         try (Stream<String> lines = Files.lines(slnFile.toPath())) {
-            lines.filter(pattern.asPredicate()).forEach(line -> {
-                try {
-                    projectLineHandler(line, slnFile.getParentFile(), globalCachePath);
-                } catch (Exception e) {
-                    throw new RuntimeException(e.getMessage());
-                }
-            });
+            projectLines = lines.filter(pattern.asPredicate()).collect(Collectors.toList());
+        }
+        if (projectLines.isEmpty()) {
+            return;
+        }
+        NugetPackagesCache packagesCache = new NugetPackagesCache();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(PROJECT_PARSING_THREADS, projectLines.size()));
+        try {
+            List<Future<Module>> projectModules = new ArrayList<>();
+            for (String line : projectLines) {
+                projectModules.add(executor.submit(() -> projectLineHandler(line, slnFile.getParentFile(), globalCachePath, packagesCache)));
+            }
+            for (Future<Module> projectModule : projectModules) {
+                addProjectModule(getProjectModule(projectModule));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Module getProjectModule(Future<Module> projectModule) throws InterruptedException {
+        try {
+            return projectModule.get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause().getMessage(), e.getCause());
         }
     }
 
@@ -328,39 +353,51 @@ public class NugetRun extends PackageManagerExtractor {
             String csprojPath = csprojFiles.get(0).toString();
             String projectName = csprojFiles.get(0).getFileName().toString().replace(".csproj", "");
             String globalCachePath = toolchainDriver.globalPackagesCache();
-            singleProjectHandler(projectName, csprojPath, globalCachePath);
+            addProjectModule(singleProjectHandler(projectName, csprojPath, globalCachePath, new NugetPackagesCache()));
         }
     }
 
-    private void projectLineHandler(String line, File slnRootDir, String globalCachePath) throws Exception {
+    /**
+     * @return The project's module or null if the project should be skipped.
+     */
+    private Module projectLineHandler(String line, File slnRootDir, String globalCachePath, NugetPackagesCache packagesCache) throws Exception {
         // Fetch the project's name and path from the project line
         String[] projectDetails = line.split("=")[1].split(",");
         String projectName = removeQuotes(projectDetails[0].trim());
         String csprojPath = FilenameUtils.separatorsToSystem(removeQuotes(projectDetails[1].trim()));
         if (!csprojPath.endsWith(".csproj")) {
             logger.debug("Skipping project " + projectName + ", since it doesn't have a csproj file path.");
-            return;
+            return null;
         }
         // We build a full path for the csproj file for single-project solutions.
         String csprojFullPath = (new File(slnRootDir, csprojPath)).getPath();
-        singleProjectHandler(projectName, csprojFullPath, globalCachePath);
+        return singleProjectHandler(projectName, csprojFullPath, globalCachePath, packagesCache);
     }
 
-    private void singleProjectHandler(String projectName, String csprojPath, String globalCachePath) throws Exception {
+    /**
+     * @return The project's module or null if the project's dependencies source was not found.
+     */
+    private Module singleProjectHandler(String projectName, String csprojPath, String globalCachePath, NugetPackagesCache packagesCache) throws Exception {
         String dependenciesSource = getDependenciesSource(projectName, csprojPath);
         if (StringUtils.isEmpty(dependenciesSource)) {
             logger.debug("Project dependencies was not found for project: " + projectName);
-            return;
+            return null;
         }
         // Collect dependencies according to the correct method:
         // Check if project uses packages.config or project.assets.json
         List<Dependency> dependencies = new ArrayList<>();
         if (dependenciesSource.endsWith(PACKAGES_CONFIG)) {
-            dependencies = collectDependenciesFromPackagesConfig(dependenciesSource, globalCachePath);
+            dependencies = collectDependenciesFromPackagesConfig(dependenciesSource, globalCachePath, packagesCache);
         } else if (dependenciesSource.endsWith(PROJECT_ASSETS)) {
-            dependencies = collectDependenciesFromProjectAssets(dependenciesSource);
+            dependencies = collectDependenciesFromProjectAssets(dependenciesSource, packagesCache);
+        }
+        return new ModuleBuilder().type(ModuleType.NUGET).id(projectName).dependencies(dependencies).build();
+    }
+
+    private void addProjectModule(Module projectModule) {
+        if (projectModule == null) {
+            return;
         }
-        Module projectModule = new ModuleBuilder().type(ModuleType.NUGET).id(projectName).dependencies(dependencies).build();
         if (StringUtils.isBlank(module)) {
             modulesList.add(projectModule);
         } else {
@@ -385,13 +422,13 @@ public class NugetRun extends PackageManagerExtractor {
         return StringUtils.EMPTY;
     }
 
-    private List<Dependency> collectDependenciesFromPackagesConfig(String packagesConfigPath, String globalCachePath) throws Exception {
+    private List<Dependency> collectDependenciesFromPackagesConfig(String packagesConfigPath, String globalCachePath, NugetPackagesCache packagesCache) throws Exception {
         File packagesConfig = new File(packagesConfigPath);
         NugetPackgesConfig config = new NugetPackgesConfig();
         config.readPackageConfig(packagesConfig);
         List<Dependency> dependenciesList = new ArrayList<>();
         for (NugetPackgesConfig.ConfigPackage pkg : config.getPackages()) {
-            Dependency pkgDependency = createDependency(pkg, globalCachePath);
+            Dependency pkgDependency = createDependency(pkg, globalCachePath, packagesCache);
             if (pkgDependency == null) {
                 logger.warn(String.format("The following NuGet package %s with version %s was not found in the NuGet cache %s.%s",
                         pkg.getId(), pkg.getVersion(), globalCachePath, ABSENT_NUPKG_WARN_MSG));
@@ -402,41 +439,19 @@ public class NugetRun extends PackageManagerExtractor {
         return dependenciesList;
     }
 
-    private Dependency createDependency(NugetPackgesConfig.ConfigPackage pkg, String globalCachePath) throws IOException, NoSuchAlgorithmException {
-        boolean found = true;
-        File nupkg = createNupkgFile(pkg.getId(), pkg.getVersion(), globalCachePath);
-        if (!nupkg.exists()) {
-            // If the original version can not be found in cache, we will check if one of the alternative version forms do exist.
-            found = false;
-            for (String v : createAlternativeVersionForms(pkg.getVersion())) {
-                nupkg = createNupkgFile(pkg.getId(), v, globalCachePath);
-                if (nupkg.exists()) {
-                    found = true;
-                    break;
-                }
-            }
-        }
-        if (found) {
-            Map<String, String> checksums = FileChecksumCalculator.calculateChecksums(nupkg, MD5, SHA1);
-            Dependency dependency = new DependencyBuilder()
-                    .id(pkg.getId() + ':' + pkg.getVersion())
-                    .md5(checksums.get(MD5)).sha1(checksums.get(SHA1))
-                    .build();
-            return dependency;
+    private Dependency createDependency(NugetPackgesConfig.ConfigPackage pkg, String globalCachePath, NugetPackagesCache packagesCache) throws IOException, NoSuchAlgorithmException {
+        File nupkg = packagesCache.findNupkg(pkg.getId(), pkg.getVersion(), globalCachePath);
+        if (nupkg == null) {
+            return null;
         }
-        return null;
-    }
-
-    /**
-     * The .nupkg file is placed in <cachePath>/<id>/<version>/<id>.<version>.nupgk
-     */
-    private File createNupkgFile(String id, String version, String cachePath) {
-        String nupkgFileName = id + "." + version + ".nupkg";
-        String nupkgBasePath = FilenameUtils.concat(FilenameUtils.concat(cachePath, id), version);
-        return new File(nupkgBasePath, nupkgFileName);
+        Map<String, String> checksums = packagesCache.getChecksums(nupkg);
+        return new DependencyBuilder()
+                .id(pkg.getId() + ':' + pkg.getVersion())
+                .md5(checksums.get(MD5)).sha1(checksums.get(SHA1))
+                .build();
     }
 
-    private List<Dependency> collectDependenciesFromProjectAssets(String projectAssetsPath) throws Exception {
+    private List<Dependency> collectDependenciesFromProjectAssets(String projectAssetsPath, NugetPackagesCache packagesCache) throws Exception {
         File projectAssets = new File(projectAssetsPath);
         List<Dependency> dependenciesList = new ArrayList<>();
         NugetProjectAssets assets = new NugetProjectAssets();
@@ -449,7 +464,7 @@ public class NugetRun extends PackageManagerExtractor {
             }
             File nupkg = new File(assets.getPackagesPath(), library.getNupkgFilePath());
             if (nupkg.exists()) {
-                Map<String, String> checksums = FileChecksumCalculator.calculateChecksums(nupkg, MD5, SHA1);
+                Map<String, String> checksums = packagesCache.getChecksums(nupkg);
                 Dependency dependency = new DependencyBuilder()
                         .id(pkgKey.replace('/', ':'))
                         .md5(checksums.get(MD5)).sha1(checksums.get(SHA1))
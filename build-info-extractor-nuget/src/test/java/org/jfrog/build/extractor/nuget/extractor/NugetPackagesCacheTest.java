@@ -0,0 +1,76 @@
+package org.jfrog.build.extractor.nuget.extractor;
+
+import org.apache.commons.io.FileUtils;
+import org.jfrog.build.api.util.FileChecksumCalculator;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.testng.Assert.*;
+
+@Test
+public class NugetPackagesCacheTest {
+
+    private File globalPackagesDir;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        globalPackagesDir = Files.createTempDirectory("nuget-packages-cache").toFile();
+        createNupkg("newtonsoft.json", "12.0.1");
+        createNupkg("nunit", "3.0.0");
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(globalPackagesDir);
+    }
+
+    public void testFindNupkg() {
+        NugetPackagesCache packagesCache = new NugetPackagesCache();
+        File nupkg = packagesCache.findNupkg("newtonsoft.json", "12.0.1", globalPackagesDir.getPath());
+        assertNotNull(nupkg);
+        assertEquals(nupkg.getName(), "newtonsoft.json.12.0.1.nupkg");
+        // Alternative version form of 3.0.0
+        nupkg = packagesCache.findNupkg("nunit", "3.0", globalPackagesDir.getPath());
+        assertNotNull(nupkg);
+        assertEquals(nupkg.getName(), "nunit.3.0.0.nupkg");
+        assertNull(packagesCache.findNupkg("nunit", "4.0.0", globalPackagesDir.getPath()));
+    }
+
+    public void testConcurrentChecksums() throws Exception {
+        NugetPackagesCache packagesCache = new NugetPackagesCache();
+        File nupkg = packagesCache.findNupkg("newtonsoft.json", "12.0.1", globalPackagesDir.getPath());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Map<String, String>>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> packagesCache.getChecksums(nupkg)));
+            }
+            Map<String, String> expected = FileChecksumCalculator.calculateChecksums(nupkg, NugetPackagesCache.MD5, NugetPackagesCache.SHA1);
+            Map<String, String> first = results.get(0).get();
+            assertEquals(first, expected);
+            for (Future<Map<String, String>> result : results) {
+                // The checksums are calculated once, so all threads get the same instance
+                assertSame(result.get(), first);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void createNupkg(String id, String version) throws IOException {
+        File nupkg = new File(globalPackagesDir, id + File.separator + version + File.separator + id + "." + version + ".nupkg");
+        FileUtils.writeStringToFile(nupkg, id + " " + version, StandardCharsets.UTF_8);
+    }
+}
@@ -3,6 +3,7 @@ package org.jfrog.build.extractor.pip;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.extractor.executor.CommandExecutor;
 import org.jfrog.build.extractor.executor.CommandResults;
+import org.jfrog.build.extractor.executor.OutputLineConsumer;
 
 import java.io.File;
 import java.io.IOException;
@@ -37,6 +38,37 @@ public class PipDriver implements Serializable {
         }
     }
 
+    /**
+     * Run pip install and consume its output line by line while it is running, without keeping the output in memory.
+     * The lines of the error output are consumed after the lines of the standard output.
+     *
+     * @param workingDirectory - The execution dir
+     * @param url              - Artifactory pypi URL, used as the index of the command
+     * @param commandArgs      - The pip install arguments
+     * @param outputConsumer   - Consumer of the output lines
+     * @param logger           - The logger
+     */
+    public void install(File workingDirectory, String url, List<String> commandArgs, OutputLineConsumer outputConsumer, Log logger) throws IOException {
+        try {
+            // Add Artifactory as index to the command.
+            List<String> finalArgs = new ArrayList<>(Arrays.asList("install"));
+            finalArgs.addAll(commandArgs);
+            finalArgs.addAll(Arrays.asList("-i", url));
+            // Execute command.
+            CommandResults pipCommandRes = commandExecutor.exeCommand(workingDirectory, finalArgs, null, logger, outputConsumer);
+            if (!pipCommandRes.isOk()) {
+                throw new IOException(pipCommandRes.getErr());
+            }
+            if (!pipCommandRes.getErr().isEmpty()) {
+                for (String line : pipCommandRes.getErr().split("\\R")) {
+                    outputConsumer.accept(line);
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            throw new IOException("pip install failed: " + e.getMessage(), e);
+        }
+    }
+
     public String freeze(File workingDirectory, Log logger) throws IOException {
         try {
             List<String> finalArgs = new ArrayList<>(Arrays.asList("freeze", "--local"));
@@ -29,10 +29,18 @@ public class PipBuildInfoExtractor {
     private static final String PIP_AQL_FILE_PART = "{\"name\":\"%s\"},";
     private static final int PIP_AQL_BULK_SIZE = 3;
 
-    Build extract(ArtifactoryManager artifactoryManager, String repository, String installationLog, Path executionPath, String module, Log logger) throws IOException {
-        // Parse logs and create dependency list of <pkg-name, pkg-file>
-        Map<String, String> downloadedDependencies = PipLogParser.parse(installationLog, logger);
-
+    /**
+     * Create the build of a pip-install execution.
+     *
+     * @param artifactoryManager     - Artifactory manager for fetching artifacts data.
+     * @param repository             - Resolution repository.
+     * @param downloadedDependencies - The dependencies of the pip-install execution, package-name to downloaded package-file map.
+     * @param executionPath          - Path of pip command's execution.
+     * @param module                 - The module ID.
+     * @param logger                 - The logger.
+     * @return the build of the execution.
+     */
+    Build extract(ArtifactoryManager artifactoryManager, String repository, Map<String, String> downloadedDependencies, Path executionPath, String module, Log logger) throws IOException {
         // Create package-name to dependency map.
         Map<String, Dependency> dependenciesMap = buildDependenciesMap(downloadedDependencies, artifactoryManager, repository, executionPath, logger);
 
@@ -94,14 +94,17 @@ public class PipInstall extends PackageManagerExtractor {
             validateRepoExists(artifactoryManager, repo, "Source repo must be specified");
             String artifactoryUrlWithCredentials = PackageManagerUtils.createArtifactoryUrlWithCredentials(artifactoryManager.getUrl(), username, password, ARTIFACTORY_PIP_API_START + repo + ARTIFACTORY_PIP_API_END);
 
-            // Run pip install with URL and get output.
-            String installLog = pipDriver.install(path.toFile(), artifactoryUrlWithCredentials, installArgs, logger);
-            logger.info(installLog);
+            // Run pip install with URL and parse its output while it is running.
+            PipLogParser logParser = new PipLogParser(logger);
+            pipDriver.install(path.toFile(), artifactoryUrlWithCredentials, installArgs, line -> {
+                logger.info(line);
+                return logParser.accept(line);
+            }, logger);
 
-            // Parse output and get all dependencies.
+            // Get all dependencies from the parsed output.
             PipBuildInfoExtractor buildInfoExtractor = new PipBuildInfoExtractor();
             try {
-                return buildInfoExtractor.extract(artifactoryManager, repo, installLog, path, module, logger);
+                return buildInfoExtractor.extract(artifactoryManager, repo, logParser.getDependencies(), path, module, logger);
             } catch (IOException e) {
                 throw new IOException("Build info collection failed", e);
             }
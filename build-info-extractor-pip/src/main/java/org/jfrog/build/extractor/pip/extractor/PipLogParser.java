@@ -3,6 +3,7 @@ package org.jfrog.build.extractor.pip.extractor;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.mutable.MutableBoolean;
 import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.executor.OutputLineConsumer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -10,14 +11,35 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
+ * Parses the output of a pip-install execution line by line, while the output is produced.
+ * Only the state of the current package and the extracted dependencies are kept in memory.
+ * <p>
  * Created by Bar Belity on 09/07/2020.
  */
-public class PipLogParser {
+public class PipLogParser implements OutputLineConsumer {
 
     static final Pattern COLLECTING_PACKAGE_PATTERN = Pattern.compile("^Collecting\\s(\\w[\\w-\\.]+)");
     static final Pattern DOWNLOADED_FILE_PATTERN = Pattern.compile("^\\s\\sDownloading\\s[^\\s]*\\/packages\\/[^\\s]*\\/([^\\s]*)");
     static final Pattern INSTALLED_PACKAGE_PATTERN = Pattern.compile("^Requirement\\salready\\ssatisfied\\:\\s(\\w[\\w-\\.]+)");
 
+    // Prefixes of the lines which may match the patterns above, checked before running the patterns.
+    private static final String COLLECTING_PREFIX = "Collecting";
+    private static final String DOWNLOADING_PREFIX = "Downloading";
+    private static final int DOWNLOADING_PREFIX_OFFSET = 2;
+    private static final String REQUIREMENT_PREFIX = "Requirement";
+
+    private final Map<String, String> downloadedDependencies = new HashMap<>();
+    private final MutableBoolean expectingPackageFilePath = new MutableBoolean(false);
+    private final Log logger;
+    private String packageName = "";
+
+    /**
+     * @param logger - The logger.
+     */
+    public PipLogParser(Log logger) {
+        this.logger = logger;
+    }
+
     /**
      * Parse a pip-install execution log and return the installation packages and files.
      *
@@ -26,38 +48,63 @@ public class PipLogParser {
      * @return the extracted dependencies from provided log, mapping package-name to a downloaded package-file.
      */
     static Map<String, String> parse(String installationLog, Log logger) {
-        Map<String, String> downloadedDependencies = new HashMap<>();
-        String[] lines = installationLog.split("\\R");
-        MutableBoolean expectingPackageFilePath = new MutableBoolean(false);
-        String packageName = "";
+        PipLogParser parser = new PipLogParser(logger);
+        for (String line : installationLog.split("\\R")) {
+            parser.parseLine(line);
+        }
+        return parser.getDependencies();
+    }
 
-        for (String line : lines) {
-            // Extract downloaded package name.
+    @Override
+    public boolean accept(String line) {
+        parseLine(line);
+        return true;
+    }
+
+    /**
+     * Parse the next line of a pip-install execution log.
+     *
+     * @param line - A line of the log, without the line terminator.
+     */
+    public void parseLine(String line) {
+        // Extract downloaded package name.
+        if (line.startsWith(COLLECTING_PREFIX)) {
             Matcher matcher = COLLECTING_PACKAGE_PATTERN.matcher(line);
             if (matcher.find()) {
                 packageName = extractPackageName(downloadedDependencies, matcher, packageName, expectingPackageFilePath, logger);
-                continue;
             }
+            return;
+        }
 
-            // Extract downloaded file, stored in Artifactory.
-            matcher = DOWNLOADED_FILE_PATTERN.matcher(line);
+        // Extract downloaded file, stored in Artifactory.
+        if (line.startsWith(DOWNLOADING_PREFIX, DOWNLOADING_PREFIX_OFFSET)) {
+            Matcher matcher = DOWNLOADED_FILE_PATTERN.matcher(line);
             if (matcher.find()) {
                 extractDownloadedFileName(downloadedDependencies, matcher, packageName, expectingPackageFilePath, logger);
-                continue;
             }
+            return;
+        }
 
-            // Extract already installed package name.
-            matcher = INSTALLED_PACKAGE_PATTERN.matcher(line);
+        // Extract already installed package name.
+        if (line.startsWith(REQUIREMENT_PREFIX)) {
+            Matcher matcher = INSTALLED_PACKAGE_PATTERN.matcher(line);
             if (matcher.find()) {
                 extractAlreadyInstalledPackage(downloadedDependencies, matcher, logger);
             }
         }
+    }
 
+    /**
+     * Finish parsing and return the installation packages and files.
+     *
+     * @return the extracted dependencies from the parsed lines, mapping package-name to a downloaded package-file.
+     */
+    public Map<String, String> getDependencies() {
         // If there is a package we are still waiting for its path, save it with empty path.
         if (expectingPackageFilePath.isTrue()) {
             downloadedDependencies.put(StringUtils.lowerCase(packageName), "");
+            expectingPackageFilePath.setFalse();
         }
-
         return downloadedDependencies;
     }
 
@@ -13,10 +13,12 @@ import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.regex.Matcher;
 
 import static org.jfrog.build.extractor.pip.extractor.PipLogParser.*;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 /**
  * Created by Bar Belity on 21/07/2020.
@@ -55,6 +57,100 @@ public class PipLogParserTest {
         }
     }
 
+    @Test
+    public void pipLogParserVerboseTest() throws IOException {
+        Map<String, String> expectedResult = new HashMap<String, String>() {{
+            put("pyyaml", "PyYAML-5.3.1.tar.gz");
+            put("six", "");
+            put("setuptools", "");
+            put("nltk", "");
+            put("click", "click-7.1.2-py2.py3-none-any.whl");
+            put("joblib", "");
+            put("regex", "regex-2020.11.13.tar.gz");
+            put("tqdm", "tqdm-4.54.1-py2.py3-none-any.whl");
+            put("_private-pkg.name", "");
+            put("lastpkg", "");
+        }};
+        Map<String, String> actualMap = PipLogParser.parse(readLog("/pipLogParser/pipLogVerbose.txt"), log);
+        assertEquals(actualMap, expectedResult);
+    }
+
+    @DataProvider
+    private Object[][] recordedLogsProvider() {
+        return new Object[][]{
+                {"/pipLogParser/pipLog.txt"},
+                {"/pipLogParser/pipLogVerbose.txt"},
+        };
+    }
+
+    @Test(dataProvider = "recordedLogsProvider")
+    public void streamingParserTest(String logPath) throws IOException {
+        String pipLog = readLog(logPath);
+        Map<String, String> expectedResult = parseWithAllPatterns(pipLog);
+
+        // Parse the complete log.
+        assertEquals(new TreeMap<>(PipLogParser.parse(pipLog, log)), expectedResult);
+
+        // Parse the log line by line, with Windows line terminators.
+        PipLogParser parser = new PipLogParser(log);
+        for (String line : pipLog.replaceAll("\\R", "\r\n").split("\r\n")) {
+            assertTrue(parser.accept(line));
+        }
+        assertEquals(new TreeMap<>(parser.getDependencies()), expectedResult);
+    }
+
+    @Test
+    public void streamingParserLargeLogTest() {
+        PipLogParser parser = new PipLogParser(log);
+        for (int i = 0; i < 100_000; i++) {
+            parser.parseLine("Collecting pkg" + i);
+            parser.parseLine("  Getting page https://server/artifactory/api/pypi/pypi-virtual/simple/pkg" + i + "/");
+            if (i % 2 == 0) {
+                parser.parseLine("  Downloading https://server/artifactory/api/pypi/pypi-virtual/packages/packages/64/pkg" + i + "-1.0.tar.gz (1 kB)");
+            }
+        }
+        Map<String, String> dependencies = parser.getDependencies();
+        assertEquals(dependencies.size(), 100_000);
+        assertEquals(dependencies.get("pkg0"), "pkg0-1.0.tar.gz");
+        assertEquals(dependencies.get("pkg1"), "");
+        assertEquals(dependencies.get("pkg99999"), "");
+    }
+
+    private String readLog(String logPath) throws IOException {
+        try (InputStream pipLogStream = this.getClass().getResourceAsStream(logPath)) {
+            return IOUtils.toString(pipLogStream, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Parse the log by matching all patterns against every line, without the prefix checks of the parser.
+     */
+    private static Map<String, String> parseWithAllPatterns(String installationLog) {
+        Map<String, String> downloadedDependencies = new TreeMap<>();
+        MutableBoolean expectingPackageFilePath = new MutableBoolean(false);
+        String packageName = "";
+        for (String line : installationLog.split("\\R")) {
+            Matcher matcher = COLLECTING_PACKAGE_PATTERN.matcher(line);
+            if (matcher.find()) {
+                packageName = PipLogParser.extractPackageName(downloadedDependencies, matcher, packageName, expectingPackageFilePath, log);
+                continue;
+            }
+            matcher = DOWNLOADED_FILE_PATTERN.matcher(line);
+            if (matcher.find()) {
+                PipLogParser.extractDownloadedFileName(downloadedDependencies, matcher, packageName, expectingPackageFilePath, log);
+                continue;
+            }
+            matcher = INSTALLED_PACKAGE_PATTERN.matcher(line);
+            if (matcher.find()) {
+                PipLogParser.extractAlreadyInstalledPackage(downloadedDependencies, matcher, log);
+            }
+        }
+        if (expectingPackageFilePath.isTrue()) {
+            downloadedDependencies.put(packageName.toLowerCase(), "");
+        }
+        return downloadedDependencies;
+    }
+
     @DataProvider
     private Object[][] extractPackageNameProvider() {
         return new Object[][]{
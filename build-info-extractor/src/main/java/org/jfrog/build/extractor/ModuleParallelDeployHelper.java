@@ -1,12 +1,22 @@
 package org.jfrog.build.extractor;
 
+import org.jfrog.build.api.metrics.BuildMetrics;
+import org.jfrog.build.api.metrics.Timer;
 import org.jfrog.build.client.ArtifactoryUploadResponse;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ChecksumPreflight;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeploymentScheduler;
+import org.jfrog.build.extractor.clientConfiguration.deploy.PublishSpool;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -16,34 +26,92 @@ import java.util.concurrent.Executors;
  * This class manages artifacts deployment after a maven / gradle build.
  * If publishForkCount is larger than 1, deployment will be parallel between modules.
  * The deployment of every module will always be serial, with maven / gradle descriptors deployed last. This is done to prevent conflicts in Artifactory.
+ * Before the deployment, the checksums of all artifacts are searched in Artifactory, so that existing artifacts are deployed by checksum.
+ * In parallel deployment, the largest modules are deployed first and small modules are deployed together, using the {@link DeploymentScheduler}.
+ * If a {@link PublishSpool} is used, the deployment can be resumed after a failure, skipping the artifacts which were already deployed.
  */
 public class ModuleParallelDeployHelper {
     public static final int DEFAULT_DEPLOYMENT_THREADS = 3;
+    private static final String MODULE_DEPLOY_TIME_METRIC = "deploy.module.time";
 
     public void deployArtifacts(ArtifactoryManager artifactoryManager,
                                 Map<String, Set<DeployDetails>> deployableArtifactsByModule, int publishForkCount) {
+        deployArtifacts(artifactoryManager, deployableArtifactsByModule, publishForkCount, null);
+    }
+
+    /**
+     * Deploy the artifacts, recording the deployment in a publish spool.
+     *
+     * @param artifactoryManager          - The Artifactory manager
+     * @param deployableArtifactsByModule - The artifacts to deploy by their module IDs
+     * @param publishForkCount            - The number of parallel deployments
+     * @param spool                       - The publish spool, or null to deploy without a spool
+     */
+    public void deployArtifacts(ArtifactoryManager artifactoryManager,
+                                Map<String, Set<DeployDetails>> deployableArtifactsByModule, int publishForkCount, PublishSpool spool) {
+        if (spool != null) {
+            deployableArtifactsByModule = getPendingArtifacts(deployableArtifactsByModule, spool);
+        }
+        ChecksumPreflight checksumPreflight = artifactoryManager.preflightChecksums(deployableArtifactsByModule.values().stream()
+                .flatMap(Set::stream)
+                .collect(Collectors.toList()));
         if (publishForkCount <= 1) {
-            deployableArtifactsByModule.forEach((module, deployableArtifacts) -> deploy(artifactoryManager, deployableArtifacts, null));
+            deployableArtifactsByModule.forEach((module, deployableArtifacts) -> deploy(artifactoryManager, deployableArtifacts, null, spool));
         } else {
             try {
                 ExecutorService executor = Executors.newFixedThreadPool(publishForkCount);
+                List<List<DeployDetails>> tasks = new DeploymentScheduler().scheduleArtifactChains(deployableArtifactsByModule.values());
                 CompletableFuture<Void> allDeployments = CompletableFuture.allOf(
-                        deployableArtifactsByModule.values().stream()
+                        tasks.stream()
                                 .map(deployDetails ->
                                         CompletableFuture.runAsync(() ->
-                                                deploy(artifactoryManager, deployDetails, "[" + Thread.currentThread().getName() + "]"), executor))
+                                                deploy(artifactoryManager, deployDetails, "[" + Thread.currentThread().getName() + "]", spool), executor))
                                 .toArray(CompletableFuture[]::new));
                 allDeployments.get();
             } catch (InterruptedException | ExecutionException e) {
                 throw new RuntimeException(e);
             }
         }
+        checksumPreflight.logSummary();
+    }
+
+    /**
+     * Record the deploy plan in the spool, and filter out the artifacts which were already deployed.
+     */
+    private Map<String, Set<DeployDetails>> getPendingArtifacts(Map<String, Set<DeployDetails>> deployableArtifactsByModule, PublishSpool spool) {
+        Map<String, Set<DeployDetails>> pendingArtifactsByModule = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Set<DeployDetails>> entry : deployableArtifactsByModule.entrySet()) {
+                spool.addArtifacts(entry.getKey(), entry.getValue());
+                Set<DeployDetails> pendingArtifacts = new LinkedHashSet<>();
+                for (DeployDetails artifact : entry.getValue()) {
+                    if (!spool.restoreDeployed(artifact)) {
+                        pendingArtifacts.add(artifact);
+                    }
+                }
+                if (!pendingArtifacts.isEmpty()) {
+                    pendingArtifactsByModule.put(entry.getKey(), pendingArtifacts);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error occurred while writing the publish spool " + spool.getSpoolDir(), e);
+        }
+        return pendingArtifactsByModule;
+    }
+
+    private void deploy(ArtifactoryManager artifactoryManager, Collection<DeployDetails> deployableArtifacts, String logPrefix, PublishSpool spool) {
+        try (Timer.Context ignored = BuildMetrics.get().timer(MODULE_DEPLOY_TIME_METRIC).time()) {
+            deployModule(artifactoryManager, deployableArtifacts, logPrefix, spool);
+        }
     }
 
-    private void deploy(ArtifactoryManager artifactoryManager, Set<DeployDetails> deployableArtifacts, String logPrefix) {
+    private void deployModule(ArtifactoryManager artifactoryManager, Collection<DeployDetails> deployableArtifacts, String logPrefix, PublishSpool spool) {
         deployableArtifacts.forEach(artifact -> {
             try {
                 ArtifactoryUploadResponse response = artifactoryManager.upload(artifact, logPrefix);
+                if (spool != null) {
+                    spool.artifactDeployed(artifact, response.getPath(), response.getChecksums().getSha256());
+                }
                 // Save information returned from Artifactory after the deployment.
                 artifact.setDeploySucceeded(true);
                 artifact.setSha256(response.getChecksums().getSha256());
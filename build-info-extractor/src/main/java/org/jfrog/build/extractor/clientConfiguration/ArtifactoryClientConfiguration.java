@@ -191,6 +191,14 @@ public class ArtifactoryClientConfiguration {
         return root.getIntegerValue(PROP_CONNECTION_RETRIES);
     }
 
+    public boolean isCompressRequests() {
+        return root.getBooleanValue(PROP_COMPRESS_REQUESTS, false);
+    }
+
+    public void setCompressRequests(boolean compressRequests) {
+        root.setBooleanValue(PROP_COMPRESS_REQUESTS, compressRequests);
+    }
+
     public boolean getInsecureTls() {
         return root.getBooleanValue(PROP_INSECURE_TLS, false);
     }
@@ -235,6 +243,14 @@ public class ArtifactoryClientConfiguration {
         rootConfig.setStringValue(EXPORT_FILE, exportFile);
     }
 
+    public String getMetricsFile() {
+        return rootConfig.getStringValue(METRICS_FILE);
+    }
+
+    public void setMetricsFile(String metricsFile) {
+        rootConfig.setStringValue(METRICS_FILE, metricsFile);
+    }
+
     public void setIncludeEnvVars(Boolean enabled) {
         rootConfig.setBooleanValue(INCLUDE_ENV_VARS, enabled);
     }
@@ -320,6 +336,38 @@ public class ArtifactoryClientConfiguration {
         public void setDownloadSnapshotRepoKey(String repoKey) {
             setStringValue(DOWN_SNAPSHOT_REPO_KEY, repoKey);
         }
+
+        /**
+         * @return the path of the local artifact store shared by the builds of the agent, or null if it's disabled.
+         * The store is used only by the downloads which receive this configuration, see
+         * {@link org.jfrog.build.extractor.clientConfiguration.util.LocalArtifactStore}.
+         */
+        public String getLocalStorePath() {
+            return getStringValue(LOCAL_STORE_PATH);
+        }
+
+        public void setLocalStorePath(String localStorePath) {
+            setStringValue(LOCAL_STORE_PATH, localStorePath);
+        }
+
+        public Integer getLocalStoreMaxSizeMb() {
+            return getIntegerValue(LOCAL_STORE_MAX_SIZE_MB);
+        }
+
+        public void setLocalStoreMaxSizeMb(Integer localStoreMaxSizeMb) {
+            setIntegerValue(LOCAL_STORE_MAX_SIZE_MB, localStoreMaxSizeMb);
+        }
+
+        /**
+         * @return true to materialize the artifacts of the local artifact store by hard links rather than copies
+         */
+        public boolean isLocalStoreHardLinks() {
+            return getBooleanValue(LOCAL_STORE_HARD_LINKS, false);
+        }
+
+        public void setLocalStoreHardLinks(boolean localStoreHardLinks) {
+            setBooleanValue(LOCAL_STORE_HARD_LINKS, localStoreHardLinks);
+        }
     }
 
     public class PublisherHandler extends RepositoryConfiguration {
@@ -458,6 +506,17 @@ public class ArtifactoryClientConfiguration {
         public void setMinChecksumDeploySizeKb(int minChecksumDeploySizeKb) {
             setIntegerValue(MIN_CHECKSUM_DEPLOY_SIZE_KB, minChecksumDeploySizeKb);
         }
+
+        /**
+         * @return the directory of the publish spool, which allows replaying a failed publish, or null if it's disabled
+         */
+        public String getSpoolPath() {
+            return getStringValue(SPOOL_PATH);
+        }
+
+        public void setSpoolPath(String spoolPath) {
+            setStringValue(SPOOL_PATH, spoolPath);
+        }
     }
 
     public class ProxyHandler extends AuthenticationConfiguration {
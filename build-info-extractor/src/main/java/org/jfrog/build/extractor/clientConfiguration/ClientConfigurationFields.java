@@ -44,6 +44,10 @@ public interface ClientConfigurationFields {
     String URL = "url";
     String REPO_KEY = "repoKey";
     String DOWN_SNAPSHOT_REPO_KEY = "downSnapshotRepoKey";
+    // Local artifact store fields
+    String LOCAL_STORE_PATH = "localStore.path";
+    String LOCAL_STORE_MAX_SIZE_MB = "localStore.maxSizeMb";
+    String LOCAL_STORE_HARD_LINKS = "localStore.hardLinks";
     // Publish fields
     String PUBLISH_ARTIFACTS = "artifacts";
     String PUBLISH_BUILD_INFO = "buildInfo";
@@ -59,4 +63,5 @@ public interface ClientConfigurationFields {
     String EVEN_UNSTABLE = "unstable";
     String CONTEXT_URL = "contextUrl";
     String PUBLICATIONS = "publications";
+    String SPOOL_PATH = "spool.path";
 }
@@ -32,6 +32,11 @@ public interface ClientProperties {
 
     String PROP_CONNECTION_RETRIES = ARTIFACTORY_PREFIX + "connectionRetries";
 
+    /**
+     * Property for whether to compress large JSON request bodies, such as the build info, using gzip
+     */
+    String PROP_COMPRESS_REQUESTS = ARTIFACTORY_PREFIX + "compressRequests";
+
     String PROP_TIMEOUT = ARTIFACTORY_PREFIX + "timeout";
 
     String PROP_SO_TIMEOUT = ARTIFACTORY_PREFIX + "timeout.socket";
@@ -18,6 +18,7 @@ public abstract class ManagerBuilderBase<T extends ManagerBuilderBase<T>> implem
     protected ProxyConfiguration proxyConfiguration;
     protected int connectionTimeout = -1;
     protected int connectionRetry = -1;
+    protected boolean compressRequests;
     protected String serverUrl;
     protected SSLContext sslContext;
     protected String username;
@@ -40,6 +41,11 @@ public abstract class ManagerBuilderBase<T extends ManagerBuilderBase<T>> implem
         return self();
     }
 
+    public T setCompressRequests(boolean compressRequests) {
+        this.compressRequests = compressRequests;
+        return self();
+    }
+
     public T setServerUrl(String serverUrl) {
         this.serverUrl = serverUrl;
         return self();
@@ -101,6 +107,7 @@ public abstract class ManagerBuilderBase<T extends ManagerBuilderBase<T>> implem
         if (clientConfiguration.getTimeout() != null) {
             setConnectionTimeout(clientConfiguration.getTimeout());
         }
+        setCompressRequests(clientConfiguration.isCompressRequests());
 
         return self();
     }
@@ -122,6 +129,7 @@ public abstract class ManagerBuilderBase<T extends ManagerBuilderBase<T>> implem
         if (connectionRetry != -1) {
             client.setConnectionRetries(connectionRetry);
         }
+        client.setCompressRequests(compressRequests);
         return client;
     }
 
@@ -0,0 +1,36 @@
+package org.jfrog.build.extractor.clientConfiguration.client;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Counts the bytes of a request body while it's written, for the request metrics.
+ */
+public class CountingEntity extends HttpEntityWrapper {
+    private volatile long writtenBytes;
+
+    public CountingEntity(HttpEntity wrappedEntity) {
+        super(wrappedEntity);
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        CountingOutputStream countingStream = new CountingOutputStream(outStream);
+        try {
+            wrappedEntity.writeTo(countingStream);
+        } finally {
+            writtenBytes = countingStream.getByteCount();
+        }
+    }
+
+    /**
+     * @return the number of bytes written by the last {@link #writeTo(OutputStream)}
+     */
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+}
@@ -6,9 +6,15 @@ import org.apache.commons.codec.net.URLCodec;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.entity.GzipCompressingEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.util.EntityUtils;
+import org.jfrog.build.api.metrics.BuildMetrics;
+import org.jfrog.build.api.metrics.Metrics;
+import org.jfrog.build.api.metrics.Timer;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.client.JFrogHttpClient;
 import org.jfrog.build.util.URI;
@@ -27,6 +33,16 @@ import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
  * @param <TResult> - The expected result class  from the JFrog REST endpoint.
  */
 public abstract class JFrogService<TResult> {
+    private static final String REQUESTS_METRIC = "http.requests";
+    private static final String REQUEST_TIME_METRIC = "http.request.time";
+    private static final String REQUEST_BYTES_METRIC = "http.request.bytes";
+    private static final String RESPONSE_BYTES_METRIC = "http.response.bytes";
+    private static final String COMPRESSED_REQUESTS_METRIC = "http.requests.compressed";
+    private static final String UNCOMPRESSED_REQUEST_BYTES_METRIC = "http.request.uncompressed.bytes";
+    private static final String ERRORS_METRIC = "http.errors";
+    // Smaller request bodies are not worth compressing
+    static final int MIN_COMPRESSED_REQUEST_BYTES = 1024;
+
     protected final Log log;
     protected TResult result;
     protected int statusCode;
@@ -88,6 +104,14 @@ public abstract class JFrogService<TResult> {
 
     public abstract HttpRequestBase createRequest() throws IOException;
 
+    /**
+     * Override this to allow compressing the request body, if the client is configured to compress request bodies.
+     * Only bodies which the server decompresses before handling them, such as JSON bodies, may be compressed.
+     */
+    protected boolean isRequestCompressible() {
+        return false;
+    }
+
     /**
      * Override this in order to parse the service response body (only for services that expect to have body in the response).
      *
@@ -113,30 +137,154 @@ public abstract class JFrogService<TResult> {
      * 2. check HTTP status code. if there are any errors, throw.
      * 3. Return the response result (if any is expected).
      *
+     * The request latency, the request and response sizes and the errors are recorded in the {@link BuildMetrics}, both
+     * for all services and per service.
+     * <p>
+     * If the client compresses request bodies and the request is compressible, the request body is compressed using gzip.
+     * A server which doesn't accept compressed request bodies responds with 415 (RFC 7694), or with another 4xx status if
+     * it doesn't support RFC 7694. Until the server accepted a compressed request body, the request is then sent again
+     * uncompressed, and if the uncompressed request succeeds the client stops compressing request bodies. Compressed
+     * responses are decompressed by the http client.
+     *
      * @param client - http client for sending the request.
      * @return - The response body object.
      */
     public TResult execute(JFrogHttpClient client) throws IOException {
         ensureRequirements(client);
-        try (CloseableHttpResponse response = client.sendRequest(createRequest())) {
+        Metrics metrics = BuildMetrics.get();
+        String serviceMetricPrefix = BuildMetrics.isEnabled() ? "service." + getClass().getSimpleName() + "." : null;
+        boolean succeeded = false;
+        try (Timer.Context ignored = metrics.timer(REQUEST_TIME_METRIC).time();
+             Timer.Context ignoredServiceTimer = serviceMetricPrefix == null ? null : metrics.timer(serviceMetricPrefix + "time").time();
+             CloseableHttpResponse response = sendRequest(client, metrics, serviceMetricPrefix)) {
             if (response == null) {
+                succeeded = true;
                 return null;
             }
             HttpEntity entity = response.getEntity();
             try {
                 setStatusCode(response.getStatusLine().getStatusCode());
                 setHeaders(response.getAllHeaders());
+                if (entity != null && entity.getContentLength() > 0) {
+                    metrics.counter(RESPONSE_BYTES_METRIC).increment(entity.getContentLength());
+                }
                 if (getStatusCode() >= 400) {
                     handleUnsuccessfulResponse(entity);
                 } else {
                     processResponse(entity);
                 }
+                succeeded = true;
                 return getResult();
             } finally {
                 if (entity != null) {
                     EntityUtils.consumeQuietly(entity);
                 }
             }
+        } finally {
+            if (!succeeded) {
+                metrics.counter(ERRORS_METRIC).increment();
+                if (serviceMetricPrefix != null) {
+                    metrics.counter(serviceMetricPrefix + "errors").increment();
+                }
+            }
+        }
+    }
+
+    private CloseableHttpResponse sendRequest(JFrogHttpClient client, Metrics metrics, String serviceMetricPrefix) throws IOException {
+        HttpRequestBase request = createRequest();
+        CountingEntity uncompressedEntity = compressRequest(client, request);
+        if (uncompressedEntity == null) {
+            bufferRequest(request);
+        }
+        CloseableHttpResponse response = sendRequest(client, request, uncompressedEntity, metrics, serviceMetricPrefix);
+        if (uncompressedEntity == null || response == null) {
+            return response;
+        }
+        int status = response.getStatusLine().getStatusCode();
+        if (status < HttpStatus.SC_BAD_REQUEST) {
+            client.requestCompressionAccepted();
+            return response;
+        }
+        if (status >= HttpStatus.SC_INTERNAL_SERVER_ERROR ||
+                (status != HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE && client.isRequestCompressionAccepted())) {
+            return response;
+        }
+        // The server may not accept compressed request bodies
+        try {
+            EntityUtils.consumeQuietly(response.getEntity());
+        } finally {
+            response.close();
+        }
+        HttpRequestBase uncompressedRequest = createRequest();
+        bufferRequest(uncompressedRequest);
+        response = sendRequest(client, uncompressedRequest, null, metrics, serviceMetricPrefix);
+        if (response != null && response.getStatusLine().getStatusCode() < HttpStatus.SC_BAD_REQUEST) {
+            client.requestCompressionRejected();
+        }
+        return response;
+    }
+
+    private static CloseableHttpResponse sendRequest(JFrogHttpClient client, HttpRequestBase request, CountingEntity uncompressedEntity,
+                                                     Metrics metrics, String serviceMetricPrefix) throws IOException {
+        metrics.counter(REQUESTS_METRIC).increment();
+        if (serviceMetricPrefix != null) {
+            metrics.counter(serviceMetricPrefix + "requests").increment();
+        }
+        try {
+            return client.sendRequest(request);
+        } finally {
+            recordRequestBytes(metrics, request, uncompressedEntity);
+        }
+    }
+
+    /**
+     * Compress the request body, if the client compresses request bodies and the body is compressible.
+     *
+     * @return the uncompressed request body, which counts the bytes before the compression, or null if the request body
+     * wasn't compressed
+     */
+    private CountingEntity compressRequest(JFrogHttpClient client, HttpRequestBase request) {
+        if (!client.isCompressRequests() || !isRequestCompressible() || !(request instanceof HttpEntityEnclosingRequest)) {
+            return null;
+        }
+        HttpEntityEnclosingRequest entityRequest = (HttpEntityEnclosingRequest) request;
+        HttpEntity entity = entityRequest.getEntity();
+        if (entity == null || entity.getContentEncoding() != null ||
+                (entity.getContentLength() >= 0 && entity.getContentLength() < MIN_COMPRESSED_REQUEST_BYTES)) {
+            return null;
+        }
+        CountingEntity uncompressedEntity = new CountingEntity(entity);
+        entityRequest.setEntity(new CountingEntity(new GzipCompressingEntity(uncompressedEntity)));
+        return uncompressedEntity;
+    }
+
+    /**
+     * Serialize an uncompressed JSON request body to memory, so that it's sent with a known length.
+     */
+    private static void bufferRequest(HttpRequestBase request) throws IOException {
+        if (!(request instanceof HttpEntityEnclosingRequest)) {
+            return;
+        }
+        HttpEntityEnclosingRequest entityRequest = (HttpEntityEnclosingRequest) request;
+        if (entityRequest.getEntity() instanceof JsonEntity) {
+            entityRequest.setEntity(((JsonEntity) entityRequest.getEntity()).toBufferedEntity());
+        }
+    }
+
+    /**
+     * Record the size of the request body. The size of a compressed body is known only after it was written.
+     */
+    private static void recordRequestBytes(Metrics metrics, HttpRequestBase request, CountingEntity uncompressedEntity) {
+        if (!(request instanceof HttpEntityEnclosingRequest)) {
+            return;
+        }
+        HttpEntity requestEntity = ((HttpEntityEnclosingRequest) request).getEntity();
+        if (uncompressedEntity != null) {
+            metrics.counter(COMPRESSED_REQUESTS_METRIC).increment();
+            metrics.counter(REQUEST_BYTES_METRIC).increment(((CountingEntity) requestEntity).getWrittenBytes());
+            metrics.counter(UNCOMPRESSED_REQUEST_BYTES_METRIC).increment(uncompressedEntity.getWrittenBytes());
+        } else if (requestEntity != null && requestEntity.getContentLength() > 0) {
+            metrics.counter(REQUEST_BYTES_METRIC).increment(requestEntity.getContentLength());
         }
     }
 
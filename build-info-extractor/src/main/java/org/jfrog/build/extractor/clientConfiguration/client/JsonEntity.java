@@ -0,0 +1,74 @@
+package org.jfrog.build.extractor.clientConfiguration.client;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.jfrog.build.extractor.clientConfiguration.util.JsonUtils.createJsonFactory;
+import static org.jfrog.build.extractor.clientConfiguration.util.JsonUtils.toJsonString;
+
+/**
+ * A request body of an object serialized to JSON.
+ * A compressed body is serialized while the request is sent, so that large bodies such as the build info aren't held in
+ * memory. Its length isn't known in advance, so it's sent chunked. An uncompressed body is sent with a known length,
+ * using {@link #toBufferedEntity()}.
+ */
+public class JsonEntity extends AbstractHttpEntity {
+    private final Object object;
+
+    public JsonEntity(Object object, String contentType) {
+        this.object = object;
+        setContentType(contentType);
+        setChunked(true);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    /**
+     * Serialize the object to memory. Used only by callers which read the body instead of writing it to the request.
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        return new ByteArrayInputStream(toJsonString(object).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Serialize the object to memory, as a body of a known length.
+     */
+    public HttpEntity toBufferedEntity() throws IOException {
+        ByteArrayEntity entity = new ByteArrayEntity(toJsonString(object).getBytes(StandardCharsets.UTF_8));
+        entity.setContentType(getContentType());
+        return entity;
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        JsonGenerator jsonGenerator = createJsonFactory().createGenerator(outStream, JsonEncoding.UTF8);
+        // The output stream belongs to the connection
+        jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        jsonGenerator.useDefaultPrettyPrinter();
+        jsonGenerator.writeObject(object);
+        jsonGenerator.close();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
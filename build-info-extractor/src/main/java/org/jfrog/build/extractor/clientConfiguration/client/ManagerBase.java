@@ -41,6 +41,16 @@ public abstract class ManagerBase implements AutoCloseable {
         jfrogHttpClient.setConnectionRetries(connectionRetries);
     }
 
+    /**
+     * Compress the JSON request bodies, such as the build info, using gzip. If the server doesn't accept compressed
+     * request bodies, the requests are sent uncompressed.
+     *
+     * @param compressRequests True to compress request bodies
+     */
+    public void setCompressRequests(boolean compressRequests) {
+        jfrogHttpClient.setCompressRequests(compressRequests);
+    }
+
     /**
      * Sets the proxy host and port.
      *
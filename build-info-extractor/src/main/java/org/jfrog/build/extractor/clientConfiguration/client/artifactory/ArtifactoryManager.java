@@ -28,38 +28,72 @@ import org.jfrog.build.extractor.usageReport.UsageReporter;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import static org.jfrog.build.extractor.clientConfiguration.client.artifactory.services.ScanBuild.XRAY_SCAN_CONNECTION_TIMEOUT_SECS;
 
 public class ArtifactoryManager extends ManagerBase {
     public static final String LATEST = "LATEST";
     public static final String LAST_RELEASE = "LAST_RELEASE";
+    private final RepositoriesCache repositoriesCache;
+    private final ChecksumPreflight checksumPreflight = new ChecksumPreflight(log);
+    private volatile long repositoriesCacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(RepositoriesCache.DEFAULT_TTL_MILLIS);
 
     public ArtifactoryManager(String artifactoryUrl, String username, String password, String accessToken, Log log) {
         super(artifactoryUrl, username, password, accessToken, log);
+        repositoriesCache = RepositoriesCache.getSharedCache(artifactoryUrl, username, password, accessToken);
     }
 
     public ArtifactoryManager(String artifactoryUrl, String username, String password, Log log) {
-        super(artifactoryUrl, username, password, StringUtils.EMPTY, log);
+        this(artifactoryUrl, username, password, StringUtils.EMPTY, log);
     }
 
     public ArtifactoryManager(String artifactoryUrl, String accessToken, Log log) {
-        super(artifactoryUrl, StringUtils.EMPTY, StringUtils.EMPTY, accessToken, log);
+        this(artifactoryUrl, StringUtils.EMPTY, StringUtils.EMPTY, accessToken, log);
     }
 
     public ArtifactoryManager(String artifactoryUrl, Log log) {
-        super(artifactoryUrl, StringUtils.EMPTY, StringUtils.EMPTY, StringUtils.EMPTY, log);
+        this(artifactoryUrl, StringUtils.EMPTY, StringUtils.EMPTY, StringUtils.EMPTY, log);
+    }
+
+    /**
+     * Set the duration to keep the repositories list used to answer repository type and existence checks.
+     * The list is shared with the other managers of the same Artifactory and credentials. The default is 5 minutes.
+     *
+     * @param ttl  - The duration. Zero or negative to query Artifactory on every check.
+     * @param unit - The unit of the duration
+     */
+    public void setRepositoriesCacheTtl(long ttl, TimeUnit unit) {
+        repositoriesCacheTtlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * Clear the cached repositories list, so that the next repository check of any manager of the same Artifactory and
+     * credentials fetches it again.
+     */
+    public void invalidateRepositoriesCache() {
+        repositoriesCache.invalidate();
     }
 
     public boolean isLocalRepo(String repositoryKey) throws IOException {
+        String repositoryType = repositoriesCache.getRepositoryType(jfrogHttpClient, log, repositoriesCacheTtlNanos, repositoryKey);
+        if (repositoryType != null) {
+            return RepositoryType.LOCAL.name().equals(repositoryType);
+        }
         CheckRepositoryType checkRepositoryTypeService = new CheckRepositoryType(RepositoryType.LOCAL, repositoryKey, log);
         return checkRepositoryTypeService.execute(jfrogHttpClient);
     }
 
     public boolean isRemoteRepo(String repositoryKey) throws IOException {
+        String repositoryType = repositoriesCache.getRepositoryType(jfrogHttpClient, log, repositoriesCacheTtlNanos, repositoryKey);
+        if (repositoryType != null) {
+            return RepositoryType.REMOTE.name().equals(repositoryType);
+        }
         CheckRepositoryType checkRepositoryTypeService = new CheckRepositoryType(RepositoryType.REMOTE, repositoryKey, log);
         return checkRepositoryTypeService.execute(jfrogHttpClient);
     }
@@ -111,6 +145,25 @@ public class ArtifactoryManager extends ManagerBase {
         return downloadToFileService.execute(jfrogHttpClient);
     }
 
+    /**
+     * Download a range of a file into its position in a partially downloaded file.
+     *
+     * @param downloadFrom - The file URL
+     * @param headers      - The request headers, including the Range header
+     * @param start        - The first byte of the requested range
+     * @param end          - The last byte of the requested range, inclusive
+     * @param size         - The size of the whole file
+     * @param channel      - The partially downloaded file
+     * @param listener     - Receives the ranges which were written to the partially downloaded file
+     * @return the number of written bytes
+     */
+    public long downloadRange(String downloadFrom, Map<String, String> headers, long start, long end, long size, FileChannel channel,
+                              DownloadRange.ProgressListener listener) throws IOException {
+        DownloadRange downloadRangeService = new DownloadRange(downloadFrom, headers, start, end, size, channel, listener, log);
+        Long written = downloadRangeService.execute(jfrogHttpClient);
+        return written == null ? 0 : written;
+    }
+
     public void executeUserPlugin(String executionName, Map<String, String> requestParams) throws IOException {
         ExecuteUserPlugin executeUserPluginService = new ExecuteUserPlugin(executionName, requestParams, log);
         executeUserPluginService.execute(jfrogHttpClient);
@@ -174,16 +227,28 @@ public class ArtifactoryManager extends ManagerBase {
 
 
     public List<String> getLocalRepositoriesKeys() throws IOException {
+        List<String> cachedKeys = repositoriesCache.getRepositoriesKeys(jfrogHttpClient, log, repositoriesCacheTtlNanos, RepositoryType.LOCAL);
+        if (cachedKeys != null) {
+            return cachedKeys;
+        }
         GetRepositoriesKeys getLocalRepositoriesKeysService = new GetRepositoriesKeys(RepositoryType.LOCAL, log);
         return getLocalRepositoriesKeysService.execute(jfrogHttpClient);
     }
 
     public List<String> getRemoteRepositoriesKeys() throws IOException {
+        List<String> cachedKeys = repositoriesCache.getRepositoriesKeys(jfrogHttpClient, log, repositoriesCacheTtlNanos, RepositoryType.REMOTE);
+        if (cachedKeys != null) {
+            return cachedKeys;
+        }
         GetRepositoriesKeys getRemoteRepositoriesKeysService = new GetRepositoriesKeys(RepositoryType.REMOTE, log);
         return getRemoteRepositoriesKeysService.execute(jfrogHttpClient);
     }
 
     public List<String> getVirtualRepositoriesKeys() throws IOException {
+        List<String> cachedKeys = repositoriesCache.getRepositoriesKeys(jfrogHttpClient, log, repositoriesCacheTtlNanos, RepositoryType.VIRTUAL);
+        if (cachedKeys != null) {
+            return cachedKeys;
+        }
         GetRepositoriesKeys getVirtualRepositoriesKeysService = new GetRepositoriesKeys(RepositoryType.VIRTUAL, log);
         return getVirtualRepositoriesKeysService.execute(jfrogHttpClient);
     }
@@ -199,6 +264,9 @@ public class ArtifactoryManager extends ManagerBase {
     }
 
     public boolean isRepositoryExist(String repositoryKey) throws IOException {
+        if (repositoriesCache.getRepositoryType(jfrogHttpClient, log, repositoriesCacheTtlNanos, repositoryKey) != null) {
+            return true;
+        }
         IsRepositoryExist IsRepositoryExistService = new IsRepositoryExist(repositoryKey, log);
         return IsRepositoryExistService.execute(jfrogHttpClient);
     }
@@ -258,13 +326,43 @@ public class ArtifactoryManager extends ManagerBase {
     }
 
     public ArtifactoryUploadResponse upload(DeployDetails details, String logPrefix, Integer minChecksumDeploySizeKb) throws IOException {
-        Upload uploadService = new Upload(details, logPrefix, minChecksumDeploySizeKb, log);
-        return uploadService.execute(jfrogHttpClient);
+        Boolean checksumExists = checksumPreflight.exists(details.getSha1());
+        Upload uploadService = new Upload(details, logPrefix, minChecksumDeploySizeKb, checksumExists, log);
+        ArtifactoryUploadResponse response = uploadService.execute(jfrogHttpClient);
+        if (checksumExists != null) {
+            checksumPreflight.recordSavings(uploadService.getSavedRequests(), uploadService.getSavedBytes());
+        }
+        return response;
+    }
+
+    /**
+     * Search which checksums of the artifacts to deploy already exist in Artifactory, using a few bulk AQL searches.
+     * Following uploads of these artifacts are deployed by checksum if their checksum exists, or send their content
+     * without trying a checksum deploy first if it's missing.
+     *
+     * @param details - The artifacts to deploy
+     * @return the checksums search, which reports the searched checksums and the savings of the following uploads
+     */
+    public ChecksumPreflight preflightChecksums(Collection<DeployDetails> details) {
+        checksumPreflight.check(jfrogHttpClient, details);
+        return checksumPreflight;
+    }
+
+    /**
+     * Forget the checksums found by {@link #preflightChecksums(Collection)}, so that following uploads try a checksum
+     * deploy as usual.
+     */
+    public void clearPreflightChecksums() {
+        checksumPreflight.clear();
     }
 
     public void deleteRepository(String repository) throws IOException {
         DeleteRepository deleteRepositoryService = new DeleteRepository(repository, log);
-        deleteRepositoryService.execute(jfrogHttpClient);
+        try {
+            deleteRepositoryService.execute(jfrogHttpClient);
+        } finally {
+            repositoriesCache.invalidate();
+        }
     }
 
     public void deleteRepositoryContent(String repository) throws IOException {
@@ -274,7 +372,11 @@ public class ArtifactoryManager extends ManagerBase {
 
     public void createRepository(String repository, String repositoryJsonConfig) throws IOException {
         CreateRepository createRepository = new CreateRepository(repository, repositoryJsonConfig, log);
-        createRepository.execute(jfrogHttpClient);
+        try {
+            createRepository.execute(jfrogHttpClient);
+        } finally {
+            repositoriesCache.invalidate();
+        }
     }
 
     public String getLatestBuildNumber(String buildName, String latestType, String project) throws IOException {
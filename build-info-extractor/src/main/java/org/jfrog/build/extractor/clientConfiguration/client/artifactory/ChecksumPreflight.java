@@ -0,0 +1,201 @@
+package org.jfrog.build.extractor.clientConfiguration.client.artifactory;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.HttpEntity;
+import org.jfrog.build.api.metrics.BuildMetrics;
+import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.client.JFrogHttpClient;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.services.SearchArtifactsByAql;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves which checksums of the artifacts to deploy already exist in Artifactory, before the artifacts are deployed.
+ * The checksums are searched in bulk using AQL, so that an upload of an artifact with an existing checksum is deployed
+ * by checksum without sending its content, and an upload of an artifact with a missing checksum sends its content
+ * without trying a checksum deploy first.
+ * If the search fails, for example due to missing permissions, the checksums remain unknown and the uploads try a
+ * checksum deploy as usual.
+ */
+public class ChecksumPreflight {
+    static final int AQL_BULK_SIZE = 500;
+    private static final String AQL_FORMAT = "items.find({\"$or\":[%s]}).include(\"actual_sha1\")";
+    private static final String AQL_CHECKSUM_PART = "{\"actual_sha1\":\"%s\"}";
+    private static final String QUERIES_METRIC = "deploy.preflight.queries";
+    private static final String SAVED_REQUESTS_METRIC = "deploy.preflight.requests.saved";
+    private static final String SAVED_BYTES_METRIC = "deploy.preflight.bytes.saved";
+    private static final Pattern SHA1_PATTERN = Pattern.compile("[0-9a-f]{40}");
+
+    private final Log log;
+    // Sha1 to true if it exists in Artifactory, or false if it's missing
+    private final Map<String, Boolean> checksums = new ConcurrentHashMap<>();
+    private final AtomicInteger queries = new AtomicInteger();
+    private final AtomicInteger savedRequests = new AtomicInteger();
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    ChecksumPreflight(Log log) {
+        this.log = log;
+    }
+
+    /**
+     * Search the checksums of the artifacts which weren't searched before.
+     *
+     * @param client  - The http client to search with
+     * @param details - The artifacts to deploy
+     */
+    void check(JFrogHttpClient client, Collection<DeployDetails> details) {
+        Set<String> unknownChecksums = new LinkedHashSet<>();
+        for (DeployDetails detail : details) {
+            String sha1 = normalize(detail.getSha1());
+            if (sha1 != null && !checksums.containsKey(sha1)) {
+                unknownChecksums.add(sha1);
+            }
+        }
+        List<String> bulk = new ArrayList<>(AQL_BULK_SIZE);
+        for (String sha1 : unknownChecksums) {
+            bulk.add(sha1);
+            if (bulk.size() == AQL_BULK_SIZE) {
+                if (!search(client, bulk)) {
+                    return;
+                }
+                bulk.clear();
+            }
+        }
+        if (!bulk.isEmpty()) {
+            search(client, bulk);
+        }
+    }
+
+    /**
+     * @return true if the search succeeded
+     */
+    private boolean search(JFrogHttpClient client, List<String> bulk) {
+        StringBuilder checksumParts = new StringBuilder();
+        for (String sha1 : bulk) {
+            if (checksumParts.length() > 0) {
+                checksumParts.append(",");
+            }
+            checksumParts.append(String.format(AQL_CHECKSUM_PART, sha1));
+        }
+        AqlSearchResult result;
+        try {
+            queries.incrementAndGet();
+            BuildMetrics.get().counter(QUERIES_METRIC).increment();
+            result = new SearchArtifactsByAql(String.format(AQL_FORMAT, checksumParts), log) {
+                @Override
+                protected void handleUnsuccessfulResponse(HttpEntity entity) throws IOException {
+                    // The search is optional, so a failure isn't logged as an error
+                    throwException(entity, getStatusCode());
+                }
+            }.execute(client);
+        } catch (IOException e) {
+            log.debug("Failed searching the checksums of the artifacts to deploy, the checksums remain unknown: " + e.getMessage());
+            return false;
+        }
+        Set<String> existing = new HashSet<>();
+        for (AqlSearchResult.SearchEntry entry : result.getResults()) {
+            String sha1 = normalize(entry.getActualSha1());
+            if (sha1 != null) {
+                existing.add(sha1);
+            }
+        }
+        for (String sha1 : bulk) {
+            checksums.put(sha1, existing.contains(sha1));
+        }
+        return true;
+    }
+
+    /**
+     * @param sha1 - The checksum
+     * @return true if the checksum exists in Artifactory, false if it's missing, or null if unknown
+     */
+    Boolean exists(String sha1) {
+        sha1 = normalize(sha1);
+        return sha1 == null ? null : checksums.get(sha1);
+    }
+
+    /**
+     * Record the savings of an upload which used the result of the checksum search.
+     */
+    void recordSavings(int requests, long bytes) {
+        savedRequests.addAndGet(requests);
+        savedBytes.addAndGet(bytes);
+        BuildMetrics.get().counter(SAVED_REQUESTS_METRIC).increment(requests);
+        BuildMetrics.get().counter(SAVED_BYTES_METRIC).increment(bytes);
+    }
+
+    void clear() {
+        checksums.clear();
+    }
+
+    /**
+     * @return the number of searched checksums which exist in Artifactory
+     */
+    public int getExistingCount() {
+        return (int) checksums.values().stream().filter(Boolean::booleanValue).count();
+    }
+
+    /**
+     * @return the number of searched checksums which are missing in Artifactory
+     */
+    public int getMissingCount() {
+        return checksums.size() - getExistingCount();
+    }
+
+    /**
+     * @return the number of search requests
+     */
+    public int getQueries() {
+        return queries.get();
+    }
+
+    /**
+     * @return the number of upload requests saved, not including the search requests
+     */
+    public int getSavedRequests() {
+        return savedRequests.get();
+    }
+
+    /**
+     * @return the number of content bytes which weren't sent
+     */
+    public long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    /**
+     * @return a human readable summary of the checksums search and its savings
+     */
+    public String getSummary() {
+        return String.format("Checksum pre-flight: %d of %d checksums found in Artifactory using %d search requests, " +
+                        "saving %d upload requests and %d bytes",
+                getExistingCount(), checksums.size(), getQueries(), getSavedRequests(), getSavedBytes());
+    }
+
+    /**
+     * Log the summary of the checksums search and its savings, if any checksum was searched.
+     */
+    public void logSummary() {
+        if (getQueries() > 0) {
+            log.info(getSummary());
+        }
+    }
+
+    /**
+     * @return the lowercase checksum, or null if it isn't a valid sha1
+     */
+    private static String normalize(String sha1) {
+        if (StringUtils.isBlank(sha1)) {
+            return null;
+        }
+        sha1 = sha1.toLowerCase(Locale.ROOT);
+        return SHA1_PATTERN.matcher(sha1).matches() ? sha1 : null;
+    }
+}
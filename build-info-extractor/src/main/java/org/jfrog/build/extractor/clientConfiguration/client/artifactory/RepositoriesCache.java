@@ -0,0 +1,120 @@
+package org.jfrog.build.extractor.clientConfiguration.client.artifactory;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.client.JFrogHttpClient;
+import org.jfrog.build.extractor.clientConfiguration.client.RepositoryType;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.services.GetRepositories;
+import org.jfrog.build.extractor.clientConfiguration.client.response.GetRepositoriesResponse;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Caches the keys and types of the repositories in Artifactory, so that repository type and existence checks don't
+ * require a request each.
+ * The repositories list is fetched once, using a single request, and kept until the TTL expires or until the cache is
+ * invalidated. If the list can't be fetched, for example due to missing permissions, the failure is kept for the same
+ * duration and the callers fall back to querying Artifactory directly.
+ * A cache is shared by all the managers of the same Artifactory URL and credentials, since most callers create a
+ * manager for a few requests only. Each manager checks the age of the list against its own TTL.
+ * Up to {@link #MAX_SHARED_CACHES} caches are shared. Beyond that, the least recently used cache stops being shared. The
+ * managers which already use it keep it, and new managers of its URL and credentials get a new cache.
+ */
+class RepositoriesCache {
+    static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    static final int MAX_SHARED_CACHES = 64;
+
+    // Access ordered, to evict the least recently used cache
+    private static final Map<String, RepositoriesCache> sharedCaches = new LinkedHashMap<String, RepositoriesCache>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RepositoriesCache> eldest) {
+            return size() > MAX_SHARED_CACHES;
+        }
+    };
+
+    // Repository key to its type. Null if the list wasn't fetched or if it failed to be fetched.
+    private Map<String, String> repositoryTypes;
+    private boolean fetched;
+    private long fetchTime;
+
+    /**
+     * Get the cache of the repositories visible to the user. The credentials are part of the cache key, since the
+     * repositories list depends on the permissions of the user. They are kept as a digest only.
+     *
+     * @param url         - The Artifactory URL
+     * @param username    - The username, if any
+     * @param password    - The password, if any
+     * @param accessToken - The access token, if any
+     * @return the cache of the repositories of the Artifactory URL and credentials
+     */
+    static RepositoriesCache getSharedCache(String url, String username, String password, String accessToken) {
+        String key = DigestUtils.sha256Hex(StringUtils.join(new String[]{StringUtils.removeEnd(StringUtils.defaultString(url), "/"),
+                StringUtils.defaultString(username), StringUtils.defaultString(password), StringUtils.defaultString(accessToken)}, '\n'));
+        synchronized (sharedCaches) {
+            return sharedCaches.computeIfAbsent(key, k -> new RepositoriesCache());
+        }
+    }
+
+    synchronized void invalidate() {
+        fetched = false;
+        repositoryTypes = null;
+    }
+
+    /**
+     * @param client        - The http client to fetch the repositories list with
+     * @param log           - The logger of the caller
+     * @param ttlNanos      - The maximal age of the repositories list. Zero or negative to skip the cache.
+     * @param repositoryKey - The repository key
+     * @return the type of the repository, such as "LOCAL", or null if unknown
+     */
+    String getRepositoryType(JFrogHttpClient client, Log log, long ttlNanos, String repositoryKey) {
+        Map<String, String> repositories = getRepositories(client, log, ttlNanos);
+        return repositories == null ? null : repositories.get(repositoryKey);
+    }
+
+    /**
+     * @param client         - The http client to fetch the repositories list with
+     * @param log            - The logger of the caller
+     * @param ttlNanos       - The maximal age of the repositories list. Zero or negative to skip the cache.
+     * @param repositoryType - The repositories type
+     * @return the keys of the repositories of the type, or null if unknown
+     */
+    List<String> getRepositoriesKeys(JFrogHttpClient client, Log log, long ttlNanos, RepositoryType repositoryType) {
+        Map<String, String> repositories = getRepositories(client, log, ttlNanos);
+        if (repositories == null) {
+            return null;
+        }
+        return repositories.entrySet().stream()
+                .filter(entry -> repositoryType.name().equals(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private synchronized Map<String, String> getRepositories(JFrogHttpClient client, Log log, long ttlNanos) {
+        if (ttlNanos <= 0) {
+            return null;
+        }
+        if (fetched && System.nanoTime() - fetchTime < ttlNanos) {
+            return repositoryTypes;
+        }
+        fetched = true;
+        fetchTime = System.nanoTime();
+        try {
+            List<GetRepositoriesResponse> repositories = new GetRepositories(log).execute(client);
+            Map<String, String> types = new LinkedHashMap<>();
+            for (GetRepositoriesResponse repository : repositories) {
+                if (repository.getKey() != null) {
+                    types.put(repository.getKey(), repository.getType() == null ? "" : repository.getType().toUpperCase(Locale.ENGLISH));
+                }
+            }
+            repositoryTypes = Collections.unmodifiableMap(types);
+        } catch (Exception e) {
+            log.debug("Couldn't fetch the repositories list, repositories will be queried separately: " + e.getMessage());
+            repositoryTypes = null;
+        }
+        return repositoryTypes;
+    }
+}
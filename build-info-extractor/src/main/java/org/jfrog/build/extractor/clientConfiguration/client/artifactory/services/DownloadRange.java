@@ -0,0 +1,118 @@
+package org.jfrog.build.extractor.clientConfiguration.client.artifactory.services;
+
+import org.apache.http.HttpStatus;
+import org.apache.http.conn.ConnectionReleaseTrigger;
+import org.jfrog.build.api.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+
+/**
+ * Downloads a range of a file into its position in a partially downloaded file.
+ * The written bytes are reported to a {@link ProgressListener} every {@link #CHECKPOINT_BYTES} bytes, and when the
+ * download ends or fails, after they were forced to the storage device. If the server ignores the range request and
+ * responds with the whole file, the whole file is written from its beginning by a single download, and the responses of
+ * the other downloads of the file are aborted.
+ */
+public class DownloadRange extends DownloadBase<Long> {
+    public static final int CHECKPOINT_BYTES = 4 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final long start;
+    private final long end;
+    private final long size;
+    private final FileChannel channel;
+    private final ProgressListener listener;
+
+    /**
+     * @param downloadFrom - The file URL
+     * @param headers      - The request headers, including the Range header
+     * @param start        - The first byte of the requested range
+     * @param end          - The last byte of the requested range, inclusive
+     * @param size         - The size of the whole file. Bytes beyond it are not written.
+     * @param channel      - The partially downloaded file
+     * @param listener     - Receives the ranges which were written to the partially downloaded file
+     * @param log          - The logger
+     */
+    public DownloadRange(String downloadFrom, Map<String, String> headers, long start, long end, long size, FileChannel channel,
+                         ProgressListener listener, Log log) {
+        super(downloadFrom, false, headers, log);
+        this.start = start;
+        this.end = end;
+        this.size = size;
+        this.channel = channel;
+        this.listener = listener;
+    }
+
+    @Override
+    protected void setResponse(InputStream stream) throws IOException {
+        boolean partial = getStatusCode() == HttpStatus.SC_PARTIAL_CONTENT;
+        if (!partial && !listener.acquireWholeFile()) {
+            // Another download writes the whole file, so don't download it again
+            if (stream instanceof ConnectionReleaseTrigger) {
+                ((ConnectionReleaseTrigger) stream).abortConnection();
+            }
+            result = 0L;
+            return;
+        }
+        long position = partial ? start : 0;
+        long limit = Math.min(partial ? end + 1 : Long.MAX_VALUE, size);
+        long checkpoint = position;
+        long written = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            int read;
+            while (position < limit && (read = stream.read(buffer, 0, (int) Math.min(buffer.length, limit - position))) > 0) {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                while (byteBuffer.hasRemaining()) {
+                    int bytes = channel.write(byteBuffer, position);
+                    position += bytes;
+                    written += bytes;
+                }
+                if (position - checkpoint >= CHECKPOINT_BYTES) {
+                    checkpoint(checkpoint, position);
+                    checkpoint = position;
+                }
+            }
+        } finally {
+            // Keep the progress of a failed download
+            if (position > checkpoint) {
+                checkpoint(checkpoint, position);
+            }
+        }
+        result = written;
+    }
+
+    @Override
+    protected void handleEmptyEntity() {
+        result = 0L;
+    }
+
+    private void checkpoint(long from, long to) throws IOException {
+        channel.force(false);
+        listener.rangeCompleted(from, to - 1);
+    }
+
+    public interface ProgressListener {
+        /**
+         * Called after a range was written to the partially downloaded file.
+         *
+         * @param start - The first written byte
+         * @param end   - The last written byte, inclusive
+         */
+        void rangeCompleted(long start, long end) throws IOException;
+
+        /**
+         * Called when the server ignored the range request and responded with the whole file. Only one of the
+         * concurrent downloads of the file should write it.
+         *
+         * @return true to write the whole file, or false to abort the response
+         */
+        default boolean acquireWholeFile() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.jfrog.build.extractor.clientConfiguration.client.artifactory.services;
+
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.clientConfiguration.client.JFrogService;
+import org.jfrog.build.extractor.clientConfiguration.client.response.GetRepositoriesResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Get the keys and types of all repositories the user can read, in a single request.
+ */
+public class GetRepositories extends JFrogService<List<GetRepositoriesResponse>> {
+    private static final String REPOS_REST_URL = "api/repositories";
+
+    public GetRepositories(Log logger) {
+        super(logger);
+        result = new ArrayList<>();
+    }
+
+    @Override
+    public HttpRequestBase createRequest() {
+        log.debug("Requesting repositories list from: " + REPOS_REST_URL);
+        return new HttpGet(REPOS_REST_URL);
+    }
+
+    @Override
+    protected void setResponse(InputStream stream) throws IOException {
+        result = getMapper().readValue(stream,
+                TypeFactory.defaultInstance().constructCollectionLikeType(List.class, GetRepositoriesResponse.class));
+    }
+
+    @Override
+    protected void handleUnsuccessfulResponse(HttpEntity entity) throws IOException {
+        log.debug("Failed to obtain list of repositories.");
+        throwException(entity, getStatusCode());
+    }
+}
@@ -29,6 +29,11 @@ public class SearchArtifactsByAql extends JFrogService<AqlSearchResult> {
         return request;
     }
 
+    @Override
+    protected boolean isRequestCompressible() {
+        return true;
+    }
+
     @Override
     protected void handleUnsuccessfulResponse(HttpEntity entity) throws IOException {
         log.error("Failed to search artifact by the aql '" + aql + "'");
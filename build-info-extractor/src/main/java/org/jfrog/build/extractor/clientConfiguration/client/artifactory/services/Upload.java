@@ -6,6 +6,9 @@ import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.entity.FileEntity;
 import org.apache.http.protocol.HTTP;
+import org.jfrog.build.api.metrics.BuildMetrics;
+import org.jfrog.build.api.metrics.Metrics;
+import org.jfrog.build.api.metrics.Timer;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.client.ArtifactoryUploadResponse;
 import org.jfrog.build.client.ArtifactoryVersion;
@@ -27,16 +30,37 @@ public class Upload extends JFrogService<ArtifactoryUploadResponse> {
     public static final String MD5_HEADER_NAME = "X-Checksum-Md5";
     public static final String EXPLODE_HEADER_NAME = "X-Explode-Archive";
     public static final String CHECKSUM_DEPLOY_HEADER_NAME = "X-Checksum-Deploy";
+    private static final String DEPLOY_TIME_METRIC = "deploy.time";
+    private static final String DEPLOY_BYTES_METRIC = "deploy.bytes";
+    private static final String CHECKSUM_DEPLOY_METRIC = "deploy.checksum";
+    private static final String DEPLOY_FAILURES_METRIC = "deploy.failures";
     private final DeployDetails details;
     private final String logPrefix;
     private final Integer minChecksumDeploySizeKb;
+    private final Boolean checksumExists;
     private boolean isExplode;
+    private int savedRequests;
+    private long savedBytes;
 
     public Upload(DeployDetails details, String logPrefix, Integer minChecksumDeploySizeKb, Log logger) {
+        this(details, logPrefix, minChecksumDeploySizeKb, null, logger);
+    }
+
+    /**
+     * @param details                 - The artifact to deploy
+     * @param logPrefix               - Prefix of the log messages
+     * @param minChecksumDeploySizeKb - Minimum file size to try a checksum deploy, if the checksum existence is unknown
+     * @param checksumExists          - True if the checksum of the artifact is known to exist in Artifactory, which
+     *                                deploys the artifact by checksum regardless of its size. False if it's known to be
+     *                                missing, which skips the checksum deploy attempt. Null if unknown.
+     * @param logger                  - The logger
+     */
+    public Upload(DeployDetails details, String logPrefix, Integer minChecksumDeploySizeKb, Boolean checksumExists, Log logger) {
         super(logger);
         this.minChecksumDeploySizeKb = minChecksumDeploySizeKb;
         this.details = details;
         this.logPrefix = logPrefix == null ? "" : logPrefix + " ";
+        this.checksumExists = checksumExists;
     }
 
     @Override
@@ -69,17 +93,70 @@ public class Upload extends JFrogService<ArtifactoryUploadResponse> {
     @Override
     public ArtifactoryUploadResponse execute(JFrogHttpClient client) throws IOException {
         log.info(logPrefix + "Deploying artifact: " + client.getUrl() + "/" + StringUtils.removeStart(buildDefaultUploadPath(details), "/"));
-        ArtifactoryUploadResponse response = tryChecksumUpload(client);
-        if (response != null) {
-            // Checksum deploy was performed:
+        Metrics metrics = BuildMetrics.get();
+        try (Timer.Context ignored = metrics.timer(DEPLOY_TIME_METRIC).time()) {
+            if (checksumExists != null) {
+                calculateSavings();
+            }
+            ArtifactoryUploadResponse response = checksumExists == Boolean.FALSE ? null : tryChecksumUpload(client);
+            if (response != null) {
+                // Checksum deploy was performed:
+                metrics.counter(CHECKSUM_DEPLOY_METRIC).increment();
+                return response;
+            }
+            if (checksumExists == Boolean.TRUE) {
+                // The checksum deploy failed although the checksum was found, so the content is sent after all
+                savedRequests = 0;
+                savedBytes = 0;
+            }
+            response = super.execute(client);
+            metrics.counter(DEPLOY_BYTES_METRIC).increment(details.getFile().length());
             return response;
+        } catch (IOException | RuntimeException e) {
+            metrics.counter(DEPLOY_FAILURES_METRIC).increment();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of requests saved by knowing the checksum existence, compared to an upload which tries a
+     * checksum deploy first. Available after the upload is executed.
+     */
+    public int getSavedRequests() {
+        return savedRequests;
+    }
+
+    /**
+     * @return the number of content bytes not sent thanks to knowing that the checksum exists, compared to an upload
+     * which tries a checksum deploy first. Available after the upload is executed.
+     */
+    public long getSavedBytes() {
+        return savedBytes;
+    }
+
+    private void calculateSavings() {
+        long fileLength = details.getFile().length();
+        boolean checksumDeployAttempted = !details.isExplode() && fileLength >= getMinChecksumDeploySizeBytes();
+        // The version request of the checksum deploy attempt is always saved
+        savedRequests = 1;
+        if (checksumExists) {
+            if (!checksumDeployAttempted && !details.isExplode()) {
+                // Small files were sent, although their checksum exists
+                savedBytes = fileLength;
+            }
+        } else if (checksumDeployAttempted) {
+            // A checksum deploy attempt would have failed
+            savedRequests++;
         }
-        return super.execute(client);
+    }
+
+    private long getMinChecksumDeploySizeBytes() {
+        return (minChecksumDeploySizeKb != null ? minChecksumDeploySizeKb : DEFAULT_MIN_CHECKSUM_DEPLOY_SIZE_KB) * 1024L;
     }
 
     private ArtifactoryUploadResponse tryChecksumUpload(JFrogHttpClient client) {
         try {
-            TryChecksumUpload tryChecksumUploadService = new TryChecksumUpload(details, logPrefix, minChecksumDeploySizeKb, log);
+            TryChecksumUpload tryChecksumUploadService = new TryChecksumUpload(details, logPrefix, minChecksumDeploySizeKb, checksumExists == Boolean.TRUE, log);
             return tryChecksumUploadService.execute(client);
         } catch (IOException e) {
             log.debug("Failed artifact checksum deploy of file " + details.getArtifactPath() + " : " + details.getSha1());
@@ -108,16 +185,22 @@ public class Upload extends JFrogService<ArtifactoryUploadResponse> {
         private final DeployDetails details;
         private final String logPrefix;
         private final Integer minChecksumDeploySizeKb;
+        private final boolean checksumExists;
 
-        private TryChecksumUpload(DeployDetails details, String logPrefix, Integer minChecksumDeploySizeKb, Log logger) {
+        private TryChecksumUpload(DeployDetails details, String logPrefix, Integer minChecksumDeploySizeKb, boolean checksumExists, Log logger) {
             super(logger);
             this.details = details;
             this.logPrefix = logPrefix;
             this.minChecksumDeploySizeKb = minChecksumDeploySizeKb != null ? minChecksumDeploySizeKb : DEFAULT_MIN_CHECKSUM_DEPLOY_SIZE_KB;
+            this.checksumExists = checksumExists;
         }
 
         @Override
         protected void ensureRequirements(JFrogHttpClient client) throws IOException {
+            if (checksumExists) {
+                // The checksum was found using AQL, which is supported only by versions with efficient checksum deployment
+                return;
+            }
             Version versionService = new Version(log);
             ArtifactoryVersion version = versionService.execute(client);
             // Artifactory 2.5.1+ has efficient checksum deployment (checks if the artifact already exists by it's checksum)
@@ -130,7 +213,7 @@ public class Upload extends JFrogService<ArtifactoryUploadResponse> {
         public HttpRequestBase createRequest() throws IOException {
             // Try checksum upload only on file size equal or greater than 'minChecksumDeploySizeKb'
             long fileLength = details.getFile().length();
-            if (fileLength < minChecksumDeploySizeKb * 1024) {
+            if (!checksumExists && fileLength < minChecksumDeploySizeKb * 1024) {
                 log.debug("Skipping checksum deploy of file size " + fileLength + " bytes, falling back to regular deployment.");
                 throw new IOException();
             }
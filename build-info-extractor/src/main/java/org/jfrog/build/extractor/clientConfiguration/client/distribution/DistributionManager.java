@@ -13,12 +13,15 @@ import org.jfrog.build.extractor.clientConfiguration.client.distribution.respons
 import org.jfrog.build.extractor.clientConfiguration.client.distribution.services.*;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author yahavi
  */
 @SuppressWarnings("unused")
 public class DistributionManager extends ManagerBase {
+    private DistributionStatusTracker statusTracker;
+
     public DistributionManager(String url, String username, String password, String accessToken, Log logger) {
         super(url, username, password, accessToken, logger);
     }
@@ -136,7 +139,8 @@ public class DistributionManager extends ManagerBase {
      * @throws IOException in case of any error
      */
     public DistributeReleaseBundleResponse distributeReleaseBundle(String name, String version, boolean sync, DistributeReleaseBundleRequest request) throws IOException {
-        return new DistributeReleaseBundle(name, version, sync, request, log).execute(jfrogHttpClient);
+        DistributionStatusTracker tracker = sync ? getStatusTracker() : null;
+        return new DistributeReleaseBundle(name, version, sync, request, tracker, log).execute(jfrogHttpClient);
     }
 
     /**
@@ -164,6 +168,47 @@ public class DistributionManager extends ManagerBase {
         return new GetDistributionStatus(name, version, trackerId, log).execute(jfrogHttpClient);
     }
 
+    /**
+     * Distribute a release bundle without blocking the calling thread until the distribution is completed.
+     *
+     * @param name     - Release bundle name
+     * @param version  - Release bundle version
+     * @param request  - The distribution details
+     * @param listener - Optional listener for the distribution progress
+     * @return a future which is completed with the final distribution status
+     * @throws IOException in case of any error while triggering the distribution
+     */
+    public CompletableFuture<DistributionStatusResponse> distributeReleaseBundleAsync(String name, String version, DistributeReleaseBundleRequest request,
+                                                                                      DistributionStatusTracker.ProgressListener listener) throws IOException {
+        DistributeReleaseBundleResponse response = distributeReleaseBundle(name, version, false, request);
+        if (request.isDryRun()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return trackDistribution(name, version, response.getTrackerId(), listener);
+    }
+
+    /**
+     * Track a distributed release bundle until the distribution is completed.
+     * All distributions tracked by this manager, including sync distributions, are polled by a single scheduler.
+     *
+     * @param name      - Release bundle name
+     * @param version   - Release bundle version
+     * @param trackerId - The tracker ID received from distributeReleaseBundle command
+     * @param listener  - Optional listener for the distribution progress
+     * @return a future which is completed with the final distribution status, or completed exceptionally if the distribution failed or timed out
+     */
+    public CompletableFuture<DistributionStatusResponse> trackDistribution(String name, String version, String trackerId,
+                                                                           DistributionStatusTracker.ProgressListener listener) {
+        return getStatusTracker().track(name, version, trackerId, listener);
+    }
+
+    private synchronized DistributionStatusTracker getStatusTracker() {
+        if (statusTracker == null) {
+            statusTracker = new DistributionStatusTracker(jfrogHttpClient, log);
+        }
+        return statusTracker;
+    }
+
     /**
      * Delete a release bundle from local Artifactory
      *
@@ -188,4 +233,14 @@ public class DistributionManager extends ManagerBase {
     public DistributeReleaseBundleResponse deleteReleaseBundle(String name, String version, boolean sync, DeleteReleaseBundleRequest request) throws IOException {
         return new DeleteReleaseBundle(name, version, sync, request, log).execute(jfrogHttpClient);
     }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (statusTracker != null) {
+                statusTracker.close();
+            }
+        }
+        super.close();
+    }
 }
@@ -0,0 +1,238 @@
+package org.jfrog.build.extractor.clientConfiguration.client.distribution;
+
+import org.apache.commons.lang.StringUtils;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.client.JFrogHttpClient;
+import org.jfrog.build.extractor.clientConfiguration.client.distribution.response.DistributionStatusResponse;
+import org.jfrog.build.extractor.clientConfiguration.client.distribution.response.DistributionStatusResponse.DistributionSiteStatus;
+import org.jfrog.build.extractor.clientConfiguration.client.distribution.services.GetDistributionStatus;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.jfrog.build.extractor.clientConfiguration.util.JsonUtils.toJsonString;
+
+/**
+ * Tracks the status of distributed release bundles asynchronously.
+ * All tracked distributions are polled by a single scheduler. The polling interval of each distribution starts at the minimal
+ * interval, and is doubled up to the maximal interval as long as the distribution doesn't make progress on any of its sites.
+ */
+public class DistributionStatusTracker implements AutoCloseable {
+    public static final long DEFAULT_MIN_POLL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    public static final long DEFAULT_MAX_POLL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    public static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(60);
+    private static final int DEFAULT_POLL_THREADS = 2;
+
+    private final Set<TrackedDistribution> trackedDistributions = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+    private final JFrogHttpClient client;
+    private final long minPollIntervalMillis;
+    private final long maxPollIntervalMillis;
+    private final long timeoutMillis;
+    private final Log log;
+
+    public DistributionStatusTracker(JFrogHttpClient client, Log log) {
+        this(client, log, DEFAULT_MIN_POLL_INTERVAL_MILLIS, DEFAULT_MAX_POLL_INTERVAL_MILLIS, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param client                - The distribution http client
+     * @param log                   - The logger
+     * @param minPollIntervalMillis - The interval between status checks of a distribution which makes progress
+     * @param maxPollIntervalMillis - The maximal interval between status checks of a distribution which doesn't make progress
+     * @param timeoutMillis         - The maximal time to wait for each distribution
+     */
+    public DistributionStatusTracker(JFrogHttpClient client, Log log, long minPollIntervalMillis, long maxPollIntervalMillis, long timeoutMillis) {
+        if (minPollIntervalMillis <= 0 || maxPollIntervalMillis < minPollIntervalMillis) {
+            throw new IllegalArgumentException("Illegal poll intervals: " + minPollIntervalMillis + ", " + maxPollIntervalMillis);
+        }
+        this.client = client;
+        this.log = log;
+        this.minPollIntervalMillis = minPollIntervalMillis;
+        this.maxPollIntervalMillis = maxPollIntervalMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.scheduler = Executors.newScheduledThreadPool(DEFAULT_POLL_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "distribution-status-tracker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Track a distribution until it is completed.
+     *
+     * @param name      - Release bundle name
+     * @param version   - Release bundle version
+     * @param trackerId - The tracker ID received from the distribute release bundle command
+     * @return a future which is completed with the final distribution status, or completed exceptionally with an IOException if the
+     * distribution failed or timed out. Cancelling the future stops the tracking.
+     */
+    public CompletableFuture<DistributionStatusResponse> track(String name, String version, String trackerId) {
+        return track(name, version, trackerId, null);
+    }
+
+    /**
+     * Track a distribution until it is completed.
+     *
+     * @param name      - Release bundle name
+     * @param version   - Release bundle version
+     * @param trackerId - The tracker ID received from the distribute release bundle command
+     * @param listener  - Optional listener, notified on each status change of the distribution or one of its sites
+     * @return a future which is completed with the final distribution status, or completed exceptionally with an IOException if the
+     * distribution failed or timed out. Cancelling the future stops the tracking.
+     */
+    public CompletableFuture<DistributionStatusResponse> track(String name, String version, String trackerId, ProgressListener listener) {
+        TrackedDistribution distribution = new TrackedDistribution(name, version, trackerId, listener);
+        trackedDistributions.add(distribution);
+        distribution.future.whenComplete((status, throwable) -> trackedDistributions.remove(distribution));
+        try {
+            scheduler.execute(distribution::poll);
+        } catch (RejectedExecutionException e) {
+            distribution.future.completeExceptionally(new IOException("Distribution status tracker is closed", e));
+        }
+        return distribution.future;
+    }
+
+    /**
+     * @return the number of distributions currently tracked
+     */
+    public int getTrackedCount() {
+        return trackedDistributions.size();
+    }
+
+    /**
+     * Stop tracking all distributions. Futures of distributions that are still tracked are completed exceptionally.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        for (TrackedDistribution distribution : trackedDistributions) {
+            distribution.future.completeExceptionally(new IOException("Distribution status tracker closed while waiting for " + distribution));
+        }
+    }
+
+    /**
+     * Listener for distribution progress.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * Called when the status of the distribution, or the status or progress of one of its sites changes.
+         *
+         * @param name    - Release bundle name
+         * @param version - Release bundle version
+         * @param status  - The current distribution status, including the status of each site
+         */
+        void onProgress(String name, String version, DistributionStatusResponse status);
+    }
+
+    private class TrackedDistribution {
+        private final CompletableFuture<DistributionStatusResponse> future = new CompletableFuture<>();
+        private final Map<String, String> siteProgress = new HashMap<>();
+        private final ProgressListener listener;
+        private final String trackerId;
+        private final String version;
+        private final String name;
+        private final long deadline;
+        private long pollIntervalMillis = minPollIntervalMillis;
+        private String status = "";
+
+        private TrackedDistribution(String name, String version, String trackerId, ProgressListener listener) {
+            this.name = name;
+            this.version = version;
+            this.trackerId = trackerId;
+            this.listener = listener;
+            this.deadline = System.currentTimeMillis() + timeoutMillis;
+        }
+
+        /**
+         * Check the distribution status once, and schedule the next check if needed.
+         * Each distribution is polled by a single scheduled task at a time, so its state doesn't require synchronization.
+         */
+        private void poll() {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                DistributionStatusResponse response = new GetDistributionStatus(name, version, trackerId, log).execute(client);
+                if (response != null) {
+                    if (updateProgress(response)) {
+                        pollIntervalMillis = minPollIntervalMillis;
+                        notifyListener(response);
+                    } else {
+                        pollIntervalMillis = Math.min(pollIntervalMillis * 2, maxPollIntervalMillis);
+                    }
+                    if ("Failed".equalsIgnoreCase(response.getStatus())) {
+                        future.completeExceptionally(new IOException("Distribution of " + this + " failed: " + toJsonString(response)));
+                        return;
+                    }
+                    if ("Completed".equalsIgnoreCase(response.getStatus())) {
+                        log.info("Distribution of " + this + " completed!");
+                        future.complete(response);
+                        return;
+                    }
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    future.completeExceptionally(new IOException("Timeout for sync distribution of " + this));
+                    return;
+                }
+                scheduler.schedule(this::poll, Math.min(pollIntervalMillis, remaining), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(new IOException("Distribution status tracker closed while waiting for " + this, e));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Update the recorded distribution and sites status.
+         *
+         * @param response - The distribution status response
+         * @return true if the distribution status or the status of one of its sites changed since the last check
+         */
+        private boolean updateProgress(DistributionStatusResponse response) {
+            boolean changed = false;
+            String newStatus = StringUtils.defaultString(response.getStatus());
+            if (!newStatus.equals(status)) {
+                log.info(String.format("Sync: Distribution of %s is %s", this, newStatus));
+                status = newStatus;
+                changed = true;
+            }
+            List<DistributionSiteStatus> sites = response.getSites();
+            if (sites == null) {
+                return changed;
+            }
+            for (DistributionSiteStatus site : sites) {
+                String siteName = site.getTargetArtifactory() != null ? site.getTargetArtifactory().getName() : "";
+                String progress = String.format("%s - %d/%d files, %d/%d bytes", site.getStatus(),
+                        site.getDistributedFiles(), site.getTotalFiles(), site.getDistributedBytes(), site.getTotalBytes());
+                if (!progress.equals(siteProgress.put(siteName, progress))) {
+                    log.debug(String.format("Sync: Distribution of %s to %s: %s", this, siteName, progress));
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+
+        private void notifyListener(DistributionStatusResponse response) {
+            if (listener == null) {
+                return;
+            }
+            try {
+                listener.onProgress(name, version, response);
+            } catch (Exception e) {
+                log.warn("Distribution progress listener failed: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name + "/" + version;
+        }
+    }
+}
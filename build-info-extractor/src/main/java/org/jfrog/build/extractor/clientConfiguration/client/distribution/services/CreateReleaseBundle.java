@@ -3,15 +3,13 @@ package org.jfrog.build.extractor.clientConfiguration.client.distribution.servic
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.entity.StringEntity;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.client.JFrogHttpClient;
+import org.jfrog.build.extractor.clientConfiguration.client.JsonEntity;
 import org.jfrog.build.extractor.clientConfiguration.client.distribution.request.CreateReleaseBundleRequest;
 
 import java.io.IOException;
 
-import static org.jfrog.build.extractor.clientConfiguration.util.JsonUtils.toJsonString;
-
 /**
  * @author yahavi
  */
@@ -46,9 +44,12 @@ public class CreateReleaseBundle extends VoidDistributionService {
         if (StringUtils.isNotBlank(gpgPassphrase)) {
             request.setHeader("X-GPG-PASSPHRASE", gpgPassphrase);
         }
-        StringEntity stringEntity = new StringEntity(toJsonString(this.request));
-        stringEntity.setContentType("application/json");
-        request.setEntity(stringEntity);
+        request.setEntity(new JsonEntity(this.request, "application/json"));
         return request;
     }
+
+    @Override
+    protected boolean isRequestCompressible() {
+        return true;
+    }
 }
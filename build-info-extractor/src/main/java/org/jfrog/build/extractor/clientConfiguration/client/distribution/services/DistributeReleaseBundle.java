@@ -3,17 +3,17 @@ package org.jfrog.build.extractor.clientConfiguration.client.distribution.servic
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.entity.StringEntity;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.client.JFrogHttpClient;
 import org.jfrog.build.extractor.clientConfiguration.client.JFrogService;
+import org.jfrog.build.extractor.clientConfiguration.client.JsonEntity;
+import org.jfrog.build.extractor.clientConfiguration.client.distribution.DistributionStatusTracker;
 import org.jfrog.build.extractor.clientConfiguration.client.distribution.request.DistributeReleaseBundleRequest;
 import org.jfrog.build.extractor.clientConfiguration.client.distribution.response.DistributeReleaseBundleResponse;
-import org.jfrog.build.extractor.clientConfiguration.client.distribution.response.DistributionStatusResponse;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
 
 import static org.jfrog.build.extractor.clientConfiguration.util.JsonUtils.toJsonString;
 
@@ -22,20 +22,34 @@ import static org.jfrog.build.extractor.clientConfiguration.util.JsonUtils.toJso
  */
 public class DistributeReleaseBundle extends JFrogService<DistributeReleaseBundleResponse> {
     static final String DISTRIBUTE_RELEASE_BUNDLE_ENDPOINT = "api/v1/distribution";
-    static final int DEFAULT_SYNC_SLEEP_INTERVAL = 10; // 10 seconds
-    static final int DEFAULT_MAX_WAIT_MINUTES = 60;    // 60 minutes
 
+    private final DistributionStatusTracker statusTracker;
     private final DistributeReleaseBundleRequest request;
     private final String version;
     private final boolean sync;
     private final String name;
 
+    /**
+     * @deprecated Use {@link #DistributeReleaseBundle(String, String, boolean, DistributeReleaseBundleRequest, DistributionStatusTracker, Log)}
+     * to share the status tracker between distributions.
+     */
+    @Deprecated
     public DistributeReleaseBundle(String name, String version, boolean sync, DistributeReleaseBundleRequest request, Log log) {
+        this(name, version, sync, request, null, log);
+    }
+
+    /**
+     * @param statusTracker - Tracker used to wait for the distribution in sync mode. If null, a default tracker is created
+     *                      for this distribution and closed once it is completed.
+     */
+    public DistributeReleaseBundle(String name, String version, boolean sync, DistributeReleaseBundleRequest request,
+                                   DistributionStatusTracker statusTracker, Log log) {
         super(log);
         this.sync = sync;
         this.name = name;
         this.version = version;
         this.request = request;
+        this.statusTracker = statusTracker;
     }
 
     @Override
@@ -55,12 +69,15 @@ public class DistributeReleaseBundle extends JFrogService<DistributeReleaseBundl
     public HttpRequestBase createRequest() throws IOException {
         HttpPost request = new HttpPost(String.format("%s/%s/%s", DISTRIBUTE_RELEASE_BUNDLE_ENDPOINT, name, version));
         request.setHeader("Accept", " application/json");
-        StringEntity stringEntity = new StringEntity(toJsonString(this.request));
-        stringEntity.setContentType("application/json");
-        request.setEntity(stringEntity);
+        request.setEntity(new JsonEntity(this.request, "application/json"));
         return request;
     }
 
+    @Override
+    protected boolean isRequestCompressible() {
+        return true;
+    }
+
     @Override
     public DistributeReleaseBundleResponse execute(JFrogHttpClient client) throws IOException {
         log.info(request.isDryRun() ? "[Dry run] " : "" + "Distributing " + name + " / " + version);
@@ -79,26 +96,27 @@ public class DistributeReleaseBundle extends JFrogService<DistributeReleaseBundl
     }
 
     private void waitForDistribution(JFrogHttpClient client) throws IOException {
-        String trackerId = result.getTrackerId();
-        GetDistributionStatus getDistributionStatusService = new GetDistributionStatus(name, version, trackerId, log);
-        for (int timeElapsed = 0; timeElapsed < DEFAULT_MAX_WAIT_MINUTES * 60; timeElapsed += DEFAULT_SYNC_SLEEP_INTERVAL) {
-            if (timeElapsed % 60 == 0) {
-                log.info(String.format("Sync: Distributing %s/%s...", name, version));
-            }
-            DistributionStatusResponse statusResponse = getDistributionStatusService.execute(client);
-            if (statusResponse.getStatus().equalsIgnoreCase("Failed")) {
-                throw new IOException("JFrog service failed. Received " + statusCode + ": " + toJsonString(statusResponse));
-            }
-            if (statusResponse.getStatus().equalsIgnoreCase("Completed")) {
-                log.info("Distribution Completed!");
-                return;
-            }
-            try {
-                TimeUnit.SECONDS.sleep(DEFAULT_SYNC_SLEEP_INTERVAL);
-            } catch (InterruptedException e) {
-                throw new IOException("Fail to wait for Distribution sync", e);
+        if (statusTracker != null) {
+            waitForDistribution(statusTracker);
+            return;
+        }
+        try (DistributionStatusTracker defaultTracker = new DistributionStatusTracker(client, log)) {
+            waitForDistribution(defaultTracker);
+        }
+    }
+
+    private void waitForDistribution(DistributionStatusTracker tracker) throws IOException {
+        log.info(String.format("Sync: Distributing %s/%s...", name, version));
+        try {
+            tracker.track(name, version, result.getTrackerId()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Fail to wait for Distribution sync", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
             }
+            throw new IOException("Fail to wait for Distribution sync", e.getCause());
         }
-        throw new IOException("Timeout for sync distribution");
     }
 }
@@ -2,6 +2,7 @@ package org.jfrog.build.extractor.clientConfiguration.client.response;
 
 public class GetRepositoriesResponse {
     private String key;
+    private String type;
 
     public String getKey() {
         return key;
@@ -10,4 +11,12 @@ public class GetRepositoriesResponse {
     public void setKey(String key) {
         this.key = key;
     }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
 }
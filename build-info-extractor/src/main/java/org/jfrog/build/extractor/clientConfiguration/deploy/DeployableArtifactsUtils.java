@@ -1,7 +1,9 @@
 package org.jfrog.build.extractor.clientConfiguration.deploy;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.jfrog.build.client.DeployableArtifactDetail;
 
 import java.io.File;
@@ -14,81 +16,134 @@ import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
  * Utilities for deployable artifacts.
  * Deployable artifacts file is a list of DeployableArtifactDetail.
  * The DeployDetails set is prepared in the build artifacts phase. From DeployDetails set we extract the list of DeployableArtifactDetail.
+ * The file is written and read as a stream, one deployable artifact at a time.
  * <p>
  * Created by yahavi on 25/04/2017.
  */
 public class DeployableArtifactsUtils {
 
-    public static void saveDeployableArtifactsToFile(Map<String, Set<DeployDetails>> deployableArtifactsByModule, File toFile, boolean saveBackwardCompatible) throws IOException {
-        if (saveBackwardCompatible) {
-            saveBackwardCompatibleDeployableArtifacts(deployableArtifactsByModule, toFile);
-            return;
+    /**
+     * Visitor of the deployable artifacts read from a deployable artifacts file.
+     */
+    @FunctionalInterface
+    public interface DeployableArtifactsVisitor {
+        /**
+         * Called once for each module, before its deployable artifacts are visited. Not called for a backward compatible file.
+         *
+         * @param module - The module ID.
+         * @throws IOException to stop reading the file.
+         */
+        default void visitModule(String module) throws IOException {
         }
-        saveDeployableArtifactsByModule(deployableArtifactsByModule, toFile);
-    }
 
-    private static void saveDeployableArtifactsByModule(Map<String, Set<DeployDetails>> deployableArtifactsByModule, File toFile) throws IOException {
-        Map<String, List<DeployableArtifactDetail>> deployableArtifactsDetails = new HashMap<>();
-        deployableArtifactsByModule.forEach((module, deployableArtifacts) ->
-                deployableArtifactsDetails.put(module, DeployableArtifactsUtils.getDeployableArtifactsPaths(deployableArtifacts)));
-        ObjectMapper mapper = createMapper();
-        mapper.writeValue(toFile, deployableArtifactsDetails);
+        /**
+         * @param module   - The module ID of the deployable artifact. Empty in case of a backward compatible file.
+         * @param artifact - The deployable artifact.
+         * @throws IOException to stop reading the file.
+         */
+        void visit(String module, DeployableArtifactDetail artifact) throws IOException;
     }
 
-    /**
-     * For backward compatibility, save the deployable artifacts as list (for pipelines using Gradle Artifactory Plugin with version 4.15.1 and above, along with Jenkins Artifactory Plugin bellow 3.6.1)
-     */
-    @Deprecated
-    private static void saveBackwardCompatibleDeployableArtifacts(Map<String, Set<DeployDetails>> deployableArtifactsByModule, File toFile) throws IOException {
-        List<DeployableArtifactDetail> deployableArtifactsList = new ArrayList<>();
-        deployableArtifactsByModule.forEach((module, deployableArtifacts) ->
-                deployableArtifactsList.addAll(DeployableArtifactsUtils.getDeployableArtifactsPaths(deployableArtifacts)));
-        ObjectMapper mapper = createMapper();
-        mapper.writeValue(toFile, deployableArtifactsList);
+    public static void saveDeployableArtifactsToFile(Map<String, Set<DeployDetails>> deployableArtifactsByModule, File toFile, boolean saveBackwardCompatible) throws IOException {
+        // For backward compatibility, the deployable artifacts may be saved as list (for pipelines using Gradle Artifactory Plugin with version 4.15.1 and above, along with Jenkins Artifactory Plugin bellow 3.6.1)
+        try (DeployableArtifactsWriter writer = new DeployableArtifactsWriter(toFile, saveBackwardCompatible)) {
+            for (Map.Entry<String, Set<DeployDetails>> entry : deployableArtifactsByModule.entrySet()) {
+                writer.writeModule(entry.getKey(), entry.getValue());
+            }
+        }
     }
 
     @SuppressWarnings({"UnusedDeclaration"})
     public static Map<String, List<DeployableArtifactDetail>> loadDeployableArtifactsFromFile(File fromFile, File fromBackwardCompatibleFile) throws IOException {
-        Map<String, List<DeployableArtifactDetail>> deployableArtifactsMap = loadDeployableArtifactsByModuleFromFile(fromFile);
-        if (deployableArtifactsMap.isEmpty()) {
-            return loadBackwardCompatibleDeployableArtifactsFromFile(fromBackwardCompatibleFile);
-        }
+        Map<String, List<DeployableArtifactDetail>> deployableArtifactsMap = new HashMap<>();
+        visitDeployableArtifacts(fromFile, fromBackwardCompatibleFile, new DeployableArtifactsVisitor() {
+            @Override
+            public void visitModule(String module) {
+                deployableArtifactsMap.putIfAbsent(module, new ArrayList<>());
+            }
+
+            @Override
+            public void visit(String module, DeployableArtifactDetail artifact) {
+                deployableArtifactsMap.computeIfAbsent(module, key -> new ArrayList<>()).add(artifact);
+            }
+        });
         return deployableArtifactsMap;
     }
 
-    private static Map<String, List<DeployableArtifactDetail>> loadDeployableArtifactsByModuleFromFile(File fromFile) throws IOException {
+    /**
+     * Read the deployable artifacts file and visit each deployable artifact, without loading the whole file to memory.
+     * If the file contains no modules, the backward compatible file is read instead.
+     *
+     * @param fromFile                   - The deployable artifacts file
+     * @param fromBackwardCompatibleFile - The backward compatible deployable artifacts file
+     * @param visitor                    - The deployable artifacts visitor
+     * @throws IOException in case of an error reading the files or an error thrown by the visitor
+     */
+    public static void visitDeployableArtifacts(File fromFile, File fromBackwardCompatibleFile, DeployableArtifactsVisitor visitor) throws IOException {
+        if (!visitDeployableArtifactsByModule(fromFile, visitor)) {
+            visitBackwardCompatibleDeployableArtifacts(fromBackwardCompatibleFile, visitor);
+        }
+    }
+
+    /**
+     * @return true if the file contains at least one module
+     */
+    private static boolean visitDeployableArtifactsByModule(File fromFile, DeployableArtifactsVisitor visitor) throws IOException {
         if (fromFile == null || fromFile.length() == 0) {
-            return new HashMap<>();
+            return false;
         }
         ObjectMapper mapper = createMapper();
-        return mapper.readValue(fromFile, new TypeReference<Map<String, List<DeployableArtifactDetail>>>() {
-        });
+        ObjectReader reader = mapper.readerFor(DeployableArtifactDetail.class);
+        boolean hasModules = false;
+        try (JsonParser parser = mapper.getFactory().createParser(fromFile)) {
+            expectToken(parser, JsonToken.START_OBJECT, fromFile);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String module = parser.getCurrentName();
+                hasModules = true;
+                visitor.visitModule(module);
+                if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                if (parser.currentToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("Unexpected token " + parser.currentToken() + " in the deployable artifacts of module '" +
+                            module + "' in " + fromFile);
+                }
+                visitArray(parser, reader, module, visitor);
+            }
+        }
+        return hasModules;
     }
 
     /**
      * For backwards compatibility, load the deployable artifacts as list (for pipelines using Gradle Artifactory Plugin with version bellow 4.15.0, along with Jenkins Artifactory Plugin 3.6.1 and above)
      */
     @Deprecated
-    private static Map<String, List<DeployableArtifactDetail>> loadBackwardCompatibleDeployableArtifactsFromFile(File fromFile) throws IOException {
+    private static void visitBackwardCompatibleDeployableArtifacts(File fromFile, DeployableArtifactsVisitor visitor) throws IOException {
         if (fromFile == null || fromFile.length() == 0) {
-            return new HashMap<>();
+            return;
         }
         ObjectMapper mapper = createMapper();
-        List<DeployableArtifactDetail> backwardCompatibleList = mapper.readValue(fromFile, new TypeReference<List<DeployableArtifactDetail>>() {
-        });
-        // Convert to map
-        Map<String, List<DeployableArtifactDetail>> deployableArtifactMap = new HashMap<>();
-        if (!backwardCompatibleList.isEmpty()) {
-            deployableArtifactMap.put("", backwardCompatibleList);
+        ObjectReader reader = mapper.readerFor(DeployableArtifactDetail.class);
+        try (JsonParser parser = mapper.getFactory().createParser(fromFile)) {
+            expectToken(parser, JsonToken.START_ARRAY, fromFile);
+            visitArray(parser, reader, "", visitor);
+        }
+    }
+
+    private static void visitArray(JsonParser parser, ObjectReader reader, String module, DeployableArtifactsVisitor visitor) throws IOException {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == null) {
+                throw new IOException("Unexpected end of the deployable artifacts file");
+            }
+            visitor.visit(module, reader.readValue(parser));
         }
-        return deployableArtifactMap;
     }
 
-    private static List<DeployableArtifactDetail> getDeployableArtifactsPaths(Set<DeployDetails> deployDetails) {
-        List<DeployableArtifactDetail> deployableArtifacts = new ArrayList<>();
-        for (DeployDetails artifact : deployDetails) {
-            deployableArtifacts.add(new DeployableArtifactDetail(artifact.getFile().getAbsolutePath(), artifact.getArtifactPath(), artifact.getSha1(), artifact.getSha256(), artifact.getDeploySucceeded(), artifact.getTargetRepository()));
+    private static void expectToken(JsonParser parser, JsonToken expected, File file) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != expected) {
+            throw new IOException("Unexpected token " + token + " at the beginning of the deployable artifacts file " + file +
+                    ", expected " + expected);
         }
-        return deployableArtifacts;
     }
 }
@@ -0,0 +1,86 @@
+package org.jfrog.build.extractor.clientConfiguration.deploy;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.jfrog.build.client.DeployableArtifactDetail;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+
+import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
+
+/**
+ * Writes the deployable artifacts file incrementally, module by module.
+ * Each deployable artifact is converted to a {@link DeployableArtifactDetail} and written directly to the file, so the memory
+ * used doesn't depend on the number of artifacts.
+ * The file is a map of module to its deployable artifacts list, or a single list of all deployable artifacts in case of a
+ * backward compatible file.
+ * A module which is written more than once, such as two Gradle projects with the same name, appears in the map more than
+ * once. {@link DeployableArtifactsUtils} merges the deployable artifacts of the repeated module.
+ */
+public class DeployableArtifactsWriter implements Closeable {
+    private final boolean backwardCompatible;
+    private final JsonGenerator generator;
+    private final ObjectWriter writer;
+
+    /**
+     * @param toFile             - The deployable artifacts file to create
+     * @param backwardCompatible - True to write a single list of deployable artifacts, without modules
+     * @throws IOException in case of an error creating the file
+     */
+    public DeployableArtifactsWriter(File toFile, boolean backwardCompatible) throws IOException {
+        ObjectMapper mapper = createMapper();
+        this.backwardCompatible = backwardCompatible;
+        this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = mapper.getFactory().createGenerator(toFile, JsonEncoding.UTF8);
+        if (backwardCompatible) {
+            generator.writeStartArray();
+        } else {
+            generator.writeStartObject();
+        }
+    }
+
+    /**
+     * Append the deployable artifacts of a module to the file. If the module was already written, its deployable artifacts
+     * are merged with the previously written ones when the file is read.
+     *
+     * @param module        - The module ID
+     * @param deployDetails - The deployable artifacts of the module
+     * @throws IOException in case of an error writing to the file
+     */
+    public void writeModule(String module, Collection<DeployDetails> deployDetails) throws IOException {
+        if (backwardCompatible) {
+            writeDeployableArtifacts(deployDetails);
+            return;
+        }
+        generator.writeFieldName(module);
+        generator.writeStartArray();
+        writeDeployableArtifacts(deployDetails);
+        generator.writeEndArray();
+    }
+
+    private void writeDeployableArtifacts(Collection<DeployDetails> deployDetails) throws IOException {
+        for (DeployDetails artifact : deployDetails) {
+            writer.writeValue(generator, new DeployableArtifactDetail(artifact.getFile().getAbsolutePath(), artifact.getArtifactPath(),
+                    artifact.getSha1(), artifact.getSha256(), artifact.getDeploySucceeded(), artifact.getTargetRepository()));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (backwardCompatible) {
+                generator.writeEndArray();
+            } else {
+                generator.writeEndObject();
+            }
+        } finally {
+            generator.close();
+        }
+    }
+}
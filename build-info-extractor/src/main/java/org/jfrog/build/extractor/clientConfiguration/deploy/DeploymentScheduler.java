@@ -0,0 +1,121 @@
+package org.jfrog.build.extractor.clientConfiguration.deploy;
+
+import java.io.File;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * Orders deployment work by size, so that parallel deployments aren't held back by a large artifact which is deployed last.
+ * <p>
+ * The work is given as chains of items. The items of a chain must be deployed serially in their order by a single worker,
+ * for example the artifacts of a module with the module descriptor last. Each chain is scheduled as a single task, and
+ * the tasks are ordered by their size, largest first (LPT - longest processing time first). Workers which take the
+ * tasks in this order start the large tasks first, and the small tasks fill the remaining time of the other workers.
+ * <p>
+ * Small chains are coalesced into batch tasks, which are deployed by a single worker, so that thousands of tiny files
+ * don't cost a task handoff each. A chain is never split between tasks.
+ */
+public class DeploymentScheduler {
+    public static final long DEFAULT_SMALL_TASK_BYTES = 256 * 1024;
+    public static final int DEFAULT_MAX_BATCH_ITEMS = 16;
+
+    private final long smallTaskBytes;
+    private final int maxBatchItems;
+
+    public DeploymentScheduler() {
+        this(DEFAULT_SMALL_TASK_BYTES, DEFAULT_MAX_BATCH_ITEMS);
+    }
+
+    /**
+     * @param smallTaskBytes - Chains smaller than this size are coalesced into batches, which are smaller than this size too.
+     *                       Zero to never coalesce chains.
+     * @param maxBatchItems  - The maximum number of items in a batch, unless a single chain has more items
+     */
+    public DeploymentScheduler(long smallTaskBytes, int maxBatchItems) {
+        this.smallTaskBytes = smallTaskBytes;
+        this.maxBatchItems = maxBatchItems;
+    }
+
+    /**
+     * Schedule artifacts which can be deployed in any order.
+     *
+     * @param details - The artifacts to deploy
+     * @return the tasks in the order they should be started. The artifacts of each task should be deployed serially.
+     */
+    public List<List<DeployDetails>> scheduleArtifacts(Collection<DeployDetails> details) {
+        List<List<DeployDetails>> chains = new ArrayList<>(details.size());
+        for (DeployDetails detail : details) {
+            chains.add(Collections.singletonList(detail));
+        }
+        return scheduleArtifactChains(chains);
+    }
+
+    /**
+     * Schedule chains of artifacts. The artifacts of each chain are deployed serially in their order.
+     *
+     * @param chains - The chains of artifacts to deploy, such as the artifacts of each module
+     * @return the tasks in the order they should be started. The artifacts of each task should be deployed serially.
+     */
+    public List<List<DeployDetails>> scheduleArtifactChains(Collection<? extends Collection<DeployDetails>> chains) {
+        return schedule(chains, DeploymentScheduler::getFileSize);
+    }
+
+    /**
+     * Schedule chains of items.
+     *
+     * @param chains       - The chains of items. The items of each chain are processed serially in their order.
+     * @param sizeFunction - The size of an item, which estimates the time to process it
+     * @param <T>          - The type of the items
+     * @return the tasks in the order they should be started. The items of each task should be processed serially.
+     */
+    public <T> List<List<T>> schedule(Collection<? extends Collection<T>> chains, ToLongFunction<? super T> sizeFunction) {
+        List<Task<T>> tasks = new ArrayList<>();
+        Task<T> batch = null;
+        for (Collection<T> chain : chains) {
+            if (chain.isEmpty()) {
+                continue;
+            }
+            long chainSize = 0;
+            for (T item : chain) {
+                chainSize += Math.max(sizeFunction.applyAsLong(item), 0);
+            }
+            if (chainSize >= smallTaskBytes) {
+                tasks.add(new Task<>(chain, chainSize));
+                continue;
+            }
+            // Coalesce small chains in their discovery order
+            if (batch != null && (batch.size + chainSize >= smallTaskBytes || batch.items.size() + chain.size() > maxBatchItems)) {
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Task<>(new ArrayList<>(), 0);
+                tasks.add(batch);
+            }
+            batch.items.addAll(chain);
+            batch.size += chainSize;
+        }
+
+        // The sort is stable, so tasks of the same size keep their discovery order
+        tasks.sort(Comparator.comparingLong((Task<T> task) -> task.size).reversed());
+        List<List<T>> result = new ArrayList<>(tasks.size());
+        for (Task<T> task : tasks) {
+            result.add(task.items);
+        }
+        return result;
+    }
+
+    private static long getFileSize(DeployDetails details) {
+        File file = details.getFile();
+        return file == null ? 0 : file.length();
+    }
+
+    private static class Task<T> {
+        private final List<T> items;
+        private long size;
+
+        private Task(Collection<T> items, long size) {
+            this.items = items instanceof List ? (List<T>) items : new ArrayList<>(items);
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,567 @@
+package org.jfrog.build.extractor.clientConfiguration.deploy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.BuildInfoFields;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.BuildInfoExtractorUtils;
+import org.jfrog.build.extractor.ModuleParallelDeployHelper;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
+
+/**
+ * A durable spool of a publish - the deployed artifacts and the build info.
+ * The deploy plan of every artifact - its file, target path, checksums and properties - is appended to a journal before
+ * the artifact is deployed, and every successful deployment is appended to the journal after it completes. Each record
+ * is a single line, forced to the storage device before the journal is used, and lines which can't be parsed, such as a
+ * line torn by a killed process, are ignored. The build info is written to the spool atomically, before it's published.
+ * <p>
+ * When a publish fails, the spool is left on disk. Publishing again using the same spool - by running the build again or
+ * by calling {@link #replay(ArtifactoryManager, int)} - skips the artifacts which were already deployed with the same
+ * checksum and properties and the build info if it was already published, so a publish may be repeated any number of times.
+ * The build timestamp property is derived from the start time of each run, so it's ignored when comparing the properties.
+ * After a successful publish, the spool is deleted.
+ */
+public class PublishSpool implements Closeable {
+    public static final String JOURNAL_FILE_NAME = "publish.journal";
+    public static final String BUILD_INFO_FILE_NAME = "build-info.json";
+    private static final String ARTIFACT_RECORD = "artifact";
+    private static final String DEPLOYED_RECORD = "deployed";
+    private static final String BUILD_INFO_RECORD = "buildInfo";
+    private static final String BUILD_INFO_PUBLISHED_RECORD = "buildInfoPublished";
+
+    private final ObjectMapper mapper = createMapper();
+    private final File spoolDir;
+    private final Log log;
+    // Target path to the planned and deployed artifacts. A later record of the same target path replaces an earlier one.
+    private final Map<String, SpoolRecord> plannedArtifacts = new LinkedHashMap<>();
+    private final Map<String, SpoolRecord> deployedArtifacts = new HashMap<>();
+    private String buildInfoSha1;
+    private String publishedBuildInfoSha1;
+    private FileChannel journal;
+
+    private PublishSpool(File spoolDir, Log log) {
+        this.spoolDir = spoolDir;
+        this.log = log;
+    }
+
+    /**
+     * Open a publish spool, recovering the records of a previous publish which used the same directory.
+     *
+     * @param spoolDir - The directory of the spool
+     * @param log      - The logger
+     * @return the publish spool
+     */
+    public static PublishSpool open(File spoolDir, Log log) throws IOException {
+        PublishSpool spool = new PublishSpool(spoolDir, log);
+        spool.load();
+        return spool;
+    }
+
+    /**
+     * @param spoolDir - The directory of the spool
+     * @return true if the directory contains the spool of a publish which didn't complete
+     */
+    public static boolean exists(File spoolDir) {
+        return new File(spoolDir, JOURNAL_FILE_NAME).isFile();
+    }
+
+    private void load() throws IOException {
+        if (!spoolDir.isDirectory() && !spoolDir.mkdirs()) {
+            throw new IOException("Could not create the publish spool directory " + spoolDir);
+        }
+        File journalFile = new File(spoolDir, JOURNAL_FILE_NAME);
+        boolean tornLine = false;
+        if (journalFile.isFile()) {
+            String content = FileUtils.readFileToString(journalFile, StandardCharsets.UTF_8);
+            for (String line : StringUtils.split(content, '\n')) {
+                try {
+                    apply(mapper.readValue(line, SpoolRecord.class));
+                } catch (IOException e) {
+                    log.debug("Ignoring an unreadable record of the publish spool: " + line);
+                }
+            }
+            tornLine = !content.isEmpty() && !content.endsWith("\n");
+        }
+        journal = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (tornLine) {
+            write("\n");
+        }
+        if (!plannedArtifacts.isEmpty() || buildInfoSha1 != null) {
+            log.info(String.format("Resuming the publish spooled in '%s': %d of %d artifacts were already deployed.",
+                    spoolDir, getDeployedCount(), plannedArtifacts.size()));
+        }
+    }
+
+    private void apply(SpoolRecord record) {
+        if (record.getType() == null) {
+            return;
+        }
+        switch (record.getType()) {
+            case ARTIFACT_RECORD:
+                plannedArtifacts.put(record.getKey(), record);
+                break;
+            case DEPLOYED_RECORD:
+                deployedArtifacts.put(record.getKey(), record);
+                break;
+            case BUILD_INFO_RECORD:
+                buildInfoSha1 = record.getSha1();
+                break;
+            case BUILD_INFO_PUBLISHED_RECORD:
+                publishedBuildInfoSha1 = record.getSha1();
+                break;
+            default:
+        }
+    }
+
+    /**
+     * Append a record to the journal and force it to the storage device.
+     */
+    private void append(SpoolRecord record) throws IOException {
+        write(mapper.writeValueAsString(record) + "\n");
+        apply(record);
+    }
+
+    private void write(String line) throws IOException {
+        if (journal == null) {
+            throw new IOException("The publish spool " + spoolDir + " is closed");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            journal.write(buffer);
+        }
+        journal.force(false);
+    }
+
+    /**
+     * Record the deploy plan of the artifacts of a module. Artifacts which are already planned with the same checksum
+     * and properties are not recorded again. Since the build timestamp differs, running the build again records the
+     * plan again, so that a replay deploys the artifacts with the properties of the last run.
+     *
+     * @param module              - The module ID
+     * @param deployableArtifacts - The artifacts to deploy
+     */
+    public synchronized void addArtifacts(String module, Collection<DeployDetails> deployableArtifacts) throws IOException {
+        for (DeployDetails details : deployableArtifacts) {
+            SpoolRecord record = SpoolRecord.artifact(module, details);
+            SpoolRecord planned = plannedArtifacts.get(record.getKey());
+            if (planned == null || !planned.equals(record)) {
+                append(record);
+            }
+        }
+    }
+
+    /**
+     * @return the planned artifacts which weren't deployed yet, by their module IDs
+     * @throws IOException if the file of an artifact which wasn't deployed yet no longer exists
+     */
+    public synchronized Map<String, Set<DeployDetails>> getPendingArtifactsByModule() throws IOException {
+        Map<String, Set<DeployDetails>> artifactsByModule = new LinkedHashMap<>();
+        for (Map.Entry<String, SpoolRecord> entry : plannedArtifacts.entrySet()) {
+            SpoolRecord record = entry.getValue();
+            if (isDeployed(entry.getKey(), record.getSha1(), getPropertiesSha1(record.getProperties()))) {
+                continue;
+            }
+            if (record.getFile() == null || !new File(record.getFile()).isFile()) {
+                throw new IOException(String.format("The file '%s' of the spooled artifact '%s' no longer exists", record.getFile(), entry.getKey()));
+            }
+            artifactsByModule.computeIfAbsent(StringUtils.defaultString(record.getModule()), module -> new LinkedHashSet<>())
+                    .add(record.toDeployDetails());
+        }
+        return artifactsByModule;
+    }
+
+    /**
+     * An artifact is deployed only if it was deployed with the same checksum and properties, other than the build
+     * timestamp. The properties contain the build name and number, so an artifact spooled by a different build is
+     * deployed again, while running the same build again skips the artifacts deployed by the failed run.
+     */
+    private boolean isDeployed(String key, String sha1, String propertiesSha1) {
+        SpoolRecord deployed = deployedArtifacts.get(key);
+        return deployed != null && StringUtils.isNotBlank(sha1) && sha1.equalsIgnoreCase(deployed.getSha1()) &&
+                propertiesSha1.equals(deployed.getPropertiesSha1());
+    }
+
+    /**
+     * If the artifact was already deployed with the same checksum and properties, update it with the results of the
+     * earlier deployment.
+     *
+     * @param details - The artifact to deploy
+     * @return true if the artifact was already deployed and shouldn't be deployed again
+     */
+    public synchronized boolean restoreDeployed(DeployDetails details) {
+        String key = getKey(details.getTargetRepository(), details.getArtifactPath());
+        if (!isDeployed(key, details.getSha1(), getPropertiesSha1(toSortedProperties(details)))) {
+            return false;
+        }
+        SpoolRecord deployed = deployedArtifacts.get(key);
+        details.setDeploySucceeded(true);
+        details.setSha256(deployed.getSha256());
+        if (StringUtils.isNotBlank(deployed.getDeployedPath())) {
+            details.setArtifactPath(deployed.getDeployedPath());
+        }
+        return true;
+    }
+
+    /**
+     * Record a successful deployment. Must be called before the artifact path is updated to the deployed path.
+     *
+     * @param details      - The deployed artifact
+     * @param deployedPath - The path returned by Artifactory, which differs from the artifact path for unique snapshots
+     * @param sha256       - The SHA-256 checksum returned by Artifactory
+     */
+    public synchronized void artifactDeployed(DeployDetails details, String deployedPath, String sha256) throws IOException {
+        SpoolRecord record = new SpoolRecord();
+        record.setType(DEPLOYED_RECORD);
+        record.setRepository(details.getTargetRepository());
+        record.setPath(details.getArtifactPath());
+        record.setSha1(details.getSha1());
+        record.setPropertiesSha1(getPropertiesSha1(toSortedProperties(details)));
+        record.setDeployedPath(deployedPath);
+        record.setSha256(sha256);
+        append(record);
+    }
+
+    /**
+     * Atomically write the build info to the spool. If the same build info was already published, it isn't published again.
+     *
+     * @param build - The build info to publish
+     */
+    public synchronized void setBuildInfo(Build build) throws IOException {
+        String json = BuildInfoExtractorUtils.buildInfoToJsonString(build);
+        String sha1 = DigestUtils.sha1Hex(json);
+        if (sha1.equals(buildInfoSha1) && getBuildInfoFile().isFile()) {
+            return;
+        }
+        File tempFile = new File(spoolDir, BUILD_INFO_FILE_NAME + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tempFile.toPath(), getBuildInfoFile().toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        SpoolRecord record = new SpoolRecord();
+        record.setType(BUILD_INFO_RECORD);
+        record.setSha1(sha1);
+        append(record);
+    }
+
+    /**
+     * @return the spooled build info, or null if the build info wasn't spooled
+     */
+    public synchronized Build getBuildInfo() throws IOException {
+        if (buildInfoSha1 == null || !getBuildInfoFile().isFile()) {
+            return null;
+        }
+        return BuildInfoExtractorUtils.jsonStringToBuildInfo(FileUtils.readFileToString(getBuildInfoFile(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return true if the spooled build info was already published
+     */
+    public synchronized boolean isBuildInfoPublished() {
+        return buildInfoSha1 != null && buildInfoSha1.equals(publishedBuildInfoSha1);
+    }
+
+    /**
+     * Record that the spooled build info was published.
+     */
+    public synchronized void buildInfoPublished() throws IOException {
+        if (buildInfoSha1 == null) {
+            return;
+        }
+        SpoolRecord record = new SpoolRecord();
+        record.setType(BUILD_INFO_PUBLISHED_RECORD);
+        record.setSha1(buildInfoSha1);
+        append(record);
+    }
+
+    /**
+     * @return the number of planned artifacts which were deployed
+     */
+    public synchronized int getDeployedCount() {
+        int deployedCount = 0;
+        for (Map.Entry<String, SpoolRecord> entry : plannedArtifacts.entrySet()) {
+            SpoolRecord record = entry.getValue();
+            if (isDeployed(entry.getKey(), record.getSha1(), getPropertiesSha1(record.getProperties()))) {
+                deployedCount++;
+            }
+        }
+        return deployedCount;
+    }
+
+    /**
+     * Resume the spooled publish. Deploy the artifacts which weren't deployed yet, publish the build info if it wasn't
+     * published yet and delete the spool. Build retention isn't part of the spool, so it isn't sent.
+     *
+     * @param artifactoryManager - The Artifactory manager
+     * @param publishForkCount   - The number of modules to deploy in parallel
+     */
+    public void replay(ArtifactoryManager artifactoryManager, int publishForkCount) throws IOException {
+        Map<String, Set<DeployDetails>> artifactsByModule = getPendingArtifactsByModule();
+        if (!artifactsByModule.isEmpty()) {
+            new ModuleParallelDeployHelper().deployArtifacts(artifactoryManager, artifactsByModule, publishForkCount, this);
+        }
+        Build build = getBuildInfo();
+        if (build != null && !isBuildInfoPublished()) {
+            artifactoryManager.publishBuildInfo(build, null);
+            buildInfoPublished();
+        }
+        delete();
+    }
+
+    /**
+     * Close and delete the spool, after the publish completed.
+     */
+    public void delete() throws IOException {
+        close();
+        FileUtils.deleteDirectory(spoolDir);
+    }
+
+    private File getBuildInfoFile() {
+        return new File(spoolDir, BUILD_INFO_FILE_NAME);
+    }
+
+    public File getSpoolDir() {
+        return spoolDir;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    private static String getKey(String repository, String path) {
+        return repository + "/" + path;
+    }
+
+    /**
+     * @return the properties of the artifact sorted by their keys, or null if the artifact has no properties
+     */
+    private static Map<String, List<String>> toSortedProperties(DeployDetails details) {
+        if (details.getProperties() == null || details.getProperties().isEmpty()) {
+            return null;
+        }
+        Map<String, List<String>> properties = new TreeMap<>();
+        details.getProperties().asMap().forEach((key, values) -> properties.put(key, new ArrayList<>(values)));
+        return properties;
+    }
+
+    /**
+     * @return the checksum of the properties, without the build timestamp which differs between runs of the same build
+     */
+    private static String getPropertiesSha1(Map<String, List<String>> properties) {
+        Map<String, List<String>> stableProperties = properties == null ? new TreeMap<>() : new TreeMap<>(properties);
+        stableProperties.remove(BuildInfoFields.BUILD_TIMESTAMP);
+        return DigestUtils.sha1Hex(stableProperties.toString());
+    }
+
+    /**
+     * A single line of the journal.
+     */
+    static class SpoolRecord {
+        private String type;
+        private String module;
+        private String file;
+        private String repository;
+        private String path;
+        private String deployedPath;
+        private String sha1;
+        private String propertiesSha1;
+        private String md5;
+        private String sha256;
+        private String packageType;
+        private boolean explode;
+        private Map<String, List<String>> properties;
+
+        static SpoolRecord artifact(String module, DeployDetails details) {
+            SpoolRecord record = new SpoolRecord();
+            record.setType(ARTIFACT_RECORD);
+            record.setModule(module);
+            record.setFile(details.getFile() == null ? null : details.getFile().getAbsolutePath());
+            record.setRepository(details.getTargetRepository());
+            record.setPath(details.getArtifactPath());
+            record.setSha1(details.getSha1());
+            record.setMd5(details.getMd5());
+            record.setPackageType(details.getPackageType() == null ? null : details.getPackageType().name());
+            record.setExplode(details.isExplode());
+            record.setProperties(toSortedProperties(details));
+            return record;
+        }
+
+        DeployDetails toDeployDetails() {
+            DeployDetails.Builder builder = new DeployDetails.Builder()
+                    .file(file == null ? null : new File(file))
+                    .targetRepository(repository)
+                    .artifactPath(path)
+                    .sha1(sha1)
+                    .md5(md5)
+                    .explode(explode);
+            if (packageType != null) {
+                builder.packageType(DeployDetails.PackageType.valueOf(packageType));
+            }
+            if (properties != null) {
+                properties.forEach((key, values) -> values.forEach(value -> builder.addProperty(key, value)));
+            }
+            return builder.build();
+        }
+
+        String getKey() {
+            return PublishSpool.getKey(repository, path);
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getModule() {
+            return module;
+        }
+
+        public void setModule(String module) {
+            this.module = module;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public String getRepository() {
+            return repository;
+        }
+
+        public void setRepository(String repository) {
+            this.repository = repository;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getDeployedPath() {
+            return deployedPath;
+        }
+
+        public void setDeployedPath(String deployedPath) {
+            this.deployedPath = deployedPath;
+        }
+
+        public String getSha1() {
+            return sha1;
+        }
+
+        public void setSha1(String sha1) {
+            this.sha1 = sha1;
+        }
+
+        public String getPropertiesSha1() {
+            return propertiesSha1;
+        }
+
+        public void setPropertiesSha1(String propertiesSha1) {
+            this.propertiesSha1 = propertiesSha1;
+        }
+
+        public String getMd5() {
+            return md5;
+        }
+
+        public void setMd5(String md5) {
+            this.md5 = md5;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public void setSha256(String sha256) {
+            this.sha256 = sha256;
+        }
+
+        public String getPackageType() {
+            return packageType;
+        }
+
+        public void setPackageType(String packageType) {
+            this.packageType = packageType;
+        }
+
+        public boolean isExplode() {
+            return explode;
+        }
+
+        public void setExplode(boolean explode) {
+            this.explode = explode;
+        }
+
+        public Map<String, List<String>> getProperties() {
+            return properties;
+        }
+
+        public void setProperties(Map<String, List<String>> properties) {
+            this.properties = properties;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SpoolRecord that = (SpoolRecord) o;
+            return explode == that.explode &&
+                    Objects.equals(type, that.type) &&
+                    Objects.equals(module, that.module) &&
+                    Objects.equals(file, that.file) &&
+                    Objects.equals(repository, that.repository) &&
+                    Objects.equals(path, that.path) &&
+                    Objects.equals(deployedPath, that.deployedPath) &&
+                    Objects.equals(sha1, that.sha1) &&
+                    Objects.equals(propertiesSha1, that.propertiesSha1) &&
+                    Objects.equals(md5, that.md5) &&
+                    Objects.equals(sha256, that.sha256) &&
+                    Objects.equals(packageType, that.packageType) &&
+                    Objects.equals(properties, that.properties);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, module, file, repository, path, sha1);
+        }
+    }
+}
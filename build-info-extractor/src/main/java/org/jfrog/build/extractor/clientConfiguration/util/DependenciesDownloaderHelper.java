@@ -1,18 +1,19 @@
 package org.jfrog.build.extractor.clientConfiguration.util;
 
-import com.google.common.io.Files;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.BooleanUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.math.NumberUtils;
-import org.apache.commons.lang.mutable.MutableBoolean;
 import org.apache.http.Header;
 import org.apache.http.HttpHeaders;
 import org.jfrog.build.api.Dependency;
 import org.jfrog.build.api.builder.DependencyBuilder;
 import org.jfrog.build.api.dependency.DownloadableArtifact;
 import org.jfrog.build.api.dependency.pattern.PatternType;
+import org.jfrog.build.api.metrics.BuildMetrics;
+import org.jfrog.build.api.metrics.Metrics;
+import org.jfrog.build.api.metrics.Timer;
 import org.jfrog.build.api.search.AqlSearchResult;
 import org.jfrog.build.api.util.FileChecksumCalculator;
 import org.jfrog.build.api.util.Log;
@@ -24,6 +25,12 @@ import org.jfrog.build.extractor.clientConfiguration.util.spec.Spec;
 import java.io.*;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import static org.jfrog.build.extractor.clientConfiguration.client.artifactory.services.Upload.MD5_HEADER_NAME;
@@ -41,6 +48,7 @@ public class DependenciesDownloaderHelper {
 
     private final DependenciesDownloader downloader;
     private final Log log;
+    private LocalArtifactStore localStore;
     /**
      * Number of threads to use when downloading an artifact concurrently
      */
@@ -49,6 +57,10 @@ public class DependenciesDownloaderHelper {
      * Minimum file size for concurrent download
      */
     public static final int MIN_SIZE_FOR_CONCURRENT_DOWNLOAD = 5120000;
+    private static final String DOWNLOAD_TIME_METRIC = "download.time";
+    private static final String DOWNLOAD_BYTES_METRIC = "download.bytes";
+    private static final String LOCAL_HITS_METRIC = "download.local";
+    private static final String RESUMED_BYTES_METRIC = "download.resumed.bytes";
 
     public DependenciesDownloaderHelper(DependenciesDownloader downloader, Log log) {
         this.downloader = downloader;
@@ -60,6 +72,15 @@ public class DependenciesDownloaderHelper {
         this.log = log;
     }
 
+    /**
+     * Set the local artifact store, which is consulted before downloading artifacts and receives the downloaded artifacts.
+     *
+     * @param localStore the local artifact store, or null to download without a store
+     */
+    public void setLocalStore(LocalArtifactStore localStore) {
+        this.localStore = localStore;
+    }
+
     /**
      * Download dependencies by the provided spec using the provided in the constructor client.
      * returns list of downloaded artifacts
@@ -73,16 +94,18 @@ public class DependenciesDownloaderHelper {
         Set<DownloadableArtifact> downloadableArtifacts;
         List<AqlSearchResult.SearchEntry> searchResults;
         List<Dependency> resolvedDependencies = new ArrayList<>();
+        Map<DownloadableArtifact, ArtifactMetaData> searchedMetaData = new HashMap<>();
 
         for (FileSpec file : downloadSpec.getFiles()) {
             log.debug("Downloading dependencies using spec: \n" + file.toString());
             this.downloader.setFlatDownload(BooleanUtils.toBoolean(file.getFlat()));
             searchResults = searcher.SearchByFileSpec(file);
-            downloadableArtifacts = fetchDownloadableArtifactsFromResult(searchResults, Boolean.valueOf(file.getExplode()), file.getTarget());
+            downloadableArtifacts = fetchDownloadableArtifactsFromResult(searchResults, Boolean.valueOf(file.getExplode()), file.getTarget(), searchedMetaData);
             if (file.getSpecType() == FileSpec.SpecType.PATTERN) {
                 replaceTargetPlaceholders(file.getPattern(), downloadableArtifacts, file.getTarget());
             }
-            resolvedDependencies.addAll(downloadDependencies(downloadableArtifacts));
+            resolvedDependencies.addAll(downloadDependencies(downloadableArtifacts, searchedMetaData));
+            searchedMetaData.clear();
         }
         return resolvedDependencies;
     }
@@ -105,24 +128,36 @@ public class DependenciesDownloaderHelper {
 
     /**
      * Converts the found results to DownloadableArtifact types before downloading.
+     * The checksums of the found results are added to the searched metadata, to find the artifacts in the local store.
      */
-    private Set<DownloadableArtifact> fetchDownloadableArtifactsFromResult(List<AqlSearchResult.SearchEntry> searchResults, boolean explode, String target) {
+    private Set<DownloadableArtifact> fetchDownloadableArtifactsFromResult(List<AqlSearchResult.SearchEntry> searchResults, boolean explode, String target,
+                                                                         Map<DownloadableArtifact, ArtifactMetaData> searchedMetaData) {
         Set<DownloadableArtifact> downloadableArtifacts = new HashSet<>();
         for (AqlSearchResult.SearchEntry searchEntry : searchResults) {
             String path = searchEntry.getPath().equals(".") ? "" : searchEntry.getPath() + "/";
             DownloadableArtifact downloadableArtifact = new DownloadableArtifact(searchEntry.getRepo(), target, path + searchEntry.getName(), "", "", PatternType.NORMAL);
             downloadableArtifact.setExplode(explode);
             downloadableArtifacts.add(downloadableArtifact);
+            if (StringUtils.isNotBlank(searchEntry.getActualSha1()) && StringUtils.isNotBlank(searchEntry.getActualMd5())) {
+                ArtifactMetaData artifactMetaData = new ArtifactMetaData();
+                artifactMetaData.setSha1(searchEntry.getActualSha1());
+                artifactMetaData.setMd5(searchEntry.getActualMd5());
+                searchedMetaData.put(downloadableArtifact, artifactMetaData);
+            }
         }
         return downloadableArtifacts;
     }
 
     public List<Dependency> downloadDependencies(Set<DownloadableArtifact> downloadableArtifacts) throws IOException {
+        return downloadDependencies(downloadableArtifacts, Collections.emptyMap());
+    }
+
+    private List<Dependency> downloadDependencies(Set<DownloadableArtifact> downloadableArtifacts, Map<DownloadableArtifact, ArtifactMetaData> searchedMetaData) throws IOException {
         log.info("Beginning to resolve Build Info published dependencies.");
         List<Dependency> dependencies = new ArrayList<>();
         Set<DownloadableArtifact> downloadedArtifacts = new HashSet<>();
         for (DownloadableArtifact downloadableArtifact : downloadableArtifacts) {
-            Dependency dependency = downloadArtifact(downloadableArtifact);
+            Dependency dependency = downloadArtifact(downloadableArtifact, searchedMetaData.get(downloadableArtifact));
             if (dependency != null) {
                 dependencies.add(dependency);
                 downloadedArtifacts.add(downloadableArtifact);
@@ -167,16 +202,34 @@ public class DependenciesDownloaderHelper {
 
     /**
      * Get artifact metadata and download the artifact if it's not a directory.
+     * If the checksums of the artifact are known from the search, the artifact is looked up in the workspace and the
+     * local store before requesting its metadata.
      *
      * @param downloadableArtifact download recipe
+     * @param searchedMetaData     the artifact metadata from the search, or null if unknown
      * @return artifact dependency
      */
-    private Dependency downloadArtifact(DownloadableArtifact downloadableArtifact) throws IOException {
+    private Dependency downloadArtifact(DownloadableArtifact downloadableArtifact, ArtifactMetaData searchedMetaData) throws IOException {
         String filePath = downloadableArtifact.getFilePath();
         String matrixParams = downloadableArtifact.getMatrixParameters();
         String uri = downloadableArtifact.getRepoUrl() + '/' + filePath;
         final String uriWithParams = (StringUtils.isBlank(matrixParams) ? uri : uri + ';' + matrixParams);
 
+        if (localStore != null && searchedMetaData != null) {
+            String fileDestination = downloader.getTargetDir(downloadableArtifact.getTargetDirPath(),
+                    downloadableArtifact.getRelativeDirPath());
+            String remotePath = downloadableArtifact.getRepoUrl() + "/" + filePath;
+            Dependency dependency = getDependencyLocally(searchedMetaData, fileDestination, remotePath);
+            if (dependency != null) {
+                BuildMetrics.get().counter(LOCAL_HITS_METRIC).increment();
+                return dependency;
+            }
+            dependency = getDependencyFromStore(searchedMetaData, fileDestination, remotePath);
+            if (dependency != null) {
+                return dependency;
+            }
+        }
+
         ArtifactMetaData artifactMetaData = downloadArtifactMetaData(uriWithParams);
         // If Artifactory returned no fileMetaData, this is probably because the URL points to a folder,
         // so there's no need to download it.
@@ -202,13 +255,33 @@ public class DependenciesDownloaderHelper {
         Dependency dependencyResult = getDependencyLocally(artifactMetaData, fileDestination, remotePath);
 
         if (dependencyResult != null) {
+            BuildMetrics.get().counter(LOCAL_HITS_METRIC).increment();
             return dependencyResult;
         }
 
-        try {
+        String sha1 = artifactMetaData.getSha1();
+        if (localStore == null || !LocalArtifactStore.isValidSha1(sha1)) {
+            return downloadArtifact(artifactMetaData, uriWithParams, filePath, fileDestination, remotePath);
+        }
+        // Concurrent builds which need the same artifact wait for a single download of it
+        try (Closeable ignored = localStore.lockEntry(sha1)) {
+            dependencyResult = getDependencyFromStore(artifactMetaData, fileDestination, remotePath);
+            if (dependencyResult != null) {
+                return dependencyResult;
+            }
+            dependencyResult = downloadArtifact(artifactMetaData, uriWithParams, filePath, fileDestination, remotePath);
+            localStore.add(new File(fileDestination), sha1);
+            return dependencyResult;
+        }
+    }
+
+    private Dependency downloadArtifact(ArtifactMetaData artifactMetaData, String uriWithParams, String filePath, String fileDestination, String remotePath)
+            throws IOException {
+        Metrics metrics = BuildMetrics.get();
+        try (Timer.Context ignored = metrics.timer(DOWNLOAD_TIME_METRIC).time()) {
             log.info(String.format("Downloading '%s'...", uriWithParams));
             Map<String, String> checksumsMap = artifactMetaData.getSize() >= MIN_SIZE_FOR_CONCURRENT_DOWNLOAD && artifactMetaData.isAcceptRange()
-                    ? downloadFileConcurrently(uriWithParams, artifactMetaData.getSize(), fileDestination, filePath)
+                    ? downloadFileConcurrently(uriWithParams, artifactMetaData, fileDestination)
                     : downloadFile(uriWithParams, fileDestination);
 
             // If the checksums map is null then something went wrong and we should fail the build
@@ -216,8 +289,11 @@ public class DependenciesDownloaderHelper {
                 throw new IOException("Received null checksums map for downloaded file.");
             }
 
-            dependencyResult = validateChecksumsAndBuildDependency(checksumsMap, artifactMetaData, filePath, fileDestination, remotePath);
+            Dependency dependencyResult = validateChecksumsAndBuildDependency(checksumsMap, artifactMetaData, filePath, fileDestination, remotePath);
             log.info(String.format("Successfully downloaded '%s' to '%s'", uriWithParams, fileDestination));
+            if (artifactMetaData.getSize() > 0) {
+                metrics.counter(DOWNLOAD_BYTES_METRIC).increment(artifactMetaData.getSize());
+            }
 
             return dependencyResult;
         } catch (Exception e) {
@@ -237,90 +313,110 @@ public class DependenciesDownloaderHelper {
     /**
      * Download an artifact using {@link #CONCURRENT_DOWNLOAD_THREADS} multiple threads.
      * This method will be used for artifacts of size larger than {@link #MIN_SIZE_FOR_CONCURRENT_DOWNLOAD}.
+     * The download is resumable - the downloaded ranges are recorded in a {@link DownloadJournal} next to the file
+     * destination, so that a download which was interrupted downloads only the missing ranges when it runs again.
      *
-     * @param uriWithParams   the request uri
-     * @param fileSize        in bytes, used for setting the download ranges
-     * @param fileDestination location of saving the downloaded file in the file system
-     * @param filePath        path of the downloaded file
+     * @param uriWithParams    the request uri
+     * @param artifactMetaData the artifact metadata, used for setting the download ranges and identifying the artifact
+     * @param fileDestination  location of saving the downloaded file in the file system
      * @return checksums map of the downloaded artifact
      */
-    protected Map<String, String> downloadFileConcurrently(final String uriWithParams, long fileSize, final String fileDestination, String filePath)
+    protected Map<String, String> downloadFileConcurrently(final String uriWithParams, ArtifactMetaData artifactMetaData, final String fileDestination)
             throws Exception {
-        String[] downloadedFilesPaths;
-        File tempDir = Files.createTempDir();
-        String tempPath = tempDir.getPath() + File.separatorChar + filePath;
-        try {
-            downloadedFilesPaths = doConcurrentDownload(fileSize, uriWithParams, tempPath);
-            try (InputStream inputStream = concatenateFilesToSingleStream(downloadedFilesPaths)) {
-                return downloader.saveDownloadedFile(inputStream, fileDestination);
+        long fileSize = artifactMetaData.getSize();
+        try (DownloadJournal journal = DownloadJournal.open(fileDestination, fileSize, artifactMetaData.getSha1(),
+                artifactMetaData.getMd5(), artifactMetaData.getEtag(), log)) {
+            if (journal.getResumedBytes() > 0) {
+                log.info(String.format("Resuming the download of '%s', %d of %d bytes were already downloaded.",
+                        uriWithParams, journal.getResumedBytes(), fileSize));
+                BuildMetrics.get().counter(RESUMED_BYTES_METRIC).increment(journal.getResumedBytes());
             }
-        } finally {
-            FileUtils.deleteDirectory(tempDir);
+            doConcurrentDownload(uriWithParams, artifactMetaData, journal);
+            if (!journal.isComplete()) {
+                throw new IOException(String.format("Downloaded %d of %d bytes of %s", journal.getCompletedBytes(), fileSize, uriWithParams));
+            }
+            Map<String, String> checksums;
+            try (InputStream inputStream = new FileInputStream(journal.getPartFile())) {
+                checksums = downloader.saveDownloadedFile(inputStream, fileDestination);
+            }
+            // The file is saved, so its partial file and journal are no longer needed
+            journal.delete();
+            return checksums;
         }
     }
 
-    private String[] doConcurrentDownload(long fileSize, final String downloadPath, String tempPath)
+    private void doConcurrentDownload(final String downloadPath, ArtifactMetaData artifactMetaData, final DownloadJournal journal)
             throws Exception {
-        final MutableBoolean errorOccurred = new MutableBoolean(false);
-        String[] downloadedFilesPaths = new String[CONCURRENT_DOWNLOAD_THREADS];
-        long chunkSize = fileSize / CONCURRENT_DOWNLOAD_THREADS;
-        Thread[] workers = new Thread[CONCURRENT_DOWNLOAD_THREADS];
-
-        long start = 0;
-        long end = chunkSize + fileSize % CONCURRENT_DOWNLOAD_THREADS - 1;
-        for (int i = 0; i < CONCURRENT_DOWNLOAD_THREADS; i++) {
-            final Map<String, String> headers = new HashMap<>();
-            headers.put(HttpHeaders.RANGE, "bytes=" + start + "-" + end);
-
-            final String fileDestination = tempPath + i;
-            downloadedFilesPaths[i] = fileDestination;
-            workers[i] = new Thread(() -> {
+        List<long[]> segments = splitToSegments(journal.getMissingRanges(), CONCURRENT_DOWNLOAD_THREADS);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_DOWNLOAD_THREADS,
+                runnable -> new Thread(runnable, "downloader_" + threadNumber.getAndIncrement()));
+        boolean errorOccurred = false;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long[] segment : segments) {
+                final Map<String, String> headers = new HashMap<>();
+                headers.put(HttpHeaders.RANGE, "bytes=" + segment[0] + "-" + segment[1]);
+                if (StringUtils.isNotBlank(artifactMetaData.getEtag())) {
+                    // Download the whole file if it changed, rather than mixing ranges of different files
+                    headers.put(HttpHeaders.IF_RANGE, artifactMetaData.getEtag());
+                }
+                futures.add(executor.submit(() -> {
+                    try {
+                        downloader.getArtifactoryManager().downloadRange(downloadPath, headers, segment[0], segment[1],
+                                journal.getSize(), journal.getChannel(), journal);
+                    } catch (Exception e) {
+                        printErrorToLog(e, "bytes " + segment[0] + "-" + segment[1], downloadPath);
+                        throw e;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
                 try {
-                    downloader.getArtifactoryManager().downloadToFile(downloadPath, fileDestination, headers);
-                } catch (Exception e) {
-                    errorOccurred.setValue(true);
-                    printErrorToLog(e, fileDestination, downloadPath);
+                    future.get();
+                } catch (ExecutionException e) {
+                    errorOccurred = true;
                 }
-            });
-            workers[i].setName("downloader_" + i);
-            workers[i].start();
-
-            start = end + 1;
-            end += chunkSize;
-        }
-
-        for (Thread worker : workers) {
-            worker.join();
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
         }
 
         // Check if error occurred while downloading
-        if (errorOccurred.booleanValue()) {
-            throw new Exception(String.format("Error occurred while downloading %s, please refer to logs for more information", downloadPath));
+        if (errorOccurred) {
+            throw new Exception(String.format("Error occurred while downloading %s, please refer to logs for more information. " +
+                    "The downloaded ranges are kept, and the download will resume from them when it runs again.", downloadPath));
         }
-
-        return downloadedFilesPaths;
     }
 
     /**
-     * Create a single InputStream.
-     * The stream is constructed from the multiple provided file paths.
+     * Split the ranges to download into segments of about the same size, so that each thread downloads a segment.
      *
-     * @param downloadedFilesPaths String array containing paths to the downloaded files
-     * @return single InputStream of the downloaded file
+     * @param ranges  the ranges to download, as pairs of their first and last (inclusive) bytes
+     * @param threads number of threads
+     * @return the segments to download
      */
-    private InputStream concatenateFilesToSingleStream(String[] downloadedFilesPaths) throws FileNotFoundException {
-        InputStream inputStream = new FileInputStream(downloadedFilesPaths[0]);
-        if (downloadedFilesPaths.length < 2) {
-            return inputStream;
+    static List<long[]> splitToSegments(List<long[]> ranges, int threads) {
+        long totalBytes = 0;
+        for (long[] range : ranges) {
+            totalBytes += range[1] - range[0] + 1;
         }
-
-        for (int i = 1; i < downloadedFilesPaths.length; i++) {
-            inputStream = new SequenceInputStream(
-                    inputStream,
-                    new FileInputStream(downloadedFilesPaths[i])
-            );
+        long segmentSize = Math.max((totalBytes + threads - 1) / threads, 1);
+        List<long[]> segments = new ArrayList<>();
+        for (long[] range : ranges) {
+            long rangeSize = range[1] - range[0] + 1;
+            long rangeSegments = (rangeSize + segmentSize - 1) / segmentSize;
+            long start = range[0];
+            for (long i = 0; i < rangeSegments; i++) {
+                // Spread the remainder over the first segments
+                long length = rangeSize / rangeSegments + (i < rangeSize % rangeSegments ? 1 : 0);
+                segments.add(new long[]{start, start + length - 1});
+                start += length;
+            }
         }
-        return inputStream;
+        return segments;
     }
 
     /**
@@ -334,17 +430,37 @@ public class DependenciesDownloaderHelper {
     private Dependency getDependencyLocally(ArtifactMetaData fileMetaData, String localPath, String remotePath) throws IOException {
         if (downloader.isFileExistsLocally(localPath, fileMetaData.getMd5(), fileMetaData.getSha1())) {
             log.info(String.format("The file '%s' exists locally.", localPath));
-            return new DependencyBuilder()
-                    .md5(fileMetaData.getMd5())
-                    .sha1(fileMetaData.getSha1())
-                    .id(localPath.substring(localPath.lastIndexOf(String.valueOf(IOUtils.DIR_SEPARATOR)) + 1))
-                    .localPath(localPath)
-                    .remotePath(remotePath)
-                    .build();
+            return buildLocalDependency(fileMetaData, localPath, remotePath);
         }
         return null;
     }
 
+    /**
+     * Returns the dependency if it exists in the local store, after materializing it to the local path.
+     * Otherwise return null.
+     *
+     * @param fileMetaData The artifact fileMetaData.
+     * @param localPath    The local file path
+     * @param remotePath   The remote file path
+     */
+    private Dependency getDependencyFromStore(ArtifactMetaData fileMetaData, String localPath, String remotePath) throws IOException {
+        if (!localStore.materialize(fileMetaData.getSha1(), new File(localPath))) {
+            return null;
+        }
+        log.info(String.format("The file '%s' was taken from the local artifact store.", localPath));
+        return buildLocalDependency(fileMetaData, localPath, remotePath);
+    }
+
+    private Dependency buildLocalDependency(ArtifactMetaData fileMetaData, String localPath, String remotePath) {
+        return new DependencyBuilder()
+                .md5(fileMetaData.getMd5())
+                .sha1(fileMetaData.getSha1())
+                .id(localPath.substring(localPath.lastIndexOf(String.valueOf(IOUtils.DIR_SEPARATOR)) + 1))
+                .localPath(localPath)
+                .remotePath(remotePath)
+                .build();
+    }
+
     protected ArtifactMetaData downloadArtifactMetaData(String url) throws IOException {
         try {
             ArtifactMetaData artifactMetaData = new ArtifactMetaData();
@@ -358,6 +474,8 @@ public class DependenciesDownloaderHelper {
                     artifactMetaData.setSize(NumberUtils.toLong(header.getValue()));
                 } else if (HttpHeaders.ACCEPT_RANGES.toUpperCase().equals(upperCaseHeader)) {
                     artifactMetaData.setAcceptRange("bytes".equalsIgnoreCase(header.getValue()));
+                } else if (HttpHeaders.ETAG.toUpperCase().equals(upperCaseHeader)) {
+                    artifactMetaData.setEtag(header.getValue());
                 }
             }
             return artifactMetaData;
@@ -435,6 +553,7 @@ public class DependenciesDownloaderHelper {
         private String md5;
         private long size;
         private boolean acceptRange;
+        private String etag;
 
         public long getSize() {
             return size;
@@ -467,5 +586,13 @@ public class DependenciesDownloaderHelper {
         public void setAcceptRange(boolean acceptRange) {
             this.acceptRange = acceptRange;
         }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public void setEtag(String etag) {
+            this.etag = etag;
+        }
     }
 }
@@ -7,6 +7,7 @@ import org.jfrog.build.api.dependency.DownloadableArtifact;
 import org.jfrog.build.api.util.CommonUtils;
 import org.jfrog.build.api.util.FileChecksumCalculator;
 import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.clientConfiguration.ArtifactoryClientConfiguration;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 
 import java.io.File;
@@ -26,15 +27,28 @@ import static org.jfrog.build.extractor.clientConfiguration.util.DependenciesDow
 public class DependenciesDownloaderImpl implements DependenciesDownloader {
 
     private final ArtifactoryManager artifactoryManager;
+    private final ArtifactoryClientConfiguration.ResolverHandler resolver;
     private File workingDirectory;
     private Log log;
     private boolean flatDownload = false;
 
     public DependenciesDownloaderImpl(ArtifactoryManager artifactoryManager, String workingDirectory, Log log) {
+        this(artifactoryManager, workingDirectory, null, log);
+    }
+
+    /**
+     * @param artifactoryManager - The manager to download the artifacts with
+     * @param workingDirectory   - The directory to download the artifacts to
+     * @param resolver           - The resolver configuration, which may configure a local artifact store, or null
+     * @param log                - The logger
+     */
+    public DependenciesDownloaderImpl(ArtifactoryManager artifactoryManager, String workingDirectory,
+                                      ArtifactoryClientConfiguration.ResolverHandler resolver, Log log) {
         this.workingDirectory = new File(workingDirectory);
         this.log = log;
         this.flatDownload = false;
         this.artifactoryManager = artifactoryManager;
+        this.resolver = resolver;
     }
 
     @Override
@@ -45,6 +59,7 @@ public class DependenciesDownloaderImpl implements DependenciesDownloader {
     @Override
     public List<Dependency> download(Set<DownloadableArtifact> downloadableArtifacts) throws IOException {
         DependenciesDownloaderHelper helper = new DependenciesDownloaderHelper(this, log);
+        helper.setLocalStore(LocalArtifactStore.create(resolver, log));
         return helper.downloadDependencies(downloadableArtifacts);
     }
 
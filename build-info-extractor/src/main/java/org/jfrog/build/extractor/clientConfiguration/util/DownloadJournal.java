@@ -0,0 +1,273 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.services.DownloadRange;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * The journal of a resumable download, stored next to the downloaded file.
+ * The file is downloaded into a partial file, and the journal records the identity of the downloaded file - its size,
+ * checksums and ETag - and the byte ranges which were written to the partial file. A download which was interrupted,
+ * for example by a dropped connection or a killed build agent, is resumed by downloading only the missing ranges,
+ * as long as the identity of the downloaded file didn't change.
+ * <p>
+ * A range is appended to the journal only after its bytes were forced to the partial file, so the journal never
+ * records bytes which weren't written. Lines which can't be parsed, such as a line torn by a killed process, are ignored.
+ */
+public class DownloadJournal implements DownloadRange.ProgressListener, Closeable {
+    public static final String PART_SUFFIX = ".part";
+    public static final String JOURNAL_SUFFIX = ".part.journal";
+    private static final String HEADER = "# Resumable download journal";
+    private static final String RANGE_KEY = "range";
+
+    private final File partFile;
+    private final File journalFile;
+    private final long size;
+    // Start to end (inclusive) of the written ranges. The ranges are merged, so they never overlap or touch.
+    private final TreeMap<Long, Long> ranges = new TreeMap<>();
+    private final long resumedBytes;
+    private FileChannel channel;
+    private Writer writer;
+    private boolean wholeFileAcquired;
+
+    private DownloadJournal(File partFile, File journalFile, long size, TreeMap<Long, Long> ranges) {
+        this.partFile = partFile;
+        this.journalFile = journalFile;
+        this.size = size;
+        this.ranges.putAll(ranges);
+        this.resumedBytes = getCompletedBytes();
+    }
+
+    /**
+     * Open the journal of a download, to resume it if possible. If the journal is missing, doesn't match the identity
+     * of the downloaded file or the partial file is missing, the download starts from the beginning.
+     * A file without checksums and ETag can't be identified, so its download always starts from the beginning.
+     *
+     * @param fileDestination - The destination of the downloaded file
+     * @param size            - The size of the downloaded file
+     * @param sha1            - The SHA-1 checksum of the downloaded file, or null if unknown
+     * @param md5             - The MD5 checksum of the downloaded file, or null if unknown
+     * @param etag            - The ETag of the downloaded file, or null if unknown
+     * @param log             - The logger
+     * @return the journal of the download
+     */
+    public static DownloadJournal open(String fileDestination, long size, String sha1, String md5, String etag, Log log) throws IOException {
+        File partFile = new File(fileDestination + PART_SUFFIX);
+        File journalFile = new File(fileDestination + JOURNAL_SUFFIX);
+        Map<String, String> identity = new LinkedHashMap<>();
+        identity.put("size", String.valueOf(size));
+        identity.put("sha1", StringUtils.defaultString(sha1));
+        identity.put("md5", StringUtils.defaultString(md5));
+        identity.put("etag", StringUtils.defaultString(etag));
+        boolean identifiable = StringUtils.isNotBlank(sha1) || StringUtils.isNotBlank(md5) || StringUtils.isNotBlank(etag);
+
+        if (identifiable && journalFile.isFile() && partFile.isFile() && partFile.length() == size) {
+            List<String> lines = FileUtils.readLines(journalFile, StandardCharsets.UTF_8);
+            TreeMap<Long, Long> ranges = new TreeMap<>();
+            if (parse(lines, identity, size, ranges)) {
+                DownloadJournal journal = new DownloadJournal(partFile, journalFile, size, ranges);
+                journal.openFiles(!FileUtils.readFileToString(journalFile, StandardCharsets.UTF_8).endsWith("\n"));
+                return journal;
+            }
+            log.debug(String.format("The download journal '%s' doesn't match the downloaded file, starting the download from the beginning.", journalFile));
+        }
+
+        FileUtils.deleteQuietly(partFile);
+        FileUtils.deleteQuietly(journalFile);
+        File parent = partFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Could not create the directory " + parent);
+        }
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(partFile, "rw")) {
+            randomAccessFile.setLength(size);
+        }
+        StringBuilder header = new StringBuilder(HEADER).append("\n");
+        if (identifiable) {
+            for (Map.Entry<String, String> entry : identity.entrySet()) {
+                header.append(entry.getKey()).append('=').append(entry.getValue()).append("\n");
+            }
+        }
+        FileUtils.writeStringToFile(journalFile, header.toString(), StandardCharsets.UTF_8);
+        DownloadJournal journal = new DownloadJournal(partFile, journalFile, size, new TreeMap<>());
+        journal.openFiles(false);
+        return journal;
+    }
+
+    /**
+     * Parse the lines of a journal.
+     *
+     * @return true if the identity in the journal matches the expected identity
+     */
+    private static boolean parse(List<String> lines, Map<String, String> expectedIdentity, long size, TreeMap<Long, Long> ranges) {
+        Map<String, String> identity = new LinkedHashMap<>();
+        List<String> rangeValues = new ArrayList<>();
+        for (String line : lines) {
+            int separator = line.indexOf('=');
+            if (line.startsWith("#") || separator < 0) {
+                continue;
+            }
+            String key = line.substring(0, separator);
+            String value = line.substring(separator + 1);
+            if (RANGE_KEY.equals(key)) {
+                rangeValues.add(value);
+            } else if (expectedIdentity.containsKey(key) && !identity.containsKey(key)) {
+                identity.put(key, value);
+            }
+        }
+        if (!identity.equals(expectedIdentity)) {
+            return false;
+        }
+        for (String value : rangeValues) {
+            String[] parts = value.split("-");
+            if (parts.length != 2 || !NumberUtils.isDigits(parts[0]) || !NumberUtils.isDigits(parts[1])) {
+                continue;
+            }
+            long start = NumberUtils.toLong(parts[0], -1);
+            long end = NumberUtils.toLong(parts[1], -1);
+            if (start >= 0 && start <= end && end < size) {
+                addRange(ranges, start, end);
+            }
+        }
+        return true;
+    }
+
+    private void openFiles(boolean appendNewLine) throws IOException {
+        channel = FileChannel.open(partFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalFile, true), StandardCharsets.UTF_8));
+        if (appendNewLine) {
+            writer.write("\n");
+            writer.flush();
+        }
+    }
+
+    /**
+     * @return the partial file channel, to write the downloaded ranges to
+     */
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * @return the size of the downloaded file
+     */
+    public long getSize() {
+        return size;
+    }
+
+    public File getPartFile() {
+        return partFile;
+    }
+
+    public File getJournalFile() {
+        return journalFile;
+    }
+
+    /**
+     * Record a range which was written to the partial file and forced to the storage device.
+     *
+     * @param start - The first written byte
+     * @param end   - The last written byte, inclusive
+     */
+    @Override
+    public synchronized void rangeCompleted(long start, long end) throws IOException {
+        if (start < 0 || end < start || end >= size) {
+            throw new IllegalArgumentException(String.format("Invalid range %d-%d of a file of %d bytes", start, end, size));
+        }
+        addRange(ranges, start, end);
+        writer.write(RANGE_KEY + "=" + start + "-" + end + "\n");
+        writer.flush();
+    }
+
+    /**
+     * Allow a single download to write the whole file, when the server ignores the range requests.
+     *
+     * @return true if the whole file wasn't acquired by another download
+     */
+    @Override
+    public synchronized boolean acquireWholeFile() {
+        if (wholeFileAcquired) {
+            return false;
+        }
+        wholeFileAcquired = true;
+        return true;
+    }
+
+    /**
+     * @return the ranges which weren't written yet, as pairs of their first and last (inclusive) bytes
+     */
+    public synchronized List<long[]> getMissingRanges() {
+        List<long[]> missingRanges = new ArrayList<>();
+        long position = 0;
+        for (Map.Entry<Long, Long> range : ranges.entrySet()) {
+            if (range.getKey() > position) {
+                missingRanges.add(new long[]{position, range.getKey() - 1});
+            }
+            position = range.getValue() + 1;
+        }
+        if (position < size) {
+            missingRanges.add(new long[]{position, size - 1});
+        }
+        return missingRanges;
+    }
+
+    public synchronized long getCompletedBytes() {
+        long completedBytes = 0;
+        for (Map.Entry<Long, Long> range : ranges.entrySet()) {
+            completedBytes += range.getValue() - range.getKey() + 1;
+        }
+        return completedBytes;
+    }
+
+    /**
+     * @return the number of bytes which were downloaded before the journal was opened
+     */
+    public long getResumedBytes() {
+        return resumedBytes;
+    }
+
+    public synchronized boolean isComplete() {
+        return getCompletedBytes() == size;
+    }
+
+    /**
+     * Close and delete the journal and the partial file.
+     */
+    public void delete() throws IOException {
+        close();
+        FileUtils.deleteQuietly(partFile);
+        FileUtils.deleteQuietly(journalFile);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try (Closeable ignoredChannel = channel; Closeable ignoredWriter = writer) {
+            channel = null;
+            writer = null;
+        }
+    }
+
+    /**
+     * Add a range to the ranges, merging it with the ranges it overlaps or touches.
+     */
+    private static void addRange(TreeMap<Long, Long> ranges, long start, long end) {
+        Map.Entry<Long, Long> before = ranges.floorEntry(start);
+        if (before != null && before.getValue() >= start - 1) {
+            start = before.getKey();
+            end = Math.max(end, before.getValue());
+        }
+        Map.Entry<Long, Long> after;
+        while ((after = ranges.ceilingEntry(start)) != null && after.getKey() <= end + 1) {
+            end = Math.max(end, after.getValue());
+            ranges.remove(after.getKey());
+        }
+        ranges.put(start, end);
+    }
+}
@@ -8,8 +8,14 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class GitUtils {
+    private static final int MAX_SYMBOLIC_REFS_DEPTH = 5;
+    private static final Map<String, PackedRefs> PACKED_REFS_CACHE = new ConcurrentHashMap<>();
 
     private static File getDotGit(File file) {
         if (file == null) {
@@ -42,7 +48,7 @@ public class GitUtils {
 
         Vcs vcs = new Vcs();
         vcs.setRevision(extractVcsRevision(dotGit, log));
-        vcs.setUrl(extractVcsUrl(dotGit, log));
+        vcs.setUrl(extractVcsUrl(getCommonDir(dotGit), log));
         return vcs;
     }
 
@@ -55,9 +61,11 @@ public class GitUtils {
      * @throws IOException If fails to find the submodule's .gir directory
      */
     private static File getSubmoduleDotGit(File dotGit) throws IOException {
-        String dotGitRelativePathString = extractSubmoduleDotGitPath(dotGit);
-        String dotGitAbsolutePathString = dotGit.getParent() + File.separator + dotGitRelativePathString;
-        File dotGitFile = new File(dotGitAbsolutePathString);
+        String dotGitPathString = extractSubmoduleDotGitPath(dotGit);
+        File dotGitFile = new File(dotGitPathString);
+        if (!dotGitFile.isAbsolute()) {
+            dotGitFile = new File(dotGit.getParent() + File.separator + dotGitPathString);
+        }
         if (!dotGitFile.exists()) {
             throw new IOException("Could not find the .git directory of a submodule.");
         }
@@ -119,30 +127,10 @@ public class GitUtils {
         }
 
         // Else, if found ref try getting revision using it
-        File pathToRef = new File(dotGit, revisionOrRef.ref);
-        if (pathToRef.exists()) {
-            // Read HEAD file for ref or revision
-            try (BufferedReader br = new BufferedReader(new FileReader(pathToRef))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    log.debug("Fetched revision from git config: " + line.trim());
-                    return line.trim();
-                }
-            }
-        } else {
-            // Try to find .git/packed-refs and look for the HEAD there
-            File pathToPackedRefs = new File(dotGit, "packed-refs");
-            if (pathToPackedRefs.exists()) {
-                try (BufferedReader br = new BufferedReader(new FileReader(pathToPackedRefs))) {
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        if (line.endsWith(revisionOrRef.ref)) {
-                            String[] split = line.split("\\s+");
-                            return split[0];
-                        }
-                    }
-                }
-            }
+        String revision = resolveRef(dotGit, revisionOrRef.ref);
+        if (StringUtils.isNotEmpty(revision)) {
+            log.debug("Fetched revision from git config: " + revision);
+            return revision;
         }
 
         // Could not find revision in ref
@@ -150,6 +138,102 @@ public class GitUtils {
         return "";
     }
 
+    /**
+     * Resolve a git ref, such as 'refs/heads/master', to its revision.
+     * Symbolic refs are followed. Loose refs are read from the git directory, or from the common git directory in case of a worktree.
+     * Packed refs are read from the 'packed-refs' file, which is parsed once and cached until it is modified.
+     *
+     * @param dotGit - The .git directory
+     * @param ref    - The ref to resolve
+     * @return the revision of the ref or null if the ref doesn't exist
+     * @throws IOException in case of an error reading the refs
+     */
+    public static String resolveRef(File dotGit, String ref) throws IOException {
+        File commonDir = getCommonDir(dotGit);
+        String currentRef = ref;
+        for (int depth = 0; depth < MAX_SYMBOLIC_REFS_DEPTH; depth++) {
+            String value = readLooseRef(dotGit, currentRef);
+            if (value == null && !commonDir.equals(dotGit)) {
+                value = readLooseRef(commonDir, currentRef);
+            }
+            if (value == null) {
+                return readPackedRefs(new File(commonDir, "packed-refs")).get(currentRef);
+            }
+            if (!value.startsWith("ref:")) {
+                return value;
+            }
+            currentRef = value.substring("ref:".length()).trim();
+        }
+        throw new IOException("Too many levels of symbolic refs while resolving " + ref);
+    }
+
+    /**
+     * A worktree's git directory contains a 'commondir' file, referencing the git directory with the shared refs.
+     */
+    private static File getCommonDir(File dotGit) throws IOException {
+        File commonDirFile = new File(dotGit, "commondir");
+        if (!commonDirFile.isFile()) {
+            return dotGit;
+        }
+        String commonDir = readFirstLine(commonDirFile);
+        if (StringUtils.isBlank(commonDir)) {
+            return dotGit;
+        }
+        File commonDirPath = new File(commonDir.trim());
+        return commonDirPath.isAbsolute() ? commonDirPath : new File(dotGit, commonDir.trim());
+    }
+
+    private static String readLooseRef(File gitDir, String ref) throws IOException {
+        File refFile = new File(gitDir, ref);
+        if (!refFile.isFile()) {
+            return null;
+        }
+        String line = readFirstLine(refFile);
+        return StringUtils.isBlank(line) ? null : line.trim();
+    }
+
+    private static String readFirstLine(File file) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            return br.readLine();
+        }
+    }
+
+    /**
+     * Read the packed refs file. The results are cached by the file path, size and last modified time.
+     *
+     * @param packedRefsFile - The packed-refs file
+     * @return map of ref to its revision
+     */
+    static Map<String, String> readPackedRefs(File packedRefsFile) throws IOException {
+        if (!packedRefsFile.isFile()) {
+            return Collections.emptyMap();
+        }
+        String path = packedRefsFile.getAbsolutePath();
+        long size = packedRefsFile.length();
+        long lastModified = packedRefsFile.lastModified();
+        PackedRefs packedRefs = PACKED_REFS_CACHE.get(path);
+        if (packedRefs != null && packedRefs.size == size && packedRefs.lastModified == lastModified) {
+            return packedRefs.refs;
+        }
+        Map<String, String> refs = new HashMap<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(packedRefsFile))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                // Skip the header and the peeled revisions of annotated tags
+                if (line.isEmpty() || line.charAt(0) == '#' || line.charAt(0) == '^') {
+                    continue;
+                }
+                int separator = line.indexOf(' ');
+                if (separator > 0) {
+                    refs.put(line.substring(separator + 1).trim(), line.substring(0, separator));
+                }
+            }
+        }
+        packedRefs = new PackedRefs(size, lastModified, refs);
+        PACKED_REFS_CACHE.put(path, packedRefs);
+        return packedRefs.refs;
+    }
+
     private static RevisionOrRef getRevisionOrBranchPath(File dotGit) throws IOException {
         File pathToHead = new File(dotGit, "HEAD");
         RevisionOrRef result = new RevisionOrRef();
@@ -180,4 +264,16 @@ public class GitUtils {
         private String revision;
         private String ref;
     }
+
+    private static class PackedRefs {
+        private final long size;
+        private final long lastModified;
+        private final Map<String, String> refs;
+
+        private PackedRefs(long size, long lastModified, Map<String, String> refs) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.refs = Collections.unmodifiableMap(refs);
+        }
+    }
 }
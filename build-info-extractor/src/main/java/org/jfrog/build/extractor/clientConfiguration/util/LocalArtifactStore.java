@@ -0,0 +1,492 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.jfrog.build.api.metrics.BuildMetrics;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.clientConfiguration.ArtifactoryClientConfiguration;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * A local content-addressable store of downloaded artifacts, shared by the builds and workspaces of a build agent.
+ * The artifacts are stored by their SHA-1 checksum, so that an artifact which was downloaded by one build is
+ * materialized into the workspaces of other builds by copying or hard linking it, rather than downloading it again.
+ * <p>
+ * The store may be used by multiple processes concurrently. Artifacts are added by an atomic move, and are read under
+ * a shared lock of the store and added or evicted under an exclusive lock of the store. When the store exceeds its
+ * maximum size, the least recently used artifacts are evicted.
+ * <p>
+ * The store is used only by downloads made through {@link DependenciesDownloaderImpl} or
+ * {@link org.jfrog.build.extractor.clientConfiguration.util.spec.SpecsHelper#downloadArtifactsBySpec}, by the callers
+ * which pass it the resolver configuration or the store. The build tool extractors resolve their dependencies with the
+ * build tool itself, so they don't use it.
+ */
+public class LocalArtifactStore {
+    public static final int DEFAULT_MAX_SIZE_MB = 10 * 1024;
+    private static final String LOCK_FILE = "store.lock";
+    private static final String TEMP_DIR = "tmp";
+    private static final String LOCKS_DIR = "locks";
+    private static final int ENTRY_LOCK_STRIPES = 256;
+    // Evict down to this fraction of the maximum size, so that the store isn't scanned on every addition
+    private static final double EVICTION_LOW_WATERMARK = 0.9;
+    private static final long STALE_TEMP_FILE_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final String HITS_METRIC = "download.store.hits";
+    private static final String MISSES_METRIC = "download.store.misses";
+    private static final String SAVED_BYTES_METRIC = "download.store.bytes.saved";
+    private static final String EVICTIONS_METRIC = "download.store.evictions";
+    private static final Pattern SHA1_PATTERN = Pattern.compile("[0-9a-f]{40}");
+    // File locks are held by the whole JVM, so the stores of the same directory share their locks
+    private static final Map<Path, StoreLock> STORE_LOCKS = new ConcurrentHashMap<>();
+    // The stores created from resolver configurations, by their configuration
+    private static final Map<String, LocalArtifactStore> CONFIGURED_STORES = new ConcurrentHashMap<>();
+
+    private final Path root;
+    private final Path tempDir;
+    private final long maxSizeBytes;
+    private final boolean hardLinks;
+    private final Log log;
+    private final StoreLock storeLock;
+    private final AtomicLong estimatedSize;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger evictions = new AtomicInteger();
+
+    /**
+     * @param root         - The store directory
+     * @param maxSizeBytes - The maximum size of the stored artifacts
+     * @param hardLinks    - True to materialize the artifacts by hard links, falling back to copies if linking fails.
+     *                     The stored artifacts are read-only, so hard linked workspace files are read-only too.
+     * @param log          - The logger
+     */
+    public LocalArtifactStore(File root, long maxSizeBytes, boolean hardLinks, Log log) throws IOException {
+        Files.createDirectories(root.toPath());
+        this.root = root.toPath().toRealPath();
+        this.tempDir = Files.createDirectories(this.root.resolve(TEMP_DIR));
+        Files.createDirectories(this.root.resolve(LOCKS_DIR));
+        this.maxSizeBytes = maxSizeBytes;
+        this.hardLinks = hardLinks;
+        this.log = log;
+        this.storeLock = STORE_LOCKS.computeIfAbsent(this.root, StoreLock::new);
+        this.estimatedSize = new AtomicLong(getSize());
+        deleteStaleTempFiles();
+    }
+
+    /**
+     * Get the local artifact store configured in the resolver configuration. The store is created once for each
+     * configuration in the JVM, so that its size isn't calculated again by each download.
+     *
+     * @param resolver - The resolver configuration, or null
+     * @param log      - The logger
+     * @return the local artifact store, or null if it isn't configured
+     */
+    public static LocalArtifactStore create(ArtifactoryClientConfiguration.ResolverHandler resolver, Log log) throws IOException {
+        String path = resolver == null ? null : resolver.getLocalStorePath();
+        if (StringUtils.isBlank(path)) {
+            return null;
+        }
+        Integer maxSizeMb = resolver.getLocalStoreMaxSizeMb();
+        long maxSizeBytes = (maxSizeMb == null ? DEFAULT_MAX_SIZE_MB : maxSizeMb) * 1024L * 1024L;
+        boolean hardLinks = resolver.isLocalStoreHardLinks();
+        String key = new File(path).getAbsolutePath() + File.pathSeparator + maxSizeBytes + File.pathSeparator + hardLinks;
+        synchronized (CONFIGURED_STORES) {
+            LocalArtifactStore store = CONFIGURED_STORES.get(key);
+            if (store == null) {
+                store = new LocalArtifactStore(new File(path), maxSizeBytes, hardLinks, log);
+                CONFIGURED_STORES.put(key, store);
+            }
+            return store;
+        }
+    }
+
+    /**
+     * @param sha1 - The SHA-1 checksum
+     * @return true if the store contains the artifact
+     */
+    public boolean contains(String sha1) {
+        Path entry = getEntry(sha1);
+        return entry != null && Files.isRegularFile(entry);
+    }
+
+    /**
+     * Materialize a stored artifact to the target file, replacing the target file if it exists.
+     * The artifact is marked as recently used.
+     *
+     * @param sha1   - The SHA-1 checksum of the artifact
+     * @param target - The target file
+     * @return true if the artifact was materialized, or false if the store doesn't contain it
+     */
+    public boolean materialize(String sha1, File target) throws IOException {
+        Path entry = getEntry(sha1);
+        if (entry == null) {
+            return false;
+        }
+        storeLock.lockShared();
+        try {
+            if (!Files.isRegularFile(entry)) {
+                misses.incrementAndGet();
+                BuildMetrics.get().counter(MISSES_METRIC).increment();
+                return false;
+            }
+            Path targetPath = target.toPath();
+            Files.createDirectories(targetPath.toAbsolutePath().getParent());
+            Files.deleteIfExists(targetPath);
+            if (!hardLinks || !createLink(targetPath, entry)) {
+                Files.copy(entry, targetPath, StandardCopyOption.REPLACE_EXISTING);
+                // The copy is owned by the workspace, unlike the read-only stored artifact
+                if (!target.setWritable(true)) {
+                    log.debug("Could not make " + target + " writable");
+                }
+            }
+            touch(entry);
+            hits.incrementAndGet();
+            BuildMetrics.get().counter(HITS_METRIC).increment();
+            BuildMetrics.get().counter(SAVED_BYTES_METRIC).increment(Files.size(entry));
+            return true;
+        } finally {
+            storeLock.unlockShared();
+        }
+    }
+
+    /**
+     * Add a downloaded artifact to the store, if the store doesn't contain it yet.
+     * The artifact is copied to the store, and is added only if its checksum matches the expected checksum.
+     *
+     * @param file - The downloaded artifact
+     * @param sha1 - The SHA-1 checksum of the artifact
+     */
+    public void add(File file, String sha1) throws IOException {
+        Path entry = getEntry(sha1);
+        if (entry == null || Files.isRegularFile(entry)) {
+            return;
+        }
+        Path temp = Files.createTempFile(tempDir, StringUtils.lowerCase(sha1), ".tmp");
+        try {
+            String actualSha1 = copyAndHash(file.toPath(), temp);
+            if (!actualSha1.equals(entry.getFileName().toString())) {
+                log.warn(String.format("Not adding '%s' to the local artifact store, its SHA-1 checksum is %s rather than %s.", file, actualSha1, sha1));
+                return;
+            }
+            if (!temp.toFile().setWritable(false, false)) {
+                log.debug("Could not make " + temp + " read-only");
+            }
+            storeLock.lockExclusive();
+            try {
+                if (!Files.isRegularFile(entry)) {
+                    Files.createDirectories(entry.getParent());
+                    Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+                    if (estimatedSize.addAndGet(Files.size(entry)) > maxSizeBytes) {
+                        evict();
+                    }
+                }
+            } finally {
+                storeLock.unlockExclusive();
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Lock an artifact across threads and processes, so that an artifact missing from the store is downloaded once
+     * and added to the store, while other builds wait for it.
+     *
+     * @param sha1 - The SHA-1 checksum of the artifact
+     * @return the lock, released when closed
+     */
+    public Closeable lockEntry(String sha1) throws IOException {
+        if (!isValidSha1(sha1)) {
+            throw new IllegalArgumentException("Invalid SHA-1 checksum: " + sha1);
+        }
+        String stripe = StringUtils.lowerCase(sha1).substring(0, 2);
+        ReentrantLock jvmLock = storeLock.entryLocks[Integer.parseInt(stripe, 16) % ENTRY_LOCK_STRIPES];
+        jvmLock.lock();
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(root.resolve(LOCKS_DIR).resolve(stripe + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileChannel lockedChannel = channel;
+            FileLock fileLock = lockedChannel.lock();
+            return () -> {
+                try (Closeable ignored = lockedChannel) {
+                    fileLock.release();
+                } finally {
+                    jvmLock.unlock();
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            jvmLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * @return true if the checksum can be used to access the store
+     */
+    public static boolean isValidSha1(String sha1) {
+        return StringUtils.isNotBlank(sha1) && SHA1_PATTERN.matcher(sha1.toLowerCase(Locale.ROOT)).matches();
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public int getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return the size of the stored artifacts
+     */
+    public long getSize() throws IOException {
+        long size = 0;
+        for (StoredArtifact artifact : listArtifacts()) {
+            size += artifact.size;
+        }
+        return size;
+    }
+
+    /**
+     * Evict the least recently used artifacts until the store is below its low watermark. Called under the exclusive lock.
+     */
+    private void evict() throws IOException {
+        List<StoredArtifact> artifacts = listArtifacts();
+        long size = 0;
+        for (StoredArtifact artifact : artifacts) {
+            size += artifact.size;
+        }
+        if (size > maxSizeBytes) {
+            artifacts.sort(Comparator.comparingLong(artifact -> artifact.lastUsed));
+            long lowWatermark = (long) (maxSizeBytes * EVICTION_LOW_WATERMARK);
+            for (StoredArtifact artifact : artifacts) {
+                if (size <= lowWatermark) {
+                    break;
+                }
+                if (Files.deleteIfExists(artifact.path)) {
+                    log.debug("Evicted " + artifact.path + " from the local artifact store");
+                    evictions.incrementAndGet();
+                    BuildMetrics.get().counter(EVICTIONS_METRIC).increment();
+                }
+                size -= artifact.size;
+            }
+        }
+        estimatedSize.set(size);
+    }
+
+    private List<StoredArtifact> listArtifacts() throws IOException {
+        List<StoredArtifact> artifacts = new ArrayList<>();
+        try (DirectoryStream<Path> prefixDirs = Files.newDirectoryStream(root, path -> path.getFileName().toString().length() == 2)) {
+            for (Path prefixDir : prefixDirs) {
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(prefixDir)) {
+                    for (Path entry : entries) {
+                        try {
+                            artifacts.add(new StoredArtifact(entry, Files.size(entry), Files.getLastModifiedTime(entry).toMillis()));
+                        } catch (NoSuchFileException e) {
+                            // Evicted by another process
+                        }
+                    }
+                }
+            }
+        }
+        return artifacts;
+    }
+
+    /**
+     * @return the path of the artifact in the store, or null if the checksum isn't valid
+     */
+    private Path getEntry(String sha1) {
+        if (!isValidSha1(sha1)) {
+            return null;
+        }
+        sha1 = sha1.toLowerCase(Locale.ROOT);
+        return root.resolve(sha1.substring(0, 2)).resolve(sha1);
+    }
+
+    private boolean createLink(Path link, Path entry) {
+        try {
+            Files.createLink(link, entry);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.debug(String.format("Could not hard link %s to %s, copying it instead: %s", entry, link, e.getMessage()));
+            return false;
+        }
+    }
+
+    private void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("Could not mark " + entry + " as recently used: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Copy a file and calculate its SHA-1 checksum while copying it.
+     *
+     * @return the SHA-1 checksum of the copied content
+     */
+    private static String copyAndHash(Path source, Path target) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(String.format("Could not find checksum algorithm: %s", e.getLocalizedMessage()), e);
+        }
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(source), digest);
+             OutputStream outputStream = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+        }
+        StringBuilder sha1 = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sha1.append(String.format("%02x", b));
+        }
+        return sha1.toString();
+    }
+
+    /**
+     * Delete temporary files left by processes which were killed while adding artifacts.
+     */
+    private void deleteStaleTempFiles() {
+        long staleBefore = System.currentTimeMillis() - STALE_TEMP_FILE_MILLIS;
+        try (Stream<Path> tempFiles = Files.list(tempDir)) {
+            tempFiles.forEach(tempFile -> {
+                try {
+                    if (Files.getLastModifiedTime(tempFile).toMillis() < staleBefore) {
+                        Files.deleteIfExists(tempFile);
+                    }
+                } catch (IOException e) {
+                    log.debug("Could not delete " + tempFile + ": " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.debug("Could not list " + tempDir + ": " + e.getMessage());
+        }
+    }
+
+    private static class StoredArtifact {
+        private final Path path;
+        private final long size;
+        private final long lastUsed;
+
+        private StoredArtifact(Path path, long size, long lastUsed) {
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    /**
+     * The lock of a store directory, shared by the threads of the JVM and locked across processes using a file lock.
+     * A file lock is held by the whole JVM, so the threads which hold the shared lock share a single file lock.
+     */
+    private static class StoreLock {
+        private final Path lockFile;
+        private final ReentrantReadWriteLock jvmLock = new ReentrantReadWriteLock();
+        private final ReentrantLock[] entryLocks = new ReentrantLock[ENTRY_LOCK_STRIPES];
+        private FileChannel channel;
+        private FileLock fileLock;
+        private int sharedHolders;
+
+        private StoreLock(Path root) {
+            this.lockFile = root.resolve(LOCK_FILE);
+            for (int i = 0; i < entryLocks.length; i++) {
+                entryLocks[i] = new ReentrantLock();
+            }
+        }
+
+        private void lockShared() throws IOException {
+            jvmLock.readLock().lock();
+            try {
+                synchronized (this) {
+                    if (sharedHolders == 0) {
+                        fileLock = getChannel().lock(0, Long.MAX_VALUE, true);
+                    }
+                    sharedHolders++;
+                }
+            } catch (IOException | RuntimeException e) {
+                jvmLock.readLock().unlock();
+                throw e;
+            }
+        }
+
+        private void unlockShared() throws IOException {
+            try {
+                synchronized (this) {
+                    if (--sharedHolders == 0) {
+                        fileLock.release();
+                        fileLock = null;
+                    }
+                }
+            } finally {
+                jvmLock.readLock().unlock();
+            }
+        }
+
+        private void lockExclusive() throws IOException {
+            jvmLock.writeLock().lock();
+            try {
+                synchronized (this) {
+                    fileLock = getChannel().lock();
+                }
+            } catch (IOException | RuntimeException e) {
+                jvmLock.writeLock().unlock();
+                throw e;
+            }
+        }
+
+        private void unlockExclusive() throws IOException {
+            try {
+                synchronized (this) {
+                    fileLock.release();
+                    fileLock = null;
+                }
+            } finally {
+                jvmLock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * The channel remains open while the JVM runs, since closing it releases the file locks of all threads.
+         */
+        private FileChannel getChannel() throws IOException {
+            if (channel == null || !channel.isOpen()) {
+                channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            return channel;
+        }
+    }
+}
@@ -48,10 +48,21 @@ public class SingleSpecDeploymentProducer {
         this.buildProperties = buildProperties;
     }
 
+    /**
+     * Executes a single FileSpec.
+     * Find all files matching the spec and create its DeployDetails, without publishing them.
+     * @param deploymentSet Set containing the DeployDetails to deploy
+     */
+    public void executeSpec(Set<DeployDetails> deploymentSet)
+            throws IOException, NoSuchAlgorithmException, InterruptedException {
+        executeSpec(deploymentSet, null);
+    }
+
     /**
      * Executes a single FileSpec.
      * Find all files matching the spec, create and publish its DeployDetails.
      * @param deploymentSet Set containing the DeployDetails to deploy
+     * @param executor executor to publish the DeployDetails to, or null to only add them to the deploymentSet
      */
     public void executeSpec(Set<DeployDetails> deploymentSet, ProducerConsumerExecutor executor)
             throws IOException, NoSuchAlgorithmException, InterruptedException {
@@ -193,7 +204,7 @@ public class SingleSpecDeploymentProducer {
 
     /**
      * Receives a candidate file to upload, creates DeployDetails for the file in case should upload it.
-     * Adds the DeployDetails to the BlockingQueue.
+     * Adds the DeployDetails to the BlockingQueue, if provided.
      * @param file upload candidate
      * @param deploymentSet Set containing the DeployDetails to deploy
      */
@@ -216,7 +227,9 @@ public class SingleSpecDeploymentProducer {
         // Add the created DeploymentDetails if artifact hasn't been added for deployment yet
         if (deploymentSet.add(deployDetails)) {
             validateUploadLimit(deploymentSet.size());
-            executor.put(deployDetails);
+            if (executor != null) {
+                executor.put(deployDetails);
+            }
         }
     }
 
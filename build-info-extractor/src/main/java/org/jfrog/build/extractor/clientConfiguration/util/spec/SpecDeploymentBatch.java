@@ -0,0 +1,21 @@
+package org.jfrog.build.extractor.clientConfiguration.util.spec;
+
+import org.jfrog.build.api.producerConsumer.ProducerConsumerItem;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+
+import java.util.List;
+
+/**
+ * A batch of small files, deployed serially by a single SpecDeploymentConsumer.
+ */
+public class SpecDeploymentBatch implements ProducerConsumerItem {
+    private final List<DeployDetails> deployDetails;
+
+    SpecDeploymentBatch(List<DeployDetails> deployDetails) {
+        this.deployDetails = deployDetails;
+    }
+
+    public List<DeployDetails> getDeployDetails() {
+        return deployDetails;
+    }
+}
@@ -36,7 +36,14 @@ public class SpecDeploymentConsumer extends ConsumerRunnableBase {
                     break;
                 }
                 // Perform artifact deploy
-                ArtifactoryManager.upload((DeployDetails) item, "[" + Thread.currentThread().getName() + "]");
+                String logPrefix = "[" + Thread.currentThread().getName() + "]";
+                if (item instanceof SpecDeploymentBatch) {
+                    for (DeployDetails details : ((SpecDeploymentBatch) item).getDeployDetails()) {
+                        ArtifactoryManager.upload(details, logPrefix);
+                    }
+                } else {
+                    ArtifactoryManager.upload((DeployDetails) item, logPrefix);
+                }
             } catch (InterruptedException e) {
                 return;
             } catch (IOException e) {
@@ -1,15 +1,20 @@
 package org.jfrog.build.extractor.clientConfiguration.util.spec;
 
 import com.google.common.collect.Multimap;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeploymentScheduler;
 import org.jfrog.build.extractor.producerConsumer.ProducerRunnableBase;
 
 import java.io.File;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
  * Producer object to use with the ProducerConsumerExecutor during artifact deployment by filespec operation.
+ * All the files of the spec are collected before they are produced, so that they can be produced largest first using
+ * the {@link DeploymentScheduler}, with small files coalesced into {@link SpecDeploymentBatch} items.
  *
  * Created by Bar Belity on 27/03/2018.
  */
@@ -18,16 +23,25 @@ public class SpecDeploymentProducer extends ProducerRunnableBase {
     /**
      * Set containing all created DeployDetails, used to later create deployed Artifact objects
      */
-    private Set<DeployDetails> deployDetailsSet = new HashSet<>();
+    private Set<DeployDetails> deployDetailsSet = new LinkedHashSet<>();
 
     private Spec spec;
     private File workspace;
     private Multimap<String, String> buildProperties;
+    private ArtifactoryManager artifactoryManager;
 
     SpecDeploymentProducer(Spec spec, File workspace, Multimap<String, String> buildProperties) {
+        this(spec, workspace, buildProperties, null);
+    }
+
+    /**
+     * @param artifactoryManager if not null, used to search the checksums of the collected files before they are produced
+     */
+    SpecDeploymentProducer(Spec spec, File workspace, Multimap<String, String> buildProperties, ArtifactoryManager artifactoryManager) {
         this.spec = spec;
         this.workspace = workspace;
         this.buildProperties = buildProperties;
+        this.artifactoryManager = artifactoryManager;
     }
 
     @Override
@@ -44,7 +58,17 @@ public class SpecDeploymentProducer extends ProducerRunnableBase {
 
                 // Execute FileSpec
                 SingleSpecDeploymentProducer fileSpecProducer = new SingleSpecDeploymentProducer(uploadFile, workspace, buildProperties);
-                fileSpecProducer.executeSpec(deployDetailsSet, executor);
+                fileSpecProducer.executeSpec(deployDetailsSet);
+            }
+            if (artifactoryManager != null) {
+                artifactoryManager.preflightChecksums(deployDetailsSet);
+            }
+            // Produce the largest files first
+            for (List<DeployDetails> task : new DeploymentScheduler().scheduleArtifacts(deployDetailsSet)) {
+                if (Thread.interrupted()) {
+                    break;
+                }
+                executor.put(task.size() == 1 ? task.get(0) : new SpecDeploymentBatch(task));
             }
         } catch (InterruptedException e) {
             throw e;
@@ -11,11 +11,13 @@ import org.jfrog.build.api.Artifact;
 import org.jfrog.build.api.Dependency;
 import org.jfrog.build.api.builder.ArtifactBuilder;
 import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.clientConfiguration.ArtifactoryClientConfiguration;
 import org.jfrog.build.extractor.clientConfiguration.ArtifactoryManagerBuilder;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
 import org.jfrog.build.extractor.clientConfiguration.util.DependenciesDownloaderHelper;
 import org.jfrog.build.extractor.clientConfiguration.util.EditPropertiesHelper;
+import org.jfrog.build.extractor.clientConfiguration.util.LocalArtifactStore;
 import org.jfrog.build.extractor.clientConfiguration.util.spec.validator.SearchBasedSpecValidator;
 import org.jfrog.build.extractor.clientConfiguration.util.spec.validator.SpecsValidator;
 import org.jfrog.build.extractor.clientConfiguration.util.spec.validator.UploadSpecValidator;
@@ -98,7 +100,7 @@ public class SpecsHelper {
 
         try (ArtifactoryManager artifactoryManager = artifactoryManagerBuilder.build()) {
             // Create producer Runnable
-            ProducerRunnableBase[] producerRunnable = new ProducerRunnableBase[]{new SpecDeploymentProducer(spec, workspace, buildProperties)};
+            ProducerRunnableBase[] producerRunnable = new ProducerRunnableBase[]{new SpecDeploymentProducer(spec, workspace, buildProperties, artifactoryManager)};
             // Create consumer Runnables
             ConsumerRunnableBase[] consumerRunnables = new ConsumerRunnableBase[numberOfThreads];
             for (int i = 0; i < numberOfThreads; i++) {
@@ -133,9 +135,44 @@ public class SpecsHelper {
      * @throws IOException in case of IOException
      */
     public List<Dependency> downloadArtifactsBySpec(String spec, ArtifactoryManager client, String targetDirectory) throws IOException {
+        return downloadArtifactsBySpec(spec, client, targetDirectory, (LocalArtifactStore) null);
+    }
+
+    /**
+     * Downloads Artifacts by spec and returns a list of the downloaded dependencies, using the local artifact store
+     * configured in the resolver configuration, if any.
+     * In case of relative path the artifacts will be downloaded to the targetDirectory.
+     *
+     * @param spec            the spec to use for download.
+     * @param client          the client to use for download.
+     * @param targetDirectory the target directory in case of relative path in the spec
+     * @param resolver        the resolver configuration
+     * @return A list of the downloaded dependencies.
+     * @throws IOException in case of IOException
+     */
+    public List<Dependency> downloadArtifactsBySpec(String spec, ArtifactoryManager client, String targetDirectory,
+                                                    ArtifactoryClientConfiguration.ResolverHandler resolver) throws IOException {
+        return downloadArtifactsBySpec(spec, client, targetDirectory, LocalArtifactStore.create(resolver, log));
+    }
+
+    /**
+     * Downloads Artifacts by spec and returns a list of the downloaded dependencies.
+     * The artifacts will be taken from the local artifact store if it contains them, or downloaded using the provided
+     * client and added to the local artifact store.
+     * In case of relative path the artifacts will be downloaded to the targetDirectory.
+     *
+     * @param spec            the spec to use for download.
+     * @param client          the client to use for download.
+     * @param targetDirectory the target directory in case of relative path in the spec
+     * @param localStore      the local artifact store shared by the builds of the agent, or null to download without a store
+     * @return A list of the downloaded dependencies.
+     * @throws IOException in case of IOException
+     */
+    public List<Dependency> downloadArtifactsBySpec(String spec, ArtifactoryManager client, String targetDirectory, LocalArtifactStore localStore) throws IOException {
         // During download, temp directories are created. This will make sure 'java.io.tmpdir' property is defined in Unix.
         handleJavaTmpdirProperty();
         DependenciesDownloaderHelper helper = new DependenciesDownloaderHelper(client, targetDirectory, log);
+        helper.setLocalStore(localStore);
         return helper.downloadDependencies(getSpecFromString(spec, new SearchBasedSpecValidator()));
     }
 
@@ -4,10 +4,8 @@ import org.apache.commons.lang.SystemUtils;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.extractor.clientConfiguration.util.UrlUtils;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.Serializable;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -138,6 +136,52 @@ public class CommandExecutor implements Serializable {
         }
     }
 
+    /**
+     * Execute a command in external process and consume its output line by line, without keeping the output in memory.
+     * If the consumer stops reading, the process is terminated and the command is considered successful.
+     *
+     * @param execDir        - The execution dir (Usually path to project). Null means current directory.
+     * @param args           - Command arguments.
+     * @param credentials    - If specified, the credentials will be concatenated to the other commands.
+     *                       The credentials will be makes in the log output.
+     * @param logger         - The logger which will log the running command.
+     * @param outputConsumer - Consumer of the standard output lines.
+     * @return CommandResults object with the error output. The standard output is not included.
+     */
+    public CommandResults exeCommand(File execDir, List<String> args, List<String> credentials, Log logger, OutputLineConsumer outputConsumer) throws InterruptedException, IOException {
+        args.add(0, executablePath);
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        Process process = null;
+        try {
+            process = runProcess(execDir, args, credentials, env, logger);
+            // The output stream is not necessary in non-interactive scenarios, therefore we can close it now.
+            process.getOutputStream().close();
+            try (BufferedReader inputReader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                 InputStream errorStream = process.getErrorStream()) {
+                StreamReader errorStreamReader = new StreamReader(errorStream);
+                service.submit(errorStreamReader);
+                boolean stopped = false;
+                String line;
+                while ((line = inputReader.readLine()) != null) {
+                    if (!outputConsumer.accept(line)) {
+                        stopped = true;
+                        process.destroy();
+                        break;
+                    }
+                }
+                process.waitFor();
+                service.shutdown();
+                boolean terminatedProperly = service.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                return getCommandResults(terminatedProperly, args, "", errorStreamReader.getOutput(), stopped ? 0 : process.exitValue());
+            }
+        } finally {
+            if (process != null && process.isAlive()) {
+                process.destroy();
+            }
+            service.shutdownNow();
+        }
+    }
+
     private CommandResults getCommandResults(boolean terminatedProperly, List<String> args, String output, String error, int exitValue) {
         CommandResults commandRes = new CommandResults();
         if (!terminatedProperly) {
@@ -0,0 +1,17 @@
+package org.jfrog.build.extractor.executor;
+
+import java.io.IOException;
+
+/**
+ * Consumes the standard output of a command line by line, while the command is running.
+ */
+@FunctionalInterface
+public interface OutputLineConsumer {
+
+    /**
+     * @param line - A line of the command output, without the line terminator.
+     * @return true to continue reading the output, false to stop reading and terminate the command.
+     * @throws IOException to stop reading and terminate the command.
+     */
+    boolean accept(String line) throws IOException;
+}
@@ -9,6 +9,7 @@ import org.jfrog.build.extractor.clientConfiguration.ArtifactoryManagerBuilder;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 import org.jfrog.build.extractor.executor.CommandExecutor;
 import org.jfrog.build.extractor.executor.CommandResults;
+import org.jfrog.build.extractor.executor.OutputLineConsumer;
 
 import java.io.File;
 import java.io.IOException;
@@ -17,6 +18,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -30,7 +32,7 @@ public class IssuesCollector implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private static final String LATEST = "LATEST";
-    private static final String GIT_LOG_LIMIT = "100";
+    private static final int GIT_LOG_LIMIT = 100;
 
     public static Pattern REVISION_NOT_EXIST;
 
@@ -97,21 +99,42 @@ public class IssuesCollector implements Serializable {
      * Collects affected issues from git log
      */
     private Set<Issue> doCollect(File execDir, Log logger, IssuesCollectionConfig issuesConfig, String previousVcsRevision) throws InterruptedException, IOException {
-        String gitLog = getGitLog(execDir, logger, previousVcsRevision);
+        return collectIssuesFromGitLog(execDir, logger, issuesConfig, previousVcsRevision, GIT_LOG_LIMIT);
+    }
 
+    /**
+     * Collects affected issues from the last commits in git log. The git log output is matched line by line while it is read,
+     * and reading stops after 'limit' commits.
+     *
+     * @param execDir             - The git repository directory
+     * @param logger              - The logger
+     * @param issuesConfig        - The issues collection config
+     * @param previousVcsRevision - The revision of the previous build, or an empty string to collect from all commits
+     * @param limit               - The maximum number of commits to collect from
+     * @return the affected issues
+     */
+    Set<Issue> collectIssuesFromGitLog(File execDir, Log logger, IssuesCollectionConfig issuesConfig, String previousVcsRevision, int limit) throws InterruptedException, IOException {
         int keyIndex = issuesConfig.getIssues().getKeyGroupIndex();
         int summaryIndex = issuesConfig.getIssues().getSummaryGroupIndex();
         Set<Issue> affectedIssues = new HashSet<>();
 
         Pattern pattern = Pattern.compile(issuesConfig.getIssues().getRegexp());
-        String[] lines = gitLog.split("\\R");
-        for (String line : lines) {
+        AtomicInteger linesRead = new AtomicInteger();
+        CommandResults res = runGitLog(execDir, logger, previousVcsRevision, limit, line -> {
             Matcher matcher = pattern.matcher(line);
             if (matcher.find()) {
                 Issue foundIssue = getMatchingIssue(keyIndex, summaryIndex, matcher, issuesConfig);
                 affectedIssues.add(foundIssue);
                 logger.info("Added issue: " + foundIssue.getKey() + " to the build-info");
             }
+            return linesRead.incrementAndGet() < limit;
+        });
+        if (!res.isOk()) {
+            if (getRevisionNotExistPattern().matcher(res.getErr()).find()) {
+                logger.info("Revision: " + previousVcsRevision + " that was fetched from latest build info does not exist in the git revision range. No new issues are added.");
+                return new HashSet<>();
+            }
+            throw new IOException(ISSUES_COLLECTION_ERROR_PREFIX + "Git log command failed: " + res.getErr());
         }
         return affectedIssues;
     }
@@ -139,23 +162,15 @@ public class IssuesCollector implements Serializable {
         return new Issue(key, url, summary);
     }
 
-    private String getGitLog(File execDir, Log logger, String previousVcsRevision) throws InterruptedException, IOException {
+    private CommandResults runGitLog(File execDir, Log logger, String previousVcsRevision, int limit, OutputLineConsumer lineConsumer) throws InterruptedException, IOException {
         List<String> args = new ArrayList<>();
         args.add("log");
         args.add("--pretty=format:%s");
-        args.add("-" + GIT_LOG_LIMIT);
+        args.add("-" + limit);
         if (!previousVcsRevision.isEmpty()) {
             args.add(previousVcsRevision + "..");
         }
         CommandExecutor commandExecutor = new CommandExecutor("git", null);
-        CommandResults res = commandExecutor.exeCommand(execDir, args, null, logger);
-        if (!res.isOk()) {
-            if (getRevisionNotExistPattern().matcher(res.getErr()).find()) {
-                logger.info("Revision: " + previousVcsRevision + " that was fetched from latest build info does not exist in the git revision range. No new issues are added.");
-                return "";
-            }
-            throw new IOException(ISSUES_COLLECTION_ERROR_PREFIX + "Git log command failed: " + res.getErr());
-        }
-        return res.getRes();
+        return commandExecutor.exeCommand(execDir, args, null, logger, lineConsumer);
     }
 }
@@ -2,6 +2,7 @@ package org.jfrog.build.extractor.packageManager;
 
 import org.apache.commons.lang.StringUtils;
 import org.jfrog.build.api.Build;
+import org.jfrog.build.api.metrics.JsonMetricsReporter;
 import org.jfrog.build.extractor.BuildInfoExtractorUtils;
 import org.jfrog.build.extractor.clientConfiguration.ArtifactoryClientConfiguration;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
@@ -31,12 +32,17 @@ public abstract class PackageManagerExtractor implements Serializable {
     public void executeAndSaveBuildInfo(ArtifactoryClientConfiguration clientConfiguration) throws RuntimeException {
         // During build extractor's job, temp directories are created. This will make sure 'java.io.tmpdir' property is defined in Unix.
         handleJavaTmpdirProperty();
-        Build build = execute();
-        if (build == null) {
-            return;
+        JsonMetricsReporter metricsReporter = JsonMetricsReporter.startIfConfigured(clientConfiguration.getMetricsFile());
+        try {
+            Build build = execute();
+            if (build == null) {
+                return;
+            }
+            PackageManagerUtils.collectEnvIfNeeded(clientConfiguration, build);
+            saveBuildInfoToFile(clientConfiguration, build);
+        } finally {
+            JsonMetricsReporter.closeQuietly(metricsReporter, clientConfiguration.getLog());
         }
-        PackageManagerUtils.collectEnvIfNeeded(clientConfiguration, build);
-        saveBuildInfoToFile(clientConfiguration, build);
     }
 
     /**
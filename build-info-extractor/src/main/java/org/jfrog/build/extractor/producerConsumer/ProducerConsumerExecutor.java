@@ -1,22 +1,34 @@
 package org.jfrog.build.extractor.producerConsumer;
 
+import org.jfrog.build.api.metrics.BuildMetrics;
+import org.jfrog.build.api.metrics.Metrics;
+import org.jfrog.build.api.metrics.Timer;
 import org.jfrog.build.api.producerConsumer.ProducerConsumerItem;
 import org.jfrog.build.api.util.Log;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Producer-Consumer class for multi-threaded operation.
  * Provided ProducerRunnableBase and ConsumerRunnableBase objects, this class runs and manages the operation using a BlockingQueue as the bounded-buffer.
+ * The producers and consumers run on an {@link ExecutorService}, either supplied by the caller or created for a single run.
+ * The first error stops the operation by cancelling all producers and consumers. All errors are collected and can be
+ * retrieved using {@link #getErrors()}.
  *
  * Created by Bar Belity on 27/03/2018.
  */
 public class ProducerConsumerExecutor {
+    private static final String ITEMS_METRIC = "producerConsumer.items";
+    private static final String QUEUE_DEPTH_METRIC = "producerConsumer.queue.depth";
+    private static final String PUT_WAIT_TIME_METRIC = "producerConsumer.put.wait.time";
+    private static final String TAKE_WAIT_TIME_METRIC = "producerConsumer.take.wait.time";
 
     /**
      * BlockingQueue of jobs which are inserted by the producers and removed by the consumers
@@ -27,70 +39,139 @@ public class ProducerConsumerExecutor {
     private ConsumerRunnableBase[] consumerRunnables;
     public ProducerConsumerItem TERMINATE = new ProducerConsumerTerminateItem();
 
-    private Thread[] producerThreads;
-    private Thread[] consumerThreads;
+    private final ExecutorService executorService;
+    private final SubmittedTasks tasks = new SubmittedTasks();
+    private final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
     private int producersNumber;
     private int consumersNumber;
     private AtomicBoolean errorOccurred = new AtomicBoolean(false);
     private AtomicInteger producersFinished = new AtomicInteger(0);
 
     public ProducerConsumerExecutor(Log log, ProducerRunnableBase[] producerRunnables, ConsumerRunnableBase[] consumerRunnables, int queueSize) {
+        this(log, producerRunnables, consumerRunnables, queueSize, null);
+    }
+
+    /**
+     * @param log               - The logger
+     * @param producerRunnables - The producers
+     * @param consumerRunnables - The consumers
+     * @param queueSize         - The capacity of the queue between the producers and the consumers
+     * @param executorService   - The executor service to run the producers and consumers on. It must be able to run all of them
+     *                          concurrently, since producers and consumers wait for each other. If null, an executor service
+     *                          is created for each run.
+     */
+    public ProducerConsumerExecutor(Log log, ProducerRunnableBase[] producerRunnables, ConsumerRunnableBase[] consumerRunnables, int queueSize,
+                                    ExecutorService executorService) {
         this.log = log;
         this.producerRunnables = producerRunnables;
         this.consumerRunnables = consumerRunnables;
         this.queue = new ArrayBlockingQueue<>(queueSize);
         this.producersNumber = producerRunnables.length;
         this.consumersNumber = consumerRunnables.length;
-        this.producerThreads = new Thread[producersNumber];
-        this.consumerThreads = new Thread[consumersNumber];
+        this.executorService = executorService;
+        if (executorService instanceof ThreadPoolExecutor &&
+                ((ThreadPoolExecutor) executorService).getMaximumPoolSize() < producersNumber + consumersNumber) {
+            throw new IllegalArgumentException("The executor service must be able to run " + (producersNumber + consumersNumber) +
+                    " producers and consumers concurrently");
+        }
     }
 
     public void start() throws Exception {
-        Thread.UncaughtExceptionHandler exceptionHandler = new ProducerConsumerExceptionHandler();
-        // Create producer threads
-        for (int i = 0; i < producersNumber; i++) {
-            producerThreads[i] = new Thread(producerRunnables[i]);
-            initializeThread(producerThreads[i], producerRunnables[i], "producer_" + i, exceptionHandler);
-        }
-
-        // Create consumer threads
-        for (int i = 0; i < consumersNumber; i++) {
-            consumerThreads[i] = new Thread(consumerRunnables[i]);
-            initializeThread(consumerThreads[i], consumerRunnables[i], "consumer_" + i, exceptionHandler);
-        }
-
-        // Start consumers and producers
-        for (Thread consumer : consumerThreads) {
-            consumer.start();
-        }
-        for (Thread producer : producerThreads) {
-            producer.start();
-        }
+        start(0, TimeUnit.MILLISECONDS);
+    }
 
+    /**
+     * Run the producers and consumers and wait for them to finish.
+     *
+     * @param timeout - The maximum time to wait for the operation. Zero or negative to wait without a deadline.
+     * @param unit    - The unit of the timeout
+     * @throws TimeoutException     if the operation didn't finish before the deadline. The operation is cancelled.
+     * @throws InterruptedException if the current thread was interrupted while waiting. The operation is cancelled.
+     * @throws Exception            if an error occurred during the operation. The first error is the cause of the exception.
+     */
+    public void start(long timeout, TimeUnit unit) throws Exception {
+        reset();
+        ExecutorService runExecutorService = executorService != null ? executorService :
+                Executors.newFixedThreadPool(Math.max(producersNumber + consumersNumber, 1));
         try {
-            // Wait for consumers and producers to finish
-            for (Thread consumer : consumerThreads) {
-                consumer.join();
+            // Start consumers and producers
+            for (int i = 0; i < consumersNumber; i++) {
+                submit(runExecutorService, consumerRunnables[i], "consumer_" + i);
             }
-            for (Thread producer : producerThreads) {
-                producer.join();
+            for (int i = 0; i < producersNumber; i++) {
+                submit(runExecutorService, producerRunnables[i], "producer_" + i);
+            }
+            awaitTermination(timeout, unit);
+        } finally {
+            // Cancelled tasks may still be running, and they may use resources which are released once this method returns
+            tasks.awaitStopped();
+            if (executorService == null) {
+                runExecutorService.shutdownNow();
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            stopWithException();
-            throw e;
         }
         // Check if error occurred during deployment
         if (errorOccurred.get()) {
-            throw new Exception("Error occurred during operation, please refer to logs for more information.");
+            Exception exception = new Exception("Error occurred during operation, please refer to logs for more information.",
+                    errors.isEmpty() ? null : errors.get(0));
+            for (int i = 1; i < errors.size(); i++) {
+                exception.addSuppressed(errors.get(i));
+            }
+            throw exception;
         }
     }
 
-    private void initializeThread(Thread thread, ProducerConsumerRunnableInt runnable, String name, Thread.UncaughtExceptionHandler exceptionHandler) {
+    /**
+     * Clear the state of a previous run.
+     */
+    private void reset() {
+        tasks.clear();
+        errors.clear();
+        errorOccurred.set(false);
+        producersFinished.set(0);
+        queue.clear();
+    }
+
+    private void submit(ExecutorService executorService, ProducerConsumerRunnableInt runnable, String name) {
         runnable.setExecutor(this);
         runnable.setLog(log);
-        thread.setName(name);
-        thread.setUncaughtExceptionHandler(exceptionHandler);
+        tasks.submit(executorService, () -> {
+            // Producers and consumers use the thread name as their log prefix
+            Thread thread = Thread.currentThread();
+            String originalName = thread.getName();
+            thread.setName(name);
+            try {
+                runnable.run();
+            } catch (Throwable e) {
+                handleException(name, e);
+            } finally {
+                thread.setName(originalName);
+            }
+        });
+    }
+
+    private void awaitTermination(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        long deadline = timeout > 0 ? System.nanoTime() + unit.toNanos(timeout) : 0;
+        try {
+            // Wait for consumers and producers to finish
+            for (Future<?> future : tasks.getFutures()) {
+                try {
+                    if (deadline == 0) {
+                        future.get();
+                    } else {
+                        future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                    }
+                } catch (CancellationException | ExecutionException e) {
+                    // Cancelled after an error, or failed with an error which was already handled
+                }
+            }
+        } catch (TimeoutException e) {
+            stopWithException();
+            throw new TimeoutException("The operation didn't finish within " + unit.toMillis(timeout) + " milliseconds and was cancelled");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopWithException();
+            throw e;
+        }
     }
 
     /**
@@ -107,35 +188,69 @@ public class ProducerConsumerExecutor {
      * This method will run when an error occurred during execution
      */
     private void stopWithException() {
-        // Interrupt all threads
-        for (Thread thread : producerThreads) {
-            thread.interrupt();
-        }
-        for (Thread thread : consumerThreads) {
-            thread.interrupt();
-        }
+        // Interrupt all producers and consumers
+        tasks.cancel();
     }
 
+    /**
+     * Put an item in the queue, waiting for space to become available.
+     * The time spent waiting and the queue depth are recorded in the {@link BuildMetrics}.
+     */
     public void put(ProducerConsumerItem produced) throws InterruptedException {
-        queue.put(produced);
+        Metrics metrics = BuildMetrics.get();
+        try (Timer.Context ignored = metrics.timer(PUT_WAIT_TIME_METRIC).time()) {
+            queue.put(produced);
+        }
+        metrics.counter(ITEMS_METRIC).increment();
+        if (BuildMetrics.isEnabled()) {
+            // The size of the queue is calculated under its lock, so avoid it when metrics are disabled
+            metrics.histogram(QUEUE_DEPTH_METRIC).update(queue.size());
+        }
     }
 
+    /**
+     * Take an item from the queue, waiting for an item to become available.
+     * The time spent waiting is recorded in the {@link BuildMetrics}.
+     */
     public ProducerConsumerItem take() throws InterruptedException {
-        return queue.take();
+        try (Timer.Context ignored = BuildMetrics.get().timer(TAKE_WAIT_TIME_METRIC).time()) {
+            return queue.take();
+        }
     }
 
-    private class ProducerConsumerExceptionHandler implements Thread.UncaughtExceptionHandler {
-        @Override
-        public void uncaughtException(Thread t, Throwable e) {
-            // Log the exception
-            StringWriter sw = new StringWriter();
-            e.printStackTrace(new PrintWriter(sw));
-            log.error(String.format("[%s] An exception occurred during execution:\n%s", t.getName(), sw.toString()));
-
-            // Stop all deployment operation if this is the first exception
-            if (!errorOccurred.getAndSet(true)) {
-                stopWithException();
-            }
+    /**
+     * @return the number of items waiting in the queue
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of items which can be put in the queue without waiting
+     */
+    public int getRemainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    /**
+     * @return the errors which occurred during the operation, in the order they occurred
+     */
+    public List<Throwable> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    private void handleException(String name, Throwable e) {
+        // Log the exception
+        StringWriter sw = new StringWriter();
+        e.printStackTrace(new PrintWriter(sw));
+        log.error(String.format("[%s] An exception occurred during execution:\n%s", name, sw.toString()));
+        errors.add(e);
+
+        // Stop all deployment operation if this is the first exception
+        if (!errorOccurred.getAndSet(true)) {
+            stopWithException();
         }
     }
 
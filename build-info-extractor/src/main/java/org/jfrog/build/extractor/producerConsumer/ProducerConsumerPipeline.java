@@ -0,0 +1,527 @@
+package org.jfrog.build.extractor.producerConsumer;
+
+import org.jfrog.build.api.metrics.BuildMetrics;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-stage producer-consumer pipeline running on a supplied {@link ExecutorService}.
+ * A single producer emits items to the first stage. Each stage processes its items using a number of workers and may emit
+ * items to the next stage. The stages are connected by bounded queues, so a slow stage applies backpressure on the stages
+ * before it. The depth of each queue can be observed while the pipeline is running.
+ * <p>
+ * An exception thrown while processing an item is collected as an {@link ItemFailure} and the pipeline continues with
+ * the next items, unless the pipeline is fail-fast. An exception thrown by the producer, or the expiry of the deadline,
+ * cancels the pipeline.
+ * <p>
+ * Usage:
+ * <pre>
+ * ProducerConsumerPipeline pipeline = ProducerConsumerPipeline.from(emitter -&gt; files.forEach(emitter::emit))
+ *         .stage("checksums", 2, 100, (file, emitter) -&gt; emitter.emit(calculateChecksums(file)))
+ *         .consume("upload", 3, 100, details -&gt; upload(details));
+ * ProducerConsumerPipeline.Result result = pipeline.run(executorService, 1, TimeUnit.HOURS);
+ * </pre>
+ */
+public class ProducerConsumerPipeline {
+    private static final String PRODUCER_NAME = "producer";
+    private static final Object END = new Object();
+
+    private final Producer<Object> producer;
+    private final List<StageDefinition> stages;
+    private final boolean failFast;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final List<ItemFailure> failures = Collections.synchronizedList(new ArrayList<>());
+    private final SubmittedTasks tasks = new SubmittedTasks();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private volatile Throwable fatalError;
+    private volatile List<BlockingQueue<Object>> queues = Collections.emptyList();
+
+    private ProducerConsumerPipeline(Producer<Object> producer, List<StageDefinition> stages, boolean failFast) {
+        this.producer = producer;
+        this.stages = stages;
+        this.failFast = failFast;
+    }
+
+    /**
+     * Start building a pipeline.
+     *
+     * @param producer - Emits the items of the pipeline
+     * @param <T>      - The type of the produced items
+     * @return a pipeline builder
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Builder<T> from(Producer<T> producer) {
+        return new Builder<>((Producer<Object>) producer, new ArrayList<>(), false);
+    }
+
+    /**
+     * Run the pipeline and wait for all items to be processed.
+     *
+     * @param executorService - Runs the producer and the stage workers. It must be able to run all of them concurrently.
+     * @param timeout         - The deadline of the pipeline. Zero or negative to run without a deadline.
+     * @param unit            - The unit of the timeout
+     * @return the result of the pipeline
+     * @throws InterruptedException if the current thread was interrupted while waiting. The pipeline is cancelled.
+     */
+    public Result run(ExecutorService executorService, long timeout, TimeUnit unit) throws InterruptedException {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("The pipeline was already started");
+        }
+        int tasksCount = 1 + stages.stream().mapToInt(stage -> stage.workers).sum();
+        if (executorService instanceof ThreadPoolExecutor && ((ThreadPoolExecutor) executorService).getMaximumPoolSize() < tasksCount) {
+            throw new IllegalArgumentException("The executor service must be able to run " + tasksCount + " pipeline tasks concurrently");
+        }
+        long startTime = System.nanoTime();
+        List<BlockingQueue<Object>> stageQueues = new ArrayList<>();
+        for (StageDefinition stage : stages) {
+            stageQueues.add(new ArrayBlockingQueue<>(stage.queueCapacity));
+        }
+        queues = stageQueues;
+
+        // Each stage ends after all the workers of the previous stage ended
+        List<AtomicInteger> activeUpstreamWorkers = new ArrayList<>();
+        for (int i = 0; i < stages.size(); i++) {
+            activeUpstreamWorkers.add(new AtomicInteger(i == 0 ? 1 : stages.get(i - 1).workers));
+        }
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            for (int worker = 0; worker < stages.get(i).workers; worker++) {
+                submit(executorService, stages.get(i).name, new StageWorker(i, activeUpstreamWorkers));
+            }
+        }
+        submit(executorService, PRODUCER_NAME, () -> {
+            producer.produce(createEmitter(0));
+            endStage(0, activeUpstreamWorkers);
+        });
+
+        boolean timedOut;
+        try {
+            timedOut = awaitTermination(timeout, unit);
+        } finally {
+            // Cancelled workers may still be running, and they may use resources which are released once the pipeline ends
+            tasks.awaitStopped();
+        }
+        List<ItemFailure> failuresSnapshot;
+        synchronized (failures) {
+            failuresSnapshot = new ArrayList<>(failures);
+        }
+        List<StageStatistics> statistics = new ArrayList<>();
+        for (StageDefinition stage : stages) {
+            statistics.add(new StageStatistics(stage.name, stage.processed.get(), stage.failed.get(), stage.maxQueueDepth.get()));
+        }
+        return new Result(failuresSnapshot, statistics, fatalError, cancelled.get(), timedOut,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+
+    /**
+     * @return true if the deadline expired
+     */
+    private boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = timeout > 0 ? System.nanoTime() + unit.toNanos(timeout) : 0;
+        try {
+            for (Future<?> future : tasks.getFutures()) {
+                try {
+                    if (deadline == 0) {
+                        future.get();
+                    } else {
+                        future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                    }
+                } catch (CancellationException | ExecutionException e) {
+                    // Cancelled, or failed with an error which was already collected
+                }
+            }
+            return false;
+        } catch (TimeoutException e) {
+            cancel();
+            return true;
+        } catch (InterruptedException e) {
+            cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of items waiting in the queue of each stage, by the stage name. Empty before the pipeline starts.
+     */
+    public Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> depths = new LinkedHashMap<>();
+        List<BlockingQueue<Object>> currentQueues = queues;
+        for (int i = 0; i < currentQueues.size(); i++) {
+            depths.put(stages.get(i).name, (int) currentQueues.get(i).stream().filter(item -> item != END).count());
+        }
+        return depths;
+    }
+
+    /**
+     * Cancel the pipeline. Items which were not processed yet are dropped.
+     */
+    public void cancel() {
+        cancelled.set(true);
+        tasks.cancel();
+    }
+
+    private void submit(ExecutorService executorService, String name, Task task) {
+        Future<?> future = tasks.submit(executorService, () -> {
+            try {
+                if (!cancelled.get()) {
+                    task.run();
+                }
+            } catch (InterruptedException e) {
+                // Cancelled
+            } catch (Throwable e) {
+                fail(new ItemFailure(name, null, e));
+            }
+        });
+        if (cancelled.get()) {
+            // The pipeline was cancelled while the tasks were submitted
+            future.cancel(true);
+        }
+    }
+
+    private void fail(ItemFailure failure) {
+        if (fatalError == null) {
+            fatalError = failure.getError();
+        }
+        failures.add(failure);
+        cancel();
+    }
+
+    private Emitter<Object> createEmitter(int stageIndex) {
+        if (stageIndex >= stages.size()) {
+            return item -> {
+            };
+        }
+        StageDefinition stage = stages.get(stageIndex);
+        BlockingQueue<Object> queue = queues.get(stageIndex);
+        return item -> {
+            queue.put(Objects.requireNonNull(item, "Pipeline items must not be null"));
+            int depth = queue.size();
+            stage.maxQueueDepth.accumulateAndGet(depth, Math::max);
+            if (BuildMetrics.isEnabled()) {
+                BuildMetrics.get().histogram("pipeline." + stage.name + ".queue.depth").update(depth);
+            }
+        };
+    }
+
+    /**
+     * Called when a worker of the previous stage ended. The last one signals the end of the items to the stage workers.
+     */
+    private void endStage(int stageIndex, List<AtomicInteger> activeUpstreamWorkers) throws InterruptedException {
+        if (stageIndex >= stages.size() || activeUpstreamWorkers.get(stageIndex).decrementAndGet() > 0) {
+            return;
+        }
+        for (int i = 0; i < stages.get(stageIndex).workers; i++) {
+            queues.get(stageIndex).put(END);
+        }
+    }
+
+    private class StageWorker implements Task {
+        private final int stageIndex;
+        private final List<AtomicInteger> activeUpstreamWorkers;
+
+        private StageWorker(int stageIndex, List<AtomicInteger> activeUpstreamWorkers) {
+            this.stageIndex = stageIndex;
+            this.activeUpstreamWorkers = activeUpstreamWorkers;
+        }
+
+        @Override
+        public void run() throws InterruptedException {
+            StageDefinition stage = stages.get(stageIndex);
+            BlockingQueue<Object> queue = queues.get(stageIndex);
+            Emitter<Object> emitter = createEmitter(stageIndex + 1);
+            while (true) {
+                Object item = queue.take();
+                if (item == END) {
+                    break;
+                }
+                try {
+                    stage.processor.process(item, emitter);
+                    stage.processed.incrementAndGet();
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    stage.failed.incrementAndGet();
+                    ItemFailure failure = new ItemFailure(stage.name, item, e);
+                    if (failFast) {
+                        fail(failure);
+                        return;
+                    }
+                    failures.add(failure);
+                }
+            }
+            endStage(stageIndex + 1, activeUpstreamWorkers);
+        }
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private static class StageDefinition {
+        private final String name;
+        private final int workers;
+        private final int queueCapacity;
+        private final Stage<Object, Object> processor;
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+        private StageDefinition(String name, int workers, int queueCapacity, Stage<Object, Object> processor) {
+            if (workers < 1 || queueCapacity < 1) {
+                throw new IllegalArgumentException("The workers and the queue capacity of stage '" + name + "' must be positive");
+            }
+            this.name = name;
+            this.workers = workers;
+            this.queueCapacity = queueCapacity;
+            this.processor = processor;
+        }
+    }
+
+    /**
+     * Builds the stages of a pipeline.
+     *
+     * @param <T> - The type of the items emitted by the last stage
+     */
+    public static class Builder<T> {
+        private final Producer<Object> producer;
+        private final List<StageDefinition> stages;
+        private final boolean failFast;
+
+        private Builder(Producer<Object> producer, List<StageDefinition> stages, boolean failFast) {
+            this.producer = producer;
+            this.stages = stages;
+            this.failFast = failFast;
+        }
+
+        /**
+         * Cancel the pipeline on the first item failure, instead of collecting the failures and continuing.
+         */
+        public Builder<T> failFast() {
+            return new Builder<>(producer, stages, true);
+        }
+
+        /**
+         * Add a stage which processes the items emitted by the previous stage, and emits items to the next stage.
+         *
+         * @param name          - The stage name
+         * @param workers       - The number of items to process concurrently
+         * @param queueCapacity - The capacity of the queue of items waiting to be processed by the stage
+         * @param stage         - Processes an item
+         * @param <O>           - The type of the items emitted by the stage
+         * @return a builder of the next stage
+         */
+        @SuppressWarnings("unchecked")
+        public <O> Builder<O> stage(String name, int workers, int queueCapacity, Stage<? super T, O> stage) {
+            List<StageDefinition> newStages = new ArrayList<>(stages);
+            newStages.add(new StageDefinition(name, workers, queueCapacity, (Stage<Object, Object>) (Stage<?, ?>) stage));
+            return new Builder<>(producer, newStages, failFast);
+        }
+
+        /**
+         * Add the last stage of the pipeline.
+         *
+         * @param name          - The stage name
+         * @param workers       - The number of items to consume concurrently
+         * @param queueCapacity - The capacity of the queue of items waiting to be consumed
+         * @param consumer      - Consumes an item
+         * @return the pipeline
+         */
+        public ProducerConsumerPipeline consume(String name, int workers, int queueCapacity, Consumer<? super T> consumer) {
+            Builder<Void> builder = stage(name, workers, queueCapacity, (item, emitter) -> consumer.consume(item));
+            return new ProducerConsumerPipeline(producer, builder.stages, failFast);
+        }
+    }
+
+    /**
+     * Produces the items of the pipeline.
+     */
+    @FunctionalInterface
+    public interface Producer<T> {
+        void produce(Emitter<T> emitter) throws Exception;
+    }
+
+    /**
+     * Processes an item of a stage and emits items to the next stage.
+     */
+    @FunctionalInterface
+    public interface Stage<I, O> {
+        void process(I item, Emitter<O> emitter) throws Exception;
+    }
+
+    /**
+     * Consumes an item in the last stage.
+     */
+    @FunctionalInterface
+    public interface Consumer<T> {
+        void consume(T item) throws Exception;
+    }
+
+    /**
+     * Emits items to the next stage, waiting while its queue is full.
+     */
+    @FunctionalInterface
+    public interface Emitter<T> {
+        void emit(T item) throws InterruptedException;
+    }
+
+    /**
+     * A failure to process an item.
+     */
+    public static class ItemFailure {
+        private final String stage;
+        private final Object item;
+        private final Throwable error;
+
+        ItemFailure(String stage, Object item, Throwable error) {
+            this.stage = stage;
+            this.item = item;
+            this.error = error;
+        }
+
+        /**
+         * @return the stage name, or "producer" for a failure of the producer
+         */
+        public String getStage() {
+            return stage;
+        }
+
+        /**
+         * @return the failed item, or null for a failure of the producer
+         */
+        public Object getItem() {
+            return item;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + stage + "] " + item + ": " + error;
+        }
+    }
+
+    /**
+     * Counters of a stage.
+     */
+    public static class StageStatistics {
+        private final String name;
+        private final long processed;
+        private final long failed;
+        private final int maxQueueDepth;
+
+        StageStatistics(String name, long processed, long failed, int maxQueueDepth) {
+            this.name = name;
+            this.processed = processed;
+            this.failed = failed;
+            this.maxQueueDepth = maxQueueDepth;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getProcessed() {
+            return processed;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        /**
+         * @return the maximal number of items which waited in the queue of the stage
+         */
+        public int getMaxQueueDepth() {
+            return maxQueueDepth;
+        }
+    }
+
+    /**
+     * The result of a pipeline run.
+     */
+    public static class Result {
+        private final List<ItemFailure> failures;
+        private final List<StageStatistics> stageStatistics;
+        private final Throwable fatalError;
+        private final boolean cancelled;
+        private final boolean timedOut;
+        private final long durationMillis;
+
+        Result(List<ItemFailure> failures, List<StageStatistics> stageStatistics, Throwable fatalError, boolean cancelled,
+               boolean timedOut, long durationMillis) {
+            this.failures = Collections.unmodifiableList(failures);
+            this.stageStatistics = Collections.unmodifiableList(stageStatistics);
+            this.fatalError = fatalError;
+            this.cancelled = cancelled;
+            this.timedOut = timedOut;
+            this.durationMillis = durationMillis;
+        }
+
+        /**
+         * @return true if all items were processed successfully
+         */
+        public boolean isSuccessful() {
+            return failures.isEmpty() && !cancelled;
+        }
+
+        public List<ItemFailure> getFailures() {
+            return failures;
+        }
+
+        public List<StageStatistics> getStageStatistics() {
+            return stageStatistics;
+        }
+
+        /**
+         * @return the error which cancelled the pipeline, or null
+         */
+        public Throwable getFatalError() {
+            return fatalError;
+        }
+
+        /**
+         * @return true if the pipeline was cancelled before all items were processed
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * @return true if the pipeline was cancelled due to its deadline
+         */
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        /**
+         * Throw an exception if the pipeline didn't process all items successfully.
+         *
+         * @param message - The exception message
+         * @throws Exception with the first failure as the cause and the rest of the failures as suppressed exceptions
+         */
+        public void throwIfFailed(String message) throws Exception {
+            if (isSuccessful()) {
+                return;
+            }
+            Exception exception = timedOut ? new TimeoutException(message + ": the deadline expired after " + durationMillis + " milliseconds") :
+                    new Exception(message + ": " + failures.size() + " failures");
+            for (ItemFailure failure : failures) {
+                if (exception.getCause() == null && !timedOut) {
+                    exception.initCause(failure.getError());
+                } else {
+                    exception.addSuppressed(failure.getError());
+                }
+            }
+            throw exception;
+        }
+    }
+}
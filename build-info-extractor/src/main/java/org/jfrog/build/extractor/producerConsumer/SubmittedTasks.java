@@ -0,0 +1,99 @@
+package org.jfrog.build.extractor.producerConsumer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tasks submitted to an {@link ExecutorService}, which can be cancelled and then awaited until the tasks that already
+ * started end. Cancelling a future doesn't wait for its task to respond to the interrupt, so the resources used by the
+ * tasks must not be released before {@link #awaitStopped()} returns.
+ */
+class SubmittedTasks {
+    private final List<SubmittedTask> tasks = new CopyOnWriteArrayList<>();
+
+    /**
+     * Submit a task. A task which didn't start before {@link #awaitStopped()} is called never runs.
+     */
+    Future<?> submit(ExecutorService executorService, Runnable runnable) {
+        SubmittedTask task = new SubmittedTask();
+        // Added before it is submitted, so that a concurrent awaitStopped() either waits for it or prevents it from starting
+        tasks.add(task);
+        task.future = executorService.submit(() -> {
+            if (!task.started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                runnable.run();
+            } finally {
+                task.finished.countDown();
+            }
+        });
+        return task.future;
+    }
+
+    /**
+     * @return the futures of the tasks, in the order they were submitted
+     */
+    List<Future<?>> getFutures() {
+        List<Future<?>> futures = new ArrayList<>();
+        for (SubmittedTask task : tasks) {
+            if (task.future != null) {
+                futures.add(task.future);
+            }
+        }
+        return futures;
+    }
+
+    /**
+     * Interrupt all tasks.
+     */
+    void cancel() {
+        for (SubmittedTask task : tasks) {
+            Future<?> future = task.future;
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Wait for the tasks which started to end, and prevent the rest from starting.
+     * The wait isn't interruptible, but the interrupt status of the current thread is kept.
+     */
+    void awaitStopped() {
+        boolean interrupted = false;
+        for (SubmittedTask task : tasks) {
+            if (!task.started.compareAndSet(false, true)) {
+                while (true) {
+                    try {
+                        task.finished.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Forget the submitted tasks, before submitting the tasks of another run.
+     */
+    void clear() {
+        tasks.clear();
+    }
+
+    private static class SubmittedTask {
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile Future<?> future;
+    }
+}
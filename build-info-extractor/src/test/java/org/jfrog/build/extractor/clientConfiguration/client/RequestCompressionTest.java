@@ -0,0 +1,263 @@
+package org.jfrog.build.extractor.clientConfiguration.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jfrog.build.api.Artifact;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.Module;
+import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.extractor.BuildInfoExtractorUtils;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.jfrog.build.extractor.util.TestingLog;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests compressed request and response bodies against a local fake Artifactory.
+ */
+@Test
+public class RequestCompressionTest {
+    private final List<ReceivedRequest> requests = new CopyOnWriteArrayList<>();
+    // The status of the responses to compressed requests, or 0 if compressed requests are accepted
+    private volatile int compressedRequestStatus;
+    private HttpServer server;
+    private ArtifactoryManager artifactoryManager;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handleRequest);
+        server.start();
+    }
+
+    @AfterClass
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @BeforeMethod
+    public void createManager() {
+        requests.clear();
+        compressedRequestStatus = 0;
+        artifactoryManager = new ArtifactoryManager("http://127.0.0.1:" + server.getAddress().getPort(), "user", "password", new TestingLog());
+    }
+
+    @AfterMethod
+    public void closeManager() {
+        artifactoryManager.close();
+    }
+
+    public void testUncompressedByDefault() throws IOException {
+        Build build = createBuild(100);
+        artifactoryManager.publishBuildInfo(build, null);
+        assertEquals(requests.size(), 1);
+        ReceivedRequest request = requests.get(0);
+        assertNull(request.contentEncoding);
+        // The uncompressed build info is sent with a known length
+        assertNull(request.transferEncoding);
+        assertEquals(request.contentLength, String.valueOf(request.body.length));
+        assertEquals(request.body.length, request.wireBytes);
+        assertBuild(request, build);
+    }
+
+    public void testCompressedBuildInfo() throws IOException {
+        artifactoryManager.setCompressRequests(true);
+        Build build = createBuild(1000);
+        artifactoryManager.publishBuildInfo(build, null);
+        artifactoryManager.sendModuleInfo(build);
+        assertEquals(requests.size(), 2);
+        ReceivedRequest request = requests.get(0);
+        assertEquals(request.contentEncoding, "gzip");
+        assertEquals(request.contentType, "application/vnd.org.jfrog.artifactory+json");
+        assertTrue(request.wireBytes * 5 < request.body.length, request.wireBytes + " compressed bytes of " + request.body.length);
+        assertBuild(request, build);
+        assertEquals(requests.get(1).contentEncoding, "gzip");
+    }
+
+    public void testServerRejectsCompression() throws IOException {
+        assertCompressionRejected(415);
+    }
+
+    public void testServerRejectsCompressionWithBadRequest() throws IOException {
+        // A server which doesn't support RFC 7694 may reject the compressed body with another client error
+        assertCompressionRejected(400);
+    }
+
+    public void testClientErrorAfterCompressionAccepted() throws IOException {
+        artifactoryManager.setCompressRequests(true);
+        Build build = createBuild(100);
+        artifactoryManager.publishBuildInfo(build, null);
+        assertEquals(requests.get(0).contentEncoding, "gzip");
+
+        // Once the server accepted a compressed body, a client error isn't attributed to the compression
+        compressedRequestStatus = 400;
+        expectThrows(IOException.class, () -> artifactoryManager.sendModuleInfo(build));
+        assertEquals(requests.size(), 2);
+        assertEquals(requests.get(1).status, 400);
+    }
+
+    private void assertCompressionRejected(int status) throws IOException {
+        compressedRequestStatus = status;
+        artifactoryManager.setCompressRequests(true);
+        Build build = createBuild(100);
+        artifactoryManager.publishBuildInfo(build, null);
+        // The compressed request is rejected, and sent again uncompressed
+        assertEquals(requests.size(), 2);
+        assertEquals(requests.get(0).status, status);
+        assertNull(requests.get(1).contentEncoding);
+        assertBuild(requests.get(1), build);
+
+        // Following requests aren't compressed
+        artifactoryManager.sendModuleInfo(build);
+        assertEquals(requests.size(), 3);
+        assertNull(requests.get(2).contentEncoding);
+    }
+
+    public void testSmallBodiesNotCompressed() throws IOException {
+        artifactoryManager.setCompressRequests(true);
+        artifactoryManager.searchArtifactsByAql("items.find({\"repo\":\"libs-local\"})");
+        assertNull(requests.get(0).contentEncoding);
+
+        String largeAql = "items.find({\"$or\":[" + String.join(",", Collections.nCopies(100, "{\"actual_sha1\":\"0123456789abcdef0123456789abcdef01234567\"}")) + "]})";
+        AqlSearchResult result = artifactoryManager.searchArtifactsByAql(largeAql);
+        assertEquals(requests.get(1).contentEncoding, "gzip");
+        assertEquals(new String(requests.get(1).body, StandardCharsets.UTF_8), largeAql);
+        assertEquals(result.getResults().size(), 200);
+    }
+
+    public void testCompressedResponse() throws IOException {
+        AqlSearchResult result = artifactoryManager.searchArtifactsByAql("items.find()");
+        ReceivedRequest request = requests.get(0);
+        assertTrue(StringUtils.contains(request.acceptEncoding, "gzip"), request.acceptEncoding);
+        assertEquals(result.getResults().size(), 200);
+        assertEquals(result.getResults().get(199).getName(), "artifact-199.jar");
+    }
+
+    private static void assertBuild(ReceivedRequest request, Build build) throws IOException {
+        Build received = BuildInfoExtractorUtils.jsonStringToBuildInfo(new String(request.body, StandardCharsets.UTF_8));
+        assertEquals(received.getName(), build.getName());
+        assertEquals(received.getModules().size(), build.getModules().size());
+        assertEquals(received.getModules().get(0).getArtifacts().get(0).getSha1(), build.getModules().get(0).getArtifacts().get(0).getSha1());
+    }
+
+    private static Build createBuild(int modules) {
+        Build build = new Build();
+        build.setName("compressed-build");
+        build.setNumber("1");
+        build.setStartedDate(new Date(0));
+        List<Module> moduleList = new ArrayList<>();
+        for (int i = 0; i < modules; i++) {
+            Module module = new Module();
+            module.setId("org.example:module-" + i + ":1.0");
+            List<Artifact> artifacts = new ArrayList<>();
+            for (String type : new String[]{"jar", "pom"}) {
+                Artifact artifact = new Artifact();
+                artifact.setName("module-" + i + "-1.0." + type);
+                artifact.setType(type);
+                artifact.setSha1(StringUtils.leftPad(Integer.toHexString(i), 40, '0'));
+                artifact.setMd5(StringUtils.leftPad(Integer.toHexString(i), 32, '0'));
+                artifacts.add(artifact);
+            }
+            module.setArtifacts(artifacts);
+            moduleList.add(module);
+        }
+        build.setModules(moduleList);
+        return build;
+    }
+
+    private void handleRequest(HttpExchange exchange) throws IOException {
+        ReceivedRequest request = new ReceivedRequest();
+        request.contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        request.contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        request.transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+        request.contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        request.acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        byte[] wireBody = IOUtils.toByteArray(exchange.getRequestBody());
+        request.wireBytes = wireBody.length;
+        requests.add(request);
+        if ("gzip".equals(request.contentEncoding)) {
+            if (compressedRequestStatus != 0) {
+                request.status = compressedRequestStatus;
+                if (compressedRequestStatus == 415) {
+                    exchange.getResponseHeaders().add("Accept-Encoding", "identity");
+                }
+                exchange.sendResponseHeaders(compressedRequestStatus, -1);
+                exchange.close();
+                return;
+            }
+            try (InputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(wireBody))) {
+                request.body = IOUtils.toByteArray(gzipStream);
+            }
+        } else {
+            request.body = wireBody;
+        }
+
+        if (exchange.getRequestURI().getPath().equals("/api/search/aql")) {
+            StringBuilder results = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                results.append(i > 0 ? "," : "").append("{\"repo\":\"libs-local\",\"path\":\"org/example\",\"name\":\"artifact-").append(i).append(".jar\"}");
+            }
+            respond(exchange, request, "{\"results\":[" + results + "]}");
+            return;
+        }
+        request.status = 204;
+        exchange.sendResponseHeaders(204, -1);
+        exchange.close();
+    }
+
+    /**
+     * Respond with a compressed body if the client accepts it.
+     */
+    private static void respond(HttpExchange exchange, ReceivedRequest request, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (StringUtils.contains(request.acceptEncoding, "gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream gzipStream = new GZIPOutputStream(compressed)) {
+                gzipStream.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        request.status = 200;
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    private static class ReceivedRequest {
+        private String contentEncoding;
+        private String contentType;
+        private String transferEncoding;
+        private String contentLength;
+        private String acceptEncoding;
+        private long wireBytes;
+        private byte[] body;
+        private volatile int status;
+    }
+}
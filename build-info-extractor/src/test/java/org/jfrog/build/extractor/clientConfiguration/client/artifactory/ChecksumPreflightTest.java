@@ -0,0 +1,235 @@
+package org.jfrog.build.extractor.clientConfiguration.client.artifactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.util.TestingLog;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the checksums pre-flight of the ArtifactoryManager uploads against a local fake Artifactory.
+ */
+@Test
+public class ChecksumPreflightTest {
+    private static final Pattern AQL_SHA1_PATTERN = Pattern.compile("\"actual_sha1\":\"([0-9a-f]{40})\"");
+    private static final String VERSION = "version";
+    private static final String AQL = "aql";
+    private static final String CHECKSUM_DEPLOY = "checksumDeploy";
+    private static final String CONTENT_DEPLOY = "contentDeploy";
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final Set<String> existingChecksums = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger contentBytes = new AtomicInteger();
+    private volatile boolean aqlForbidden;
+    private HttpServer server;
+    private ArtifactoryManager artifactoryManager;
+    private File tempDir;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handleRequest);
+        server.start();
+    }
+
+    @AfterClass
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @BeforeMethod
+    public void createManager() throws IOException {
+        requests.clear();
+        existingChecksums.clear();
+        contentBytes.set(0);
+        aqlForbidden = false;
+        tempDir = Files.createTempDirectory("checksumPreflight").toFile();
+        artifactoryManager = new ArtifactoryManager("http://127.0.0.1:" + server.getAddress().getPort(), "user", "password", new TestingLog());
+    }
+
+    @AfterMethod
+    public void closeManager() throws IOException {
+        artifactoryManager.close();
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    public void testUploadsUsePreflight() throws IOException {
+        DeployDetails existingSmall = createDeployDetails("existing-small.txt", 1024, true);
+        DeployDetails existingLarge = createDeployDetails("existing-large.bin", 20 * 1024, true);
+        DeployDetails missingLarge = createDeployDetails("missing-large.bin", 30 * 1024, false);
+        List<DeployDetails> details = Arrays.asList(existingSmall, existingLarge, missingLarge);
+
+        ChecksumPreflight checksumPreflight = artifactoryManager.preflightChecksums(details);
+        assertEquals(count(AQL), 1);
+        assertEquals(checksumPreflight.getExistingCount(), 2);
+        assertEquals(checksumPreflight.getMissingCount(), 1);
+
+        for (DeployDetails detail : details) {
+            assertEquals(artifactoryManager.upload(detail, null, 10).getChecksums().getSha1(), detail.getSha1());
+        }
+        // Existing checksums are deployed by checksum regardless of their size, without checking the version first
+        assertEquals(count(VERSION), 0);
+        assertEquals(count(CHECKSUM_DEPLOY), 2);
+        // Missing checksums are deployed with their content, without trying a checksum deploy first
+        assertEquals(count(CONTENT_DEPLOY), 1);
+        assertEquals(contentBytes.get(), 30 * 1024);
+
+        // The small existing file saves its version request and content, the large existing file saves its version
+        // request, and the missing file saves its version request and checksum deploy attempt
+        assertEquals(checksumPreflight.getSavedRequests(), 4);
+        assertEquals(checksumPreflight.getSavedBytes(), 1024);
+        assertEquals(checksumPreflight.getQueries(), 1);
+
+        // Searched checksums aren't searched again
+        artifactoryManager.preflightChecksums(details);
+        assertEquals(count(AQL), 1);
+    }
+
+    public void testUploadsWithoutPreflight() throws IOException {
+        List<DeployDetails> details = Arrays.asList(
+                createDeployDetails("existing-small.txt", 1024, true),
+                createDeployDetails("existing-large.bin", 20 * 1024, true),
+                createDeployDetails("missing-large.bin", 30 * 1024, false));
+        for (DeployDetails detail : details) {
+            artifactoryManager.upload(detail, null, 10);
+        }
+        assertEquals(count(AQL), 0);
+        assertEquals(count(VERSION), 3);
+        assertEquals(count(CHECKSUM_DEPLOY), 2);
+        assertEquals(count(CONTENT_DEPLOY), 2);
+        assertEquals(contentBytes.get(), 31 * 1024);
+    }
+
+    public void testSearchFailure() throws IOException {
+        aqlForbidden = true;
+        DeployDetails existingLarge = createDeployDetails("existing-large.bin", 20 * 1024, true);
+        ChecksumPreflight checksumPreflight = artifactoryManager.preflightChecksums(Collections.singletonList(existingLarge));
+        assertEquals(count(AQL), 1);
+        assertEquals(checksumPreflight.getExistingCount(), 0);
+        assertEquals(checksumPreflight.getMissingCount(), 0);
+
+        // The checksum is unknown, so the upload tries a checksum deploy as usual
+        artifactoryManager.upload(existingLarge, null, 10);
+        assertEquals(count(VERSION), 1);
+        assertEquals(count(CHECKSUM_DEPLOY), 1);
+        assertEquals(checksumPreflight.getSavedRequests(), 0);
+    }
+
+    public void testBulkSearch() throws IOException {
+        File file = createFile("file.bin", 1);
+        List<DeployDetails> details = new ArrayList<>();
+        for (int i = 0; i < ChecksumPreflight.AQL_BULK_SIZE * 2 + 1; i++) {
+            String sha1 = DigestUtils.sha1Hex("content " + i);
+            if (i % 3 == 0) {
+                existingChecksums.add(sha1);
+            }
+            details.add(new DeployDetails.Builder().file(file).targetRepository("libs-local").artifactPath("file-" + i)
+                    .sha1(sha1.toUpperCase()).md5("").build());
+        }
+        ChecksumPreflight checksumPreflight = artifactoryManager.preflightChecksums(details);
+        assertEquals(count(AQL), 3);
+        assertEquals(checksumPreflight.getExistingCount(), ChecksumPreflight.AQL_BULK_SIZE * 2 / 3 + 1);
+        assertEquals(checksumPreflight.getMissingCount() + checksumPreflight.getExistingCount(), details.size());
+
+        artifactoryManager.clearPreflightChecksums();
+        assertEquals(checksumPreflight.getExistingCount(), 0);
+    }
+
+    private DeployDetails createDeployDetails(String name, int size, boolean existing) throws IOException {
+        File file = createFile(name, size);
+        String sha1 = DigestUtils.sha1Hex(FileUtils.readFileToByteArray(file));
+        if (existing) {
+            existingChecksums.add(sha1);
+        }
+        return new DeployDetails.Builder().file(file).targetRepository("libs-local").artifactPath("org/example/" + name)
+                .sha1(sha1).md5(DigestUtils.md5Hex(FileUtils.readFileToByteArray(file))).build();
+    }
+
+    private File createFile(String name, int size) throws IOException {
+        File file = new File(tempDir, name);
+        byte[] content = new byte[size];
+        new Random(name.hashCode()).nextBytes(content);
+        FileUtils.writeByteArrayToFile(file, content);
+        return file;
+    }
+
+    private int count(String requestType) {
+        AtomicInteger counter = requests.get(requestType);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private void handleRequest(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+        if (path.equals("/api/system/version")) {
+            countRequest(VERSION);
+            respond(exchange, 200, "{\"version\":\"7.10.0\",\"addons\":[]}");
+        } else if (path.equals("/api/search/aql")) {
+            countRequest(AQL);
+            if (aqlForbidden) {
+                respond(exchange, 403, "{\"errors\":[{\"status\":403,\"message\":\"Forbidden\"}]}");
+                return;
+            }
+            StringBuilder results = new StringBuilder();
+            Matcher matcher = AQL_SHA1_PATTERN.matcher(new String(body, StandardCharsets.UTF_8));
+            while (matcher.find()) {
+                if (existingChecksums.contains(matcher.group(1))) {
+                    results.append(results.length() > 0 ? "," : "").append("{\"actual_sha1\":\"").append(matcher.group(1)).append("\"}");
+                }
+            }
+            respond(exchange, 200, "{\"results\":[" + results + "]}");
+        } else if ("PUT".equals(exchange.getRequestMethod())) {
+            String sha1 = exchange.getRequestHeaders().getFirst("X-Checksum-Sha1");
+            if ("true".equals(exchange.getRequestHeaders().getFirst("X-Checksum-Deploy"))) {
+                countRequest(CHECKSUM_DEPLOY);
+                if (!existingChecksums.contains(sha1)) {
+                    respond(exchange, 404, "{\"errors\":[{\"status\":404,\"message\":\"Checksum not found\"}]}");
+                    return;
+                }
+            } else {
+                countRequest(CONTENT_DEPLOY);
+                contentBytes.addAndGet(body.length);
+                existingChecksums.add(sha1);
+            }
+            respond(exchange, 201, "{\"repo\":\"libs-local\",\"path\":\"" + path + "\",\"checksums\":{\"sha1\":\"" + sha1 + "\"}}");
+        } else {
+            respond(exchange, 400, "{\"errors\":[{\"status\":400,\"message\":\"Bad Request\"}]}");
+        }
+    }
+
+    private void countRequest(String requestType) {
+        requests.computeIfAbsent(requestType, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.jfrog.build.extractor.clientConfiguration.client.artifactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jfrog.build.extractor.util.TestingLog;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the repositories cache of the ArtifactoryManager against a local fake repositories endpoint.
+ */
+@Test
+public class RepositoriesCacheTest {
+    private static final String REPOSITORIES_LIST = "[" +
+            "{\"key\":\"libs-local\",\"type\":\"LOCAL\",\"packageType\":\"Maven\"}," +
+            "{\"key\":\"docker-local\",\"type\":\"LOCAL\",\"packageType\":\"Docker\"}," +
+            "{\"key\":\"jcenter\",\"type\":\"REMOTE\",\"packageType\":\"Maven\"}," +
+            "{\"key\":\"libs\",\"type\":\"VIRTUAL\",\"packageType\":\"Maven\"}]";
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private volatile boolean listForbidden;
+    private HttpServer server;
+    private ArtifactoryManager artifactoryManager;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/repositories", this::handleRepositoriesRequest);
+        server.start();
+    }
+
+    @AfterClass
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @BeforeMethod
+    public void createManager() {
+        requests.clear();
+        listForbidden = false;
+        artifactoryManager = createManager("user", "password");
+        // The cache is shared between the managers of the same server, so it may contain the list of a previous test
+        artifactoryManager.invalidateRepositoriesCache();
+    }
+
+    private ArtifactoryManager createManager(String username, String password) {
+        return new ArtifactoryManager("http://127.0.0.1:" + server.getAddress().getPort(), username, password, new TestingLog());
+    }
+
+    @AfterMethod
+    public void closeManager() {
+        artifactoryManager.close();
+    }
+
+    public void testRepositoryChecksUseSingleRequest() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(artifactoryManager.isLocalRepo("libs-local"));
+            assertFalse(artifactoryManager.isLocalRepo("jcenter"));
+            assertTrue(artifactoryManager.isRemoteRepo("jcenter"));
+            assertFalse(artifactoryManager.isRemoteRepo("libs"));
+            assertTrue(artifactoryManager.isRepositoryExist("docker-local"));
+        }
+        assertEquals(artifactoryManager.getLocalRepositoriesKeys(), Arrays.asList("libs-local", "docker-local"));
+        assertEquals(artifactoryManager.getRemoteRepositoriesKeys(), Collections.singletonList("jcenter"));
+        assertEquals(artifactoryManager.getVirtualRepositoriesKeys(), Collections.singletonList("libs"));
+        assertEquals(requests.keySet(), Collections.singleton("/api/repositories"));
+        assertEquals(requests.get("/api/repositories").get(), 1);
+    }
+
+    public void testSharedBetweenManagers() throws IOException {
+        assertTrue(artifactoryManager.isLocalRepo("libs-local"));
+        try (ArtifactoryManager otherManager = createManager("user", "password")) {
+            assertTrue(otherManager.isRemoteRepo("jcenter"));
+            assertTrue(otherManager.isRepositoryExist("libs"));
+        }
+        assertEquals(requests.get("/api/repositories").get(), 1);
+
+        // Managers of other users don't share the list, since it depends on the user permissions
+        try (ArtifactoryManager otherUserManager = createManager("other-user", "password")) {
+            otherUserManager.invalidateRepositoriesCache();
+            assertTrue(otherUserManager.isLocalRepo("libs-local"));
+        }
+        assertEquals(requests.get("/api/repositories").get(), 2);
+
+        // Invalidating the cache of one manager, for example after creating a repository, applies to all managers
+        try (ArtifactoryManager otherManager = createManager("user", "password")) {
+            otherManager.invalidateRepositoriesCache();
+        }
+        assertTrue(artifactoryManager.isLocalRepo("libs-local"));
+        assertEquals(requests.get("/api/repositories").get(), 3);
+    }
+
+    public void testSharedCachesBounded() {
+        RepositoriesCache first = RepositoriesCache.getSharedCache("http://bounded/0", "user", "password", null);
+        RepositoriesCache recent = RepositoriesCache.getSharedCache("http://bounded/1", "user", "password", null);
+        for (int i = 2; i <= RepositoriesCache.MAX_SHARED_CACHES; i++) {
+            RepositoriesCache.getSharedCache("http://bounded/" + i, "user", "password", null);
+            // Keep the second cache recently used
+            assertSame(RepositoriesCache.getSharedCache("http://bounded/1", "user", "password", null), recent);
+        }
+        // The least recently used cache was evicted
+        assertNotSame(RepositoriesCache.getSharedCache("http://bounded/0", "user", "password", null), first);
+        assertSame(RepositoriesCache.getSharedCache("http://bounded/1", "user", "password", null), recent);
+    }
+
+    public void testUnknownRepositoryFallsBack() throws IOException {
+        assertFalse(artifactoryManager.isRepositoryExist("missing"));
+        expectThrows(IOException.class, () -> artifactoryManager.isLocalRepo("missing"));
+        assertEquals(requests.get("/api/repositories").get(), 1);
+        assertEquals(requests.get("/api/repositories/missing").get(), 2);
+    }
+
+    public void testInvalidate() throws IOException {
+        assertTrue(artifactoryManager.isRepositoryExist("libs-local"));
+        artifactoryManager.invalidateRepositoriesCache();
+        assertTrue(artifactoryManager.isRepositoryExist("libs-local"));
+        assertEquals(requests.get("/api/repositories").get(), 2);
+    }
+
+    public void testTtl() throws IOException, InterruptedException {
+        artifactoryManager.setRepositoriesCacheTtl(50, TimeUnit.MILLISECONDS);
+        assertTrue(artifactoryManager.isLocalRepo("libs-local"));
+        assertTrue(artifactoryManager.isLocalRepo("libs-local"));
+        assertEquals(requests.get("/api/repositories").get(), 1);
+        Thread.sleep(100);
+        assertTrue(artifactoryManager.isLocalRepo("libs-local"));
+        assertEquals(requests.get("/api/repositories").get(), 2);
+    }
+
+    public void testDisabled() throws IOException {
+        artifactoryManager.setRepositoriesCacheTtl(0, TimeUnit.MILLISECONDS);
+        assertTrue(artifactoryManager.isLocalRepo("libs-local"));
+        assertTrue(artifactoryManager.isLocalRepo("libs-local"));
+        assertNull(requests.get("/api/repositories"));
+        assertEquals(requests.get("/api/repositories/libs-local").get(), 2);
+    }
+
+    public void testListUnavailable() throws IOException {
+        listForbidden = true;
+        for (int i = 0; i < 3; i++) {
+            assertTrue(artifactoryManager.isLocalRepo("libs-local"));
+        }
+        assertEquals(artifactoryManager.getLocalRepositoriesKeys(), Arrays.asList("libs-local", "docker-local"));
+        // The failure is cached too, so the list isn't requested again until the TTL expires
+        assertEquals(requests.get("/api/repositories").get(), 1);
+        assertEquals(requests.get("/api/repositories/libs-local").get(), 3);
+        assertEquals(requests.get("/api/repositories?type=local").get(), 1);
+    }
+
+    private void handleRepositoriesRequest(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().toString();
+        requests.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        String query = exchange.getRequestURI().getQuery();
+        if (path.equals("/api/repositories") && listForbidden) {
+            respond(exchange, 403, "{\"errors\":[{\"status\":403,\"message\":\"Forbidden\"}]}");
+        } else if (path.equals("/api/repositories")) {
+            respond(exchange, 200, REPOSITORIES_LIST);
+        } else if ("type=local".equals(query)) {
+            respond(exchange, 200, "[{\"key\":\"libs-local\"},{\"key\":\"docker-local\"}]");
+        } else if (path.equals("/api/repositories/libs-local")) {
+            respond(exchange, 200, "{\"key\":\"libs-local\",\"rclass\":\"local\"}");
+        } else {
+            respond(exchange, 400, "{\"errors\":[{\"status\":400,\"message\":\"Bad Request\"}]}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.jfrog.build.extractor.clientConfiguration.client.distribution;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jfrog.build.client.JFrogHttpClient;
+import org.jfrog.build.extractor.clientConfiguration.client.distribution.request.DistributeReleaseBundleRequest;
+import org.jfrog.build.extractor.clientConfiguration.client.distribution.response.DistributeReleaseBundleResponse;
+import org.jfrog.build.extractor.clientConfiguration.client.distribution.response.DistributionStatusResponse;
+import org.jfrog.build.extractor.clientConfiguration.client.distribution.services.DistributeReleaseBundle;
+import org.jfrog.build.extractor.util.TestingLog;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the distribution status tracker against a local fake distribution endpoint.
+ * The fake endpoint reports the distribution of bundle "[prefix]-N" as completed after N + 1 status checks.
+ */
+@Test
+public class DistributionStatusTrackerTest {
+    private static final String STATUS_ENDPOINT_PREFIX = "/api/v1/release_bundle/";
+    private static final String DISTRIBUTE_ENDPOINT_PREFIX = "/api/v1/distribution/";
+    private static final int BUNDLES_COUNT = 20;
+
+    private final Map<String, AtomicInteger> statusChecks = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private JFrogHttpClient client;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(STATUS_ENDPOINT_PREFIX, this::handleStatusRequest);
+        server.createContext(DISTRIBUTE_ENDPOINT_PREFIX, this::handleDistributeRequest);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        client = new JFrogHttpClient("http://127.0.0.1:" + server.getAddress().getPort(), "user", "password", new TestingLog());
+    }
+
+    @AfterClass
+    public void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    public void testTrackManyDistributions() throws Exception {
+        Map<String, List<String>> progress = new ConcurrentHashMap<>();
+        try (DistributionStatusTracker tracker = new DistributionStatusTracker(client, new TestingLog(), 10, 40, TimeUnit.SECONDS.toMillis(30))) {
+            List<CompletableFuture<DistributionStatusResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < BUNDLES_COUNT; i++) {
+                futures.add(tracker.track("bundle-" + i, "1.0", "tracker-" + i, (name, version, status) ->
+                        progress.computeIfAbsent(name, key -> new CopyOnWriteArrayList<>()).add(status.getSites().get(0).getStatus())));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+            for (int i = 0; i < BUNDLES_COUNT; i++) {
+                DistributionStatusResponse response = futures.get(i).get();
+                assertEquals(response.getStatus(), "Completed");
+                assertEquals(statusChecks.get("bundle-" + i).get(), i + 1);
+                // Each status check makes progress, so the listener is notified on each of them
+                assertEquals(progress.get("bundle-" + i).size(), i + 1);
+            }
+        }
+    }
+
+    public void testFailedDistribution() throws InterruptedException, TimeoutException {
+        try (DistributionStatusTracker tracker = new DistributionStatusTracker(client, new TestingLog(), 10, 40, TimeUnit.SECONDS.toMillis(30))) {
+            tracker.track("failed", "1.0", "tracker").get(30, TimeUnit.SECONDS);
+            fail("Expecting the distribution to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertTrue(e.getCause().getMessage().contains("failed/1.0"), e.getCause().getMessage());
+        }
+    }
+
+    public void testTimeout() throws InterruptedException, TimeoutException {
+        try (DistributionStatusTracker tracker = new DistributionStatusTracker(client, new TestingLog(), 10, 20, 200)) {
+            tracker.track("stuck", "1.0", "tracker").get(30, TimeUnit.SECONDS);
+            fail("Expecting the distribution to time out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertTrue(e.getCause().getMessage().startsWith("Timeout"), e.getCause().getMessage());
+        }
+    }
+
+    public void testClose() throws InterruptedException, TimeoutException {
+        CompletableFuture<DistributionStatusResponse> future;
+        try (DistributionStatusTracker tracker = new DistributionStatusTracker(client, new TestingLog(), 10, 20, TimeUnit.SECONDS.toMillis(30))) {
+            future = tracker.track("stuck", "1.0", "tracker");
+        }
+        try {
+            future.get(30, TimeUnit.SECONDS);
+            fail("Expecting the tracking to stop");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    public void testSyncDistributions() throws IOException {
+        try (DistributionManager distributionManager = new DistributionManager("http://127.0.0.1:" + server.getAddress().getPort(), "user", "password", new TestingLog())) {
+            // Sync distributions wait using the status tracker of the manager
+            for (int i = 0; i < 2; i++) {
+                DistributeReleaseBundleRequest request = new DistributeReleaseBundleRequest();
+                DistributeReleaseBundleResponse response = distributionManager.distributeReleaseBundle("sync-" + i, "1.0", true, request);
+                assertEquals(response.getTrackerId(), "tracker-sync-" + i);
+                assertEquals(statusChecks.get("sync-" + i).get(), i + 1);
+            }
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    public void testSyncDistributionWithDefaultTracker() throws IOException {
+        // The deprecated constructor waits using a tracker created for the distribution
+        DistributeReleaseBundleResponse response = new DistributeReleaseBundle("default-1", "1.0", true,
+                new DistributeReleaseBundleRequest(), new TestingLog()).execute(client);
+        assertEquals(response.getTrackerId(), "tracker-default-1");
+        assertEquals(statusChecks.get("default-1").get(), 2);
+    }
+
+    /**
+     * Handle a request to /api/v1/distribution/[name]/[version].
+     */
+    private void handleDistributeRequest(HttpExchange exchange) throws IOException {
+        String name = exchange.getRequestURI().getPath().substring(DISTRIBUTE_ENDPOINT_PREFIX.length()).split("/")[0];
+        respond(exchange, "{\"id\":\"tracker-" + name + "\",\"sites\":[]}");
+    }
+
+    /**
+     * Handle a request to /api/v1/release_bundle/[name]/[version]/distribution/[tracker-id].
+     */
+    private void handleStatusRequest(HttpExchange exchange) throws IOException {
+        String name = exchange.getRequestURI().getPath().substring(STATUS_ENDPOINT_PREFIX.length()).split("/")[0];
+        int checks = statusChecks.computeIfAbsent(name, key -> new AtomicInteger()).incrementAndGet();
+        String status;
+        switch (name) {
+            case "failed":
+                status = "Failed";
+                break;
+            case "stuck":
+                status = "In progress";
+                break;
+            default:
+                int requiredChecks = Integer.parseInt(name.substring(name.lastIndexOf('-') + 1)) + 1;
+                status = checks >= requiredChecks ? "Completed" : "In progress";
+        }
+        String body = "{\"status\":\"" + status + "\",\"sites\":[{\"status\":\"" + status + "\"," +
+                "\"target_artifactory\":{\"name\":\"edge\"},\"distributed_files\":" + checks + ",\"total_files\":100}]}";
+        respond(exchange, body);
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
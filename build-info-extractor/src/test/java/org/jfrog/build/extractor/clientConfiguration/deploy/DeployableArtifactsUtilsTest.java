@@ -0,0 +1,173 @@
+package org.jfrog.build.extractor.clientConfiguration.deploy;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.apache.commons.io.FileUtils;
+import org.jfrog.build.client.DeployableArtifactDetail;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
+import static org.testng.Assert.*;
+
+@Test
+public class DeployableArtifactsUtilsTest {
+    private File tempDir;
+    private File deployableArtifactsFile;
+    private File backwardCompatibleFile;
+    private File artifactFile;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("deployable-artifacts").toFile();
+        deployableArtifactsFile = new File(tempDir, "deployable-artifacts.json");
+        backwardCompatibleFile = new File(tempDir, "deployable-artifacts-backward-compatible.json");
+        artifactFile = new File(tempDir, "artifact.jar");
+        FileUtils.writeStringToFile(artifactFile, "artifact", "UTF-8");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    public void testSaveAndLoad() throws IOException {
+        Map<String, Set<DeployDetails>> deployableArtifactsByModule = new LinkedHashMap<>();
+        deployableArtifactsByModule.put("org:module1:1.0", createDeployDetails("module1", 3));
+        deployableArtifactsByModule.put("org:module2:1.0", createDeployDetails("module2", 2));
+        deployableArtifactsByModule.put("org:module3:1.0", new LinkedHashSet<>());
+        DeployableArtifactsUtils.saveDeployableArtifactsToFile(deployableArtifactsByModule, deployableArtifactsFile, false);
+
+        Map<String, List<DeployableArtifactDetail>> loaded = DeployableArtifactsUtils.loadDeployableArtifactsFromFile(deployableArtifactsFile, backwardCompatibleFile);
+        assertEquals(loaded.keySet(), deployableArtifactsByModule.keySet());
+        assertTrue(loaded.get("org:module3:1.0").isEmpty());
+        assertArtifacts(loaded.get("org:module1:1.0"), deployableArtifactsByModule.get("org:module1:1.0"));
+        assertArtifacts(loaded.get("org:module2:1.0"), deployableArtifactsByModule.get("org:module2:1.0"));
+
+        // The file should be readable as a whole, like before
+        Map<String, List<DeployableArtifactDetail>> readByMapper = createMapper().readValue(deployableArtifactsFile,
+                new TypeReference<Map<String, List<DeployableArtifactDetail>>>() {
+                });
+        assertEquals(readByMapper.keySet(), deployableArtifactsByModule.keySet());
+        assertArtifacts(readByMapper.get("org:module1:1.0"), deployableArtifactsByModule.get("org:module1:1.0"));
+    }
+
+    public void testBackwardCompatible() throws IOException {
+        Map<String, Set<DeployDetails>> deployableArtifactsByModule = new LinkedHashMap<>();
+        deployableArtifactsByModule.put("org:module1:1.0", createDeployDetails("module1", 2));
+        deployableArtifactsByModule.put("org:module2:1.0", createDeployDetails("module2", 1));
+        DeployableArtifactsUtils.saveDeployableArtifactsToFile(deployableArtifactsByModule, backwardCompatibleFile, true);
+
+        // The deployable artifacts file doesn't exist - fall back to the backward compatible file
+        Map<String, List<DeployableArtifactDetail>> loaded = DeployableArtifactsUtils.loadDeployableArtifactsFromFile(deployableArtifactsFile, backwardCompatibleFile);
+        assertEquals(loaded.keySet(), Collections.singleton(""));
+        List<DeployDetails> allDeployDetails = new ArrayList<>();
+        deployableArtifactsByModule.values().forEach(allDeployDetails::addAll);
+        assertArtifacts(loaded.get(""), allDeployDetails);
+
+        // An empty map falls back to the backward compatible file too
+        FileUtils.writeStringToFile(deployableArtifactsFile, "{}", "UTF-8");
+        assertEquals(DeployableArtifactsUtils.loadDeployableArtifactsFromFile(deployableArtifactsFile, backwardCompatibleFile).get("").size(), 3);
+    }
+
+    public void testLoadMissingFiles() throws IOException {
+        assertTrue(DeployableArtifactsUtils.loadDeployableArtifactsFromFile(deployableArtifactsFile, null).isEmpty());
+        assertTrue(DeployableArtifactsUtils.loadDeployableArtifactsFromFile(null, backwardCompatibleFile).isEmpty());
+    }
+
+    public void testIncrementalWriteAndVisit() throws IOException {
+        int modules = 20;
+        int artifactsPerModule = 1000;
+        try (DeployableArtifactsWriter writer = new DeployableArtifactsWriter(deployableArtifactsFile, false)) {
+            for (int i = 0; i < modules; i++) {
+                writer.writeModule("module" + i, createDeployDetails("module" + i, artifactsPerModule));
+            }
+        }
+
+        AtomicInteger modulesCount = new AtomicInteger();
+        AtomicInteger artifactsCount = new AtomicInteger();
+        DeployableArtifactsUtils.visitDeployableArtifacts(deployableArtifactsFile, backwardCompatibleFile, new DeployableArtifactsUtils.DeployableArtifactsVisitor() {
+            @Override
+            public void visitModule(String module) {
+                assertEquals(module, "module" + modulesCount.getAndIncrement());
+            }
+
+            @Override
+            public void visit(String module, DeployableArtifactDetail artifact) {
+                assertEquals(module, "module" + (modulesCount.get() - 1));
+                assertTrue(artifact.getArtifactDest().startsWith(module + "/"));
+                artifactsCount.incrementAndGet();
+            }
+        });
+        assertEquals(modulesCount.get(), modules);
+        assertEquals(artifactsCount.get(), modules * artifactsPerModule);
+    }
+
+    public void testRepeatedModuleMerged() throws IOException {
+        // Two Gradle projects with the same name, such as :a:core and :b:core, are written as the same module
+        try (DeployableArtifactsWriter writer = new DeployableArtifactsWriter(deployableArtifactsFile, false)) {
+            writer.writeModule("core", createDeployDetails("a", 2));
+            writer.writeModule("other", createDeployDetails("other", 1));
+            writer.writeModule("core", createDeployDetails("b", 3));
+        }
+        Map<String, List<DeployableArtifactDetail>> loaded = DeployableArtifactsUtils.loadDeployableArtifactsFromFile(deployableArtifactsFile, null);
+        assertEquals(loaded.keySet(), new HashSet<>(Arrays.asList("core", "other")));
+        List<DeployDetails> coreDeployDetails = new ArrayList<>(createDeployDetails("a", 2));
+        coreDeployDetails.addAll(createDeployDetails("b", 3));
+        assertArtifacts(loaded.get("core"), coreDeployDetails);
+        assertEquals(loaded.get("other").size(), 1);
+    }
+
+    public void testVisitorStops() throws IOException {
+        Map<String, Set<DeployDetails>> deployableArtifactsByModule = new LinkedHashMap<>();
+        deployableArtifactsByModule.put("module", createDeployDetails("module", 10));
+        DeployableArtifactsUtils.saveDeployableArtifactsToFile(deployableArtifactsByModule, deployableArtifactsFile, false);
+
+        AtomicInteger visited = new AtomicInteger();
+        expectThrows(IOException.class, () -> DeployableArtifactsUtils.visitDeployableArtifacts(deployableArtifactsFile, null, (module, artifact) -> {
+            if (visited.incrementAndGet() == 2) {
+                throw new IOException("stop");
+            }
+        }));
+        assertEquals(visited.get(), 2);
+    }
+
+    public void testMalformedFile() throws IOException {
+        FileUtils.writeStringToFile(deployableArtifactsFile, "{\"module\": [{\"sourcePath\": \"a\"}", "UTF-8");
+        expectThrows(IOException.class, () -> DeployableArtifactsUtils.loadDeployableArtifactsFromFile(deployableArtifactsFile, null));
+        FileUtils.writeStringToFile(deployableArtifactsFile, "[]", "UTF-8");
+        expectThrows(IOException.class, () -> DeployableArtifactsUtils.loadDeployableArtifactsFromFile(deployableArtifactsFile, null));
+    }
+
+    private Set<DeployDetails> createDeployDetails(String module, int count) {
+        Set<DeployDetails> deployDetails = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            deployDetails.add(new DeployDetails.Builder()
+                    .file(artifactFile)
+                    .artifactPath(module + "/" + module + "-" + i + ".jar")
+                    .targetRepository("libs-release-local")
+                    .sha1("sha1-" + module + "-" + i)
+                    .md5("md5-" + module + "-" + i)
+                    .build());
+        }
+        return deployDetails;
+    }
+
+    private static void assertArtifacts(List<DeployableArtifactDetail> actual, Collection<DeployDetails> expected) {
+        assertEquals(actual.size(), expected.size());
+        Iterator<DeployableArtifactDetail> actualIterator = actual.iterator();
+        for (DeployDetails deployDetails : expected) {
+            DeployableArtifactDetail artifact = actualIterator.next();
+            assertEquals(artifact.getSourcePath(), deployDetails.getFile().getAbsolutePath());
+            assertEquals(artifact.getArtifactDest(), deployDetails.getArtifactPath());
+            assertEquals(artifact.getSha1(), deployDetails.getSha1());
+            assertEquals(artifact.getTargetRepository(), deployDetails.getTargetRepository());
+        }
+    }
+}
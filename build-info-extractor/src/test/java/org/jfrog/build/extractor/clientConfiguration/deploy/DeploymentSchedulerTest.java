@@ -0,0 +1,154 @@
+package org.jfrog.build.extractor.clientConfiguration.deploy;
+
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the deployment scheduler by simulating parallel deployments of the scheduled tasks.
+ */
+@Test
+public class DeploymentSchedulerTest {
+    private static final long KB = 1024;
+    private static final long MB = 1024 * KB;
+    private static final long GB = 1024 * MB;
+    // Simulated upload cost: a fixed overhead per request, a fixed overhead per task handoff and 100 MB per second
+    private static final double REQUEST_OVERHEAD_SECONDS = 0.02;
+    private static final double TASK_HANDOFF_SECONDS = 0.001;
+    private static final double BYTES_PER_SECOND = 100 * MB;
+    private static final int WORKERS = 3;
+
+    private final DeploymentScheduler scheduler = new DeploymentScheduler();
+
+    public void testLargeFileDiscoveredLast() {
+        List<Long> sizes = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            sizes.add(4 * KB);
+        }
+        sizes.add(4 * GB);
+        List<List<Long>> chains = singletons(sizes);
+
+        double discoveryOrderMakespan = simulate(chains);
+        double scheduledMakespan = simulate(scheduler.schedule(chains, Long::longValue));
+        // In discovery order, the large file starts after all small files are uploaded. When scheduled, the small
+        // files are uploaded by the other workers while the large file is uploaded.
+        assertTrue(scheduledMakespan < discoveryOrderMakespan * 0.7, scheduledMakespan + " vs " + discoveryOrderMakespan);
+        assertEquals(scheduledMakespan, cost(4 * GB) + TASK_HANDOFF_SECONDS, 0.001);
+    }
+
+    public void testRandomSizes() {
+        Random random = new Random(7);
+        for (int run = 0; run < 20; run++) {
+            List<Long> sizes = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                // Mostly small files with a few large ones, in random positions
+                sizes.add(random.nextInt(20) == 0 ? (long) (random.nextDouble() * GB) : (long) (random.nextDouble() * 512 * KB));
+            }
+            List<List<Long>> chains = singletons(sizes);
+            List<List<Long>> tasks = scheduler.schedule(chains, Long::longValue);
+            double scheduledMakespan = simulate(tasks);
+            double discoveryOrderMakespan = simulate(chains);
+            assertTrue(scheduledMakespan <= discoveryOrderMakespan + 1e-9, scheduledMakespan + " vs " + discoveryOrderMakespan);
+
+            // The LPT schedule is within 4/3 of the optimal makespan, up to the cost of a small batch
+            double totalCost = 0;
+            double largestCost = 0;
+            for (List<Long> task : tasks) {
+                double taskCost = cost(task);
+                totalCost += taskCost;
+                largestCost = Math.max(largestCost, taskCost);
+            }
+            double lowerBound = Math.max(totalCost / WORKERS, largestCost);
+            double smallBatchCost = DeploymentScheduler.DEFAULT_MAX_BATCH_ITEMS * REQUEST_OVERHEAD_SECONDS +
+                    DeploymentScheduler.DEFAULT_SMALL_TASK_BYTES / BYTES_PER_SECOND;
+            assertTrue(scheduledMakespan <= lowerBound * 4 / 3 + smallBatchCost, scheduledMakespan + " vs " + lowerBound);
+            assertEquals(tasks.stream().mapToInt(List::size).sum(), sizes.size());
+        }
+    }
+
+    public void testSmallFilesCoalesced() {
+        List<Long> sizes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            sizes.add(KB);
+        }
+        List<List<Long>> tasks = scheduler.schedule(singletons(sizes), Long::longValue);
+        assertEquals(tasks.size(), 1000 / DeploymentScheduler.DEFAULT_MAX_BATCH_ITEMS + 1);
+        for (List<Long> task : tasks) {
+            assertTrue(task.size() <= DeploymentScheduler.DEFAULT_MAX_BATCH_ITEMS);
+        }
+        // Fewer task handoffs
+        assertTrue(simulate(tasks) < simulate(singletons(sizes)));
+
+        // Coalescing is disabled with a zero small task size
+        assertEquals(new DeploymentScheduler(0, 16).schedule(singletons(sizes), Long::longValue).size(), 1000);
+    }
+
+    public void testChainsKeepOrder() {
+        List<List<Long>> chains = new ArrayList<>();
+        // Modules of a few artifacts, with the descriptor last. Sizes are unique, to identify the artifacts.
+        for (int module = 0; module < 50; module++) {
+            List<Long> chain = new ArrayList<>();
+            for (int artifact = 0; artifact < 4; artifact++) {
+                chain.add((module % 5 == 0 ? 10 * MB : 10 * KB) + module * 10 + artifact);
+            }
+            chains.add(chain);
+        }
+        List<List<Long>> tasks = scheduler.schedule(chains, Long::longValue);
+        Map<Long, Integer> taskOfArtifact = new HashMap<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            for (Long artifact : tasks.get(i)) {
+                assertNull(taskOfArtifact.put(artifact, i), "Duplicate artifact " + artifact);
+            }
+        }
+        for (List<Long> chain : chains) {
+            // A chain is never split, and keeps its order within the task
+            int task = taskOfArtifact.get(chain.get(0));
+            List<Long> chainInTask = tasks.get(task).stream().filter(chain::contains).collect(Collectors.toList());
+            assertEquals(chainInTask, chain);
+            int start = tasks.get(task).indexOf(chain.get(0));
+            assertEquals(tasks.get(task).subList(start, start + chain.size()), chain);
+        }
+        // The large modules are scheduled first
+        for (int i = 0; i < 10; i++) {
+            assertTrue(tasks.get(i).get(0) >= 10 * MB);
+        }
+    }
+
+    private static List<List<Long>> singletons(List<Long> sizes) {
+        return sizes.stream().map(Collections::singletonList).collect(Collectors.toList());
+    }
+
+    /**
+     * Simulate workers which take the tasks in their order, each when it becomes idle.
+     *
+     * @return the time until all tasks are completed
+     */
+    private static double simulate(List<List<Long>> tasks) {
+        PriorityQueue<Double> workers = new PriorityQueue<>();
+        for (int i = 0; i < WORKERS; i++) {
+            workers.add(0.0);
+        }
+        double makespan = 0;
+        for (List<Long> task : tasks) {
+            double end = workers.poll() + cost(task);
+            makespan = Math.max(makespan, end);
+            workers.add(end);
+        }
+        return makespan;
+    }
+
+    private static double cost(List<Long> task) {
+        double cost = TASK_HANDOFF_SECONDS;
+        for (long size : task) {
+            cost += cost(size);
+        }
+        return cost;
+    }
+
+    private static double cost(long size) {
+        return REQUEST_OVERHEAD_SECONDS + size / BYTES_PER_SECOND;
+    }
+}
@@ -0,0 +1,268 @@
+package org.jfrog.build.extractor.clientConfiguration.deploy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.extractor.ModuleParallelDeployHelper;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.jfrog.build.extractor.util.TestingLog;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests failed and resumed publishes using a publish spool against a local fake Artifactory.
+ */
+@Test
+public class PublishSpoolTest {
+    private final List<String> uploadedPaths = new CopyOnWriteArrayList<>();
+    private final Set<String> failingPaths = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger publishedBuilds = new AtomicInteger();
+    private volatile boolean buildInfoFails;
+    // The build timestamp property, derived from the start time of each run of the build
+    private String buildTimestamp;
+    private HttpServer server;
+    private ArtifactoryManager artifactoryManager;
+    private File tempDir;
+    private File spoolDir;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handleRequest);
+        server.start();
+    }
+
+    @AfterClass
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @BeforeMethod
+    public void createManager() throws IOException {
+        uploadedPaths.clear();
+        failingPaths.clear();
+        publishedBuilds.set(0);
+        buildInfoFails = false;
+        buildTimestamp = "1000";
+        tempDir = Files.createTempDirectory("publishSpool").toFile();
+        spoolDir = new File(tempDir, "spool");
+        artifactoryManager = new ArtifactoryManager("http://127.0.0.1:" + server.getAddress().getPort(), "user", "password", new TestingLog());
+    }
+
+    @AfterMethod
+    public void closeManager() throws IOException {
+        artifactoryManager.close();
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    public void testReplayFailedPublish() throws IOException {
+        Map<String, Set<DeployDetails>> artifactsByModule = createArtifacts();
+        failingPaths.add("/libs-local/org/example/b/b.jar");
+        try (PublishSpool spool = PublishSpool.open(spoolDir, new TestingLog())) {
+            spool.setBuildInfo(createBuild());
+            expectThrows(RuntimeException.class, () ->
+                    new ModuleParallelDeployHelper().deployArtifacts(artifactoryManager, artifactsByModule, 1, spool));
+        }
+        assertEquals(uploadedPaths, Arrays.asList("/libs-local/org/example/a/a.jar", "/libs-local/org/example/a/a.pom"));
+        assertTrue(PublishSpool.exists(spoolDir));
+
+        // The replay deploys only the remaining artifacts, using the spooled plan and build info
+        uploadedPaths.clear();
+        failingPaths.clear();
+        try (PublishSpool spool = PublishSpool.open(spoolDir, new TestingLog())) {
+            assertEquals(spool.getDeployedCount(), 2);
+            assertEquals(spool.getPendingArtifactsByModule().keySet(), Collections.singleton("b"));
+            assertFalse(spool.isBuildInfoPublished());
+            spool.replay(artifactoryManager, 1);
+        }
+        assertEquals(uploadedPaths, Arrays.asList("/libs-local/org/example/b/b.jar", "/libs-local/org/example/b/b.pom"));
+        assertEquals(publishedBuilds.get(), 1);
+        assertFalse(spoolDir.exists());
+    }
+
+    public void testRerunSkipsDeployedArtifacts() throws IOException {
+        failingPaths.add("/libs-local/org/example/b/b.pom");
+        try (PublishSpool spool = PublishSpool.open(spoolDir, new TestingLog())) {
+            expectThrows(RuntimeException.class, () ->
+                    new ModuleParallelDeployHelper().deployArtifacts(artifactoryManager, createArtifacts(), 1, spool));
+        }
+
+        // The build runs again, producing the same artifacts, except for a changed jar
+        uploadedPaths.clear();
+        failingPaths.clear();
+        buildTimestamp = "2000";
+        Map<String, Set<DeployDetails>> artifactsByModule = createArtifacts();
+        DeployDetails changedJar = createDeployDetails("a/a.jar", "changed content");
+        artifactsByModule.get("a").remove(changedJar);
+        artifactsByModule.get("a").add(changedJar);
+        try (PublishSpool spool = PublishSpool.open(spoolDir, new TestingLog())) {
+            new ModuleParallelDeployHelper().deployArtifacts(artifactoryManager, artifactsByModule, 2, spool);
+            assertEquals(spool.getDeployedCount(), 4);
+            assertTrue(spool.getPendingArtifactsByModule().isEmpty());
+        }
+        assertEquals(new HashSet<>(uploadedPaths), new HashSet<>(Arrays.asList("/libs-local/org/example/a/a.jar", "/libs-local/org/example/b/b.pom")));
+        // Skipped artifacts are updated with the results of their earlier deployment
+        for (Set<DeployDetails> artifacts : artifactsByModule.values()) {
+            for (DeployDetails artifact : artifacts) {
+                assertTrue(artifact.getDeploySucceeded());
+                assertEquals(artifact.getSha256(), DigestUtils.sha256Hex(FileUtils.readFileToByteArray(artifact.getFile())));
+            }
+        }
+    }
+
+    public void testChangedPropertiesDeployedAgain() throws IOException {
+        failingPaths.add("/libs-local/org/example/b/b.pom");
+        try (PublishSpool spool = PublishSpool.open(spoolDir, new TestingLog())) {
+            expectThrows(RuntimeException.class, () ->
+                    new ModuleParallelDeployHelper().deployArtifacts(artifactoryManager, createArtifacts(), 1, spool));
+        }
+
+        // The next build produces the same files, but deploys them with its own build number
+        uploadedPaths.clear();
+        failingPaths.clear();
+        Map<String, Set<DeployDetails>> artifactsByModule = createArtifacts();
+        artifactsByModule.values().forEach(artifacts -> artifacts.forEach(artifact -> artifact.getProperties().put("build.number", "2")));
+        try (PublishSpool spool = PublishSpool.open(spoolDir, new TestingLog())) {
+            spool.addArtifacts("a", artifactsByModule.get("a"));
+            spool.addArtifacts("b", artifactsByModule.get("b"));
+            assertEquals(spool.getDeployedCount(), 0);
+            assertEquals(spool.getPendingArtifactsByModule().get("a").size(), 2);
+            new ModuleParallelDeployHelper().deployArtifacts(artifactoryManager, artifactsByModule, 2, spool);
+            assertEquals(spool.getDeployedCount(), 4);
+        }
+        assertEquals(uploadedPaths.size(), 4);
+    }
+
+    public void testBuildInfoPublishedOnce() throws IOException {
+        Build build = createBuild();
+        buildInfoFails = true;
+        try (PublishSpool spool = PublishSpool.open(spoolDir, new TestingLog())) {
+            spool.setBuildInfo(build);
+            expectThrows(IOException.class, () -> spool.replay(artifactoryManager, 1));
+        }
+        buildInfoFails = false;
+        try (PublishSpool spool = PublishSpool.open(spoolDir, new TestingLog())) {
+            assertEquals(spool.getBuildInfo().getNumber(), "1");
+            spool.replay(artifactoryManager, 1);
+        }
+        assertEquals(publishedBuilds.get(), 1);
+
+        try (PublishSpool spool = PublishSpool.open(spoolDir, new TestingLog())) {
+            spool.setBuildInfo(build);
+            spool.buildInfoPublished();
+            assertTrue(spool.isBuildInfoPublished());
+            // The same build info isn't published again, but a changed build info is
+            spool.setBuildInfo(build);
+            assertTrue(spool.isBuildInfoPublished());
+            build.setNumber("2");
+            spool.setBuildInfo(build);
+            assertFalse(spool.isBuildInfoPublished());
+        }
+    }
+
+    public void testTornJournal() throws IOException {
+        try (PublishSpool spool = PublishSpool.open(spoolDir, new TestingLog())) {
+            spool.addArtifacts("a", createArtifacts().get("a"));
+        }
+        // A process which was killed while appending to the journal leaves a torn line
+        File journalFile = new File(spoolDir, PublishSpool.JOURNAL_FILE_NAME);
+        FileUtils.writeStringToFile(journalFile, "{\"type\":\"deployed\",\"repos", StandardCharsets.UTF_8, true);
+        try (PublishSpool spool = PublishSpool.open(spoolDir, new TestingLog())) {
+            assertEquals(spool.getPendingArtifactsByModule().get("a").size(), 2);
+            spool.addArtifacts("b", createArtifacts().get("b"));
+        }
+        try (PublishSpool spool = PublishSpool.open(spoolDir, new TestingLog())) {
+            assertEquals(spool.getPendingArtifactsByModule().keySet(), new HashSet<>(Arrays.asList("a", "b")));
+            assertEquals(spool.getDeployedCount(), 0);
+        }
+    }
+
+    private Map<String, Set<DeployDetails>> createArtifacts() throws IOException {
+        Map<String, Set<DeployDetails>> artifactsByModule = new LinkedHashMap<>();
+        for (String module : Arrays.asList("a", "b")) {
+            Set<DeployDetails> artifacts = new LinkedHashSet<>();
+            artifacts.add(createDeployDetails(module + "/" + module + ".jar", module + " jar"));
+            artifacts.add(createDeployDetails(module + "/" + module + ".pom", module + " pom"));
+            artifactsByModule.put(module, artifacts);
+        }
+        return artifactsByModule;
+    }
+
+    private DeployDetails createDeployDetails(String path, String content) throws IOException {
+        File file = new File(tempDir, "files/" + path);
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+        return new DeployDetails.Builder().file(file).targetRepository("libs-local").artifactPath("org/example/" + path)
+                .sha1(DigestUtils.sha1Hex(content)).md5(DigestUtils.md5Hex(content)).addProperty("build.name", "spool")
+                .addProperty("build.timestamp", buildTimestamp)
+                .packageType(DeployDetails.PackageType.MAVEN).build();
+    }
+
+    private static Build createBuild() {
+        Build build = new Build();
+        build.setName("spool");
+        build.setNumber("1");
+        build.setStartedDate(new Date(0));
+        return build;
+    }
+
+    private void handleRequest(HttpExchange exchange) throws IOException {
+        // Remove the matrix parameters of the deployed properties
+        String path = exchange.getRequestURI().getPath().split(";")[0];
+        byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+        if (path.equals("/api/system/version")) {
+            respond(exchange, 200, "{\"version\":\"7.10.0\",\"addons\":[]}");
+        } else if (path.equals("/api/search/aql")) {
+            respond(exchange, 200, "{\"results\":[]}");
+        } else if (path.equals("/api/build")) {
+            if (buildInfoFails) {
+                respond(exchange, 403, "{\"errors\":[{\"status\":403,\"message\":\"Forbidden\"}]}");
+                return;
+            }
+            publishedBuilds.incrementAndGet();
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        } else if ("PUT".equals(exchange.getRequestMethod())) {
+            if (failingPaths.contains(path)) {
+                respond(exchange, 403, "{\"errors\":[{\"status\":403,\"message\":\"Forbidden\"}]}");
+                return;
+            }
+            if (!"true".equals(exchange.getRequestHeaders().getFirst("X-Checksum-Deploy"))) {
+                uploadedPaths.add(path);
+            }
+            respond(exchange, 201, "{\"repo\":\"libs-local\",\"path\":\"" + path + "\",\"checksums\":{\"sha1\":\"" +
+                    DigestUtils.sha1Hex(body) + "\",\"sha256\":\"" + DigestUtils.sha256Hex(body) + "\"}}");
+        } else {
+            respond(exchange, 400, "{\"errors\":[{\"status\":400,\"message\":\"Bad Request\"}]}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
@@ -52,9 +52,8 @@ public class DownloadTest extends IntegrationTestsBase {
             // Perform concurrent download.
             downloadedChecksum = helper.downloadFileConcurrently(
                     uriWithParams,
-                    fileSize,
-                    fileDestination,
-                    fileName);
+                    artifactMetaData,
+                    fileDestination);
         } else {
             // Perform bulk download.
             downloadedChecksum = helper.downloadFile(
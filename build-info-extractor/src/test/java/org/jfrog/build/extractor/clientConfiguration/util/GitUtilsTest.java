@@ -1,6 +1,7 @@
 package org.jfrog.build.extractor.clientConfiguration.util;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.jfrog.build.api.Vcs;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.extractor.executor.CommandExecutor;
@@ -12,7 +13,10 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class GitUtilsTest {
@@ -86,4 +90,72 @@ public class GitUtilsTest {
             FileUtils.deleteDirectory(parentDotGitFile);
         }
     }
+
+    /**
+     * Tests resolving refs of a locally created repository, with loose refs, packed refs and a worktree.
+     */
+    @Test
+    private void testResolveRefs() throws IOException, InterruptedException {
+        File tempDir = Files.createTempDirectory("git-refs").toFile().getCanonicalFile();
+        try {
+            File repoDir = new File(tempDir, "repo");
+            Assert.assertTrue(repoDir.mkdir());
+            runGit(repoDir, "init", "-q");
+            runGit(repoDir, "checkout", "-q", "-b", "main");
+            runGit(repoDir, "commit", "-q", "--allow-empty", "-m", "first");
+            String first = runGit(repoDir, "rev-parse", "HEAD");
+            runGit(repoDir, "tag", "-a", "-m", "annotated", "v1");
+            runGit(repoDir, "branch", "feature");
+            runGit(repoDir, "commit", "-q", "--allow-empty", "-m", "second");
+            String second = runGit(repoDir, "rev-parse", "HEAD");
+            File dotGit = new File(repoDir, ".git");
+            Log testLog = new TestingLog();
+
+            // Loose refs
+            Assert.assertEquals(GitUtils.resolveRef(dotGit, "refs/heads/main"), second);
+            Assert.assertEquals(GitUtils.resolveRef(dotGit, "HEAD"), second);
+            Assert.assertEquals(GitUtils.extractVcs(repoDir, testLog).getRevision(), second);
+
+            // Packed refs
+            runGit(repoDir, "pack-refs", "--all");
+            Assert.assertFalse(new File(dotGit, "refs/heads/main").exists());
+            Assert.assertEquals(GitUtils.resolveRef(dotGit, "refs/heads/main"), second);
+            Assert.assertEquals(GitUtils.resolveRef(dotGit, "refs/heads/feature"), first);
+            Assert.assertEquals(GitUtils.resolveRef(dotGit, "refs/tags/v1"), runGit(repoDir, "rev-parse", "v1"));
+            Assert.assertNull(GitUtils.resolveRef(dotGit, "refs/heads/ain"));
+            Assert.assertEquals(GitUtils.extractVcs(repoDir, testLog).getRevision(), second);
+
+            // A loose ref takes precedence over the packed ref
+            runGit(repoDir, "commit", "-q", "--allow-empty", "-m", "third");
+            Assert.assertEquals(GitUtils.resolveRef(dotGit, "refs/heads/main"), runGit(repoDir, "rev-parse", "HEAD"));
+
+            // The cached packed refs are reloaded after the packed-refs file is modified
+            runGit(repoDir, "branch", "-q", "-f", "feature", "main");
+            runGit(repoDir, "pack-refs", "--all");
+            Assert.assertEquals(GitUtils.resolveRef(dotGit, "refs/heads/feature"), runGit(repoDir, "rev-parse", "HEAD"));
+
+            // Worktree - HEAD is in the worktree git directory and the refs are in the common git directory
+            File worktreeDir = new File(tempDir, "worktree");
+            runGit(repoDir, "worktree", "add", "-q", worktreeDir.getAbsolutePath(), "v1");
+            Assert.assertEquals(GitUtils.extractVcs(worktreeDir, testLog).getRevision(), first);
+            runGit(worktreeDir, "checkout", "-q", "feature");
+            Assert.assertEquals(GitUtils.extractVcs(worktreeDir, testLog).getRevision(), runGit(repoDir, "rev-parse", "feature"));
+        } finally {
+            FileUtils.deleteDirectory(tempDir);
+        }
+    }
+
+    private static String runGit(File dir, String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.add("-c");
+        command.add("user.name=test");
+        command.add("-c");
+        command.add("user.email=test@jfrog.com");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).directory(dir).redirectErrorStream(true).start();
+        String output = IOUtils.toString(process.getInputStream(), StandardCharsets.UTF_8).trim();
+        Assert.assertEquals(process.waitFor(), 0, output);
+        return output;
+    }
 }
@@ -0,0 +1,282 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jfrog.build.api.Dependency;
+import org.jfrog.build.api.dependency.DownloadableArtifact;
+import org.jfrog.build.api.dependency.pattern.PatternType;
+import org.jfrog.build.extractor.clientConfiguration.ArtifactoryClientConfiguration;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.jfrog.build.extractor.util.TestingLog;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the local artifact store, and downloads which share it.
+ */
+@Test
+public class LocalArtifactStoreTest {
+    private File tempDir;
+    private File storeDir;
+
+    @BeforeMethod
+    public void createDirs() throws IOException {
+        tempDir = Files.createTempDirectory("localArtifactStore").toFile();
+        storeDir = new File(tempDir, "store");
+    }
+
+    @AfterMethod
+    public void deleteDirs() throws IOException {
+        // Stored artifacts are read-only
+        for (File file : FileUtils.listFiles(tempDir, null, true)) {
+            file.setWritable(true);
+        }
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    public void testAddAndMaterialize() throws IOException {
+        LocalArtifactStore store = new LocalArtifactStore(storeDir, 1024 * 1024, false, new TestingLog());
+        File file = createFile("artifact.jar", "content");
+        String sha1 = DigestUtils.sha1Hex("content");
+        File target = new File(tempDir, "workspace/lib/artifact.jar");
+        assertFalse(store.materialize(sha1, target));
+
+        store.add(file, sha1.toUpperCase());
+        assertTrue(store.contains(sha1));
+        assertTrue(store.materialize(sha1, target));
+        assertEquals(FileUtils.readFileToString(target, StandardCharsets.UTF_8), "content");
+        assertTrue(target.canWrite());
+        assertFalse(Files.isSameFile(target.toPath(), getEntry(sha1)));
+        assertEquals(store.getHits(), 1);
+        assertEquals(store.getMisses(), 1);
+
+        // An existing target is replaced
+        FileUtils.writeStringToFile(target, "modified", StandardCharsets.UTF_8);
+        assertTrue(store.materialize(sha1, target));
+        assertEquals(FileUtils.readFileToString(target, StandardCharsets.UTF_8), "content");
+    }
+
+    public void testHardLinks() throws IOException {
+        LocalArtifactStore store = new LocalArtifactStore(storeDir, 1024 * 1024, true, new TestingLog());
+        String sha1 = DigestUtils.sha1Hex("content");
+        store.add(createFile("artifact.jar", "content"), sha1);
+        File target = new File(tempDir, "workspace/artifact.jar");
+        assertTrue(store.materialize(sha1, target));
+        assertTrue(Files.isSameFile(target.toPath(), getEntry(sha1)));
+        assertEquals(FileUtils.readFileToString(target, StandardCharsets.UTF_8), "content");
+    }
+
+    public void testChecksumMismatch() throws IOException {
+        LocalArtifactStore store = new LocalArtifactStore(storeDir, 1024 * 1024, false, new TestingLog());
+        String sha1 = DigestUtils.sha1Hex("other content");
+        store.add(createFile("artifact.jar", "content"), sha1);
+        assertFalse(store.contains(sha1));
+        assertEquals(store.getSize(), 0);
+        // Invalid checksums are ignored
+        store.add(createFile("artifact.jar", "content"), "not a checksum");
+        assertFalse(store.materialize("not a checksum", new File(tempDir, "target")));
+    }
+
+    public void testLeastRecentlyUsedEviction() throws IOException {
+        LocalArtifactStore store = new LocalArtifactStore(storeDir, 3000, false, new TestingLog());
+        List<String> checksums = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String content = StringUtils.repeat(String.valueOf(i), 1000);
+            checksums.add(DigestUtils.sha1Hex(content));
+            store.add(createFile("artifact" + i, content), checksums.get(i));
+            // Distinct last use times
+            Files.setLastModifiedTime(getEntry(checksums.get(i)), FileTime.fromMillis(System.currentTimeMillis() - 10000 + i * 1000));
+        }
+        assertEquals(store.getSize(), 3000);
+
+        // Use the oldest artifact, so that the second artifact is the least recently used
+        assertTrue(store.materialize(checksums.get(0), new File(tempDir, "target")));
+        String content = StringUtils.repeat("3", 1000);
+        store.add(createFile("artifact3", content), DigestUtils.sha1Hex(content));
+        assertTrue(store.contains(checksums.get(0)));
+        assertFalse(store.contains(checksums.get(1)));
+        assertTrue(store.contains(DigestUtils.sha1Hex(content)));
+        assertTrue(store.getSize() <= 3000 * 0.9);
+        assertEquals(store.getEvictions(), 2);
+        assertFalse(store.contains(checksums.get(2)));
+    }
+
+    public void testSingleDownloadForConcurrentBuilds() throws Exception {
+        String sha1 = DigestUtils.sha1Hex("content");
+        File source = createFile("artifact.jar", "content");
+        AtomicInteger downloads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int build = 0; build < 8; build++) {
+                // Each build uses its own store instance, as separate processes would
+                LocalArtifactStore store = new LocalArtifactStore(storeDir, 1024 * 1024, false, new TestingLog());
+                File target = new File(tempDir, "workspace" + build + "/artifact.jar");
+                futures.add(executor.submit(() -> {
+                    try (Closeable ignored = store.lockEntry(sha1)) {
+                        if (!store.materialize(sha1, target)) {
+                            downloads.incrementAndGet();
+                            FileUtils.copyFile(source, target);
+                            store.add(target, sha1);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(downloads.get(), 1);
+    }
+
+    public void testCrossProcessLock() throws Exception {
+        LocalArtifactStore store = new LocalArtifactStore(storeDir, 1024 * 1024, false, new TestingLog());
+        String sha1 = DigestUtils.sha1Hex("content");
+        store.add(createFile("artifact.jar", "content"), sha1);
+
+        // Another process holds the exclusive lock of the store, for example while evicting artifacts
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), LockingProcess.class.getName(),
+                new File(storeDir, "store.lock").getPath(), "1500").start();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals(reader.readLine(), "locked");
+            long start = System.nanoTime();
+            assertTrue(store.materialize(sha1, new File(tempDir, "target")));
+            long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(waitedMillis >= 500, "Materialized after " + waitedMillis + " ms while the store was locked");
+            assertEquals(process.waitFor(), 0);
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    public void testDownloadsShareStore() throws Exception {
+        byte[] content = "artifact content".getBytes(StandardCharsets.UTF_8);
+        AtomicInteger gets = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> handleRequest(exchange, content, gets));
+        server.start();
+        try (ArtifactoryManager artifactoryManager = new ArtifactoryManager("http://127.0.0.1:" + server.getAddress().getPort(),
+                "user", "password", new TestingLog())) {
+            LocalArtifactStore store = new LocalArtifactStore(storeDir, 1024 * 1024, false, new TestingLog());
+            for (int workspace = 0; workspace < 3; workspace++) {
+                File workspaceDir = new File(tempDir, "workspace" + workspace);
+                DependenciesDownloaderHelper helper = new DependenciesDownloaderHelper(artifactoryManager, workspaceDir.getPath(), new TestingLog());
+                helper.setLocalStore(store);
+                String url = "libs-release-local/org/example/artifact.jar";
+                DownloadableArtifact downloadableArtifact = new DownloadableArtifact("libs-release-local", "lib/", "org/example/artifact.jar", "", "", PatternType.NORMAL);
+                Dependency dependency = helper.downloadArtifact(downloadableArtifact, helper.downloadArtifactMetaData(url), url, "org/example/artifact.jar");
+                assertEquals(dependency.getSha1(), DigestUtils.sha1Hex(content));
+                assertEquals(FileUtils.readFileToByteArray(new File(dependency.getLocalPath())), content);
+            }
+            // Only the first workspace downloaded the artifact
+            assertEquals(gets.get(), 1);
+            assertEquals(store.getHits(), 2);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    public void testConfiguredStore() throws Exception {
+        ArtifactoryClientConfiguration clientConf = new ArtifactoryClientConfiguration(new TestingLog());
+        assertNull(LocalArtifactStore.create(clientConf.resolver, new TestingLog()));
+        clientConf.resolver.setLocalStorePath(storeDir.getPath());
+        LocalArtifactStore store = LocalArtifactStore.create(clientConf.resolver, new TestingLog());
+        assertNotNull(store);
+        assertSame(LocalArtifactStore.create(clientConf.resolver, new TestingLog()), store);
+
+        byte[] content = "configured artifact content".getBytes(StandardCharsets.UTF_8);
+        AtomicInteger gets = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> handleRequest(exchange, content, gets));
+        server.start();
+        try (ArtifactoryManager artifactoryManager = new ArtifactoryManager("http://127.0.0.1:" + server.getAddress().getPort(),
+                "user", "password", new TestingLog())) {
+            for (int workspace = 0; workspace < 3; workspace++) {
+                File workspaceDir = new File(tempDir, "workspace" + workspace);
+                DependenciesDownloaderImpl downloader = new DependenciesDownloaderImpl(artifactoryManager, workspaceDir.getPath(),
+                        clientConf.resolver, new TestingLog());
+                DownloadableArtifact downloadableArtifact = new DownloadableArtifact("libs-release-local", "lib/", "org/example/artifact.jar", "", "", PatternType.NORMAL);
+                List<Dependency> dependencies = downloader.download(Collections.singleton(downloadableArtifact));
+                assertEquals(dependencies.size(), 1);
+                assertEquals(FileUtils.readFileToByteArray(new File(workspaceDir, "lib/org/example/artifact.jar")), content);
+            }
+            // The downloader uses the configured store, so only the first workspace downloaded the artifact
+            assertEquals(gets.get(), 1);
+            assertEquals(store.getHits(), 2);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private Path getEntry(String sha1) {
+        return storeDir.toPath().resolve(sha1.substring(0, 2)).resolve(sha1);
+    }
+
+    private File createFile(String name, String content) throws IOException {
+        File file = new File(tempDir, "sources/" + name);
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static void handleRequest(HttpExchange exchange, byte[] content, AtomicInteger gets) throws IOException {
+        exchange.getResponseHeaders().add("X-Checksum-Sha1", DigestUtils.sha1Hex(content));
+        exchange.getResponseHeaders().add("X-Checksum-Md5", DigestUtils.md5Hex(content));
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(content.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        gets.incrementAndGet();
+        exchange.sendResponseHeaders(200, content.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(content);
+        }
+    }
+
+    /**
+     * Holds the exclusive lock of a store in a separate process.
+     */
+    public static class LockingProcess {
+        public static void main(String[] args) throws Exception {
+            try (FileChannel channel = FileChannel.open(Paths.get(args[0]), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                System.out.println("locked");
+                System.out.flush();
+                Thread.sleep(Long.parseLong(args[1]));
+            }
+        }
+    }
+}
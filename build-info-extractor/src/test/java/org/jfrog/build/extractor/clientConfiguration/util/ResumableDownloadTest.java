@@ -0,0 +1,266 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.jfrog.build.extractor.util.TestingLog;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.jfrog.build.extractor.clientConfiguration.util.DependenciesDownloaderHelper.*;
+import static org.testng.Assert.*;
+
+/**
+ * Tests interrupted and resumed downloads against a local HTTP stub.
+ */
+@Test
+public class ResumableDownloadTest {
+    private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=(\\d+)-(\\d+)");
+    private static final int FILE_SIZE = MIN_SIZE_FOR_CONCURRENT_DOWNLOAD + 1024 * 1024;
+    private static final String FILE_PATH = "/libs-release-local/org/example/large.bin";
+
+    private final AtomicLong servedBytes = new AtomicLong();
+    private volatile byte[] content;
+    // The number of bytes to send before dropping the connection of each download request, or -1 to send all bytes
+    private volatile int dropConnectionAfter;
+    private volatile boolean ignoreRanges;
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ArtifactoryManager artifactoryManager;
+    private DependenciesDownloaderHelper helper;
+    private File tempDir;
+    // The download path, relative to the Artifactory URL
+    private final String url = FILE_PATH.substring(1);
+    private String fileDestination;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handleRequest);
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @AfterClass
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (serverExecutor != null) {
+            serverExecutor.shutdownNow();
+        }
+    }
+
+    @BeforeMethod
+    public void createHelper() throws IOException {
+        content = createContent(1);
+        dropConnectionAfter = -1;
+        ignoreRanges = false;
+        servedBytes.set(0);
+        tempDir = Files.createTempDirectory("resumableDownload").toFile();
+        fileDestination = new File(tempDir, "large.bin").getPath();
+        artifactoryManager = new ArtifactoryManager("http://127.0.0.1:" + server.getAddress().getPort(), "user", "password", new TestingLog());
+        helper = new DependenciesDownloaderHelper(artifactoryManager, tempDir.getPath(), new TestingLog());
+    }
+
+    @AfterMethod
+    public void closeManager() throws IOException {
+        artifactoryManager.close();
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    public void testResumeInterruptedDownload() throws Exception {
+        ArtifactMetaData artifactMetaData = helper.downloadArtifactMetaData(url);
+        assertEquals(artifactMetaData.getSize(), FILE_SIZE);
+        assertTrue(artifactMetaData.isAcceptRange());
+        assertEquals(artifactMetaData.getEtag(), DigestUtils.sha1Hex(content));
+
+        // Each range request drops after 1 MB
+        dropConnectionAfter = 1024 * 1024;
+        expectThrows(Exception.class, () -> helper.downloadFileConcurrently(url, artifactMetaData, fileDestination));
+        assertFalse(new File(fileDestination).exists());
+        assertTrue(new File(fileDestination + DownloadJournal.PART_SUFFIX).isFile());
+        long resumedBytes = getCompletedBytes(artifactMetaData);
+        assertTrue(resumedBytes > 0 && resumedBytes < FILE_SIZE, "Completed " + resumedBytes + " bytes");
+
+        // Only the missing ranges are downloaded when the download runs again
+        dropConnectionAfter = -1;
+        servedBytes.set(0);
+        Map<String, String> checksums = helper.downloadFileConcurrently(url, artifactMetaData, fileDestination);
+        assertEquals(servedBytes.get(), FILE_SIZE - resumedBytes);
+        assertDownloaded(checksums);
+    }
+
+    public void testRemoteFileChanged() throws Exception {
+        ArtifactMetaData artifactMetaData = helper.downloadArtifactMetaData(url);
+        dropConnectionAfter = 1024 * 1024;
+        expectThrows(Exception.class, () -> helper.downloadFileConcurrently(url, artifactMetaData, fileDestination));
+        assertTrue(getCompletedBytes(artifactMetaData) > 0);
+
+        // The journal doesn't match the changed file, so the whole file is downloaded
+        content = createContent(2);
+        dropConnectionAfter = -1;
+        servedBytes.set(0);
+        ArtifactMetaData changedMetaData = helper.downloadArtifactMetaData(url);
+        Map<String, String> checksums = helper.downloadFileConcurrently(url, changedMetaData, fileDestination);
+        assertEquals(servedBytes.get(), FILE_SIZE);
+        assertDownloaded(checksums);
+    }
+
+    public void testTornJournal() throws Exception {
+        ArtifactMetaData artifactMetaData = helper.downloadArtifactMetaData(url);
+        dropConnectionAfter = 1024 * 1024;
+        expectThrows(Exception.class, () -> helper.downloadFileConcurrently(url, artifactMetaData, fileDestination));
+        long resumedBytes = getCompletedBytes(artifactMetaData);
+
+        // A process which was killed while appending to the journal leaves a torn line
+        FileUtils.writeStringToFile(new File(fileDestination + DownloadJournal.JOURNAL_SUFFIX), "range=0-", StandardCharsets.UTF_8, true);
+        assertEquals(getCompletedBytes(artifactMetaData), resumedBytes);
+
+        dropConnectionAfter = -1;
+        servedBytes.set(0);
+        assertDownloaded(helper.downloadFileConcurrently(url, artifactMetaData, fileDestination));
+        assertEquals(servedBytes.get(), FILE_SIZE - resumedBytes);
+    }
+
+    public void testServerIgnoresRanges() throws Exception {
+        ignoreRanges = true;
+        ArtifactMetaData artifactMetaData = helper.downloadArtifactMetaData(url);
+        assertDownloaded(helper.downloadFileConcurrently(url, artifactMetaData, fileDestination));
+        // A single download writes the whole file, and the responses of the others are aborted
+        assertEquals(servedBytes.get(), FILE_SIZE);
+    }
+
+    public void testWholeFileLargerThanJournal() throws Exception {
+        ignoreRanges = true;
+        ArtifactMetaData artifactMetaData = helper.downloadArtifactMetaData(url);
+        try (DownloadJournal journal = DownloadJournal.open(fileDestination, FILE_SIZE - 100, artifactMetaData.getSha1(),
+                artifactMetaData.getMd5(), artifactMetaData.getEtag(), new TestingLog())) {
+            long written = artifactoryManager.downloadRange(url, Collections.singletonMap("Range", "bytes=0-99"), 0, 99,
+                    journal.getSize(), journal.getChannel(), journal);
+            // The bytes beyond the size of the journal are not written
+            assertEquals(written, FILE_SIZE - 100);
+            assertTrue(journal.isComplete());
+            assertFalse(journal.acquireWholeFile());
+        }
+    }
+
+    public void testJournalRanges() throws IOException {
+        try (DownloadJournal journal = DownloadJournal.open(fileDestination, 100, "sha1", null, null, new TestingLog())) {
+            assertEquals(journal.getMissingRanges().size(), 1);
+            journal.rangeCompleted(10, 19);
+            journal.rangeCompleted(30, 39);
+            journal.rangeCompleted(20, 24);
+            journal.rangeCompleted(35, 49);
+            assertEquals(toStrings(journal.getMissingRanges()), Arrays.asList("0-9", "25-29", "50-99"));
+            assertEquals(journal.getCompletedBytes(), 35);
+            expectThrows(IllegalArgumentException.class, () -> journal.rangeCompleted(90, 100));
+        }
+        // The ranges are recovered from the journal, but not for a file with a different identity
+        try (DownloadJournal journal = DownloadJournal.open(fileDestination, 100, "sha1", null, null, new TestingLog())) {
+            assertEquals(journal.getResumedBytes(), 35);
+        }
+        try (DownloadJournal journal = DownloadJournal.open(fileDestination, 100, "other", null, null, new TestingLog())) {
+            assertEquals(journal.getResumedBytes(), 0);
+        }
+
+        List<long[]> segments = splitToSegments(Arrays.asList(new long[]{0, 9}, new long[]{25, 29}, new long[]{50, 99}), 3);
+        assertEquals(toStrings(segments), Arrays.asList("0-9", "25-29", "50-66", "67-83", "84-99"));
+        assertEquals(toStrings(splitToSegments(Collections.singletonList(new long[]{0, 99}), 3)), Arrays.asList("0-33", "34-66", "67-99"));
+    }
+
+    private long getCompletedBytes(ArtifactMetaData artifactMetaData) throws IOException {
+        try (DownloadJournal journal = DownloadJournal.open(fileDestination, artifactMetaData.getSize(),
+                artifactMetaData.getSha1(), artifactMetaData.getMd5(), artifactMetaData.getEtag(), new TestingLog())) {
+            return journal.getCompletedBytes();
+        }
+    }
+
+    private void assertDownloaded(Map<String, String> checksums) throws IOException {
+        assertEquals(checksums.get(SHA1_ALGORITHM_NAME), DigestUtils.sha1Hex(content));
+        assertEquals(checksums.get(MD5_ALGORITHM_NAME), DigestUtils.md5Hex(content));
+        assertEquals(FileUtils.readFileToByteArray(new File(fileDestination)), content);
+        assertFalse(new File(fileDestination + DownloadJournal.PART_SUFFIX).exists());
+        assertFalse(new File(fileDestination + DownloadJournal.JOURNAL_SUFFIX).exists());
+    }
+
+    private static List<String> toStrings(List<long[]> ranges) {
+        List<String> strings = new ArrayList<>();
+        for (long[] range : ranges) {
+            strings.add(range[0] + "-" + range[1]);
+        }
+        return strings;
+    }
+
+    private static byte[] createContent(int seed) {
+        byte[] bytes = new byte[FILE_SIZE];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private void handleRequest(HttpExchange exchange) throws IOException {
+        IOUtils.toByteArray(exchange.getRequestBody());
+        byte[] bytes = content;
+        String etag = DigestUtils.sha1Hex(bytes);
+        if (!exchange.getRequestURI().getPath().equals(FILE_PATH)) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+        exchange.getResponseHeaders().add("ETag", etag);
+        exchange.getResponseHeaders().add("X-Checksum-Sha1", etag);
+        exchange.getResponseHeaders().add("X-Checksum-Md5", DigestUtils.md5Hex(bytes));
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(bytes.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+
+        int start = 0;
+        int end = bytes.length - 1;
+        int status = 200;
+        Matcher matcher = RANGE_PATTERN.matcher(String.valueOf(exchange.getRequestHeaders().getFirst("Range")));
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        if (!ignoreRanges && matcher.matches() && (ifRange == null || ifRange.equals(etag))) {
+            start = Integer.parseInt(matcher.group(1));
+            end = Integer.parseInt(matcher.group(2));
+            status = 206;
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + bytes.length);
+        }
+        int length = end - start + 1;
+        exchange.sendResponseHeaders(status, length);
+        OutputStream outputStream = exchange.getResponseBody();
+        int drop = dropConnectionAfter;
+        if (drop >= 0 && drop < length) {
+            outputStream.write(bytes, start, drop);
+            outputStream.flush();
+            // Throwing from the handler closes the connection before the whole response was sent
+            throw new IOException("Dropping the connection");
+        }
+        outputStream.write(bytes, start, length);
+        servedBytes.addAndGet(length);
+        outputStream.close();
+    }
+}
@@ -61,4 +61,31 @@ public class CommandExecutorTest {
             fail(ExceptionUtils.getRootCauseMessage(e));
         }
     }
+
+    @Test
+    public void testExeCommandWithOutputLineConsumer() throws IOException, InterruptedException {
+        CommandExecutor seq = new CommandExecutor("seq", null);
+        List<String> lines = new ArrayList<>();
+
+        // Read the whole output
+        CommandResults results = seq.exeCommand(null, Lists.newArrayList("1", "5"), null, new NullLog(), lines::add);
+        assertTrue(results.isOk(), results.getErr());
+        assertEquals(lines, Lists.newArrayList("1", "2", "3", "4", "5"));
+        assertEquals(results.getRes(), "");
+
+        // Stop reading after 10 lines of a large output
+        lines.clear();
+        results = seq.exeCommand(null, Lists.newArrayList("1", "100000000"), null, new NullLog(), line -> {
+            lines.add(line);
+            return lines.size() < 10;
+        });
+        assertTrue(results.isOk(), results.getErr());
+        assertEquals(lines.size(), 10);
+        assertEquals(lines.get(9), "10");
+
+        // Stop reading by throwing an exception
+        expectThrows(IOException.class, () -> seq.exeCommand(null, Lists.newArrayList("1", "100000000"), null, new NullLog(), line -> {
+            throw new IOException("stop");
+        }));
+    }
 }
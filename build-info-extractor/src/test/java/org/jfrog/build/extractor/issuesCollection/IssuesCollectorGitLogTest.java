@@ -0,0 +1,102 @@
+package org.jfrog.build.extractor.issuesCollection;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jfrog.build.api.Issue;
+import org.jfrog.build.api.IssuesCollectionConfig;
+import org.jfrog.build.extractor.util.TestingLog;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests collecting issues from the git log of a locally created repository.
+ */
+@Test
+public class IssuesCollectorGitLogTest {
+    private static final int COMMITS = 300;
+
+    private final IssuesCollector collector = new IssuesCollector();
+    private IssuesCollectionConfig config;
+    private File repoDir;
+    private List<String> revisions;
+
+    @BeforeClass
+    public void setUp() throws IOException, InterruptedException, URISyntaxException {
+        File configFile = new File(getClass().getResource("/issuesCollection/issues_config_full_test.json").toURI());
+        config = collector.parseConfig(FileUtils.readFileToString(configFile, StandardCharsets.UTF_8));
+
+        // Create a repository with a commit per issue, and a commit without an issue after every 10 commits
+        repoDir = Files.createTempDirectory("issues-git-log").toFile();
+        runGit("init", "-q");
+        revisions = new ArrayList<>();
+        for (int i = 1; i <= COMMITS; i++) {
+            String message = i % 10 == 0 ? "No issue in commit " + i : "TEST-" + i + " - Summary of issue " + i;
+            runGit("commit", "-q", "--allow-empty", "-m", message);
+            revisions.add(runGit("rev-parse", "HEAD"));
+        }
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(repoDir);
+    }
+
+    public void testCollectWithLimit() throws IOException, InterruptedException {
+        Set<Issue> issues = collector.collectIssuesFromGitLog(repoDir, new TestingLog(), config, "", 100);
+        // The last 100 commits contain 90 issues
+        assertEquals(getIssueKeys(issues), getExpectedIssueKeys(COMMITS - 99, COMMITS));
+        Issue issue = issues.stream().filter(curIssue -> curIssue.getKey().equals("TEST-299")).findAny().orElse(null);
+        assertNotNull(issue);
+        assertEquals(issue.getSummary(), "Summary of issue 299");
+        assertEquals(issue.getUrl(), config.getIssues().getTrackerUrl() + "/TEST-299");
+    }
+
+    public void testCollectFromPreviousRevision() throws IOException, InterruptedException {
+        String previousRevision = revisions.get(COMMITS - 21);
+        Set<Issue> issues = collector.collectIssuesFromGitLog(repoDir, new TestingLog(), config, previousRevision, 100);
+        assertEquals(getIssueKeys(issues), getExpectedIssueKeys(COMMITS - 19, COMMITS));
+    }
+
+    public void testCollectFromNonExistingRevision() throws IOException, InterruptedException {
+        Set<Issue> issues = collector.collectIssuesFromGitLog(repoDir, new TestingLog(), config, "abcdefABCDEF1234567890123456789012345678", 100);
+        assertTrue(issues.isEmpty());
+    }
+
+    public void testCollectNotGitRepository() throws IOException {
+        File notRepoDir = Files.createTempDirectory("not-git").toFile();
+        try {
+            expectThrows(IOException.class, () -> collector.collectIssuesFromGitLog(notRepoDir, new TestingLog(), config, "", 100));
+        } finally {
+            FileUtils.deleteDirectory(notRepoDir);
+        }
+    }
+
+    private static Set<String> getIssueKeys(Set<Issue> issues) {
+        return issues.stream().map(Issue::getKey).collect(Collectors.toSet());
+    }
+
+    private static Set<String> getExpectedIssueKeys(int fromCommit, int toCommit) {
+        return IntStream.rangeClosed(fromCommit, toCommit).filter(i -> i % 10 != 0).mapToObj(i -> "TEST-" + i).collect(Collectors.toSet());
+    }
+
+    private String runGit(String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(Arrays.asList("git", "-c", "user.name=test", "-c", "user.email=test@jfrog.com"));
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).directory(repoDir).redirectErrorStream(true).start();
+        String output = IOUtils.toString(process.getInputStream(), StandardCharsets.UTF_8).trim();
+        assertEquals(process.waitFor(), 0, output);
+        return output;
+    }
+}
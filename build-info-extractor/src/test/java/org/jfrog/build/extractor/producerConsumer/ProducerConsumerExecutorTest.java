@@ -0,0 +1,215 @@
+package org.jfrog.build.extractor.producerConsumer;
+
+import org.jfrog.build.api.producerConsumer.ProducerConsumerItem;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.util.TestingLog;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the producer-consumer executor running on executor services.
+ */
+@Test
+public class ProducerConsumerExecutorTest {
+
+    public void testSuppliedExecutorService() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(5);
+        try {
+            // The executor service is reused by consecutive runs
+            for (int run = 0; run < 3; run++) {
+                AtomicInteger consumed = new AtomicInteger();
+                ProducerConsumerExecutor executor = new ProducerConsumerExecutor(new TestingLog(),
+                        new ProducerRunnableBase[]{new TestProducer(10_000), new TestProducer(10_000)},
+                        new ConsumerRunnableBase[]{new TestConsumer(consumed, -1), new TestConsumer(consumed, -1), new TestConsumer(consumed, -1)},
+                        10, executorService);
+                executor.start(60, TimeUnit.SECONDS);
+                assertEquals(consumed.get(), 20_000);
+                assertEquals(executor.getQueueDepth(), 1, "Only the terminate item should remain in the queue");
+                assertTrue(executor.getErrors().isEmpty());
+            }
+            assertFalse(executorService.isShutdown());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    public void testErrors() {
+        AtomicInteger consumed = new AtomicInteger();
+        ProducerConsumerExecutor executor = new ProducerConsumerExecutor(new TestingLog(),
+                new ProducerRunnableBase[]{new TestProducer(1_000_000)},
+                new ConsumerRunnableBase[]{new TestConsumer(consumed, 100), new TestConsumer(consumed, 100)}, 10);
+        Exception exception = expectThrows(Exception.class, executor::start);
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+        assertFalse(executor.getErrors().isEmpty());
+        assertEquals(exception.getSuppressed().length, executor.getErrors().size() - 1);
+        assertTrue(consumed.get() < 1_000_000);
+    }
+
+    public void testRestartAfterError() throws Exception {
+        AtomicInteger consumed = new AtomicInteger();
+        TestConsumer consumer = new TestConsumer(consumed, 100);
+        ProducerConsumerExecutor executor = new ProducerConsumerExecutor(new TestingLog(),
+                new ProducerRunnableBase[]{new TestProducer(1_000)}, new ConsumerRunnableBase[]{consumer}, 10);
+        expectThrows(Exception.class, executor::start);
+
+        // The errors of the first run don't fail the second one
+        consumer.failingValue = -1;
+        consumed.set(0);
+        executor.start();
+        assertEquals(consumed.get(), 1_000);
+        assertTrue(executor.getErrors().isEmpty());
+    }
+
+    public void testErrorWaitsForRunningConsumers() throws InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            SlowStoppingConsumer slowConsumer = new SlowStoppingConsumer();
+            ProducerConsumerExecutor executor = new ProducerConsumerExecutor(new TestingLog(),
+                    new ProducerRunnableBase[]{new TestProducer(10)},
+                    new ConsumerRunnableBase[]{slowConsumer, new TestConsumer(new AtomicInteger(), 0)}, 10, executorService);
+            expectThrows(Exception.class, executor::start);
+            assertTrue(slowConsumer.stopped.get(), "The executor returned before its cancelled consumer ended");
+        } finally {
+            executorService.shutdownNow();
+            assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    public void testTimeout() {
+        ProducerConsumerExecutor executor = new ProducerConsumerExecutor(new TestingLog(),
+                new ProducerRunnableBase[]{new TestProducer(Integer.MAX_VALUE)},
+                new ConsumerRunnableBase[]{new BlockedConsumer()}, 2);
+        expectThrows(TimeoutException.class, () -> executor.start(200, TimeUnit.MILLISECONDS));
+        assertEquals(executor.getRemainingCapacity(), 0);
+    }
+
+    public void testExecutorServiceTooSmall() {
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            expectThrows(IllegalArgumentException.class, () -> new ProducerConsumerExecutor(new TestingLog(),
+                    new ProducerRunnableBase[]{new TestProducer(1)},
+                    new ConsumerRunnableBase[]{new TestConsumer(new AtomicInteger(), -1), new TestConsumer(new AtomicInteger(), -1)},
+                    1, executorService));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static class TestItem implements ProducerConsumerItem {
+        private final int value;
+
+        private TestItem(int value) {
+            this.value = value;
+        }
+    }
+
+    private static class TestProducer extends ProducerRunnableBase {
+        private final int items;
+
+        private TestProducer(int items) {
+            this.items = items;
+        }
+
+        @Override
+        public void producerRun() throws InterruptedException {
+            for (int i = 0; i < items; i++) {
+                executor.put(new TestItem(i));
+            }
+        }
+    }
+
+    private static class TestConsumer extends ConsumerRunnableBase {
+        private ProducerConsumerExecutor executor;
+        private final AtomicInteger consumed;
+        private volatile int failingValue;
+
+        /**
+         * @param failingValue - The item value on which the consumer fails, or -1 to never fail
+         */
+        private TestConsumer(AtomicInteger consumed, int failingValue) {
+            this.consumed = consumed;
+            this.failingValue = failingValue;
+        }
+
+        @Override
+        public void consumerRun() {
+            while (!Thread.interrupted()) {
+                try {
+                    ProducerConsumerItem item = executor.take();
+                    if (item == executor.TERMINATE) {
+                        executor.put(item);
+                        break;
+                    }
+                    if (((TestItem) item).value == failingValue) {
+                        throw new IllegalStateException("Failed consuming item " + failingValue);
+                    }
+                    consumed.incrementAndGet();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void setExecutor(ProducerConsumerExecutor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void setLog(Log log) {
+        }
+    }
+
+    /**
+     * Blocks until interrupted, and then takes a while to stop.
+     */
+    private static class SlowStoppingConsumer extends ConsumerRunnableBase {
+        private final AtomicBoolean stopped = new AtomicBoolean();
+
+        @Override
+        public void consumerRun() {
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException interrupted) {
+                    // Interrupted again
+                }
+                stopped.set(true);
+            }
+        }
+
+        @Override
+        public void setExecutor(ProducerConsumerExecutor executor) {
+        }
+
+        @Override
+        public void setLog(Log log) {
+        }
+    }
+
+    private static class BlockedConsumer extends ConsumerRunnableBase {
+        @Override
+        public void consumerRun() {
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                // Cancelled
+            }
+        }
+
+        @Override
+        public void setExecutor(ProducerConsumerExecutor executor) {
+        }
+
+        @Override
+        public void setLog(Log log) {
+        }
+    }
+}
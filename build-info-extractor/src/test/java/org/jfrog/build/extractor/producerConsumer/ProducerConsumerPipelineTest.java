@@ -0,0 +1,236 @@
+package org.jfrog.build.extractor.producerConsumer;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.*;
+
+/**
+ * Stress tests of the producer-consumer pipeline.
+ */
+@Test
+public class ProducerConsumerPipelineTest {
+    private ExecutorService executorService;
+
+    @BeforeMethod
+    public void setUp() {
+        executorService = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDown() throws InterruptedException {
+        executorService.shutdownNow();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    public void testOrderWithSingleWorkers() throws Exception {
+        List<Integer> consumed = Collections.synchronizedList(new ArrayList<>());
+        ProducerConsumerPipeline pipeline = ProducerConsumerPipeline.<Integer>from(emitter -> {
+            for (int i = 0; i < 1000; i++) {
+                emitter.emit(i);
+            }
+        }).<Integer>stage("double", 1, 2, (item, emitter) -> emitter.emit(item * 2))
+                .consume("collect", 1, 2, consumed::add);
+
+        ProducerConsumerPipeline.Result result = pipeline.run(executorService, 0, TimeUnit.MILLISECONDS);
+        result.throwIfFailed("Pipeline failed");
+        assertEquals(consumed.size(), 1000);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals((int) consumed.get(i), i * 2);
+        }
+    }
+
+    public void testManyItemsMultipleStages() throws Exception {
+        int items = 100_000;
+        Set<Long> consumed = ConcurrentHashMap.newKeySet();
+        AtomicLong sum = new AtomicLong();
+        ProducerConsumerPipeline pipeline = ProducerConsumerPipeline.<Long>from(emitter -> {
+            for (long i = 0; i < items; i++) {
+                emitter.emit(i);
+            }
+        }).<Long>stage("increment", 4, 16, (item, emitter) -> emitter.emit(item + 1))
+                .<Long>stage("split", 3, 8, (item, emitter) -> {
+                    // Emit two items for each odd item
+                    emitter.emit(item);
+                    if (item % 2 == 1) {
+                        emitter.emit(-item);
+                    }
+                })
+                .consume("sum", 5, 4, item -> {
+                    assertTrue(consumed.add(item), "Duplicate item " + item);
+                    sum.addAndGet(item);
+                });
+
+        ProducerConsumerPipeline.Result result = pipeline.run(executorService, 60, TimeUnit.SECONDS);
+        result.throwIfFailed("Pipeline failed");
+        assertEquals(consumed.size(), items + items / 2);
+        // The negative items cancel out the odd items, so the sum is of the even items between 1 and 'items'
+        assertEquals(sum.get(), (long) items / 2 * (items / 2 + 1));
+        assertEquals(result.getStageStatistics().size(), 3);
+        assertEquals(result.getStageStatistics().get(0).getProcessed(), items);
+        assertEquals(result.getStageStatistics().get(2).getProcessed(), items + items / 2);
+    }
+
+    public void testItemFailuresCollected() throws Exception {
+        AtomicInteger consumed = new AtomicInteger();
+        ProducerConsumerPipeline pipeline = ProducerConsumerPipeline.<Integer>from(emitter -> {
+            for (int i = 0; i < 100; i++) {
+                emitter.emit(i);
+            }
+        }).consume("consume", 4, 10, item -> {
+            if (item % 10 == 0) {
+                throw new IllegalStateException("Bad item " + item);
+            }
+            consumed.incrementAndGet();
+        });
+
+        ProducerConsumerPipeline.Result result = pipeline.run(executorService, 0, TimeUnit.MILLISECONDS);
+        assertFalse(result.isSuccessful());
+        assertFalse(result.isCancelled());
+        assertNull(result.getFatalError());
+        assertEquals(consumed.get(), 90);
+        assertEquals(result.getFailures().size(), 10);
+        for (ProducerConsumerPipeline.ItemFailure failure : result.getFailures()) {
+            assertEquals(failure.getStage(), "consume");
+            assertEquals((int) failure.getItem() % 10, 0);
+            assertTrue(failure.getError() instanceof IllegalStateException);
+        }
+        assertEquals(result.getStageStatistics().get(0).getFailed(), 10);
+
+        Exception exception = expectThrows(Exception.class, () -> result.throwIfFailed("Pipeline failed"));
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+        assertEquals(exception.getSuppressed().length, 9);
+    }
+
+    public void testFailFast() throws Exception {
+        AtomicInteger consumed = new AtomicInteger();
+        ProducerConsumerPipeline pipeline = ProducerConsumerPipeline.<Integer>from(emitter -> {
+            for (int i = 0; i < 1_000_000; i++) {
+                emitter.emit(i);
+            }
+        }).failFast().consume("consume", 2, 10, item -> {
+            if (item == 100) {
+                throw new IllegalStateException("Bad item");
+            }
+            consumed.incrementAndGet();
+        });
+
+        ProducerConsumerPipeline.Result result = pipeline.run(executorService, 60, TimeUnit.SECONDS);
+        assertTrue(result.isCancelled());
+        assertFalse(result.isTimedOut());
+        assertTrue(result.getFatalError() instanceof IllegalStateException);
+        assertTrue(consumed.get() < 1_000_000);
+    }
+
+    public void testProducerFailure() throws Exception {
+        ProducerConsumerPipeline pipeline = ProducerConsumerPipeline.<Integer>from(emitter -> {
+            emitter.emit(1);
+            throw new IllegalStateException("Producer failed");
+        }).consume("consume", 2, 10, item -> {
+        });
+
+        ProducerConsumerPipeline.Result result = pipeline.run(executorService, 60, TimeUnit.SECONDS);
+        assertFalse(result.isSuccessful());
+        assertTrue(result.isCancelled());
+        assertTrue(result.getFatalError() instanceof IllegalStateException);
+        assertNull(result.getFailures().get(0).getItem());
+    }
+
+    public void testDeadline() throws Exception {
+        CountDownLatch never = new CountDownLatch(1);
+        ProducerConsumerPipeline pipeline = ProducerConsumerPipeline.<Integer>from(emitter -> {
+            for (int i = 0; i < 100; i++) {
+                emitter.emit(i);
+            }
+        }).consume("blocked", 2, 1, item -> never.await());
+
+        ProducerConsumerPipeline.Result result = pipeline.run(executorService, 200, TimeUnit.MILLISECONDS);
+        assertTrue(result.isTimedOut());
+        assertTrue(result.isCancelled());
+        assertFalse(result.isSuccessful());
+        expectThrows(TimeoutException.class, () -> result.throwIfFailed("Pipeline failed"));
+    }
+
+    public void testCancelWaitsForRunningWorkers() throws Exception {
+        CountDownLatch blockedStarted = new CountDownLatch(1);
+        AtomicBoolean blockedStopped = new AtomicBoolean();
+        ProducerConsumerPipeline pipeline = ProducerConsumerPipeline.<Integer>from(emitter -> {
+            emitter.emit(0);
+            emitter.emit(1);
+        }).failFast().consume("consume", 2, 2, item -> {
+            if (item == 0) {
+                blockedStarted.await();
+                throw new IllegalStateException("Failed consuming item 0");
+            }
+            blockedStarted.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                // Release the resources of the worker slowly
+                Thread.sleep(200);
+                blockedStopped.set(true);
+                throw e;
+            }
+        });
+
+        ProducerConsumerPipeline.Result result = pipeline.run(executorService, 0, TimeUnit.MILLISECONDS);
+        assertTrue(result.isCancelled());
+        assertTrue(blockedStopped.get(), "The pipeline ended before its cancelled worker");
+    }
+
+    public void testQueueDepthBounded() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ProducerConsumerPipeline pipeline = ProducerConsumerPipeline.<Integer>from(emitter -> {
+            for (int i = 0; i < 1000; i++) {
+                emitter.emit(i);
+            }
+        }).consume("slow", 1, 5, item -> release.await());
+        ExecutorService runner = Executors.newSingleThreadExecutor();
+        Future<ProducerConsumerPipeline.Result> run = runner.submit(() -> pipeline.run(executorService, 60, TimeUnit.SECONDS));
+        runner.shutdown();
+
+        // Wait for the queue to fill up while the consumer is blocked
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (pipeline.getQueueDepths().getOrDefault("slow", 0) < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        assertEquals((int) pipeline.getQueueDepths().get("slow"), 5);
+        release.countDown();
+
+        ProducerConsumerPipeline.Result result = run.get(60, TimeUnit.SECONDS);
+        result.throwIfFailed("Pipeline failed");
+        assertEquals(result.getStageStatistics().get(0).getProcessed(), 1000);
+        assertTrue(result.getStageStatistics().get(0).getMaxQueueDepth() <= 5);
+    }
+
+    public void testExecutorTooSmall() {
+        ThreadPoolExecutor smallExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(3);
+        try {
+            ProducerConsumerPipeline pipeline = ProducerConsumerPipeline.<Integer>from(emitter -> emitter.emit(1))
+                    .consume("consume", 3, 1, item -> {
+                    });
+            expectThrows(IllegalArgumentException.class, () -> pipeline.run(smallExecutor, 0, TimeUnit.MILLISECONDS));
+        } finally {
+            smallExecutor.shutdownNow();
+        }
+    }
+
+    public void testRunOnce() throws Exception {
+        ProducerConsumerPipeline pipeline = ProducerConsumerPipeline.<Integer>from(emitter -> emitter.emit(1))
+                .consume("consume", 1, 1, item -> {
+                });
+        pipeline.run(executorService, 0, TimeUnit.MILLISECONDS).throwIfFailed("Pipeline failed");
+        expectThrows(IllegalStateException.class, () -> pipeline.run(executorService, 0, TimeUnit.MILLISECONDS));
+    }
+}